@@ -0,0 +1,93 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ChatBodyDeltaEncoder tracks the body last sent to the chat webview per tab so
+ * that streaming chat prompt updates only carry the text appended since the
+ * previous update. The message body of a chat answer only ever grows while it
+ * is streamed in, so re-posting it in full turns a long answer into a quadratic
+ * amount of data pushed across the browser bridge.
+ *
+ * Encoded updates replace the "body" field of the params with a "bodyDelta"
+ * object holding the offset of the appended text and the text itself. The
+ * webview shim injected by ChatWebViewAssetProvider keeps the same per tab
+ * state and rebuilds the full body before the message reaches the chat UI.
+ * Both sides must observe every chat prompt message in the same order. A message
+ * lost on the way leaves the shim with a different body, it then drops the delta
+ * and asks for a resync, which makes the next update of the tab go out in full.
+ * The final result of an answer is never encoded, so it always arrives intact.
+ */
+public final class ChatBodyDeltaEncoder {
+
+    /*
+     * Bodies below this length are cheap enough to resend in full.
+     */
+    static final int MINIMUM_BASE_LENGTH = 512;
+
+    static final String BODY_KEY = "body";
+    static final String BODY_DELTA_KEY = "bodyDelta";
+    static final String MESSAGE_ID_KEY = "messageId";
+    static final String OFFSET_KEY = "offset";
+    static final String TEXT_KEY = "text";
+
+    private final Map<String, SentBody> lastSentBodies = new ConcurrentHashMap<>();
+
+    /*
+     * Returns the params to send for a chat prompt message on the given tab. If
+     * the message is a partial result whose body extends the body last sent for
+     * the same message only the appended text is included, otherwise the params
+     * are returned unchanged.
+     */
+    public Object encode(final String tabId, final Object params, final boolean isPartialResult) {
+        if (tabId == null) {
+            return params;
+        }
+        if (!isPartialResult) {
+            lastSentBodies.remove(tabId);
+            return params;
+        }
+        if (!(params instanceof Map<?, ?> paramsMap) || !(paramsMap.get(BODY_KEY) instanceof String body)) {
+            lastSentBodies.remove(tabId);
+            return params;
+        }
+
+        Object messageId = paramsMap.get(MESSAGE_ID_KEY);
+        SentBody previous = lastSentBodies.put(tabId, new SentBody(messageId, body));
+        if (previous == null || !Objects.equals(previous.messageId(), messageId)
+                || previous.body().length() < MINIMUM_BASE_LENGTH || !body.startsWith(previous.body())) {
+            return params;
+        }
+
+        Map<Object, Object> deltaParams = new LinkedHashMap<>(paramsMap);
+        deltaParams.remove(BODY_KEY);
+        deltaParams.put(BODY_DELTA_KEY, Map.of(
+                OFFSET_KEY, previous.body().length(),
+                TEXT_KEY, body.substring(previous.body().length())));
+        return deltaParams;
+    }
+
+    public void removeTab(final String tabId) {
+        if (tabId != null) {
+            lastSentBodies.remove(tabId);
+        }
+    }
+
+    /*
+     * Forgets every tracked body. Must be called whenever the webview is
+     * (re)loaded as the shim starts over without any state.
+     */
+    public void reset() {
+        lastSentBodies.clear();
+    }
+
+    private record SentBody(Object messageId, String body) {
+    }
+
+}
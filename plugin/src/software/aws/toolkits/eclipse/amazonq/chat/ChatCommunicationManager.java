@@ -9,12 +9,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.eclipse.core.resources.IProject;
@@ -32,7 +31,6 @@ import org.eclipse.swt.widgets.Display;
 import com.google.gson.JsonObject;
 
 import software.aws.toolkits.eclipse.amazonq.broker.api.EventObserver;
-import software.aws.toolkits.eclipse.amazonq.chat.models.ButtonClickResult;
 import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommand;
 import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommandName;
 import software.aws.toolkits.eclipse.amazonq.chat.models.CursorState;
@@ -41,14 +39,17 @@ import software.aws.toolkits.eclipse.amazonq.chat.models.EncryptedQuickActionPar
 import software.aws.toolkits.eclipse.amazonq.chat.models.ErrorParams;
 import software.aws.toolkits.eclipse.amazonq.chat.models.ReferenceTrackerInformation;
 import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
+import software.aws.toolkits.eclipse.amazonq.lsp.editor.OpenEditorRegistry;
 import software.aws.toolkits.eclipse.amazonq.lsp.encryption.DefaultLspEncryptionManager;
 import software.aws.toolkits.eclipse.amazonq.lsp.encryption.LspEncryptionManager;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.telemetry.StartupTracer;
 import software.aws.toolkits.eclipse.amazonq.util.JsonHandler;
 import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
 import software.aws.toolkits.eclipse.amazonq.util.ProgressNotificationUtils;
 import software.aws.toolkits.eclipse.amazonq.util.QEclipseEditorUtils;
 import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
 import software.aws.toolkits.eclipse.amazonq.views.ChatUiRequestListener;
 import software.aws.toolkits.eclipse.amazonq.views.model.ChatCodeReference;
 import software.aws.toolkits.eclipse.amazonq.views.model.Command;
@@ -67,14 +68,15 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     private final ChatPartialResultMap chatPartialResultMap;
     private final LspEncryptionManager lspEncryptionManager;
 
-    private final BlockingQueue<ChatUIInboundCommand> commandQueue;
+    private final ChatUiCommandDispatcher commandDispatcher;
 
-    private final Map<String, Long> lastProcessedTimeMap = new ConcurrentHashMap<>();
+    private final ChatPartialResultCoalescer partialResultCoalescer;
+    private final ChatBodyDeltaEncoder bodyDeltaEncoder;
+    private final ChatRequestTracker requestTracker;
+    private final ContextCommandFilter contextCommandFilter;
 
     private static final int MINIMUM_PARTIAL_RESPONSE_LENGTH = 50;
-    private static final int MIN_DELAY_BETWEEN_PARTIALS = 250;
-    private static final int MAX_DELAY_BETWEEN_PARTIALS = 1500;
-    private static final int CHAR_COUNT_FOR_MAX_DELAY = 5000;
+    private static final String CONTEXT_COMMANDS_UPDATE = "aws/chat/sendContextCommands";
 
     private final ConcurrentHashMap<String, Object> partialResultLocks = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Boolean> finalResultProcessed = new ConcurrentHashMap<>();
@@ -83,10 +85,6 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     private CompletableFuture<ChatUiRequestListener> inlineChatListenerFuture;
     private Map<String, CompletableFuture<String>> inflightRequestByTabId = new ConcurrentHashMap<String, CompletableFuture<String>>();
 
-    private volatile boolean isChatReady = false;
-    private volatile boolean isQueueProcessorRunning = false;
-    private volatile Thread queueProcessorThread;
-
     private final String inlineChatTabId = "123456789";
 
     private ChatCommunicationManager(final Builder builder) {
@@ -97,7 +95,13 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                 : DefaultLspEncryptionManager.getInstance();
         chatUiRequestListenerFuture = new CompletableFuture<>();
         inlineChatListenerFuture = new CompletableFuture<>();
-        commandQueue = new LinkedBlockingQueue<>();
+        commandDispatcher = new ChatUiCommandDispatcher(this::sendMessageToChatUI, ThreadingUtils.getExecutor(Subsystem.UI_MARSHALLING),
+                ChatUiCommandDispatcher.DEFAULT_CAPACITY);
+        partialResultCoalescer = new ChatPartialResultCoalescer(this::decodePartialResult, this::renderPartialResult);
+        bodyDeltaEncoder = new ChatBodyDeltaEncoder();
+        requestTracker = new ChatRequestTracker();
+        contextCommandFilter = new ContextCommandFilter(result -> Activator.getEventBroker().post(ChatUIInboundCommand.class,
+                ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.FilterContextCommands.getValue(), result)));
         Activator.getEventBroker().subscribe(ChatUIInboundCommand.class, this);
     }
 
@@ -120,11 +124,6 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     public void sendMessageToChatServer(final Command command, final ChatMessage message) {
         Activator.getLspProvider().getAmazonQServer().thenAcceptAsync(amazonQLspServer -> {
             try {
-                if (isQueueProcessorRunning && (queueProcessorThread != null && !queueProcessorThread.isAlive())) {
-                    isQueueProcessorRunning = false;
-                    startCommandQueueProcessor();
-                }
-
                 switch (command) {
                     case CHAT_SEND_PROMPT:
                         message.addValueForKey("context", message.getValueForKey("prompt.context"));
@@ -153,14 +152,18 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                         });
                         break;
                     case CHAT_READY:
-                        isChatReady = true;
+                        StartupTracer.getInstance().mark(StartupTracer.CHAT_READY);
+                        commandDispatcher.markReady();
                         amazonQLspServer.chatReady();
                         break;
                     case CHAT_TAB_ADD:
                         amazonQLspServer.tabAdd(message.getData());
                         break;
                     case CHAT_TAB_REMOVE:
-                        lastProcessedTimeMap.remove(message.getValueAsString("tabId"));
+                        partialResultCoalescer.discardTab(message.getValueAsString("tabId"));
+                        bodyDeltaEncoder.removeTab(message.getValueAsString("tabId"));
+                        requestTracker.cancelTab(message.getValueAsString("tabId"));
+                        contextCommandFilter.cancelTab(message.getValueAsString("tabId"));
                         amazonQLspServer.tabRemove(message.getData());
                         break;
                     case CHAT_TAB_CHANGE:
@@ -199,104 +202,50 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                         amazonQLspServer.sendTelemetryEvent(message.getData());
                         break;
                     case LIST_CONVERSATIONS:
-                        try {
-                            Object response = amazonQLspServer.listConversations(message.getData()).get();
-                            var listConversationsCommand = ChatUIInboundCommand.createCommand("aws/chat/listConversations",
-                                    response);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, listConversationsCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing listConversations: " + e);
-                        }
+                        forwardResponseToChatUi(message, "aws/chat/listConversations", amazonQLspServer.listConversations(message.getData()));
                         break;
                     case CONVERSATION_CLICK:
-                        try {
-                            Object response = amazonQLspServer.conversationClick(message.getData()).get();
-                            var conversationClickCommand = ChatUIInboundCommand.createCommand("aws/chat/conversationClick",
-                                    response);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, conversationClickCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing conversationClick: " + e);
-                        }
+                        forwardResponseToChatUi(message, "aws/chat/conversationClick", amazonQLspServer.conversationClick(message.getData()));
                         break;
                     case CREATE_PROMPT:
                         amazonQLspServer.createPrompt(message.getData());
                         break;
                     case TAB_BAR_ACTION:
-                        try {
-                            Object response = amazonQLspServer.tabBarAction(message.getData()).get();
-                            var tabBarActionsCommand = ChatUIInboundCommand.createCommand("aws/chat/tabBarAction",
-                                    response);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, tabBarActionsCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing tabBarActions: " + e);
-                        }
+                        forwardResponseToChatUi(message, "aws/chat/tabBarAction", amazonQLspServer.tabBarAction(message.getData()));
                         break;
                     case BUTTON_CLICK:
                         String tabId = message.getValueAsString("tabId");
-                        ButtonClickResult response = amazonQLspServer.buttonClick(message.getData()).get();
-                        if (!response.success()) {
-                            sendErrorToUi(tabId, new Throwable(response.failureReason()));
-                        }
+                        // button clicks start agent actions such as running commands, which may take as long as they need
+                        sendRequest(tabId, "buttonClick", amazonQLspServer.buttonClick(message.getData()), ChatRequestTracker.NO_TIMEOUT,
+                                response -> {
+                                    if (!response.success()) {
+                                        sendErrorToUi(tabId, new Throwable(response.failureReason()));
+                                    }
+                                });
                         break;
                     case LIST_MCP_SERVERS:
-                        try {
-                            Object mcpServersResponse = amazonQLspServer.listMcpServers(message.getData()).get();
-                            var listMcpServersCommand = ChatUIInboundCommand.createCommand("aws/chat/listMcpServers",
-                                    mcpServersResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, listMcpServersCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing listMcpServers: " + e);
-                        }
+                        forwardResponseToChatUi(message, ChatUIInboundCommandName.ListMcpServers.getValue(),
+                                amazonQLspServer.listMcpServers(message.getData()));
                         break;
                     case MCP_SERVER_CLICK:
-                        try {
-                            Object mcpServerClickResponse = amazonQLspServer.mcpServerClick(message.getData()).get();
-                            var mcpServerClickCommand = ChatUIInboundCommand.createCommand("aws/chat/mcpServerClick",
-                                    mcpServerClickResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, mcpServerClickCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing mcpServerClick: " + e);
-                        }
+                        forwardResponseToChatUi(message, ChatUIInboundCommandName.McpServerClick.getValue(),
+                                amazonQLspServer.mcpServerClick(message.getData()));
                         break;
                     case LIST_RULES:
-                        try {
-                            Object listRulesResponse = amazonQLspServer.listRules(message.getData()).get();
-                            var listRulesCommand = ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.ListRules.getValue(),
-                                    listRulesResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, listRulesCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing listRules: " + e);
-                        }
+                        forwardResponseToChatUi(message, ChatUIInboundCommandName.ListRules.getValue(), amazonQLspServer.listRules(message.getData()));
                         break;
                     case RULE_CLICK:
-                        try {
-                            Object ruleClickResponse = amazonQLspServer.ruleClick(message.getData()).get();
-                            var ruleClickCommand = ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.RuleClick.getValue(),
-                                    ruleClickResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, ruleClickCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing ruleClick: " + e);
-                        }
+                        forwardResponseToChatUi(message, ChatUIInboundCommandName.RuleClick.getValue(), amazonQLspServer.ruleClick(message.getData()));
                         break;
                     case LIST_AVAILABLE_MODELS:
-                        try {
-                            Object listModelsResponse = amazonQLspServer.listAvailableModels(message.getData()).get();
-                            var listModelsCommand = ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.ListAvailableModels.getValue(),
-                                    listModelsResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, listModelsCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing listAvailableModels: " + e);
-                        }
+                        forwardResponseToChatUi(message, ChatUIInboundCommandName.ListAvailableModels.getValue(),
+                                amazonQLspServer.listAvailableModels(message.getData()));
                         break;
                     case FILTER_CONTEXT_COMMANDS:
-                        try {
-                            Object filterResponse = amazonQLspServer.filterContextCommands(message.getData()).get();
-                            var filterCommand = ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.FilterContextCommands.getValue(),
-                                    filterResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, filterCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing filterContextCommands: " + e);
-                        }
+                        String filterTabId = message.getValueAsString("tabId");
+                        contextCommandFilter.filter(filterTabId, message.getValueAsString("filterText"),
+                                () -> requestTracker.track(filterTabId, amazonQLspServer.filterContextCommands(message.getData()),
+                                        ChatRequestTracker.DEFAULT_TIMEOUT_MS));
                         break;
                     case PINNED_CONTEXT_ADD:
                         amazonQLspServer.pinnedContextAdd(message.getData());
@@ -310,12 +259,42 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
             } catch (Exception e) {
                 throw new AmazonQPluginException("Error occurred when sending message to server", e);
             }
-        }, ThreadingUtils.getWorkerPool()).exceptionally(throwable -> {
+        }, ThreadingUtils.getExecutor(Subsystem.CHAT_IO)).exceptionally(throwable -> {
             Activator.getLogger().error("Failed to process message: " + throwable.getMessage());
             return null;
         });
     }
 
+    /*
+     * Sends a request to the language server without blocking and posts its
+     * response to the Chat UI under the given command name once it arrives.
+     */
+    private <T> void forwardResponseToChatUi(final ChatMessage message, final String commandName, final CompletableFuture<T> request) {
+        sendRequest(message.getValueAsString("tabId"), commandName, request, ChatRequestTracker.DEFAULT_TIMEOUT_MS, response -> {
+            var inboundCommand = ChatUIInboundCommand.createCommand(commandName, response);
+            Activator.getEventBroker().post(ChatUIInboundCommand.class, inboundCommand);
+        });
+    }
+
+    /*
+     * Tracks a request issued on behalf of the Chat UI and hands its response to
+     * the given consumer on the chat executor. New request/response commands should
+     * go through here rather than blocking on the returned future.
+     */
+    private <T> void sendRequest(final String tabId, final String requestName, final CompletableFuture<T> request,
+            final long timeoutMs, final Consumer<T> onResponse) {
+        requestTracker.track(tabId, request, timeoutMs)
+                .thenAcceptAsync(onResponse, ThreadingUtils.getExecutor(Subsystem.CHAT_IO))
+                .exceptionally(throwable -> {
+                    if (ChatRequestTracker.isCancellation(throwable)) {
+                        Activator.getLogger().info("Request " + requestName + " was cancelled for tab: " + tabId);
+                    } else {
+                        Activator.getLogger().error("Error processing " + requestName + ": " + throwable);
+                    }
+                    return null;
+                });
+    }
+
     public void sendInlineChatMessageToChatServer(final ChatMessage chatMessage) {
         Activator.getLspProvider().getAmazonQServer().thenAcceptAsync(amazonQLspServer -> {
             try {
@@ -339,6 +318,10 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     }
 
     protected Optional<String> getOpenFileUri() {
+        OpenEditorRegistry registry = OpenEditorRegistry.getInstance();
+        if (registry.isAttached()) {
+            return registry.getActiveTextEditorUri();
+        }
         AtomicReference<Optional<String>> fileUri = new AtomicReference<Optional<String>>();
         Display.getDefault().syncExec(new Runnable() {
             @Override
@@ -433,7 +416,7 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                         manager.removeRequestId(partialResultToken);
                         partialResultLocks.remove(partialResultToken);
                         finalResultProcessed.remove(partialResultToken);
-                        lastProcessedTimeMap.remove(tabId);
+                        partialResultCoalescer.discard(partialResultToken);
                     }
                     return null;
                 }
@@ -445,7 +428,6 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                 removePartialChatMessage(partialResultToken);
                 partialResultLocks.remove(partialResultToken);
                 finalResultProcessed.remove(partialResultToken);
-                lastProcessedTimeMap.remove(tabId);
                 return null;
             }
 
@@ -491,7 +473,7 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     // Workaround to properly report cancellation event to chatUI
     private CompletableFuture<Void> handleCancellation(final String tabId) {
         Activator.getLogger().info("Chat request was cancelled for tab: " + tabId);
-        lastProcessedTimeMap.remove(tabId);
+        partialResultCoalescer.discardTab(tabId);
 
         var errorParams = new ErrorParams(tabId, null, "", "");
         ChatUIInboundCommand inbound = new ChatUIInboundCommand(
@@ -563,14 +545,28 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     }
 
     public void activate() {
-        startCommandQueueProcessor();
+        // the webview was (re)loaded, so its delta shim starts without any prior body
+        bodyDeltaEncoder.reset();
+    }
+
+    /*
+     * Called when the webview dropped a body delta it could not apply, the next
+     * chat prompt update of the tab is sent in full.
+     */
+    public void resyncChatBody(final String tabId) {
+        synchronized (bodyDeltaEncoder) {
+            bodyDeltaEncoder.removeTab(tabId);
+        }
     }
 
     /*
      * Handles chat progress notifications from the Amazon Q LSP server. - Process
      * partial results for Chat messages if provided token is maintained by
      * ChatCommunicationManager - Other notifications are ignored at this time. -
-     * Sends a partial chat prompt message to the webview.
+     * Queues the still encrypted partial result per token. Partials are decoded
+     * on a worker, plain body updates are coalesced until their frame is due and
+     * anything else is rendered right away, so this is cheap enough to run on the
+     * thread delivering the notification.
      */
     public void handlePartialResultProgressNotification(final ProgressParams params) {
         String token = ProgressNotificationUtils.getToken(params);
@@ -585,12 +581,28 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                     "Error handling partial result notification: expected value of type Object");
         }
 
+        // the final result has already been rendered, anything still streaming in is stale
+        if (Boolean.TRUE.equals(finalResultProcessed.get(token))) {
+            return;
+        }
+
         String encryptedPartialChatResult = ProgressNotificationUtils.getObject(params, String.class);
+        partialResultCoalescer.offer(token, tabId, encryptedPartialChatResult);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> decodePartialResult(final String encryptedPartialChatResult) {
         String serializedData = lspEncryptionManager.decrypt(encryptedPartialChatResult);
-        Map<String, Object> partialChatResult = jsonHandler.deserialize(serializedData, Map.class);
+        return jsonHandler.deserialize(serializedData, Map.class);
+    }
 
-        if (partialChatResult == null) {
-            return;
+    /*
+     * Sends a decoded partial result for a token to the chat UI. Returns the
+     * length of the rendered body, or -1 if nothing was rendered.
+     */
+    private int renderPartialResult(final String token, final String tabId, final Map<String, Object> partialChatResult) {
+        if (partialResultLocks.get(token) == null || Boolean.TRUE.equals(finalResultProcessed.get(token))) {
+            return -1;
         }
 
         String command = inlineChatTabId.equals(tabId)
@@ -608,7 +620,7 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                     sendMessageToChatUI(new ChatUIInboundCommand(command, tabId, partialChatResult, true, null));
                     finalResultProcessed.put(token, true);
                     ChatAsyncResultManager.getInstance().setResult(token, partialChatResult);
-                    return;
+                    return 0;
                 }
             }
         }
@@ -616,73 +628,53 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
         // normal partial processing
         Object lock = partialResultLocks.get(token);
         if (lock == null) {
-            return;
+            return -1;
         }
 
         synchronized (lock) {
             if (partialResultLocks.get(token) == null || Boolean.TRUE.equals(finalResultProcessed.get(token))) {
-                return;
+                return -1;
             }
 
             Object body = partialChatResult.get("body");
             boolean hasAdditionalMessages = (additionalMessages != null && !additionalMessages.isEmpty());
-            long currentTime = System.currentTimeMillis();
-
-            // rate limit by discarding messages that have arrived too soon since the last was fired
-            if (!hasAdditionalMessages && body instanceof String) {
-                Long lastProcessedTime = lastProcessedTimeMap.get(tabId);
-                if (lastProcessedTime != null) {
-                    int currentDelay = calculateDelay((String) body);
-                    if ((currentTime - lastProcessedTime) < currentDelay) {
-                        return;
-                    }
-                }
-            }
 
             boolean insufficientContent = (body == null
                     || (body instanceof String && ((String) body).length() < MINIMUM_PARTIAL_RESPONSE_LENGTH));
             if (insufficientContent && !hasAdditionalMessages) {
-                return;
+                return -1;
             }
 
-            // send partial response to UI if not cancelled in the interim
-            if (Boolean.FALSE.equals(finalResultProcessed.get(token))) {
-                sendMessageToChatUI(new ChatUIInboundCommand(command, tabId, partialChatResult, true, null));
-                // only update timestamp for rate-limited messages (string body without additional messages)
-                if (!hasAdditionalMessages && body instanceof String) {
-                    lastProcessedTimeMap.put(tabId, currentTime);
-                }
-            }
+            sendMessageToChatUI(new ChatUIInboundCommand(command, tabId, partialChatResult, true, null));
+            // only string bodies without additional messages stretch the render window
+            return (!hasAdditionalMessages && body instanceof String) ? ((String) body).length() : 0;
         }
     }
 
-    private int calculateDelay(final String bodyString) {
-        if (bodyString == null || bodyString.isEmpty()) {
-            return MIN_DELAY_BETWEEN_PARTIALS;
-        }
-        int length = bodyString.length();
-        double ratio = Math.min(1.0, (double) length / CHAR_COUNT_FOR_MAX_DELAY);
-        int delay = (int) (MIN_DELAY_BETWEEN_PARTIALS + (MAX_DELAY_BETWEEN_PARTIALS - MIN_DELAY_BETWEEN_PARTIALS) * ratio);
-        return delay;
-    }
-
     @Override
     public void onEvent(final ChatUIInboundCommand command) {
-        commandQueue.add(command);
+        if (CONTEXT_COMMANDS_UPDATE.equals(command.command())) {
+            // the set of context commands changed, previously filtered results are stale
+            contextCommandFilter.invalidate();
+        }
+        commandDispatcher.enqueue(command);
     }
 
     /*
      * Sends message to Chat UI to show in webview
      */
     private void sendMessageToChatUI(final ChatUIInboundCommand command) {
-        String message = jsonHandler.serialize(command);
         String inlineChatCommand = ChatUIInboundCommandName.InlineChatPrompt.getValue();
         if (inlineChatCommand.equals(command.command())) {
+            String message = jsonHandler.serialize(command);
             inlineChatListenerFuture.thenApply(listener -> {
                 listener.onSendToChatUi(message);
                 return listener;
             });
+        } else if (ChatUIInboundCommandName.ChatPrompt.getValue().equals(command.command())) {
+            sendChatPromptToChatUI(command);
         } else {
+            String message = jsonHandler.serialize(command);
             chatUiRequestListenerFuture.thenApply(listener -> {
                 listener.onSendToChatUi(message);
                 return listener;
@@ -690,6 +682,34 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
         }
     }
 
+    /*
+     * Chat prompt answers are streamed into the webview, so only the text appended
+     * since the last update of the tab is sent across the browser bridge. Encoding
+     * and handing the message to the listener happen under one lock so the webview
+     * receives deltas in the order they were encoded. Until the listener is
+     * available queued messages are not guaranteed to be delivered in order, so
+     * they are always sent in full.
+     */
+    private void sendChatPromptToChatUI(final ChatUIInboundCommand command) {
+        synchronized (bodyDeltaEncoder) {
+            CompletableFuture<ChatUiRequestListener> listenerFuture = chatUiRequestListenerFuture;
+            if (!listenerFuture.isDone()) {
+                bodyDeltaEncoder.removeTab(command.tabId());
+                String message = jsonHandler.serialize(command);
+                listenerFuture.thenApply(listener -> {
+                    listener.onSendToChatUi(message);
+                    return listener;
+                });
+                return;
+            }
+
+            Object params = bodyDeltaEncoder.encode(command.tabId(), command.params(), Boolean.TRUE.equals(command.isPartialResult()));
+            String message = jsonHandler.serialize(params == command.params() ? command
+                    : new ChatUIInboundCommand(command.command(), command.tabId(), params, command.isPartialResult(), command.requestId()));
+            listenerFuture.join().onSendToChatUi(message);
+        }
+    }
+
     /*
      * Gets the partial chat message represented by the tabId using the provided
      * token.
@@ -711,43 +731,8 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
      * Removes an entry from the partialResultToken to ChatMessage's tabId map.
      */
     private void removePartialChatMessage(final String partialResultToken) {
-        String tabId = chatPartialResultMap.getValue(partialResultToken);
         chatPartialResultMap.removeEntry(partialResultToken);
-        if (tabId != null) {
-            lastProcessedTimeMap.remove(tabId);
-        }
-    }
-
-    private void startCommandQueueProcessor() {
-        if (isQueueProcessorRunning) {
-            return;
-        }
-        isQueueProcessorRunning = true;
-        ThreadingUtils.executeAsyncTask(() -> {
-            queueProcessorThread = Thread.currentThread();
-            while (isQueueProcessorRunning && !Thread.currentThread().isInterrupted()) {
-                try {
-                    if (!isChatReady) {
-                        Thread.sleep(100);
-                        continue;
-                    }
-                    ChatUIInboundCommand command = commandQueue.take();
-                    sendMessageToChatUI(command);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    isQueueProcessorRunning = false;
-                } catch (Exception e) {
-                    Activator.getLogger().error("Error processing command from queue", e);
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        isQueueProcessorRunning = false;
-                    }
-                }
-            }
-            isQueueProcessorRunning = false;
-        });
+        partialResultCoalescer.discard(partialResultToken);
     }
 
     public static final class Builder {
@@ -7,9 +7,16 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import software.aws.toolkits.eclipse.amazonq.util.JsonHandler;
 
+/**
+ * Wraps the params of a message exchanged with the chat UI. The params are
+ * converted to a tree at most once, on the first key access, and all lookups
+ * and updates operate on that tree. getData keeps returning the original
+ * params until the message is updated, after which it returns the tree.
+ */
 public final class ChatMessage {
     private final JsonHandler jsonHandler;
     private Object data;
+    private JsonNode tree;
 
     public ChatMessage(final Object data) {
         this.jsonHandler = new JsonHandler();
@@ -17,15 +24,16 @@ public final class ChatMessage {
     }
 
     public boolean hasKey(final String key) {
-        return jsonHandler.getValueForKey(data, key) != null;
+        return getValueForKey(key) != null;
     }
 
     public JsonNode getValueForKey(final String key) {
-        return jsonHandler.getValueForKey(data, key);
+        return jsonHandler.getValueForKey(getTree(), key);
     }
 
     public void addValueForKey(final String key, final Object obj) {
-        data = jsonHandler.addValueForKey(data, key, obj);
+        tree = jsonHandler.addValueForKey(getTree(), key, obj);
+        data = tree;
     }
 
     public Object getData() {
@@ -33,8 +41,15 @@ public final class ChatMessage {
     }
 
     public String getValueAsString(final String key) {
-        JsonNode node = jsonHandler.getValueForKey(data, key);
+        JsonNode node = getValueForKey(key);
         return node != null ? node.asText() : null;
     }
 
+    private JsonNode getTree() {
+        if (tree == null) {
+            tree = jsonHandler.toTree(data);
+        }
+        return tree;
+    }
+
 }
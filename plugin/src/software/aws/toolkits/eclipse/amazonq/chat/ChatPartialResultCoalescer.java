@@ -0,0 +1,267 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+/**
+ * ChatPartialResultCoalescer sits between the progress notifications received
+ * from the LSP server and the chat webview. Instead of dropping partial results
+ * that arrive while the webview is still within its render window, it keeps
+ * only the latest plain body update per token and renders it on the next frame
+ * boundary. Partial results that carry anything besides the body, such as
+ * additional messages or a stop marker, are never superseded or delayed: they
+ * are rendered as soon as they are decoded, in the order they arrived.
+ *
+ * Offering a partial result only queues the still encrypted payload, so it is
+ * safe to call directly from the LSP message dispatch thread. Decoding and
+ * rendering for a single token run on one worker at a time, in arrival order.
+ */
+public final class ChatPartialResultCoalescer {
+
+    /*
+     * Decrypts and deserializes a partial result, returns null if it cannot be
+     * used.
+     */
+    @FunctionalInterface
+    public interface PartialResultDecoder {
+        Map<String, Object> decode(String encryptedPartialResult);
+    }
+
+    /*
+     * Renders a partial result and returns the length of the rendered body, or a
+     * negative value if nothing was sent to the chat UI.
+     */
+    @FunctionalInterface
+    public interface PartialResultRenderer {
+        int render(String token, String tabId, Map<String, Object> partialResult);
+    }
+
+    static final long FRAME_INTERVAL_MS = 50;
+    static final int MIN_DELAY_BETWEEN_PARTIALS = 250;
+    static final int MAX_DELAY_BETWEEN_PARTIALS = 1500;
+    static final int CHAR_COUNT_FOR_MAX_DELAY = 5000;
+
+    /* Partial result fields that a later body update fully replaces. */
+    private static final Set<String> BODY_UPDATE_FIELDS = Set.of("body", "messageId", "type", "canBeVoted");
+
+    private final Map<String, PartialResultSlot> slots = new ConcurrentHashMap<>();
+    private final PartialResultDecoder decoder;
+    private final PartialResultRenderer renderer;
+
+    public ChatPartialResultCoalescer(final PartialResultDecoder decoder, final PartialResultRenderer renderer) {
+        this.decoder = decoder;
+        this.renderer = renderer;
+    }
+
+    /*
+     * Queues the partial result for the given token and schedules a drain if
+     * one is not already running.
+     */
+    public void offer(final String token, final String tabId, final String encryptedPartialResult) {
+        if (token == null || encryptedPartialResult == null) {
+            return;
+        }
+
+        PartialResultSlot slot = slots.computeIfAbsent(token, key -> new PartialResultSlot(tabId));
+        slot.incoming.add(encryptedPartialResult);
+        scheduleDrain(token, slot);
+    }
+
+    /*
+     * Drops any pending partial result for the token. Called once the final
+     * result has been received as it supersedes every partial result.
+     */
+    public void discard(final String token) {
+        if (token == null) {
+            return;
+        }
+        PartialResultSlot slot = slots.remove(token);
+        if (slot != null) {
+            slot.clear();
+            if (slot.superseded.get() > 0) {
+                Activator.getLogger().info(String.format("Coalesced chat partial results for tab %s: %d rendered, %d superseded",
+                        slot.tabId, slot.rendered.get(), slot.superseded.get()));
+            }
+        }
+    }
+
+    /*
+     * Drops pending partial results for every token associated with the tab.
+     */
+    public void discardTab(final String tabId) {
+        if (tabId == null) {
+            return;
+        }
+        slots.entrySet().removeIf(entry -> {
+            if (tabId.equals(entry.getValue().tabId)) {
+                entry.getValue().clear();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    boolean hasPending(final String token) {
+        PartialResultSlot slot = slots.get(token);
+        return slot != null && (!slot.incoming.isEmpty() || slot.latestBodyUpdate != null);
+    }
+
+    long getSupersededCount(final String token) {
+        PartialResultSlot slot = slots.get(token);
+        return slot != null ? slot.superseded.get() : 0;
+    }
+
+    /*
+     * A plain body update only changes the streamed body, which the next update
+     * repeats in full, so it may be superseded.
+     */
+    static boolean isBodyUpdate(final Map<String, Object> partialResult) {
+        for (Map.Entry<String, Object> field : partialResult.entrySet()) {
+            if (field.getValue() == null || BODY_UPDATE_FIELDS.contains(field.getKey())) {
+                continue;
+            }
+            if (field.getValue() instanceof List<?> list && list.isEmpty()) {
+                continue;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void scheduleDrain(final String token, final PartialResultSlot slot) {
+        if (!slot.isDraining.get()) {
+            ThreadingUtils.executeAsyncTask(Subsystem.CHAT_IO, () -> drain(token, slot));
+        }
+    }
+
+    private void drain(final String token, final PartialResultSlot slot) {
+        if (!slot.isDraining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            String encryptedPartialResult;
+            while ((encryptedPartialResult = slot.incoming.poll()) != null && slots.get(token) == slot) {
+                Map<String, Object> partialResult = decoder.decode(encryptedPartialResult);
+                if (partialResult == null) {
+                    continue;
+                }
+                if (slot.latestBodyUpdate != null) {
+                    slot.superseded.incrementAndGet();
+                }
+                if (isBodyUpdate(partialResult)) {
+                    slot.latestBodyUpdate = partialResult;
+                } else {
+                    slot.latestBodyUpdate = null;
+                    render(token, slot, partialResult);
+                }
+            }
+
+            if (slot.latestBodyUpdate != null && slots.get(token) == slot) {
+                long delay = calculateFlushDelay(slot, System.currentTimeMillis());
+                if (delay <= 0 || (slot.isTimerScheduled.compareAndSet(false, true) && !scheduleFlush(token, slot, delay))) {
+                    Map<String, Object> bodyUpdate = slot.latestBodyUpdate;
+                    slot.latestBodyUpdate = null;
+                    render(token, slot, bodyUpdate);
+                }
+            }
+        } catch (Exception e) {
+            Activator.getLogger().error("Error rendering chat partial result", e);
+        } finally {
+            slot.isDraining.set(false);
+        }
+
+        // a newer partial may have arrived, or the timer fired, while draining
+        if (slots.get(token) == slot && (!slot.incoming.isEmpty()
+                || (slot.latestBodyUpdate != null && !slot.isTimerScheduled.get()))) {
+            scheduleDrain(token, slot);
+        }
+    }
+
+    /*
+     * Returns false if the timer could not be scheduled, in which case the flag
+     * is cleared again so later body updates are not left waiting on a timer that
+     * never fires.
+     */
+    private boolean scheduleFlush(final String token, final PartialResultSlot slot, final long delay) {
+        try {
+            ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.CHAT_IO, () -> {
+                slot.isTimerScheduled.set(false);
+                drain(token, slot);
+            }, delay);
+            return true;
+        } catch (RuntimeException e) {
+            slot.isTimerScheduled.set(false);
+            Activator.getLogger().warn("Could not schedule chat partial result flush, rendering it immediately", e);
+            return false;
+        }
+    }
+
+    private void render(final String token, final PartialResultSlot slot, final Map<String, Object> partialResult) {
+        int renderedLength = renderer.render(token, slot.tabId, partialResult);
+        if (renderedLength >= 0) {
+            slot.lastRenderTime = System.currentTimeMillis();
+            slot.lastRenderedLength = renderedLength;
+            slot.rendered.incrementAndGet();
+        }
+    }
+
+    /*
+     * The render window grows with the size of the rendered body so the webview is
+     * not asked to re-render large markdown documents too frequently. The flush is
+     * aligned to the next frame boundary after the window has elapsed.
+     */
+    static long calculateFlushDelay(final PartialResultSlot slot, final long now) {
+        if (slot.lastRenderTime == 0) {
+            return 0;
+        }
+        long dueTime = slot.lastRenderTime + calculateDelay(slot.lastRenderedLength);
+        long remaining = dueTime - now;
+        if (remaining <= 0) {
+            return 0;
+        }
+        return ((remaining + FRAME_INTERVAL_MS - 1) / FRAME_INTERVAL_MS) * FRAME_INTERVAL_MS;
+    }
+
+    static int calculateDelay(final int bodyLength) {
+        if (bodyLength <= 0) {
+            return MIN_DELAY_BETWEEN_PARTIALS;
+        }
+        double ratio = Math.min(1.0, (double) bodyLength / CHAR_COUNT_FOR_MAX_DELAY);
+        return (int) (MIN_DELAY_BETWEEN_PARTIALS + (MAX_DELAY_BETWEEN_PARTIALS - MIN_DELAY_BETWEEN_PARTIALS) * ratio);
+    }
+
+    static final class PartialResultSlot {
+        private final String tabId;
+        private final Queue<String> incoming = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean isDraining = new AtomicBoolean(false);
+        private final AtomicBoolean isTimerScheduled = new AtomicBoolean(false);
+        private final AtomicLong superseded = new AtomicLong();
+        private final AtomicLong rendered = new AtomicLong();
+        private volatile Map<String, Object> latestBodyUpdate;
+        private volatile long lastRenderTime;
+        private volatile int lastRenderedLength;
+
+        PartialResultSlot(final String tabId) {
+            this.tabId = tabId;
+        }
+
+        private void clear() {
+            incoming.clear();
+            latestBodyUpdate = null;
+        }
+    }
+
+}
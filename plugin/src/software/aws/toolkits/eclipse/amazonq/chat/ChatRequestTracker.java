@@ -0,0 +1,109 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+/**
+ * ChatRequestTracker keeps track of in-flight requests sent to the language
+ * server on behalf of the chat UI so that no thread has to block waiting for
+ * their responses. Each tracked request is bounded by a timeout, unless it
+ * starts work that may legitimately run for long, and is cancelled when the
+ * chat tab that issued it is closed. Cancelling the LSP
+ * future also notifies the server through $/cancelRequest.
+ */
+public final class ChatRequestTracker {
+
+    static final long DEFAULT_TIMEOUT_MS = 30_000;
+    static final long NO_TIMEOUT = 0;
+
+    private final Map<String, Set<CompletableFuture<?>>> requestsByTabId = new ConcurrentHashMap<>();
+
+    /*
+     * Returns a future completing with the response of the request. It completes
+     * exceptionally with a TimeoutException if no response arrived in time and with
+     * a CancellationException if the tab was closed first. A timeout of
+     * NO_TIMEOUT waits for the response until the tab is closed. Cancelling the
+     * returned future cancels the request.
+     */
+    public <T> CompletableFuture<T> track(final String tabId, final CompletableFuture<T> request, final long timeoutMs) {
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        Future<?> timeout = timeoutMs <= NO_TIMEOUT ? null : ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.CHAT_IO, () -> {
+            if (!request.isDone()) {
+                timedOut.set(true);
+                request.cancel(true);
+            }
+        }, timeoutMs);
+
+        if (tabId != null) {
+            requestsByTabId.computeIfAbsent(tabId, key -> ConcurrentHashMap.newKeySet()).add(request);
+        }
+
+        Runnable untrack = () -> {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (tabId != null) {
+                requestsByTabId.computeIfPresent(tabId, (key, requests) -> {
+                    requests.remove(request);
+                    return requests.isEmpty() ? null : requests;
+                });
+            }
+        };
+
+        CompletableFuture<T> tracked = request.handle((response, throwable) -> {
+            untrack.run();
+            if (throwable == null) {
+                return response;
+            }
+            if (timedOut.get()) {
+                throw new CompletionException(new TimeoutException("Request timed out after " + timeoutMs + "ms"));
+            }
+            throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+        });
+        // cancelling a dependent stage does not reach the LSP future, which has to be cancelled for $/cancelRequest to be sent
+        tracked.whenComplete((response, throwable) -> {
+            if (tracked.isCancelled()) {
+                request.cancel(true);
+                untrack.run();
+            }
+        });
+        return tracked;
+    }
+
+    /*
+     * Cancels every request that is still pending for the tab.
+     */
+    public void cancelTab(final String tabId) {
+        if (tabId == null) {
+            return;
+        }
+        Set<CompletableFuture<?>> requests = requestsByTabId.remove(tabId);
+        if (requests != null) {
+            requests.forEach(request -> request.cancel(true));
+        }
+    }
+
+    int getPendingCount(final String tabId) {
+        Set<CompletableFuture<?>> requests = requestsByTabId.get(tabId);
+        return requests != null ? requests.size() : 0;
+    }
+
+    static boolean isCancellation(final Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof CancellationException;
+    }
+
+}
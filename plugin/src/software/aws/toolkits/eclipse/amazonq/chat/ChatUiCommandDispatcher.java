@@ -0,0 +1,245 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommand;
+import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommandName;
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+
+/**
+ * ChatUiCommandDispatcher delivers commands posted on the event broker to the
+ * chat UI. Commands are held in a bounded queue until the chat UI reports that
+ * it is ready and are then drained by a short lived task on the worker pool,
+ * so no thread is parked waiting for commands.
+ *
+ * Commands whose latest value supersedes any earlier one (chat options, context
+ * commands, the conversation list) are coalesced while queued: the newer command
+ * replaces the queued one and moves to the tail, so it is still delivered after
+ * everything queued before it. When the queue is full the oldest queued partial
+ * result is dropped, as a later partial or the final result repeats its content.
+ * Any other command is never dropped, the queue grows past its capacity instead.
+ *
+ * The queue depth and delivery latency are logged with the other counters when
+ * the queue outgrows its capacity or a command waited longer than the slow
+ * delivery threshold before reaching the chat UI.
+ */
+public final class ChatUiCommandDispatcher {
+
+    static final int DEFAULT_CAPACITY = 256;
+    static final long DEFAULT_SLOW_DELIVERY_MS = 1000;
+
+    private static final Set<String> COALESCED_COMMANDS = Set.of(
+            ChatUIInboundCommandName.ChatOptions.getValue(),
+            ChatUIInboundCommandName.SendContextCommands.getValue(),
+            ChatUIInboundCommandName.ListConversations.getValue(),
+            ChatUIInboundCommandName.ChatOptionsUpdate.getValue());
+
+    private final Consumer<ChatUIInboundCommand> sink;
+    private final Executor executor;
+    private final int capacity;
+    private final long slowDeliveryMs;
+    private final CompletableFuture<Void> readyFuture = new CompletableFuture<>();
+
+    private final Deque<QueuedCommand> queue = new ArrayDeque<>();
+    private final Map<String, QueuedCommand> coalescibleCommands = new HashMap<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private volatile long readyAt;
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+
+    public ChatUiCommandDispatcher(final Consumer<ChatUIInboundCommand> sink, final Executor executor, final int capacity) {
+        this(sink, executor, capacity, DEFAULT_SLOW_DELIVERY_MS);
+    }
+
+    ChatUiCommandDispatcher(final Consumer<ChatUIInboundCommand> sink, final Executor executor, final int capacity,
+            final long slowDeliveryMs) {
+        this.sink = sink;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.slowDeliveryMs = slowDeliveryMs;
+        readyFuture.thenRun(this::scheduleDrain);
+    }
+
+    /*
+     * Queues a command for the chat UI. Delivery starts once markReady has been
+     * called and preserves the order in which commands were queued.
+     */
+    public void enqueue(final ChatUIInboundCommand command) {
+        if (command == null) {
+            return;
+        }
+
+        boolean exceededCapacity = false;
+        synchronized (queue) {
+            String coalesceKey = getCoalesceKey(command);
+            if (coalesceKey != null) {
+                QueuedCommand pending = coalescibleCommands.remove(coalesceKey);
+                if (pending != null) {
+                    queue.remove(pending);
+                    coalescedCount.incrementAndGet();
+                }
+            }
+
+            exceededCapacity = queue.size() >= capacity && !dropOldestPartialResult() && queue.size() == capacity;
+
+            QueuedCommand queued = new QueuedCommand(command, coalesceKey, System.currentTimeMillis());
+            queue.addLast(queued);
+            if (coalesceKey != null) {
+                coalescibleCommands.put(coalesceKey, queued);
+            }
+        }
+
+        if (exceededCapacity) {
+            Activator.getLogger().warn("Chat UI command queue exceeded its capacity of " + capacity + " commands: " + getMetrics());
+        }
+        if (readyFuture.isDone()) {
+            scheduleDrain();
+        }
+    }
+
+    /*
+     * Opens the gate once the chat UI is able to receive commands.
+     */
+    public void markReady() {
+        if (!readyFuture.isDone()) {
+            readyAt = System.currentTimeMillis();
+        }
+        readyFuture.complete(null);
+    }
+
+    public boolean isReady() {
+        return readyFuture.isDone();
+    }
+
+    public DispatcherMetrics getMetrics() {
+        int depth;
+        synchronized (queue) {
+            depth = queue.size();
+        }
+        long dispatched = dispatchedCount.get();
+        return new DispatcherMetrics(depth, dispatched, coalescedCount.get(), droppedCount.get(),
+                dispatched == 0 ? 0 : totalLatencyMs.get() / dispatched, maxLatencyMs.get());
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        long slowestLatencyMs = -1;
+        try {
+            QueuedCommand next;
+            while ((next = poll()) != null) {
+                try {
+                    sink.accept(next.command);
+                } catch (Exception e) {
+                    Activator.getLogger().error("Error processing command from queue", e);
+                }
+                // commands queued before the chat UI was ready are measured from the moment it became ready
+                long latencyMs = System.currentTimeMillis() - Math.max(next.enqueuedAt, readyAt);
+                recordLatency(latencyMs);
+                slowestLatencyMs = Math.max(slowestLatencyMs, latencyMs);
+            }
+        } finally {
+            drainScheduled.set(false);
+        }
+
+        // logged once per drain so that a backlog does not produce a line per command
+        if (slowestLatencyMs >= slowDeliveryMs) {
+            Activator.getLogger().warn("Chat UI commands took up to " + slowestLatencyMs + " ms to be delivered: " + getMetrics());
+        }
+
+        // a command may have been queued after the last poll but before the flag was reset
+        if (hasQueuedCommands()) {
+            scheduleDrain();
+        }
+    }
+
+    private QueuedCommand poll() {
+        synchronized (queue) {
+            QueuedCommand next = queue.pollFirst();
+            removeCoalescible(next);
+            return next;
+        }
+    }
+
+    private boolean dropOldestPartialResult() {
+        Iterator<QueuedCommand> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            QueuedCommand queued = iterator.next();
+            if (Boolean.TRUE.equals(queued.command.isPartialResult())) {
+                iterator.remove();
+                removeCoalescible(queued);
+                droppedCount.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasQueuedCommands() {
+        synchronized (queue) {
+            return !queue.isEmpty();
+        }
+    }
+
+    private void removeCoalescible(final QueuedCommand queued) {
+        if (queued != null && queued.coalesceKey != null) {
+            coalescibleCommands.remove(queued.coalesceKey, queued);
+        }
+    }
+
+    private void recordLatency(final long latencyMs) {
+        dispatchedCount.incrementAndGet();
+        totalLatencyMs.addAndGet(latencyMs);
+        maxLatencyMs.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    /*
+     * Only broadcast style commands are coalesced, anything answering a request
+     * from the chat UI must be delivered as is.
+     */
+    private static String getCoalesceKey(final ChatUIInboundCommand command) {
+        if (command.requestId() != null || !COALESCED_COMMANDS.contains(command.command())) {
+            return null;
+        }
+        return command.command() + "/" + Objects.toString(command.tabId(), "");
+    }
+
+    public record DispatcherMetrics(int queueDepth, long dispatched, long coalesced, long dropped,
+            long averageLatencyMs, long maxLatencyMs) {
+    }
+
+    private static final class QueuedCommand {
+        private final ChatUIInboundCommand command;
+        private final String coalesceKey;
+        private final long enqueuedAt;
+
+        QueuedCommand(final ChatUIInboundCommand command, final String coalesceKey, final long enqueuedAt) {
+            this.command = command;
+            this.coalesceKey = coalesceKey;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+/**
+ * ContextCommandFilter sits in front of the filterContextCommands request sent
+ * while the user types an @-mention in the chat prompt. Keystrokes are
+ * debounced per tab, a request superseded by a newer keystroke is cancelled
+ * and its response dropped, and recent results are kept in a small LRU cache
+ * keyed by the filter text.
+ *
+ * Only a repeated filter text, for example after deleting a character, is
+ * answered from the cache. Results are never narrowed locally for a longer
+ * text: the server decides which fields it matches and how many entries it
+ * returns, so a local match could miss entries the server would return. The
+ * empty filter text is never cached.
+ */
+public final class ContextCommandFilter {
+
+    static final long DEFAULT_DEBOUNCE_MS = 120;
+    static final int CACHE_SIZE = 32;
+
+    private final Consumer<Object> resultConsumer;
+    private final long debounceMs;
+    private final Map<String, TabState> tabStates = new HashMap<>();
+    private final Map<String, Object> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Object> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public ContextCommandFilter(final Consumer<Object> resultConsumer) {
+        this(resultConsumer, DEFAULT_DEBOUNCE_MS);
+    }
+
+    ContextCommandFilter(final Consumer<Object> resultConsumer, final long debounceMs) {
+        this.resultConsumer = resultConsumer;
+        this.debounceMs = debounceMs;
+    }
+
+    /*
+     * Filters the context commands for the given text. The request supplier is
+     * only invoked if the result cannot be served from the cache and no newer
+     * filter text arrived for the tab within the debounce window. Requests
+     * without a filter text are debounced but never cached.
+     */
+    public void filter(final String tabId, final String filterText, final Supplier<CompletableFuture<Object>> request) {
+        Object localResult = isCacheable(filterText) ? lookupCached(filterText) : null;
+
+        synchronized (this) {
+            TabState state = tabStates.computeIfAbsent(tabKey(tabId), key -> new TabState());
+            long generation = ++state.generation;
+            state.cancelPending();
+
+            if (localResult == null) {
+                state.debounceTimer = ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.CHAT_IO,
+                        () -> sendRequest(tabId, filterText, generation, request), debounceMs);
+                return;
+            }
+        }
+        resultConsumer.accept(localResult);
+    }
+
+    /*
+     * Drops any pending work for a tab that was closed.
+     */
+    public synchronized void cancelTab(final String tabId) {
+        TabState state = tabStates.remove(tabKey(tabId));
+        if (state != null) {
+            state.cancelPending();
+        }
+    }
+
+    /*
+     * Forgets cached results, called when the server publishes a new set of
+     * context commands.
+     */
+    public synchronized void invalidate() {
+        cache.clear();
+    }
+
+    private void sendRequest(final String tabId, final String text, final long generation,
+            final Supplier<CompletableFuture<Object>> request) {
+        CompletableFuture<Object> response;
+        synchronized (this) {
+            TabState state = tabStates.get(tabKey(tabId));
+            if (state == null || state.generation != generation) {
+                return;
+            }
+            response = request.get();
+            state.inflightRequest = response;
+        }
+
+        response.thenAccept(result -> {
+            synchronized (this) {
+                TabState state = tabStates.get(tabKey(tabId));
+                if (state == null || state.generation != generation) {
+                    return;
+                }
+                state.inflightRequest = null;
+                if (isCacheable(text)) {
+                    cache.put(text, result);
+                }
+            }
+            resultConsumer.accept(result);
+        }).exceptionally(throwable -> {
+            if (!ChatRequestTracker.isCancellation(throwable)) {
+                Activator.getLogger().error("Error processing filterContextCommands: " + throwable);
+            }
+            return null;
+        });
+    }
+
+    private synchronized Object lookupCached(final String text) {
+        return cache.get(text);
+    }
+
+    private static boolean isCacheable(final String text) {
+        return text != null && !text.isEmpty();
+    }
+
+    private static String tabKey(final String tabId) {
+        return tabId != null ? tabId : "";
+    }
+
+    private static final class TabState {
+        private long generation;
+        private Future<?> debounceTimer;
+        private CompletableFuture<Object> inflightRequest;
+
+        private void cancelPending() {
+            if (debounceTimer != null) {
+                debounceTimer.cancel(false);
+                debounceTimer = null;
+            }
+            if (inflightRequest != null) {
+                inflightRequest.cancel(true);
+                inflightRequest = null;
+            }
+        }
+    }
+
+}
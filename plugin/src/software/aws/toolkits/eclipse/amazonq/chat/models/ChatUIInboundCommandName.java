@@ -7,6 +7,9 @@ public enum ChatUIInboundCommandName {
     ChatPrompt("aws/chat/sendChatPrompt"), // This is the odd one out, it follows the same message name as the request.
     InlineChatPrompt("aws/chat/sendInlineChatPrompt"),
     OpenTab("aws/chat/openTab"),
+    ChatOptions("chatOptions"),
+    SendContextCommands("aws/chat/sendContextCommands"),
+    ListConversations("aws/chat/listConversations"),
 
     SendToPrompt("sendToPrompt"),
     ErrorMessage("errorMessage"),
@@ -56,6 +56,7 @@ public class QAcceptSuggestionsHandler extends AbstractHandler {
             widget.setCaretOffset(insertOffset + adjustedSuggestion.length());
             QInvocationSession.getInstance().getViewer().getTextWidget().redraw();
             QInvocationSession.getInstance().executeCallbackForCodeReference();
+            QInvocationSession.getInstance().prefetchAfterAccept(widget.getCaretOffset());
             QInvocationSession.getInstance().end();
         } catch (BadLocationException e) {
             Activator.getLogger().error(e.toString());
@@ -0,0 +1,228 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.inlineChat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+
+/**
+ * Incremental line diff between the original selection and the code streamed
+ * back by inline chat. Each partial response only re-diffs the lines after the
+ * last unchanged line that precedes the newly streamed text, and the result is
+ * handed out as the smallest run of rows that differs from what is currently
+ * displayed. The final response is diffed in full so the end result is the
+ * same as a one-shot diff.
+ *
+ * The displayed text is every row followed by a line break, without the last
+ * one when the original selection does not end in a line break.
+ */
+final class InlineChatDiffEngine {
+
+    enum RowKind {
+        UNCHANGED, DELETED, ADDED
+    }
+
+    /*
+     * A displayed line. Unchanged rows refer to both the original and the new
+     * line, deleted rows only to the original line and added rows only to the new
+     * line, the other index is -1.
+     */
+    record Row(String text, RowKind kind, int originalIndex, int newIndex) {
+        boolean rendersAs(final Row other) {
+            return kind == other.kind && text.equals(other.text);
+        }
+    }
+
+    /*
+     * Replacement of the displayed text, with offsets relative to the start of
+     * the displayed region. The rows from firstRow to firstRow + removedRows are
+     * replaced by insertedRows, which start at insertedRowOffsets.
+     */
+    record Frame(int offset, int length, String text, int firstRow, int removedRows, List<Row> insertedRows,
+            List<Integer> insertedRowOffsets) {
+        boolean isEmpty() {
+            return length == 0 && text.isEmpty() && removedRows == 0 && insertedRows.isEmpty();
+        }
+    }
+
+    private final List<String> originalLines;
+    private final boolean originalEndsInNewLine;
+
+    private List<String> newLines = List.of();
+    private List<Row> rows = new ArrayList<>();
+    private int displayLength;
+    private int deletedLineCount;
+    private int addedLineCount;
+
+    InlineChatDiffEngine(final String originalCode, final int initialDisplayLength) {
+        this.originalLines = originalCode.lines().toList();
+        this.originalEndsInNewLine = originalCode.endsWith("\n");
+        this.displayLength = initialDisplayLength;
+    }
+
+    /*
+     * Diffs the code received so far against the original selection and returns
+     * the edit that turns the previously displayed text into the new one. Partial
+     * responses keep the rows up to the last unchanged line before the first line
+     * that differs from the previous response.
+     */
+    Frame update(final String newCode, final boolean isFinal) {
+        List<String> updatedLines = newCode.lines().toList();
+
+        int keptRows = 0;
+        int originalStart = 0;
+        int newStart = 0;
+        if (!isFinal) {
+            int firstChangedLine = 0;
+            int commonLines = Math.min(newLines.size(), updatedLines.size());
+            while (firstChangedLine < commonLines && newLines.get(firstChangedLine).equals(updatedLines.get(firstChangedLine))) {
+                firstChangedLine++;
+            }
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                Row row = rows.get(i);
+                if (row.kind() == RowKind.UNCHANGED && row.newIndex() < firstChangedLine) {
+                    keptRows = i + 1;
+                    originalStart = row.originalIndex() + 1;
+                    newStart = row.newIndex() + 1;
+                    break;
+                }
+            }
+        }
+
+        List<Row> updatedRows = new ArrayList<>(rows.subList(0, keptRows));
+        appendDiffRows(updatedRows, originalStart, updatedLines, newStart);
+
+        Frame frame = computeFrame(rows, updatedRows);
+        newLines = updatedLines;
+        rows = updatedRows;
+        displayLength = displayLength - frame.length() + frame.text().length();
+        deletedLineCount = 0;
+        addedLineCount = 0;
+        for (Row row : rows) {
+            if (row.kind() == RowKind.DELETED) {
+                deletedLineCount++;
+            } else if (row.kind() == RowKind.ADDED) {
+                addedLineCount++;
+            }
+        }
+        return frame;
+    }
+
+    List<Row> getRows() {
+        return rows;
+    }
+
+    int getDisplayLength() {
+        return displayLength;
+    }
+
+    int getDeletedLineCount() {
+        return deletedLineCount;
+    }
+
+    int getAddedLineCount() {
+        return addedLineCount;
+    }
+
+    /*
+     * Deleted and added rows as TextDiffs, with offsets shifted by the start of
+     * the displayed region.
+     */
+    List<TextDiff> getTextDiffs(final int regionOffset) {
+        List<TextDiff> diffs = new ArrayList<>();
+        int offset = regionOffset;
+        for (Row row : rows) {
+            if (row.kind() != RowKind.UNCHANGED) {
+                diffs.add(new TextDiff(offset, row.text().length(), row.kind() == RowKind.DELETED));
+            }
+            offset += row.text().length() + 1;
+        }
+        return diffs;
+    }
+
+    private void appendDiffRows(final List<Row> target, final int originalStart, final List<String> updatedLines, final int newStart) {
+        List<String> originalTail = originalLines.subList(originalStart, originalLines.size());
+        List<String> newTail = updatedLines.subList(newStart, updatedLines.size());
+
+        int originalLine = 0;
+        int newLine = 0;
+        for (AbstractDelta<String> delta : DiffUtils.diff(originalTail, newTail).getDeltas()) {
+            while (originalLine < delta.getSource().getPosition()) {
+                target.add(new Row(originalTail.get(originalLine), RowKind.UNCHANGED, originalStart + originalLine, newStart + newLine));
+                originalLine++;
+                newLine++;
+            }
+            for (String line : delta.getSource().getLines()) {
+                target.add(new Row(line, RowKind.DELETED, originalStart + originalLine, -1));
+                originalLine++;
+            }
+            for (String line : delta.getTarget().getLines()) {
+                target.add(new Row(line, RowKind.ADDED, -1, newStart + newLine));
+                newLine++;
+            }
+        }
+        while (originalLine < originalTail.size()) {
+            target.add(new Row(originalTail.get(originalLine), RowKind.UNCHANGED, originalStart + originalLine, newStart + newLine));
+            originalLine++;
+            newLine++;
+        }
+    }
+
+    /*
+     * Skips the rows that render the same at the start and at the end of both
+     * lists, the rows in between make up the replacement.
+     */
+    private Frame computeFrame(final List<Row> previousRows, final List<Row> updatedRows) {
+        int commonRows = Math.min(previousRows.size(), updatedRows.size());
+        int prefixRows = 0;
+        int prefixChars = 0;
+        while (prefixRows < commonRows && previousRows.get(prefixRows).rendersAs(updatedRows.get(prefixRows))) {
+            prefixChars += updatedRows.get(prefixRows).text().length() + 1;
+            prefixRows++;
+        }
+        int suffixRows = 0;
+        int suffixChars = 0;
+        while (suffixRows < commonRows - prefixRows && previousRows.get(previousRows.size() - 1 - suffixRows)
+                .rendersAs(updatedRows.get(updatedRows.size() - 1 - suffixRows))) {
+            suffixChars += updatedRows.get(updatedRows.size() - 1 - suffixRows).text().length() + 1;
+            suffixRows++;
+        }
+        if (suffixRows > 0 && !originalEndsInNewLine) {
+            suffixChars--;
+        }
+
+        String updatedText = render(updatedRows);
+        prefixChars = Math.min(prefixChars, Math.min(displayLength, updatedText.length()));
+
+        List<Row> insertedRows = new ArrayList<>(updatedRows.subList(prefixRows, updatedRows.size() - suffixRows));
+        List<Integer> insertedRowOffsets = new ArrayList<>();
+        int rowOffset = 0;
+        for (int i = 0; i < prefixRows; i++) {
+            rowOffset += updatedRows.get(i).text().length() + 1;
+        }
+        for (Row row : insertedRows) {
+            insertedRowOffsets.add(rowOffset);
+            rowOffset += row.text().length() + 1;
+        }
+
+        return new Frame(prefixChars, displayLength - prefixChars - suffixChars,
+                updatedText.substring(prefixChars, updatedText.length() - suffixChars), prefixRows,
+                previousRows.size() - prefixRows - suffixRows, insertedRows, insertedRowOffsets);
+    }
+
+    private String render(final List<Row> displayedRows) {
+        StringBuilder text = new StringBuilder();
+        for (Row row : displayedRows) {
+            text.append(row.text()).append('\n');
+        }
+        if (!originalEndsInNewLine && text.length() > 0) {
+            text.setLength(text.length() - 1);
+        }
+        return text.toString();
+    }
+
+}
@@ -4,22 +4,19 @@
 package software.aws.toolkits.eclipse.amazonq.inlineChat;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.text.StringEscapeUtils;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelExtension;
 import org.eclipse.swt.widgets.Display;
 
-import com.github.difflib.DiffUtils;
-import com.github.difflib.patch.AbstractDelta;
-import com.github.difflib.patch.DeltaType;
-import com.github.difflib.patch.Patch;
-
 import software.aws.toolkits.eclipse.amazonq.chat.models.InlineChatResult;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 
@@ -30,6 +27,10 @@ public final class InlineChatDiffManager {
     private String annotationDeleted;
     private List<TextDiff> currentDiffs;
     private InlineChatTask task;
+    private InlineChatDiffEngine diffEngine;
+    /* Annotation of each row displayed by the diff engine, null for unchanged rows */
+    private List<Annotation> rowAnnotations;
+    private boolean isFirstFrame;
 
     private InlineChatDiffManager() {
         // Prevent instantiation
@@ -45,6 +46,9 @@ public final class InlineChatDiffManager {
     void initNewTask(final InlineChatTask task, final boolean isDarkTheme) {
         this.task = task;
         this.currentDiffs = new ArrayList<>();
+        this.diffEngine = null;
+        this.rowAnnotations = new ArrayList<>();
+        this.isFirstFrame = true;
         setColorPalette(isDarkTheme);
     }
     synchronized CompletableFuture<Void> processDiff(final InlineChatResult chatResult, final boolean isPartialResult) throws Exception {
@@ -56,7 +60,7 @@ public final class InlineChatDiffManager {
         if (isPartialResult) {
             // Only process if content has changed
             if (!chatResult.body().equals(task.getPreviousPartialResponse())) {
-                diffFuture = updateUI(chatResult);
+                diffFuture = updateUI(chatResult, false);
                 diffFuture.thenRun(() -> {
                     if (task.getFirstTokenTime() == -1) {
                         task.setFirstTokenTime(System.currentTimeMillis());
@@ -67,7 +71,7 @@ public final class InlineChatDiffManager {
             }
         } else {
             // Final result - always update UI state regardless of content
-            diffFuture = updateUI(chatResult);
+            diffFuture = updateUI(chatResult, true);
             diffFuture.thenRun(() -> {
                 task.setLastTokenTime(System.currentTimeMillis());
             });
@@ -76,117 +80,102 @@ public final class InlineChatDiffManager {
         return diffFuture;
     }
 
-    private CompletableFuture<Void> updateUI(final InlineChatResult chatResult) throws Exception {
+    private CompletableFuture<Void> updateUI(final InlineChatResult chatResult, final boolean isFinal) throws Exception {
         if (!task.isActive()) {
             return CompletableFuture.completedFuture(null);
         }
+        // Diff off the UI thread, only the resulting edit is applied inside syncExec
+        if (diffEngine == null) {
+            diffEngine = new InlineChatDiffEngine(task.getOriginalCode(), task.getPreviousDisplayLength());
+        }
+        var newCode = unescapeChatResult(chatResult.body());
+        InlineChatDiffEngine.Frame frame = diffEngine.update(newCode, isFinal);
+        if (isFinal) {
+            currentDiffs = diffEngine.getTextDiffs(task.getSelectionOffset());
+        }
+
         CompletableFuture<Void> future = new CompletableFuture<>();
         Display.getDefault().syncExec(() -> {
             try {
-                var newCode = unescapeChatResult(chatResult.body());
-                computeDiffAndRenderOnEditor(newCode);
+                renderFrameOnEditor(frame);
                 future.complete(null);
             } catch (Exception e) {
                 future.completeExceptionally(e);
             }
         });
+        if (future.isCompletedExceptionally()) {
+            // The editor no longer matches the diff state, start over from what was last rendered
+            diffEngine = null;
+            rowAnnotations = new ArrayList<>();
+            isFirstFrame = true;
+            return future;
+        }
+
+        // Store rendered text length for proper clearing next iteration
+        task.setPreviousDisplayLength(diffEngine.getDisplayLength());
+        task.setPreviousPartialResponse(newCode);
+        task.setNumDeletedLines(diffEngine.getDeletedLineCount());
+        task.setNumAddedLines(diffEngine.getAddedLineCount());
         return future;
     }
 
-    private boolean computeDiffAndRenderOnEditor(final String newCode) throws Exception {
-
+    /*
+     * Replaces only the rows that changed since the previous frame and swaps
+     * their annotations in a single annotation model update.
+     */
+    private void renderFrameOnEditor(final InlineChatDiffEngine.Frame frame) throws Exception {
+        if (frame.isEmpty()) {
+            return;
+        }
         // Annotation model provides highlighting for the diff additions/deletions
         IAnnotationModel annotationModel = task.getEditor().getDocumentProvider().getAnnotationModel(task.getEditor().getEditorInput());
         var document = task.getEditor().getDocumentProvider().getDocument(task.getEditor().getEditorInput());
 
-        // Clear existing diff annotations prior to starting new diff
-        clearDiffAnnotations(annotationModel);
-
-        // Split original and new code into lines for diff comparison
-        String[] originalLines = (task.hasActiveSelection()) ? task.getOriginalCode().lines().toArray(String[]::new) : new String[0];
-        String[] newLines = newCode.lines().toArray(String[]::new);
-
-        // Diff generation --> returns Patch object which contains deltas for each line
-        Patch<String> patch = DiffUtils.diff(Arrays.asList(originalLines), Arrays.asList(newLines));
-
-        StringBuilder resultText = new StringBuilder();
-        currentDiffs.clear(); // Clear previous diffs
-        int currentPos = 0;
-        int currentLine = 0;
-        int deletedLines = 0;
-        int insertedLines = 0;
-
-        for (AbstractDelta<String> delta : patch.getDeltas()) {
-
-            // Count deletion and addition lines for telemetry
-            if (delta.getType() == DeltaType.DELETE || delta.getType() == DeltaType.CHANGE) {
-                deletedLines += delta.getSource().getLines().size();
-            }
-            if (delta.getType() == DeltaType.INSERT || delta.getType() == DeltaType.CHANGE) {
-                insertedLines += delta.getTarget().getLines().size();
-            }
-
-            // Continuously copy unchanged lines until we hit a diff
-            while (currentLine < delta.getSource().getPosition()) {
-                resultText.append(originalLines[currentLine]).append("\n");
-                currentPos += originalLines[currentLine].length() + 1;
-                currentLine++;
-            }
-
-            List<String> originalChangedLines = delta.getSource().getLines();
-            List<String> newChangedLines = delta.getTarget().getLines();
-
-            // Handle deleted lines and mark position
-            for (String line : originalChangedLines) {
-                resultText.append(line).append("\n");
-                currentDiffs.add(new TextDiff(task.getSelectionOffset() + currentPos, line.length(), true));
-                currentPos += line.length() + 1;
-            }
-
-            // Handle added lines and mark position
-            for (String line : newChangedLines) {
-                resultText.append(line).append("\n");
-                currentDiffs.add(new TextDiff(task.getSelectionOffset() + currentPos, line.length(), false));
-                currentPos += line.length() + 1;
+        List<Annotation> annotationsToRemove = new ArrayList<>();
+        if (isFirstFrame) {
+            // Clear leftover diff annotations prior to starting new diff
+            var annotations = annotationModel.getAnnotationIterator();
+            while (annotations.hasNext()) {
+                var annotation = annotations.next();
+                if (annotation.getType().startsWith("diffAnnotation.")) {
+                    annotationsToRemove.add(annotation);
+                }
             }
-
-            currentLine = delta.getSource().getPosition() + delta.getSource().size();
+            isFirstFrame = false;
         }
-        // Loop through remaining unchanged lines
-        while (currentLine < originalLines.length) {
-            resultText.append(originalLines[currentLine]).append("\n");
-            currentPos += originalLines[currentLine].length() + 1;
-            currentLine++;
+        List<Annotation> replacedRowAnnotations = rowAnnotations.subList(frame.firstRow(), frame.firstRow() + frame.removedRows());
+        for (Annotation annotation : replacedRowAnnotations) {
+            if (annotation != null) {
+                annotationsToRemove.add(annotation);
+            }
         }
 
-        var originalEndsInNewLine = task.getOriginalCode().endsWith("\n");
-        var diffEndsInNewLine = resultText.length() > 0 && resultText.charAt(resultText.length() - 1) == '\n';
-
-        if (!originalEndsInNewLine && diffEndsInNewLine) {
-            resultText.setLength(resultText.length() - 1);
+        document.replace(task.getSelectionOffset() + frame.offset(), frame.length(), frame.text());
+
+        Map<Annotation, Position> annotationsToAdd = new LinkedHashMap<>();
+        List<Annotation> insertedRowAnnotations = new ArrayList<>();
+        for (int i = 0; i < frame.insertedRows().size(); i++) {
+            InlineChatDiffEngine.Row row = frame.insertedRows().get(i);
+            Annotation annotation = null;
+            if (row.kind() != InlineChatDiffEngine.RowKind.UNCHANGED) {
+                boolean isDeletion = row.kind() == InlineChatDiffEngine.RowKind.DELETED;
+                String annotationType = isDeletion ? annotationDeleted : annotationAdded;
+                String annotationText = isDeletion ? "Deleted Code" : "Added Code";
+                annotation = new Annotation(annotationType, false, annotationText);
+                annotationsToAdd.put(annotation,
+                        new Position(task.getSelectionOffset() + frame.insertedRowOffsets().get(i), row.text().length()));
+            }
+            insertedRowAnnotations.add(annotation);
         }
-        final String finalText = resultText.toString();
-
-        // Clear existing annotations in the affected range
-        clearAnnotationsInRange(annotationModel, task.getSelectionOffset(), task.getSelectionOffset() + task.getOriginalCode().length());
+        replacedRowAnnotations.clear();
+        replacedRowAnnotations.addAll(insertedRowAnnotations);
 
-        // Apply new diff text
-        document.replace(task.getSelectionOffset(), task.getPreviousDisplayLength(), finalText);
-
-        // Add all annotations after text modifications are complete
-        for (TextDiff diff : currentDiffs) {
-            Position position = new Position(diff.offset(), diff.length());
-            String annotationType = diff.isDeletion() ? annotationDeleted : annotationAdded;
-            String annotationText = diff.isDeletion() ? "Deleted Code" : "Added Code";
-            annotationModel.addAnnotation(new Annotation(annotationType, false, annotationText), position);
+        if (annotationModel instanceof IAnnotationModelExtension extension) {
+            extension.replaceAnnotations(annotationsToRemove.toArray(new Annotation[0]), annotationsToAdd);
+        } else {
+            annotationsToRemove.forEach(annotationModel::removeAnnotation);
+            annotationsToAdd.forEach(annotationModel::addAnnotation);
         }
-
-        // Store rendered text length for proper clearing next iteration
-        task.setPreviousDisplayLength(finalText.length());
-        task.setPreviousPartialResponse(newCode);
-        task.setNumDeletedLines(deletedLines);
-        task.setNumAddedLines(insertedLines);
-        return true;
     }
 
     CompletableFuture<Void> handleDecision(final boolean userAcceptedChanges) {
@@ -273,17 +262,6 @@ public final class InlineChatDiffManager {
         }
     }
 
-    private void clearAnnotationsInRange(final IAnnotationModel model, final int start, final int end) {
-        Iterator<Annotation> iterator = model.getAnnotationIterator();
-        while (iterator.hasNext()) {
-            Annotation annotation = iterator.next();
-            Position position = model.getPosition(annotation);
-            if (position != null && position.offset >= start && position.offset + position.length <= end) {
-                model.removeAnnotation(annotation);
-            }
-        }
-    }
-
     private String unescapeChatResult(final String s) {
         if (s == null || s.isEmpty()) {
             return s;
@@ -9,7 +9,6 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -36,6 +35,7 @@ import org.eclipse.jface.text.ITextViewerExtension;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelExtension;
 import org.eclipse.lsp4e.LanguageClientImpl;
 import org.eclipse.lsp4j.ConfigurationParams;
 import org.eclipse.lsp4j.ProgressParams;
@@ -59,10 +59,6 @@ import org.eclipse.ui.ide.IDE;
 import org.eclipse.ui.texteditor.IDocumentProvider;
 import org.eclipse.ui.texteditor.ITextEditor;
 
-import com.github.difflib.DiffUtils;
-import com.github.difflib.patch.AbstractDelta;
-import com.github.difflib.patch.Patch;
-
 import software.amazon.awssdk.services.toolkittelemetry.model.Sentiment;
 import software.aws.toolkits.eclipse.amazonq.chat.ChatAsyncResultManager;
 import software.aws.toolkits.eclipse.amazonq.chat.ChatCommunicationManager;
@@ -80,6 +76,7 @@ import software.aws.toolkits.eclipse.amazonq.lsp.auth.model.AuthState;
 import software.aws.toolkits.eclipse.amazonq.lsp.auth.model.LoginType;
 import software.aws.toolkits.eclipse.amazonq.lsp.auth.model.SsoTokenChangedKind;
 import software.aws.toolkits.eclipse.amazonq.lsp.auth.model.SsoTokenChangedParams;
+import software.aws.toolkits.eclipse.amazonq.lsp.editor.FileDiffModel;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.ConnectionMetadata;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.OpenFileDiffParams;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.OpenTabUiResponse;
@@ -94,6 +91,7 @@ import software.aws.toolkits.eclipse.amazonq.util.Constants;
 import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
 import software.aws.toolkits.eclipse.amazonq.util.ThemeDetector;
 import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
 import software.aws.toolkits.eclipse.amazonq.util.WorkspaceUtils;
 import software.aws.toolkits.eclipse.amazonq.views.model.Customization;
 import software.aws.toolkits.eclipse.amazonq.views.model.UpdateRedirectUrlCommand;
@@ -153,24 +151,22 @@ public class AmazonQLspClientImpl extends LanguageClientImpl implements AmazonQL
      * Handles the progress notifications received from the LSP server.
      * - Process partial results for Chat messages if provided token is maintained by ChatCommunicationManager
      * - Other notifications are ignored at this time.
+     * Partial results are only queued here; decryption and rendering happen on the worker pool once
+     * their frame is due, so no task is submitted per notification.
      */
     @Override
     public final void notifyProgress(final ProgressParams params) {
-        var chatCommunicationManager = ChatCommunicationManager.getInstance();
-
-        ThreadingUtils.executeAsyncTask(() -> {
-            try {
-                chatCommunicationManager.handlePartialResultProgressNotification(params);
-            } catch (Exception e) {
-                Activator.getLogger().error("Error processing partial result progress notification", e);
-            }
-        });
+        try {
+            ChatCommunicationManager.getInstance().handlePartialResultProgressNotification(params);
+        } catch (Exception e) {
+            Activator.getLogger().error("Error processing partial result progress notification", e);
+        }
     }
 
     @Override
     public final void telemetryEvent(final Object event) {
         TelemetryEvent telemetryEvent = ObjectMapperFactory.getInstance().convertValue(event, TelemetryEvent.class);
-        ThreadingUtils.executeAsyncTask(() -> {
+        ThreadingUtils.executeAsyncTask(Subsystem.MAINTENANCE, () -> {
             switch (telemetryEvent.name()) {
             // intercept the feedback telemetry event and re-route to our feedback backend
             case "amazonq_sendFeedback":
@@ -259,7 +255,7 @@ public class AmazonQLspClientImpl extends LanguageClientImpl implements AmazonQL
 
     @Override
     public final void sendContextCommands(final Object params) {
-        var command = ChatUIInboundCommand.createCommand("aws/chat/sendContextCommands", params);
+        var command = ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.SendContextCommands.getValue(), params);
         Activator.getEventBroker().post(ChatUIInboundCommand.class, command);
     }
 
@@ -349,90 +345,59 @@ public class AmazonQLspClientImpl extends LanguageClientImpl implements AmazonQL
         String annotationDeleted = themeDetector.isDarkTheme() ? "diffAnnotation.deleted.dark"
                 : "diffAnnotation.deleted";
 
-        Display.getDefault().asyncExec(() -> {
+        // Diff on a background thread, the UI thread only opens the editor and applies the result
+        ThreadingUtils.executeAsyncTask(() -> {
             try {
-                IWorkbenchPage page = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
-                IStorageEditorInput input = new InMemoryInput(
-                        new MemoryStorage(new Path(params.originalFileUri()).lastSegment(), ""));
-
-                IEditorDescriptor defaultEditor = PlatformUI.getWorkbench().getEditorRegistry()
-                        .getDefaultEditor(".java");
-
-                IEditorPart editor = page.openEditor(input,
-                        defaultEditor != null ? defaultEditor.getId() : "org.eclipse.ui.DefaultTextEditor", true,
-                        IWorkbenchPage.MATCH_INPUT);
-                // Annotation model provides highlighting for the diff additions/deletions
-                IAnnotationModel annotationModel = ((ITextEditor) editor).getDocumentProvider()
-                        .getAnnotationModel(editor.getEditorInput());
-                var document = ((ITextEditor) editor).getDocumentProvider().getDocument(editor.getEditorInput());
-
-                // Split original and new code into lines for diff comparison
-                String[] originalLines = (params.originalFileContent() != null
-                        && !params.originalFileContent().isEmpty())
-                                ? params.originalFileContent().lines().toArray(String[]::new)
-                                : new String[0];
-                String[] newLines = (params.fileContent() != null && !params.fileContent().isEmpty())
-                        ? params.fileContent().lines().toArray(String[]::new)
-                        : new String[0];
-                // Diff generation --> returns Patch object which contains deltas for each line
-                Patch<String> patch = DiffUtils.diff(Arrays.asList(originalLines), Arrays.asList(newLines));
-
-                StringBuilder resultText = new StringBuilder();
-                List<TextDiff> currentDiffs = new ArrayList<>();
-                int currentPos = 0;
-                int currentLine = 0;
-
-                for (AbstractDelta<String> delta : patch.getDeltas()) {
-                    // Continuously copy unchanged lines until we hit a diff
-                    while (currentLine < delta.getSource().getPosition()) {
-                        resultText.append(originalLines[currentLine]).append("\n");
-                        currentPos += originalLines[currentLine].length() + 1;
-                        currentLine++;
-                    }
-
-                    List<String> originalChangedLines = delta.getSource().getLines();
-                    List<String> newChangedLines = delta.getTarget().getLines();
-
-                    // Handle deleted lines and mark position
-                    for (String line : originalChangedLines) {
-                        resultText.append(line).append("\n");
-                        currentDiffs.add(new TextDiff(currentPos, line.length(), true));
-                        currentPos += line.length() + 1;
-                    }
-
-                    // Handle added lines and mark position
-                    for (String line : newChangedLines) {
-                        resultText.append(line).append("\n");
-                        currentDiffs.add(new TextDiff(currentPos, line.length(), false));
-                        currentPos += line.length() + 1;
-                    }
-
-                    currentLine = delta.getSource().getPosition() + delta.getSource().size();
-                }
-                // Loop through remaining unchanged lines
-                while (currentLine < originalLines.length) {
-                    resultText.append(originalLines[currentLine]).append("\n");
-                    currentPos += originalLines[currentLine].length() + 1;
-                    currentLine++;
-                }
-
-                final String finalText = resultText.toString();
-                document.replace(0, document.getLength(), finalText);
-
-                // Add all annotations after text modifications are complete
-                for (TextDiff diff : currentDiffs) {
-                    Position position = new Position(diff.offset(), diff.length());
-                    String annotationType = diff.isDeletion() ? annotationDeleted : annotationAdded;
-                    String annotationText = diff.isDeletion() ? "Deleted Code" : "Added Code";
-                    annotationModel.addAnnotation(new Annotation(annotationType, false, annotationText), position);
+                FileDiffModel diffModel = FileDiffModel.compute(params.originalFileContent(), params.fileContent());
+                if (diffModel.isDiffCapped()) {
+                    Activator.getLogger().info("Diff of " + params.originalFileUri() + " has too many edits to compute line by line,"
+                            + " showing the changed region as a single block");
                 }
-                makeEditorReadOnly(editor);
-            } catch (CoreException | BadLocationException e) {
-                Activator.getLogger().info("Failed to open file/diff: " + e);
+                Display.getDefault().asyncExec(() -> showFileDiff(params, diffModel, annotationAdded, annotationDeleted));
+            } catch (RuntimeException e) {
+                Activator.getLogger().error("Failed to compute file diff", e);
             }
         });
     }
 
+    private void showFileDiff(final OpenFileDiffParams params, final FileDiffModel diffModel, final String annotationAdded,
+            final String annotationDeleted) {
+        try {
+            IWorkbenchPage page = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
+            IStorageEditorInput input = new InMemoryInput(
+                    new MemoryStorage(new Path(params.originalFileUri()).lastSegment(), ""));
+
+            IEditorDescriptor defaultEditor = PlatformUI.getWorkbench().getEditorRegistry()
+                    .getDefaultEditor(".java");
+
+            IEditorPart editor = page.openEditor(input,
+                    defaultEditor != null ? defaultEditor.getId() : "org.eclipse.ui.DefaultTextEditor", true,
+                    IWorkbenchPage.MATCH_INPUT);
+            // Annotation model provides highlighting for the diff additions/deletions
+            IAnnotationModel annotationModel = ((ITextEditor) editor).getDocumentProvider()
+                    .getAnnotationModel(editor.getEditorInput());
+            var document = ((ITextEditor) editor).getDocumentProvider().getDocument(editor.getEditorInput());
+
+            document.replace(0, document.getLength(), diffModel.getText());
+
+            // Add all annotations in one batch after text modifications are complete
+            Map<Annotation, Position> annotations = new HashMap<>();
+            for (TextDiff diff : diffModel.getTextDiffs()) {
+                String annotationType = diff.isDeletion() ? annotationDeleted : annotationAdded;
+                String annotationText = diff.isDeletion() ? "Deleted Code" : "Added Code";
+                annotations.put(new Annotation(annotationType, false, annotationText), new Position(diff.offset(), diff.length()));
+            }
+            if (annotationModel instanceof IAnnotationModelExtension extension) {
+                extension.replaceAnnotations(null, annotations);
+            } else {
+                annotations.forEach(annotationModel::addAnnotation);
+            }
+            makeEditorReadOnly(editor);
+        } catch (CoreException | BadLocationException e) {
+            Activator.getLogger().info("Failed to open file/diff: " + e);
+        }
+    }
+
     private void makeEditorReadOnly(final IEditorPart editor) {
         ITextViewer viewer = editor.getAdapter(ITextViewer.class);
         if (viewer != null) {
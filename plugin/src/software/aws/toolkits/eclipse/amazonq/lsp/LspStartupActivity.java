@@ -20,6 +20,7 @@ import org.eclipse.ui.PlatformUI;
 import software.aws.toolkits.eclipse.amazonq.broker.events.QDeveloperProfileState;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.providers.browser.AmazonQBrowserProvider;
+import software.aws.toolkits.eclipse.amazonq.telemetry.StartupTracer;
 import software.aws.toolkits.eclipse.amazonq.telemetry.ToolkitTelemetryProvider;
 import software.aws.toolkits.eclipse.amazonq.telemetry.metadata.ExceptionMetadata;
 import software.aws.toolkits.eclipse.amazonq.util.AutoTriggerDocumentListener;
@@ -44,7 +45,9 @@ public class LspStartupActivity implements IStartup {
             @Override
             protected IStatus run(final IProgressMonitor monitor) {
                 try {
-                    startLspServer();
+                    try (var startPhase = StartupTracer.getInstance().begin("start language server")) {
+                        startLspServer();
+                    }
                     Display.getDefault().asyncExec(() -> {
                         AmazonQToolbarActions.getInstance();
                         AmazonQBrowserProvider.getInstance().publishBrowserCompatibilityState();
@@ -18,6 +18,7 @@ import software.aws.toolkits.eclipse.amazonq.lsp.auth.model.LoginType;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.UpdateCredentialsPayload;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.providers.lsp.LspProvider;
+import software.aws.toolkits.eclipse.amazonq.telemetry.StartupTracer;
 import software.aws.toolkits.eclipse.amazonq.util.AuthUtil;
 
 /**
@@ -141,12 +142,14 @@ public final class DefaultLoginService implements LoginService {
 
         Activator.getLogger().info("Attempting to re-authenticate...");
 
+        var phase = StartupTracer.getInstance().begin("auth reAuthenticate");
         return processLogin(authState.loginType(), authState.loginParams(), loginOnInvalidToken)
                 .exceptionally(throwable -> {
                     Activator.getLogger().error("Failed to re-authenticate", throwable);
                     logout();
                     return null;
-                });
+                })
+                .whenComplete((result, throwable) -> phase.close());
     }
 
     @Override
@@ -24,6 +24,7 @@ import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.preferences.AmazonQPreferencePage;
 import software.aws.toolkits.eclipse.amazonq.providers.lsp.LspManagerProvider;
 import software.aws.toolkits.eclipse.amazonq.telemetry.LanguageServerTelemetryProvider;
+import software.aws.toolkits.eclipse.amazonq.telemetry.StartupTracer;
 import software.aws.toolkits.eclipse.amazonq.telemetry.metadata.ExceptionMetadata;
 import software.aws.toolkits.eclipse.amazonq.util.ArchitectureUtils;
 import software.aws.toolkits.eclipse.amazonq.util.PluginPlatform;
@@ -33,12 +34,14 @@ import software.aws.toolkits.telemetry.TelemetryDefinitions.Result;
 
 public class QLspConnectionProvider extends AbstractLspConnectionProvider {
 
+    public static final String INITIALIZE_PHASE = "language server initialize";
+
     public QLspConnectionProvider() throws IOException {
         super();
         try {
             LanguageServerTelemetryProvider.setAllStartPoint(Instant.now());
             LspManager lspManager = LspManagerProvider.getInstance();
-            var lspInstallResult = lspManager.getLspInstallation();
+            var lspInstallResult = lspManager.getLspInstallationForLaunch();
 
             setWorkingDirectory(lspInstallResult.getServerDirectory());
 
@@ -59,7 +62,10 @@ public class QLspConnectionProvider extends AbstractLspConnectionProvider {
     @Override
     protected final void addEnvironmentVariables(final Map<String, String> env) {
         String httpsProxyUrl = ProxyUtil.getHttpsProxyUrl();
-        String caCertPath = getCaCert();
+        String caCertPath;
+        try (var phase = StartupTracer.getInstance().begin("CA PEM export")) {
+            caCertPath = getCaCert();
+        }
 
         if (!StringUtils.isEmpty(httpsProxyUrl)) {
             env.put("HTTPS_PROXY", httpsProxyUrl);
@@ -76,7 +82,9 @@ public class QLspConnectionProvider extends AbstractLspConnectionProvider {
 
         if (needsPatchEnvVariables()) {
             Activator.getLogger().info("Adding required variables");
-            addPatchVariables(env);
+            try (var phase = StartupTracer.getInstance().begin("login shell PATH probe")) {
+                addPatchVariables(env);
+            }
         }
     }
 
@@ -142,11 +150,13 @@ public class QLspConnectionProvider extends AbstractLspConnectionProvider {
     public final void start() throws IOException {
         LanguageServerTelemetryProvider.setInitStartPoint(Instant.now());
         try {
-            startProcess();
+            try (var phase = StartupTracer.getInstance().begin("language server process spawn")) {
+                startProcess();
+            }
 
             Activator.getLogger().info("Initializing communication with Amazon Q Lsp Server");
 
-            try {
+            try (var phase = StartupTracer.getInstance().begin("encryption key exchange")) {
                 DefaultLspEncryptionManager lspEncryption = DefaultLspEncryptionManager.getInstance();
                 OutputStream serverStdIn = getOutputStream();
 
@@ -156,6 +166,8 @@ public class QLspConnectionProvider extends AbstractLspConnectionProvider {
                 emitInitFailure(ExceptionMetadata.scrubException(e));
                 Activator.getLogger().error("Error occured while initializing communication with Amazon Q Lsp Server", e);
             }
+            // ended when the server is activated
+            StartupTracer.getInstance().begin(INITIALIZE_PHASE);
         } catch (Exception e) {
             Activator.getEventBroker().post(AmazonQLspState.class, AmazonQLspState.FAILED);
             emitInitFailure(ExceptionMetadata.scrubException(e));
@@ -21,6 +21,7 @@ import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.util.AbapUtil;
 import software.aws.toolkits.eclipse.amazonq.util.QEclipseEditorUtils;
 import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
 
 public final class ActiveEditorChangeListener implements IPartListener2 {
     private static ActiveEditorChangeListener instance;
@@ -91,7 +92,7 @@ public final class ActiveEditorChangeListener implements IPartListener2 {
         }
 
         // Schedule a new notification after the debounce period
-        debounceTask = (ScheduledFuture<?>) ThreadingUtils.scheduleAsyncTaskWithDelay(() -> {
+        debounceTask = (ScheduledFuture<?>) ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.MAINTENANCE, () -> {
             Display.getDefault().syncExec(() -> {
                 try {
                     Map<String, Object> params = createActiveEditorParams(editor);
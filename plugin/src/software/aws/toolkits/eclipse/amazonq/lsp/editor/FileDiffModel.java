@@ -0,0 +1,159 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.editor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffAlgorithmListener;
+import com.github.difflib.patch.AbstractDelta;
+
+import software.aws.toolkits.eclipse.amazonq.inlineChat.TextDiff;
+
+/**
+ * Line diff between two versions of a file, rendered as a single text in which
+ * deleted lines are followed by the lines that replace them, together with the
+ * position of every deleted and added line in that text.
+ *
+ * Computing the model does not touch the UI so it can be done on a background
+ * thread. Lines shared at the start and end of both versions are skipped before
+ * diffing. The cost of the diff grows with the size of the remaining window
+ * times the number of edits, so the diff is abandoned once it needs more than
+ * MAX_EDIT_DISTANCE line edits, and the window is then shown as one deleted
+ * block followed by one added block. A few edits far apart in a large file are
+ * still diffed line by line.
+ */
+public final class FileDiffModel {
+
+    static final int MAX_EDIT_DISTANCE = 2000;
+
+    private final String text;
+    private final List<TextDiff> textDiffs;
+    private final boolean isDiffCapped;
+
+    private FileDiffModel(final String text, final List<TextDiff> textDiffs, final boolean isDiffCapped) {
+        this.text = text;
+        this.textDiffs = textDiffs;
+        this.isDiffCapped = isDiffCapped;
+    }
+
+    public static FileDiffModel compute(final String originalContent, final String newContent) {
+        List<String> originalLines = toLines(originalContent);
+        List<String> newLines = toLines(newContent);
+
+        int commonLines = Math.min(originalLines.size(), newLines.size());
+        int prefix = 0;
+        while (prefix < commonLines && originalLines.get(prefix).equals(newLines.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < commonLines - prefix && originalLines.get(originalLines.size() - 1 - suffix)
+                .equals(newLines.get(newLines.size() - 1 - suffix))) {
+            suffix++;
+        }
+        List<String> originalWindow = originalLines.subList(prefix, originalLines.size() - suffix);
+        List<String> newWindow = newLines.subList(prefix, newLines.size() - suffix);
+        List<AbstractDelta<String>> deltas = diffWithinEditDistance(originalWindow, newWindow);
+        boolean isDiffCapped = deltas == null;
+
+        Builder builder = new Builder();
+        originalLines.subList(0, prefix).forEach(builder::appendUnchanged);
+        if (isDiffCapped) {
+            originalWindow.forEach(builder::appendDeleted);
+            newWindow.forEach(builder::appendAdded);
+        } else {
+            int currentLine = 0;
+            for (AbstractDelta<String> delta : deltas) {
+                // Continuously copy unchanged lines until we hit a diff
+                while (currentLine < delta.getSource().getPosition()) {
+                    builder.appendUnchanged(originalWindow.get(currentLine++));
+                }
+                delta.getSource().getLines().forEach(builder::appendDeleted);
+                delta.getTarget().getLines().forEach(builder::appendAdded);
+                currentLine = delta.getSource().getPosition() + delta.getSource().size();
+            }
+            originalWindow.subList(currentLine, originalWindow.size()).forEach(builder::appendUnchanged);
+        }
+        originalLines.subList(originalLines.size() - suffix, originalLines.size()).forEach(builder::appendUnchanged);
+
+        return new FileDiffModel(builder.text.toString(), builder.textDiffs, isDiffCapped);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public List<TextDiff> getTextDiffs() {
+        return textDiffs;
+    }
+
+    /*
+     * True when the changed region needed too many edits to diff and is shown as
+     * one deleted and one added block.
+     */
+    public boolean isDiffCapped() {
+        return isDiffCapped;
+    }
+
+    /*
+     * Runs the Myers diff, which reports one step per additional line edit it
+     * explores, and returns null as soon as it explores more than
+     * MAX_EDIT_DISTANCE edits.
+     */
+    private static List<AbstractDelta<String>> diffWithinEditDistance(final List<String> originalWindow, final List<String> newWindow) {
+        try {
+            return DiffUtils.diff(originalWindow, newWindow, new DiffAlgorithmListener() {
+                @Override
+                public void diffStart() {
+                }
+
+                @Override
+                public void diffStep(final int editDistance, final int max) {
+                    if (editDistance > MAX_EDIT_DISTANCE) {
+                        throw new EditDistanceExceededException();
+                    }
+                }
+
+                @Override
+                public void diffEnd() {
+                }
+            }).getDeltas();
+        } catch (EditDistanceExceededException e) {
+            return null;
+        }
+    }
+
+    private static List<String> toLines(final String content) {
+        return content == null || content.isEmpty() ? List.of() : content.lines().toList();
+    }
+
+    private static final class EditDistanceExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        EditDistanceExceededException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Builder {
+        private final StringBuilder text = new StringBuilder();
+        private final List<TextDiff> textDiffs = new ArrayList<>();
+
+        void appendUnchanged(final String line) {
+            text.append(line).append('\n');
+        }
+
+        void appendDeleted(final String line) {
+            textDiffs.add(new TextDiff(text.length(), line.length(), true));
+            text.append(line).append('\n');
+        }
+
+        void appendAdded(final String line) {
+            textDiffs.add(new TextDiff(text.length(), line.length(), false));
+            text.append(line).append('\n');
+        }
+    }
+
+}
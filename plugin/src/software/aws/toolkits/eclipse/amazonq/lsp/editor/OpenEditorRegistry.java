@@ -0,0 +1,237 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.editor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IWindowListener;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+import software.aws.toolkits.eclipse.amazonq.editor.InMemoryInput;
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.QEclipseEditorUtils;
+
+/**
+ * Keeps track of the files open in editors across all workbench windows, most
+ * recently activated first, by listening to part and window events instead of
+ * walking every editor reference on each request. The registry is updated on
+ * the UI thread and publishes immutable snapshots, so it can be read from any
+ * thread.
+ */
+public final class OpenEditorRegistry implements IPartListener2, IWindowListener {
+    static final int MAX_OPEN_EDITOR_PATHS = 50;
+
+    private static OpenEditorRegistry instance;
+
+    /* Editors in activation order, the most recently activated last. Only accessed on the UI thread. */
+    private final Map<IEditorReference, String> pathsByEditor = new LinkedHashMap<>();
+    private IEditorReference activeEditor;
+    private IWorkbench workbench;
+
+    private volatile List<String> openEditorPaths = List.of();
+    private volatile Optional<String> activeTextEditorUri = Optional.empty();
+    private volatile boolean isAttached;
+
+    OpenEditorRegistry() {
+    }
+
+    public static synchronized OpenEditorRegistry getInstance() {
+        if (instance == null) {
+            instance = new OpenEditorRegistry();
+        }
+        return instance;
+    }
+
+    public void initialize() {
+        Display.getDefault().asyncExec(() -> {
+            try {
+                attach(PlatformUI.getWorkbench());
+            } catch (Exception e) {
+                Activator.getLogger().error("Failed to initialize OpenEditorRegistry", e);
+            }
+        });
+    }
+
+    public void stop() {
+        isAttached = false;
+        try {
+            if (workbench != null) {
+                workbench.removeWindowListener(this);
+                for (IWorkbenchWindow window : workbench.getWorkbenchWindows()) {
+                    window.getPartService().removePartListener(this);
+                }
+            }
+        } catch (Exception e) {
+            Activator.getLogger().error("Error stopping OpenEditorRegistry", e);
+        }
+    }
+
+    /*
+     * Returns true once the registry has been populated, before that callers
+     * should fall back to scanning the workbench.
+     */
+    public boolean isAttached() {
+        return isAttached;
+    }
+
+    /*
+     * File paths of the open editors, most recently activated first, capped at
+     * MAX_OPEN_EDITOR_PATHS entries. In-memory editors are excluded.
+     */
+    public List<String> getOpenEditorFilePaths() {
+        return openEditorPaths;
+    }
+
+    /*
+     * URI of the file open in the active text editor, if any.
+     */
+    public Optional<String> getActiveTextEditorUri() {
+        return activeTextEditorUri;
+    }
+
+    void attach(final IWorkbench targetWorkbench) {
+        workbench = targetWorkbench;
+        workbench.addWindowListener(this);
+        for (IWorkbenchWindow window : workbench.getWorkbenchWindows()) {
+            track(window);
+        }
+        IWorkbenchWindow activeWindow = workbench.getActiveWorkbenchWindow();
+        IWorkbenchPage activePage = activeWindow == null ? null : activeWindow.getActivePage();
+        IEditorPart activeEditorPart = activePage == null ? null : activePage.getActiveEditor();
+        if (activeEditorPart != null && activePage.getReference(activeEditorPart) instanceof IEditorReference editorRef) {
+            activate(editorRef);
+        }
+        publish();
+        isAttached = true;
+    }
+
+    private void track(final IWorkbenchWindow window) {
+        window.getPartService().addPartListener(this);
+        for (IWorkbenchPage page : window.getPages()) {
+            for (IEditorReference editorRef : page.getEditorReferences()) {
+                resolvePath(editorRef).ifPresent(path -> pathsByEditor.put(editorRef, path));
+            }
+        }
+    }
+
+    @Override
+    public void partOpened(final IWorkbenchPartReference partRef) {
+        if (partRef instanceof IEditorReference editorRef && !pathsByEditor.containsKey(editorRef)) {
+            resolvePath(editorRef).ifPresent(path -> {
+                pathsByEditor.put(editorRef, path);
+                publish();
+            });
+        }
+    }
+
+    @Override
+    public void partActivated(final IWorkbenchPartReference partRef) {
+        if (partRef instanceof IEditorReference editorRef) {
+            activate(editorRef);
+            publish();
+        }
+    }
+
+    @Override
+    public void partInputChanged(final IWorkbenchPartReference partRef) {
+        if (partRef instanceof IEditorReference editorRef) {
+            pathsByEditor.remove(editorRef);
+            resolvePath(editorRef).ifPresent(path -> pathsByEditor.put(editorRef, path));
+            if (editorRef.equals(activeEditor)) {
+                activate(editorRef);
+            }
+            publish();
+        }
+    }
+
+    @Override
+    public void partClosed(final IWorkbenchPartReference partRef) {
+        if (partRef instanceof IEditorReference editorRef) {
+            pathsByEditor.remove(editorRef);
+            if (editorRef.equals(activeEditor)) {
+                activeEditor = null;
+                activeTextEditorUri = Optional.empty();
+            }
+            publish();
+        }
+    }
+
+    @Override
+    public void windowOpened(final IWorkbenchWindow window) {
+        track(window);
+        publish();
+    }
+
+    @Override
+    public void windowClosed(final IWorkbenchWindow window) {
+        window.getPartService().removePartListener(this);
+        for (IWorkbenchPage page : window.getPages()) {
+            for (IEditorReference editorRef : page.getEditorReferences()) {
+                partClosed(editorRef);
+            }
+        }
+    }
+
+    @Override
+    public void windowActivated(final IWorkbenchWindow window) {
+    }
+
+    @Override
+    public void windowDeactivated(final IWorkbenchWindow window) {
+    }
+
+    private void activate(final IEditorReference editorRef) {
+        activeEditor = editorRef;
+        String path = pathsByEditor.remove(editorRef);
+        if (path == null) {
+            path = resolvePath(editorRef).orElse(null);
+        }
+        if (path != null) {
+            pathsByEditor.put(editorRef, path);
+        }
+        ITextEditor textEditor = QEclipseEditorUtils.asTextEditor(editorRef.getEditor(false));
+        activeTextEditorUri = textEditor == null ? Optional.empty()
+                : QEclipseEditorUtils.getOpenFileUri(textEditor.getEditorInput());
+    }
+
+    private void publish() {
+        Set<String> paths = new LinkedHashSet<>();
+        List<String> editorPaths = new ArrayList<>(pathsByEditor.values());
+        for (int i = editorPaths.size() - 1; i >= 0 && paths.size() < MAX_OPEN_EDITOR_PATHS; i--) {
+            paths.add(editorPaths.get(i));
+        }
+        openEditorPaths = List.copyOf(paths);
+    }
+
+    private static Optional<String> resolvePath(final IEditorReference editorRef) {
+        try {
+            IEditorInput input = editorRef.getEditorInput();
+            if (input == null || input instanceof InMemoryInput) {
+                return Optional.empty();
+            }
+            String path = QEclipseEditorUtils.getOpenFilePath(input);
+            return path == null || path.isEmpty() ? Optional.empty() : Optional.of(path);
+        } catch (Exception e) {
+            Activator.getLogger().warn("Skipping editor tab: unable to resolve file path", e);
+            return Optional.empty();
+        }
+    }
+
+}
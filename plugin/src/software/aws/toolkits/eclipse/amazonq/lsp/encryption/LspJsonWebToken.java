@@ -6,6 +6,7 @@ package software.aws.toolkits.eclipse.amazonq.lsp.encryption;
 import javax.crypto.SecretKey;
 
 import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWEAlgorithm;
 import com.nimbusds.jose.JWEHeader;
 import com.nimbusds.jose.JWEObject;
@@ -14,24 +15,34 @@ import com.nimbusds.jose.crypto.DirectDecrypter;
 import com.nimbusds.jose.crypto.DirectEncrypter;
 
 import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
-import software.aws.toolkits.eclipse.amazonq.util.JsonHandler;
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
 
 public final class LspJsonWebToken {
 
+    private static final JWEHeader HEADER = new JWEHeader(JWEAlgorithm.DIR, EncryptionMethod.A256GCM);
+
+    /*
+     * The encryption key does not change for the lifetime of the plugin, so the
+     * (thread-safe) encrypter and decrypter are created once and reused for as
+     * long as the same key is passed in.
+     */
+    private static volatile CachedCrypters cachedCrypters;
+
     private LspJsonWebToken() {
         // prevent instantiation
     }
 
+    /*
+     * Serializes the data straight into UTF-8 bytes which are used as the JWE
+     * payload without an intermediate String, avoiding extra copies of large
+     * chat prompts.
+     */
     public static String encrypt(final SecretKey encryptionKey, final Object data) {
-        JsonHandler jsonHandler = new JsonHandler();
-        String serializedData = jsonHandler.serialize(data);
-
         try {
-            JWEHeader header = new JWEHeader(JWEAlgorithm.DIR, EncryptionMethod.A256GCM);
-            Payload payload = new Payload(serializedData);
-            JWEObject jweObject = new JWEObject(header, payload);
+            byte[] serializedData = ObjectMapperFactory.getInstance().writeValueAsBytes(data);
+            JWEObject jweObject = new JWEObject(HEADER, new Payload(serializedData));
 
-            jweObject.encrypt(new DirectEncrypter(encryptionKey));
+            jweObject.encrypt(getCrypters(encryptionKey).encrypter());
 
             return jweObject.serialize();
         } catch (Exception e) {
@@ -42,11 +53,23 @@ public final class LspJsonWebToken {
     public static String decrypt(final SecretKey encryptionKey, final String jwt) {
         try {
             JWEObject jweObject = JWEObject.parse(jwt);
-            jweObject.decrypt(new DirectDecrypter(encryptionKey));
+            jweObject.decrypt(getCrypters(encryptionKey).decrypter());
 
             return jweObject.getPayload().toString();
         } catch (Exception e) {
             throw new AmazonQPluginException("Error occurred while decrypting JWT", e);
         }
     }
+
+    private static CachedCrypters getCrypters(final SecretKey encryptionKey) throws JOSEException {
+        CachedCrypters crypters = cachedCrypters;
+        if (crypters == null || crypters.key() != encryptionKey) {
+            crypters = new CachedCrypters(encryptionKey, new DirectEncrypter(encryptionKey), new DirectDecrypter(encryptionKey));
+            cachedCrypters = crypters;
+        }
+        return crypters;
+    }
+
+    private record CachedCrypters(SecretKey key, DirectEncrypter encrypter, DirectDecrypter decrypter) {
+    }
 }
@@ -12,14 +12,19 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.swt.widgets.Display;
 import software.aws.toolkits.eclipse.amazonq.util.Constants;
 import software.aws.toolkits.eclipse.amazonq.util.PersistentToolkitNotification;
 import org.apache.maven.artifact.versioning.ArtifactVersion;
 import org.eclipse.mylyn.commons.ui.dialogs.AbstractNotificationPopup;
 
+import software.aws.toolkits.eclipse.amazonq.broker.events.AmazonQLspState;
 import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
 import software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher.ArtifactUtils;
 import software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher.LspFetcher;
@@ -30,21 +35,28 @@ import software.aws.toolkits.eclipse.amazonq.lsp.manager.model.Manifest;
 import software.aws.toolkits.eclipse.amazonq.util.PluginArchitecture;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.telemetry.LanguageServerTelemetryProvider;
+import software.aws.toolkits.eclipse.amazonq.telemetry.StartupTracer;
 import software.aws.toolkits.eclipse.amazonq.telemetry.metadata.ExceptionMetadata;
 import software.aws.toolkits.eclipse.amazonq.util.PluginPlatform;
 import software.aws.toolkits.eclipse.amazonq.util.PluginUtils;
 import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
 import software.aws.toolkits.telemetry.TelemetryDefinitions.LanguageServerLocation;
 import software.aws.toolkits.telemetry.TelemetryDefinitions.Result;
 
 public final class DefaultLspManager implements LspManager {
 
+    private static final long STAGING_DELAY_MS = 30_000;
+
     private final String manifestUrl;
     private final Path workingDirectory;
     private final String lspExecutablePrefix;
     private final PluginPlatform platformOverride;
     private final PluginArchitecture architectureOverride;
+    private final boolean isStagedUpdateEnabled;
     private LspInstallResult installResult;
+    private LspUpdateState updateState;
+    private boolean isSubscribedToLspState;
 
     private DefaultLspManager(final Builder builder) {
         this.manifestUrl = builder.manifestUrl;
@@ -52,6 +64,7 @@ public final class DefaultLspManager implements LspManager {
         this.lspExecutablePrefix = builder.lspExecutablePrefix;
         this.platformOverride = builder.platformOverride;
         this.architectureOverride = builder.architectureOverride;
+        this.isStagedUpdateEnabled = builder.isStagedUpdateEnabled;
     }
 
     public static Builder builder() {
@@ -63,7 +76,7 @@ public final class DefaultLspManager implements LspManager {
         if (installResult != null) {
             return installResult;
         }
-        try {
+        try (var phase = StartupTracer.getInstance().begin("resolve language server installation")) {
             var result = fetchLspInstallation();
             validateAndConfigureLsp(result);
             // store the installation result if validation succeeds
@@ -76,6 +89,23 @@ public final class DefaultLspManager implements LspManager {
         }
     }
 
+    /*
+     * A restart of the language server switches to a staged update, or back to
+     * the previous version after the active one failed to start.
+     */
+    @Override
+    public synchronized LspInstallResult getLspInstallationForLaunch() {
+        if (isStagedUpdateEnabled && installResult != null && installResult.getLocation() != LanguageServerLocation.OVERRIDE) {
+            var state = getUpdateState();
+            if (state.stagedVersion() != null || !Objects.equals(state.activeVersion(), installResult.getVersion())) {
+                Activator.getLogger().info(String.format("Switching Amazon Q language server from v%s on restart",
+                        installResult.getVersion()));
+                installResult = null;
+            }
+        }
+        return getLspInstallation();
+    }
+
     private LspInstallResult fetchLspInstallation() {
         var startTime = Instant.now();
         // retrieve local lsp overrides and use that if valid
@@ -87,6 +117,12 @@ public final class DefaultLspManager implements LspManager {
             emitGetServerWithOverride(startTime);
             return overrideResult;
         }
+        if (isStagedUpdateEnabled) {
+            var installedResult = getInstalledLsp(startTime);
+            if (installedResult != null) {
+                return installedResult;
+            }
+        }
         Manifest manifest = fetchManifest();
 
         if (manifest.isManifestDeprecated() && manifest.manifestSchemaVersion() != null) {
@@ -105,8 +141,136 @@ public final class DefaultLspManager implements LspManager {
         var fetchResult = lspFetcher.fetch(platform, architecture, workingDirectory, startTime);
 
         // initiate cleanup on a background thread
-        initiateCleanup(lspFetcher);
+        initiateCleanup(lspFetcher, fetchResult.version());
+
+        if (isStagedUpdateEnabled) {
+            recordLaunch(fetchResult.version());
+        }
+        return createInstallResult(fetchResult);
+    }
+
+    /*
+     * Launches the newest installed version right away, using the cached
+     * manifest so that no network request is made. A newer version is then
+     * downloaded by a background job and used after the next restart. Returns
+     * null when nothing usable is installed yet.
+     */
+    private LspInstallResult getInstalledLsp(final Instant startTime) {
+        var cachedManifest = fetchCachedManifest();
+        if (cachedManifest.isEmpty()) {
+            return null;
+        }
+        updateState = getUpdateState().beforeLaunch(System.currentTimeMillis());
+        var platform = platformOverride != null ? platformOverride : PluginUtils.getPlatform();
+        var architecture = architectureOverride != null ? architectureOverride : PluginUtils.getArchitecture();
+        var fetchResult = createLspFetcher(cachedManifest.get()).fetchInstalled(platform, architecture, workingDirectory, startTime);
+        if (fetchResult.isEmpty()) {
+            return null;
+        }
+        recordLaunch(fetchResult.get().version());
+        scheduleStagingJob();
+        return createInstallResult(fetchResult.get());
+    }
+
+    /*
+     * Downloads and verifies the newest version from the manifest and stages it
+     * for the next launch. Runs on a low priority job after startup.
+     */
+    void stageUpdate() {
+        var state = getCurrentUpdateState();
+        if (!state.isActiveConfirmed()) {
+            // cleanup after staging could remove the version to roll back to
+            Activator.getLogger().info(String.format("Not staging a language server update until v%s has started", state.activeVersion()));
+            return;
+        }
+        if (state.stagedVersion() != null) {
+            // the staged version is not used until the next launch, and is the newest one that could be staged
+            Activator.getLogger().info(String.format("Language server v%s is already staged for the next launch", state.stagedVersion()));
+            return;
+        }
+        try {
+            var manifest = fetchManifest();
+            var platform = platformOverride != null ? platformOverride : PluginUtils.getPlatform();
+            var architecture = architectureOverride != null ? architectureOverride : PluginUtils.getArchitecture();
+            var lspFetcher = createLspFetcher(manifest);
+            var fetchResult = lspFetcher.fetch(platform, architecture, workingDirectory, Instant.now());
+            if (fetchResult.location() != LanguageServerLocation.FALLBACK && markStaged(fetchResult.version())) {
+                Activator.getLogger().info(String.format(
+                        "Staged Amazon Q language server v%s, it will be used after the language server restarts", fetchResult.version()));
+            }
+            initiateCleanup(lspFetcher, fetchResult.version());
+        } catch (Exception e) {
+            Activator.getLogger().warn("Unable to stage an update of the Amazon Q language server", e);
+        }
+    }
+
+    private synchronized boolean markStaged(final String version) {
+        var state = getUpdateState();
+        if (state.activeVersion() != null
+                && ArtifactUtils.parseVersion(version).compareTo(ArtifactUtils.parseVersion(state.activeVersion())) <= 0) {
+            return false;
+        }
+        updateState = state.withStagedVersion(version);
+        saveUpdateState();
+        return true;
+    }
+
+    void scheduleStagingJob() {
+        Job stagingJob = Job.create("Checking for Amazon Q language server updates", monitor -> {
+            stageUpdate();
+            return Status.OK_STATUS;
+        });
+        stagingJob.setPriority(Job.DECORATE);
+        stagingJob.setSystem(true);
+        stagingJob.schedule(STAGING_DELAY_MS);
+    }
+
+    private synchronized void recordLaunch(final String version) {
+        updateState = getUpdateState().launched(version);
+        saveUpdateState();
+        if (!isSubscribedToLspState) {
+            Activator.getEventBroker().subscribe(AmazonQLspState.class, this::onLspStateChanged);
+            isSubscribedToLspState = true;
+        }
+    }
+
+    synchronized void onLspStateChanged(final AmazonQLspState lspState) {
+        var state = getUpdateState();
+        if (lspState == AmazonQLspState.ACTIVE) {
+            updateState = state.confirmed();
+        } else if (lspState == AmazonQLspState.FAILED) {
+            updateState = state.rollBack(System.currentTimeMillis());
+            if (updateState != state) {
+                Activator.getLogger().warn(String.format(
+                        "Amazon Q language server v%s failed to start, v%s will be used after the language server restarts",
+                        state.activeVersion(), updateState.activeVersion()));
+            }
+        }
+        if (updateState != state) {
+            saveUpdateState();
+        }
+    }
+
+    private synchronized LspUpdateState getCurrentUpdateState() {
+        return getUpdateState();
+    }
+
+    private LspUpdateState getUpdateState() {
+        if (updateState == null) {
+            updateState = LspUpdateState.load(workingDirectory);
+        }
+        return updateState;
+    }
+
+    private void saveUpdateState() {
+        try {
+            updateState.save(workingDirectory);
+        } catch (IOException e) {
+            Activator.getLogger().warn("Unable to save Amazon Q language server update state", e);
+        }
+    }
 
+    private LspInstallResult createInstallResult(final LspFetchResult fetchResult) {
         // set the command and args with the necessary values to launch the Q language server when retrieved from remote/local cache
         var result = new LspInstallResult();
         result.setLocation(fetchResult.location());
@@ -119,10 +283,16 @@ public final class DefaultLspManager implements LspManager {
         return result;
     }
 
-    private void initiateCleanup(final LspFetcher lspFetcher) {
-        ThreadingUtils.executeAsyncTask(() -> {
+    /*
+     * Cleanup keeps the fetched version, the running one and every version the
+     * update state may still launch: the active version, the previous version
+     * to roll back to and the staged version.
+     */
+    private void initiateCleanup(final LspFetcher lspFetcher, final String fetchedVersion) {
+        Set<String> retainedVersions = getRetainedVersions(fetchedVersion);
+        ThreadingUtils.executeAsyncTask(Subsystem.MAINTENANCE, () -> {
             try {
-                lspFetcher.cleanup(workingDirectory);
+                lspFetcher.cleanup(workingDirectory, retainedVersions);
             } catch (Exception e) {
                 // Silently log any errors and continue
                 Activator.getLogger().error("Error occured during Amazon Q Language server cache cleanup", e);
@@ -130,6 +300,22 @@ public final class DefaultLspManager implements LspManager {
         });
     }
 
+    private synchronized Set<String> getRetainedVersions(final String fetchedVersion) {
+        Set<String> versions = new HashSet<>();
+        versions.add(fetchedVersion);
+        if (installResult != null) {
+            versions.add(installResult.getVersion());
+        }
+        if (isStagedUpdateEnabled) {
+            var state = getUpdateState();
+            versions.add(state.activeVersion());
+            versions.add(state.previousVersion());
+            versions.add(state.stagedVersion());
+        }
+        versions.remove(null);
+        return versions;
+    }
+
     private boolean hasValidResult(final LspInstallResult overrideResult) {
         var start = Instant.now();
         String errorMessage = null;
@@ -167,9 +353,15 @@ public final class DefaultLspManager implements LspManager {
         return Optional.ofNullable(System.getenv(variableName)).orElse("");
     }
 
+    Optional<Manifest> fetchCachedManifest() {
+        try (var phase = StartupTracer.getInstance().begin("cached manifest read")) {
+            return new VersionManifestFetcher(null, workingDirectory.resolve("manifest.json")).fetch();
+        }
+    }
+
     Manifest fetchManifest() {
         LanguageServerTelemetryProvider.setManifestStartPoint(Instant.now());
-        try {
+        try (var phase = StartupTracer.getInstance().begin("manifest fetch")) {
             var manifestFetcher = new VersionManifestFetcher(manifestUrl);
             var manifest = manifestFetcher.fetch()
                     .orElseThrow(() -> new AmazonQPluginException("Failed to retrieve language server manifest"));
@@ -238,9 +430,11 @@ public final class DefaultLspManager implements LspManager {
     }
 
     LspFetcher createLspFetcher(final Manifest manifest) {
-        return RemoteLspFetcher.builder()
-                .withManifest(manifest)
-                .build();
+        var builder = RemoteLspFetcher.builder().withManifest(manifest);
+        if (isStagedUpdateEnabled) {
+            builder.withExcludedVersions(getCurrentUpdateState().failedVersions().keySet());
+        }
+        return builder.build();
     }
 
     private static void makeExecutable(final Path filePath) throws IOException {
@@ -286,6 +480,7 @@ public final class DefaultLspManager implements LspManager {
         private String lspExecutablePrefix;
         private PluginPlatform platformOverride;
         private PluginArchitecture architectureOverride;
+        private boolean isStagedUpdateEnabled;
 
         public Builder withManifestUrl(final String manifestUrl) {
             this.manifestUrl = manifestUrl;
@@ -312,6 +507,11 @@ public final class DefaultLspManager implements LspManager {
             return this;
         }
 
+        public Builder withStagedUpdates(final boolean isStagedUpdateEnabled) {
+            this.isStagedUpdateEnabled = isStagedUpdateEnabled;
+            return this;
+        }
+
         public DefaultLspManager build() {
             return new DefaultLspManager(this);
         }
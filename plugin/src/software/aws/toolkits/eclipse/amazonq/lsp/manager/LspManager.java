@@ -5,4 +5,13 @@ package software.aws.toolkits.eclipse.amazonq.lsp.manager;
 
 public interface LspManager {
     LspInstallResult getLspInstallation();
+
+    /*
+     * Returns the installation to start the language server from. Unlike
+     * getLspInstallation, this may switch to a different version when the
+     * server is restarted.
+     */
+    default LspInstallResult getLspInstallationForLaunch() {
+        return getLspInstallation();
+    }
 }
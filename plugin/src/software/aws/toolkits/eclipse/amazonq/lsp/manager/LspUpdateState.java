@@ -0,0 +1,142 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.manager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
+
+/**
+ * Language server versions tracked by staged updates. A staged version was
+ * downloaded and verified in the background and becomes active on the next
+ * launch. The active version stays unconfirmed until the server starts
+ * successfully; if it fails to start, or keeps getting launched without ever
+ * starting, it is marked as failed and the previous version is used again.
+ *
+ * Failed versions are keyed to the time they failed and are retried once
+ * FAILED_VERSION_EXPIRY_MS has passed. A launch that is cut short by closing
+ * the IDE also counts as unconfirmed, so a failure is not proof that the
+ * version is broken.
+ */
+record LspUpdateState(String activeVersion, boolean isActiveConfirmed, int unconfirmedLaunches, String previousVersion,
+        String stagedVersion, Map<String, Long> failedVersions) {
+
+    static final String FILENAME = "update-state.json";
+    static final int MAX_UNCONFIRMED_LAUNCHES = 2;
+    static final long FAILED_VERSION_EXPIRY_MS = TimeUnit.DAYS.toMillis(7);
+    static final LspUpdateState EMPTY = new LspUpdateState(null, false, 0, null, null, Map.of());
+
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.getInstance();
+
+    LspUpdateState {
+        failedVersions = failedVersions != null ? Map.copyOf(failedVersions) : Map.of();
+    }
+
+    /*
+     * Reads the state from the working directory. A missing or unreadable file
+     * yields the empty state, which makes the next launch behave like a fresh
+     * installation.
+     */
+    static LspUpdateState load(final Path directory) {
+        Path stateFile = directory.resolve(FILENAME);
+        if (!Files.isRegularFile(stateFile)) {
+            return EMPTY;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(stateFile.toFile(), LspUpdateState.class);
+        } catch (IOException e) {
+            Activator.getLogger().warn("Unable to read Amazon Q language server update state, starting from scratch", e);
+            return EMPTY;
+        }
+    }
+
+    void save(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, FILENAME, ".tmp");
+        try {
+            OBJECT_MAPPER.writeValue(tempFile.toFile(), this);
+            Files.move(tempFile, directory.resolve(FILENAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /*
+     * Applied before a version is picked for launch: forgets failures that have
+     * expired, rolls back an active version that was launched too often without
+     * starting, then promotes the staged version.
+     */
+    LspUpdateState beforeLaunch(final long now) {
+        LspUpdateState state = withoutExpiredFailures(now);
+        if (!state.isActiveConfirmed && state.previousVersion != null && state.unconfirmedLaunches >= MAX_UNCONFIRMED_LAUNCHES) {
+            state = state.rollBack(now);
+        }
+        if (state.stagedVersion != null) {
+            state = state.failedVersions.containsKey(state.stagedVersion) ? state.withStagedVersion(null) : state.promoteStaged();
+        }
+        return state;
+    }
+
+    LspUpdateState launched(final String version) {
+        if (version.equals(activeVersion)) {
+            int launches = isActiveConfirmed ? 0 : unconfirmedLaunches + 1;
+            return new LspUpdateState(activeVersion, isActiveConfirmed, launches, previousVersion, stagedVersion, failedVersions);
+        }
+        String rollbackVersion = isActiveConfirmed ? activeVersion : previousVersion;
+        if (version.equals(rollbackVersion)) {
+            rollbackVersion = null;
+        }
+        String staged = version.equals(stagedVersion) ? null : stagedVersion;
+        return new LspUpdateState(version, false, 1, rollbackVersion, staged, failedVersions);
+    }
+
+    LspUpdateState confirmed() {
+        if (activeVersion == null || isActiveConfirmed) {
+            return this;
+        }
+        return new LspUpdateState(activeVersion, true, 0, null, stagedVersion, failedVersions);
+    }
+
+    /*
+     * Marks the active version as failed and returns to the previous one. A
+     * version without anything to return to is kept, the regular fallback of
+     * the fetcher handles that case.
+     */
+    LspUpdateState rollBack(final long now) {
+        if (isActiveConfirmed || previousVersion == null) {
+            return this;
+        }
+        Map<String, Long> failed = new HashMap<>(failedVersions);
+        failed.put(activeVersion, now);
+        String staged = activeVersion.equals(stagedVersion) ? null : stagedVersion;
+        return new LspUpdateState(previousVersion, true, 0, null, staged, failed);
+    }
+
+    LspUpdateState withStagedVersion(final String version) {
+        return new LspUpdateState(activeVersion, isActiveConfirmed, unconfirmedLaunches, previousVersion, version, failedVersions);
+    }
+
+    private LspUpdateState withoutExpiredFailures(final long now) {
+        Map<String, Long> failed = new HashMap<>(failedVersions);
+        if (!failed.values().removeIf(failedAt -> now - failedAt >= FAILED_VERSION_EXPIRY_MS)) {
+            return this;
+        }
+        return new LspUpdateState(activeVersion, isActiveConfirmed, unconfirmedLaunches, previousVersion, stagedVersion, failed);
+    }
+
+    private LspUpdateState promoteStaged() {
+        String rollbackVersion = isActiveConfirmed ? activeVersion : previousVersion;
+        return new LspUpdateState(stagedVersion, false, 0, rollbackVersion, null, failedVersions);
+    }
+
+}
@@ -0,0 +1,127 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.manager.model.Content;
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
+
+/**
+ * Record of a language server version directory whose contents passed full hash
+ * verification. The stamp keeps the size, modification time and manifest hashes
+ * of every content file. As long as the stamp, the manifest and the files on
+ * disk agree, the content files are not hashed again.
+ *
+ * The stamp carries a plain checksum that only catches a truncated or edited
+ * stamp file. It is not a signature: whoever can write the version directory
+ * can replace the server itself, so the stamp does not protect against
+ * tampering any more than the files it describes.
+ */
+public final class ArtifactStamp {
+
+    static final String STAMP_FILENAME = ".verified-stamp.json";
+
+    private static final int SCHEMA_VERSION = 2;
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.getInstance();
+
+    record FileEntry(String filename, long size, long lastModified, List<String> hashes) {
+    }
+
+    record Stamp(int schemaVersion, List<FileEntry> files, String checksum) {
+    }
+
+    private ArtifactStamp() {
+        // Prevent instantiation
+    }
+
+    /*
+     * Writes the stamp for a version directory whose contents were just verified
+     * against the manifest.
+     */
+    public static void write(final Path versionDirectory, final List<Content> contents) throws IOException {
+        List<FileEntry> files = new ArrayList<>();
+        for (Content content : contents) {
+            Path file = versionDirectory.resolve(content.filename());
+            files.add(new FileEntry(content.filename(), Files.size(file), Files.getLastModifiedTime(file).toMillis(),
+                    sortedHashes(content)));
+        }
+
+        Stamp stamp = new Stamp(SCHEMA_VERSION, files, checksum(SCHEMA_VERSION, files));
+        Path tempFile = Files.createTempFile(versionDirectory, STAMP_FILENAME, ".tmp");
+        try {
+            OBJECT_MAPPER.writeValue(tempFile.toFile(), stamp);
+            Files.move(tempFile, versionDirectory.resolve(STAMP_FILENAME), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /*
+     * Returns true when the version directory has an intact stamp that matches
+     * the manifest contents and the content files currently on disk. Only file
+     * metadata is read, any mismatch or error returns false so that the caller
+     * falls back to full verification. Folders extracted from zips are not
+     * covered, the caller checks them against their zips either way.
+     */
+    public static boolean isValid(final Path versionDirectory, final List<Content> contents) {
+        try {
+            Path stampFile = versionDirectory.resolve(STAMP_FILENAME);
+            if (!Files.isRegularFile(stampFile)) {
+                return false;
+            }
+            Stamp stamp = OBJECT_MAPPER.readValue(stampFile.toFile(), Stamp.class);
+            if (stamp.schemaVersion() != SCHEMA_VERSION || stamp.files() == null || stamp.checksum() == null
+                    || stamp.files().size() != contents.size()
+                    || !stamp.checksum().equals(checksum(stamp.schemaVersion(), stamp.files()))) {
+                return false;
+            }
+
+            for (Content content : contents) {
+                FileEntry entry = stamp.files().stream().filter(file -> file.filename().equals(content.filename())).findFirst()
+                        .orElse(null);
+                Path file = versionDirectory.resolve(content.filename());
+                if (entry == null || !entry.hashes().equals(sortedHashes(content)) || !Files.isRegularFile(file)
+                        || Files.size(file) != entry.size() || Files.getLastModifiedTime(file).toMillis() != entry.lastModified()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /*
+     * Removes the stamp so that the next validation of the directory performs a
+     * full verification.
+     */
+    public static void invalidate(final Path versionDirectory) throws IOException {
+        Files.deleteIfExists(versionDirectory.resolve(STAMP_FILENAME));
+    }
+
+    private static List<String> sortedHashes(final Content content) {
+        return content.hashes() == null ? List.of() : content.hashes().stream().sorted().toList();
+    }
+
+    private static String checksum(final int schemaVersion, final List<FileEntry> files) {
+        StringBuilder payload = new StringBuilder().append(schemaVersion).append('\n');
+        for (FileEntry file : files) {
+            payload.append(file.filename()).append('\0').append(file.size()).append('\0')
+                    .append(file.lastModified()).append('\0').append(String.join(",", file.hashes())).append('\n');
+        }
+        return DigestUtils.sha256Hex(payload.toString());
+    }
+
+}
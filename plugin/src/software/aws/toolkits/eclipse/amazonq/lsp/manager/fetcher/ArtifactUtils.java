@@ -5,15 +5,11 @@ package software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.Comparator;
-import java.util.Enumeration;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.maven.artifact.versioning.ArtifactVersion;
@@ -27,22 +23,11 @@ public final class ArtifactUtils {
         // Prevent instantiation
     }
 
+    /*
+     * Extracts the zip into the destination, see ZipExtractor
+     */
     public static void extractFile(final Path zipFilePath, final Path destination) throws IOException {
-        try (var zipFile = new ZipFile(zipFilePath.toFile())) {
-            for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements();) {
-                var entry = entries.nextElement();
-                var entryPath = destination.resolve(entry.getName());
-                if (entry.isDirectory()) {
-                    Files.createDirectories(entryPath);
-                } else {
-                    Files.createDirectories(entryPath.getParent());
-                    if (Files.exists(entryPath)) {
-                        Files.delete(entryPath);
-                    }
-                    Files.copy(zipFile.getInputStream(entry), entryPath);
-                }
-            }
-        }
+        ZipExtractor.extract(zipFilePath, destination);
     }
 
     public static void copyDirectory(final Path source, final Path target) throws IOException {
@@ -133,33 +118,17 @@ public final class ArtifactUtils {
     }
 
     /*
-     * Copies missing files from zip into a destination folder which is intended to
-     * be an unzipped version of the zip file
+     * Copies missing or truncated files from zip into a destination folder which
+     * is intended to be an unzipped version of the zip file
      */
     public static boolean copyMissingFilesFromZip(final Path zipFile, final Path unzippedFolder) {
         try {
-            Files.createDirectories(unzippedFolder);
-
-            try (var zip = new ZipFile(zipFile.toFile())) {
-                // iterate over zip contents in parallel for improved performance
-                zip.stream().parallel().forEach(entry -> {
-                    Path entryPath = unzippedFolder.resolve(entry.getName());
-                    try {
-                        // if the entry is a directory, create the directory in the destination folder if not present
-                        if (entry.isDirectory()) {
-                            Files.createDirectories(entryPath);
-                        // if the entry is a file, copy the file to the destination folder if not present
-                        } else if (!Files.exists(entryPath)) {
-                            Files.createDirectories(entryPath.getParent());
-                            Files.copy(zip.getInputStream(entry), entryPath);
-                        }
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                });
+            int restored = ZipExtractor.repair(zipFile, unzippedFolder);
+            if (restored > 0) {
+                Activator.getLogger().info(String.format("Restored %d missing files from %s", restored, zipFile));
             }
             return true;
-        } catch (IOException | UncheckedIOException e) {
+        } catch (IOException e) {
             Activator.getLogger().error("Error when attempting to copy missing contents from zip file: " + zipFile.toString(), e);
             return false;
         }
@@ -5,6 +5,8 @@ package software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher;
 
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
 
 import software.aws.toolkits.eclipse.amazonq.lsp.manager.LspFetchResult;
 import software.aws.toolkits.eclipse.amazonq.util.PluginArchitecture;
@@ -12,5 +14,19 @@ import software.aws.toolkits.eclipse.amazonq.util.PluginPlatform;
 
 public interface LspFetcher {
     LspFetchResult fetch(PluginPlatform platform, PluginArchitecture architecture, Path destination, Instant start);
-    void cleanup(Path destination);
+
+    /*
+     * Deletes delisted and surplus versions from the destination, except for the
+     * retained versions, which may still be launched.
+     */
+    void cleanup(Path destination, Set<String> retainedVersions);
+
+    /*
+     * Returns the newest version that is already installed in the destination
+     * and passes validation, without contacting any remote location.
+     */
+    default Optional<LspFetchResult> fetchInstalled(final PluginPlatform platform, final PluginArchitecture architecture,
+            final Path destination, final Instant start) {
+        return Optional.empty();
+    }
 }
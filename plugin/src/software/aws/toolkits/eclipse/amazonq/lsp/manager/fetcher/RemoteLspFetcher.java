@@ -4,27 +4,30 @@
 package software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import org.apache.maven.artifact.versioning.ArtifactVersion;
 import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.artifact.versioning.VersionRange;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
 import software.aws.toolkits.eclipse.amazonq.exception.LspError;
@@ -38,6 +41,7 @@ import software.aws.toolkits.eclipse.amazonq.util.HttpClientFactory;
 import software.aws.toolkits.eclipse.amazonq.util.PluginArchitecture;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.telemetry.LanguageServerTelemetryProvider;
+import software.aws.toolkits.eclipse.amazonq.telemetry.StartupTracer;
 import software.aws.toolkits.eclipse.amazonq.telemetry.metadata.ExceptionMetadata;
 import software.aws.toolkits.eclipse.amazonq.util.PluginPlatform;
 import software.aws.toolkits.telemetry.TelemetryDefinitions.LanguageServerLocation;
@@ -45,17 +49,24 @@ import software.aws.toolkits.telemetry.TelemetryDefinitions.Result;
 
 public final class RemoteLspFetcher implements LspFetcher {
 
-    private static final int TIMEOUT_SECONDS = 30;
+    private static final String PARTIAL_DOWNLOADS_FOLDER = ".partial-downloads";
+    private static final String PARTIAL_DOWNLOAD_SUFFIX = ".part";
 
     private final Manifest manifest;
     private final VersionRange versionRange;
-    private final HttpClient httpClient;
+    private final ResumableDownloader downloader;
+    private final Set<String> excludedVersions;
     private RecordLspSetupArgs args = new RecordLspSetupArgs();
 
     private RemoteLspFetcher(final Builder builder) {
         this.manifest = builder.manifest;
         this.versionRange = builder.versionRange != null ? builder.versionRange : LspConstants.LSP_SUPPORTED_VERSION_RANGE;
-        this.httpClient = builder.httpClient != null ? builder.httpClient : HttpClientFactory.getInstance();
+        this.excludedVersions = builder.excludedVersions != null ? Set.copyOf(builder.excludedVersions) : Set.of();
+        if (builder.downloader != null) {
+            this.downloader = builder.downloader;
+        } else {
+            this.downloader = new ResumableDownloader(builder.httpClient != null ? builder.httpClient : HttpClientFactory.getInstance());
+        }
     }
 
     public static Builder builder() {
@@ -145,22 +156,91 @@ public final class RemoteLspFetcher implements LspFetcher {
         throw new AmazonQPluginException(failureReason);
     }
 
-    public void cleanup(final Path destinationFolder) {
+    /*
+     * Launches from the newest compatible version that is already installed so
+     * that startup does not wait for a download. Versions are validated from
+     * newest to oldest and the first valid one is returned.
+     */
+    @Override
+    public Optional<LspFetchResult> fetchInstalled(final PluginPlatform platform, final PluginArchitecture architecture,
+            final Path destination, final Instant start) {
+        if (manifest == null) {
+            return Optional.empty();
+        }
+        var cachedVersions = getCachedVersions(destination);
+        var installedVersions = getCompatibleArtifactVersions().stream()
+                .filter(version -> cachedVersions.contains(ArtifactUtils.parseVersion(version.serverVersion())))
+                .sorted((v1, v2) -> new DefaultArtifactVersion(v2.serverVersion())
+                        .compareTo(new DefaultArtifactVersion(v1.serverVersion())))
+                .toList();
+        for (var installedVersion : installedVersions) {
+            var cacheDir = getValidLocalCacheDirectory(installedVersion, platform, architecture, destination);
+            if (cacheDir != null) {
+                var serverVersion = installedVersion.serverVersion();
+                logMessageWithLicense(String.format("Launching Amazon Q language server v%s from local cache %s",
+                        serverVersion, cacheDir), installedVersion.thirdPartyLicenses());
+                emitGetServer(Result.SUCCEEDED, serverVersion, LanguageServerLocation.CACHE, start);
+                return Optional.of(new LspFetchResult(cacheDir.toString(), serverVersion, LanguageServerLocation.CACHE));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void cleanup(final Path destinationFolder, final Set<String> retainedVersions) {
         if (manifest == null || manifest.versions().isEmpty()) {
             return;
         }
-        deleteDelistedVersions(destinationFolder);
-        deleteExtraVersions(destinationFolder);
+        deleteDelistedVersions(destinationFolder, retainedVersions);
+        deleteExtraVersions(destinationFolder, retainedVersions);
     }
 
+    /*
+     * The content files of a version directory with a valid verification stamp
+     * are trusted without hashing them. Otherwise every content file is hashed
+     * and, if that succeeds, a new stamp is written so that the next startup can
+     * take the fast path. Either way the unzipped folders are checked against
+     * their zips and repaired.
+     */
     private boolean hasValidCache(final List<Content> contents, final Path cacheDirectory) {
+        try (var phase = StartupTracer.getInstance().begin("artifact validation " + cacheDirectory.getFileName())) {
+            return validateCache(contents, cacheDirectory);
+        }
+    }
+
+    private boolean validateCache(final List<Content> contents, final Path cacheDirectory) {
+        long start = System.nanoTime();
+        if (ArtifactStamp.isValid(cacheDirectory, contents)) {
+            boolean isValid = ensureUnzippedFoldersMatchZip(cacheDirectory, contents);
+            logValidationTime(cacheDirectory, "verification stamp", start);
+            return isValid;
+        }
+
         boolean result = contents.stream().allMatch(content -> {
             Path filePath = Paths.get(cacheDirectory.toString(), content.filename());
             return Files.exists(filePath) && ArtifactUtils.validateHash(filePath, content.hashes(), false);
         });
 
         // Handle validation for zip files if hash matches
-        return result && ensureUnzippedFoldersMatchZip(cacheDirectory, contents);
+        boolean isValid = result && ensureUnzippedFoldersMatchZip(cacheDirectory, contents);
+        if (isValid) {
+            writeStamp(cacheDirectory, contents);
+            logValidationTime(cacheDirectory, "full hash verification", start);
+        }
+        return isValid;
+    }
+
+    private void writeStamp(final Path cacheDirectory, final List<Content> contents) {
+        try {
+            ArtifactStamp.write(cacheDirectory, contents);
+        } catch (IOException e) {
+            Activator.getLogger().warn("Unable to write verification stamp for " + cacheDirectory, e);
+        }
+    }
+
+    private void logValidationTime(final Path cacheDirectory, final String method, final long startNanos) {
+        Activator.getLogger().info(String.format("Validated language server cache %s using %s in %d ms", cacheDirectory, method,
+                Duration.ofNanos(System.nanoTime() - startNanos).toMillis()));
     }
 
     /*
@@ -215,7 +295,8 @@ public final class RemoteLspFetcher implements LspFetcher {
     }
 
     private boolean isCompatibleVersion(final ManifestArtifactVersion version) {
-        return versionRange.containsVersion(ArtifactUtils.parseVersion(version.serverVersion())) && !version.isDelisted();
+        return versionRange.containsVersion(ArtifactUtils.parseVersion(version.serverVersion())) && !version.isDelisted()
+                && !excludedVersions.contains(version.serverVersion());
     }
 
     private Optional<Target> resolveTarget(final Optional<ManifestArtifactVersion> targetVersion, final PluginPlatform platform,
@@ -226,6 +307,12 @@ public final class RemoteLspFetcher implements LspFetcher {
     }
 
     private boolean downloadFromRemote(final List<Content> contents, final Path downloadDirectory) {
+        try (var phase = StartupTracer.getInstance().begin("artifact download " + downloadDirectory.getFileName())) {
+            return downloadAndExtract(contents, downloadDirectory);
+        }
+    }
+
+    private boolean downloadAndExtract(final List<Content> contents, final Path downloadDirectory) {
         boolean downloadResult = contents.parallelStream()
                 .map(targetContent -> downloadContentFromRemote(targetContent, downloadDirectory))
                 .allMatch(result -> result);
@@ -233,38 +320,61 @@ public final class RemoteLspFetcher implements LspFetcher {
         // return false if download is not successful for any one target content
         // if successfully fetched from remote, unzip those in zip format and return result of the unzip operation.
         // If any target fails the unzip operation, the download is considered unsuccessful
-        return downloadResult && extractZipFilesFromRemote(downloadDirectory);
+        if (downloadResult && extractZipFilesFromRemote(downloadDirectory)) {
+            ArtifactUtils.deleteDirectory(getPartialDownloadDirectory(downloadDirectory));
+            writeStamp(downloadDirectory, contents);
+            return true;
+        }
+        return false;
     }
 
+    /*
+     * Downloads the content in a job so that its progress is shown in the
+     * Progress view. The partial file is kept outside of the version directory,
+     * which is deleted when invalid, so an interrupted download resumes on the
+     * next attempt.
+     */
     private boolean downloadContentFromRemote(final Content content, final Path downloadDirectory) {
+        var expectedHash = ResumableDownloader.getExpectedSha384(content.hashes());
+        if (expectedHash.isEmpty()) {
+            Activator.getLogger().error("No SHA-384 hash found in manifest for " + content.filename());
+            setErrorReason(LspError.ARTIFACT_VALIDATION_ERROR.toString());
+            return false;
+        }
         try {
             Files.createDirectories(downloadDirectory);
             var destinationFile = downloadDirectory.resolve(content.filename());
-
-            var request = HttpRequest.newBuilder()
-                    .uri(URI.create(content.url()))
-                    .timeout(java.time.Duration.ofSeconds(TIMEOUT_SECONDS))
-                    .build();
-
-            var tempFolder = Files.createTempDirectory("lsp-amazon-eclipse");
-            var tempFile = tempFolder.resolve(content.filename());
-            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofFile(tempFile));
-
-            if (response.statusCode() == HttpURLConnection.HTTP_OK) {
-                // if validation succeeds move it to download directory
-                // if it fails, delete the temp directory
-                if (ArtifactUtils.validateHash(response.body(), content.hashes(), true)) {
-                    Files.copy(response.body(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
-                    Activator.getLogger().info("Downloaded " + content.filename() + " to " + downloadDirectory);
-                    return true;
-                } else {
-                    ArtifactUtils.deleteDirectory(tempFolder);
-                    setErrorReason(LspError.ARTIFACT_VALIDATION_ERROR.toString());
+            var partialFile = getPartialDownloadDirectory(downloadDirectory).resolve(content.filename() + PARTIAL_DOWNLOAD_SUFFIX);
+
+            var isVerified = new AtomicBoolean();
+            var failure = new AtomicReference<Exception>();
+            Job downloadJob = Job.create("Downloading " + content.filename(), monitor -> {
+                try {
+                    isVerified.set(downloader.download(URI.create(content.url()), partialFile, expectedHash.get(), monitor));
+                } catch (IOException | RuntimeException e) {
+                    failure.set(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure.set(e);
                 }
-            } else {
-                setErrorReason(LspError.SERVER_REMOTE_FETCH_ERROR + "-" + response.statusCode());
-                throw new AmazonQPluginException("Failed to download remote LSP artifact. Response code: " + response.statusCode());
+                return Status.OK_STATUS;
+            });
+            downloadJob.schedule();
+            downloadJob.join();
+
+            if (failure.get() instanceof ResumableDownloader.HttpStatusException e) {
+                setErrorReason(LspError.SERVER_REMOTE_FETCH_ERROR + "-" + e.getStatusCode());
+                throw e;
+            } else if (failure.get() != null) {
+                throw failure.get();
+            } else if (!isVerified.get()) {
+                Activator.getLogger().error("Hash mismatch for downloaded file " + content.filename());
+                setErrorReason(LspError.ARTIFACT_VALIDATION_ERROR.toString());
+                return false;
             }
+            Files.move(partialFile, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            Activator.getLogger().info("Downloaded " + content.filename() + " to " + downloadDirectory);
+            return true;
         } catch (Exception ex) {
             //TODO: account for these failures in telemtry emissions
             Activator.getLogger().error("Error downloading from remote", ex);
@@ -272,6 +382,10 @@ public final class RemoteLspFetcher implements LspFetcher {
         return false;
     }
 
+    private static Path getPartialDownloadDirectory(final Path downloadDirectory) {
+        return downloadDirectory.resolveSibling(PARTIAL_DOWNLOADS_FOLDER).resolve(downloadDirectory.getFileName());
+    }
+
     /*
      * Extracts any zip files found in the download directory
      * where remote assets have just been downloaded and returns true when each one is successfully unzipped
@@ -379,13 +493,15 @@ public final class RemoteLspFetcher implements LspFetcher {
                 .toList();
     }
 
-    private void deleteDelistedVersions(final Path destinationFolder) {
+    private void deleteDelistedVersions(final Path destinationFolder, final Set<String> retainedVersions) {
         var compatibleVersions = getCompatibleArtifactVersions().stream().map(x -> ArtifactUtils.parseVersion(x.serverVersion())).collect(Collectors.toList());
         var cachedVersions = getCachedVersions(destinationFolder);
 
         // delete de-listed versions in the toolkit compatible version range
         var delistedVersions = cachedVersions.stream()
-                .filter(x -> !compatibleVersions.contains(x) && versionRange.containsVersion(x)).collect(Collectors.toList());
+                .filter(x -> !compatibleVersions.contains(x) && versionRange.containsVersion(x))
+                .filter(x -> !retainedVersions.contains(x.toString()))
+                .collect(Collectors.toList());
         if (delistedVersions.size() > 0) {
             Activator.getLogger().info(String.format("Cleaning up %s cached de-listed versions for Amazon Q Language Server", delistedVersions.size()));
         }
@@ -394,13 +510,14 @@ public final class RemoteLspFetcher implements LspFetcher {
         });
     }
 
-    private void deleteExtraVersions(final Path destinationFolder) {
+    private void deleteExtraVersions(final Path destinationFolder, final Set<String> retainedVersions) {
         var cachedVersions = getCachedVersions(destinationFolder);
-        // delete extra versions in the compatible toolkit version range except highest 2 versions
+        // delete extra versions in the compatible toolkit version range except highest 2 versions and the retained ones
         var extraVersions = cachedVersions.stream()
                 .filter(x -> versionRange.containsVersion(x))
                 .sorted(Comparator.reverseOrder())
                 .skip(2)
+                .filter(x -> !retainedVersions.contains(x.toString()))
                 .collect(Collectors.toList());
         if (extraVersions.size() > 0) {
             Activator.getLogger().info(String.format("Cleaning up %s cached extra versions for Amazon Q Language Server", extraVersions.size()));
@@ -419,6 +536,8 @@ public final class RemoteLspFetcher implements LspFetcher {
         private Manifest manifest;
         private VersionRange versionRange;
         private HttpClient httpClient;
+        private ResumableDownloader downloader;
+        private Collection<String> excludedVersions;
 
         public final Builder withManifest(final Manifest manifest) {
             this.manifest = manifest;
@@ -435,6 +554,20 @@ public final class RemoteLspFetcher implements LspFetcher {
             return this;
         }
 
+        public final Builder withDownloader(final ResumableDownloader downloader) {
+            this.downloader = downloader;
+            return this;
+        }
+
+        /*
+         * Versions that are treated like de-listed ones, for example because
+         * they failed to launch on this machine.
+         */
+        public final Builder withExcludedVersions(final Collection<String> excludedVersions) {
+            this.excludedVersions = excludedVersions;
+            return this;
+        }
+
         public final RemoteLspFetcher build() {
             return new RemoteLspFetcher(this);
         }
@@ -0,0 +1,366 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+/**
+ * Downloads an artifact into a partial file that survives failed attempts.
+ * Transport errors, 429 and 5xx responses are retried with exponential
+ * backoff, and every retry resumes from the end of the partial file with a
+ * Range request guarded by If-Range so that a changed artifact is downloaded
+ * from scratch instead of being stitched together. The SHA-384 of the file is
+ * computed while the bytes are written, so no second pass over the file is
+ * needed to validate it.
+ */
+public final class ResumableDownloader {
+
+    static final int DEFAULT_MAX_ATTEMPTS = 5;
+    static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(500);
+    static final Duration MAX_BACKOFF = Duration.ofSeconds(8);
+    static final String VALIDATOR_SUFFIX = ".validator";
+
+    private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+
+    private final HttpClient httpClient;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration readTimeout;
+
+    public ResumableDownloader(final HttpClient httpClient) {
+        this(httpClient, DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_READ_TIMEOUT);
+    }
+
+    ResumableDownloader(final HttpClient httpClient, final int maxAttempts, final Duration initialBackoff,
+            final Duration readTimeout) {
+        this.httpClient = httpClient;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.readTimeout = readTimeout;
+    }
+
+    /*
+     * Downloads the artifact into partialFile, resuming from its current content,
+     * and returns true once the complete file matches the expected SHA-384. A
+     * resumed file that does not match is downloaded once more from scratch
+     * before returning false. Throws when the server keeps failing or answers
+     * with a status that is not worth retrying. The partial file is kept on
+     * failure so that the next call can resume it.
+     */
+    public boolean download(final URI uri, final Path partialFile, final String expectedSha384, final IProgressMonitor monitor)
+            throws IOException, InterruptedException {
+        IProgressMonitor progress = monitor != null ? monitor : new NullProgressMonitor();
+        Files.createDirectories(partialFile.getParent());
+        Path validatorFile = partialFile.resolveSibling(partialFile.getFileName() + VALIDATOR_SUFFIX);
+        Transfer transfer = new Transfer(partialFile, progress);
+        boolean isResumed = transfer.position > 0;
+        boolean hasReportedTask = false;
+
+        IOException lastFailure = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(getBackoff(attempt).toMillis());
+            }
+            if (progress.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(createRequest(uri, transfer.position, validatorFile), HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException e) {
+                lastFailure = e;
+                continue;
+            }
+
+            try (InputStream body = response.body()) {
+                int status = response.statusCode();
+                long expectedLength;
+                if (status == HttpURLConnection.HTTP_OK) {
+                    transfer.reset();
+                    expectedLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+                } else if (status == HttpURLConnection.HTTP_PARTIAL) {
+                    Matcher range = CONTENT_RANGE.matcher(response.headers().firstValue("Content-Range").orElse(""));
+                    if (!range.matches() || Long.parseLong(range.group(1)) != transfer.position) {
+                        transfer.reset();
+                        lastFailure = new IOException("Unexpected Content-Range for " + uri);
+                        continue;
+                    }
+                    expectedLength = range.group(3).equals("*") ? -1 : Long.parseLong(range.group(3));
+                    isResumed = true;
+                } else if (status == HTTP_RANGE_NOT_SATISFIABLE) {
+                    // the previous attempt may have received every byte before failing
+                    if (transfer.getSha384().equalsIgnoreCase(expectedSha384)) {
+                        Files.deleteIfExists(validatorFile);
+                        progress.done();
+                        return true;
+                    }
+                    transfer.reset();
+                    lastFailure = new IOException("Server rejected the resume range for " + uri);
+                    continue;
+                } else if (status == HTTP_TOO_MANY_REQUESTS || status >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                    lastFailure = new HttpStatusException(uri, status);
+                    continue;
+                } else {
+                    lastFailure = new HttpStatusException(uri, status);
+                    break;
+                }
+
+                saveValidator(response, validatorFile);
+                if (!hasReportedTask) {
+                    progress.beginTask("Downloading " + partialFile.getFileName(),
+                            expectedLength > 0 ? (int) Math.ceil(expectedLength / 1024.0) : IProgressMonitor.UNKNOWN);
+                    progress.worked((int) (transfer.position / 1024));
+                    hasReportedTask = true;
+                }
+                transfer.append(body, expectedLength, readTimeout);
+            } catch (IOException e) {
+                lastFailure = e;
+                continue;
+            }
+
+            if (transfer.getSha384().equalsIgnoreCase(expectedSha384)) {
+                Files.deleteIfExists(validatorFile);
+                progress.done();
+                return true;
+            }
+            transfer.reset();
+            Files.deleteIfExists(validatorFile);
+            if (!isResumed) {
+                progress.done();
+                return false;
+            }
+            isResumed = false;
+            lastFailure = new IOException("Checksum mismatch for resumed download of " + uri);
+        }
+        throw lastFailure;
+    }
+
+    /**
+     * Thrown when the server answers with an error status.
+     */
+    public static final class HttpStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+        private final int statusCode;
+
+        HttpStatusException(final URI uri, final int statusCode) {
+            super("Failed to download " + uri + ". Response code: " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+
+    /*
+     * Returns the SHA-384 hash listed in the manifest hashes, if any.
+     */
+    public static Optional<String> getExpectedSha384(final List<String> hashes) {
+        return hashes == null ? Optional.empty()
+                : hashes.stream().filter(hash -> hash.startsWith("sha384:")).map(hash -> hash.substring(7)).findFirst();
+    }
+
+    Duration getBackoff(final int attempt) {
+        long millis = initialBackoff.toMillis() << Math.min(attempt - 1, 16);
+        return Duration.ofMillis(Math.min(millis, MAX_BACKOFF.toMillis()));
+    }
+
+    private HttpRequest createRequest(final URI uri, final long position, final Path validatorFile) throws IOException {
+        var request = HttpRequest.newBuilder().uri(uri).timeout(readTimeout);
+        if (position > 0) {
+            request.header("Range", "bytes=" + position + "-");
+            if (Files.isRegularFile(validatorFile)) {
+                request.header("If-Range", Files.readString(validatorFile, StandardCharsets.UTF_8).trim());
+            }
+        }
+        return request.build();
+    }
+
+    /*
+     * Prefers the ETag over Last-Modified since it changes with the content even
+     * within the same second.
+     */
+    private static void saveValidator(final HttpResponse<?> response, final Path validatorFile) throws IOException {
+        Optional<String> validator = response.headers().firstValue("ETag").filter(etag -> !etag.startsWith("W/"))
+                .or(() -> response.headers().firstValue("Last-Modified"));
+        if (validator.isPresent()) {
+            Files.writeString(validatorFile, validator.get(), StandardCharsets.UTF_8);
+        } else {
+            Files.deleteIfExists(validatorFile);
+        }
+    }
+
+    /*
+     * Closes the response body when no data arrives within the timeout. The
+     * request timeout of HttpClient only covers the response headers, so a
+     * proxy that stops sending in the middle of the body would otherwise block
+     * the read forever.
+     */
+    private static final class StallWatchdog implements Runnable, AutoCloseable {
+        private final InputStream body;
+        private final long timeoutNanos;
+        private volatile long lastProgressNanos = System.nanoTime();
+        private volatile boolean isStalled;
+        private volatile boolean isClosed;
+        private volatile Future<?> check;
+
+        StallWatchdog(final InputStream body, final Duration timeout) {
+            this.body = body;
+            this.timeoutNanos = timeout.toNanos();
+            check = ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.MAINTENANCE, this, timeout.toMillis());
+        }
+
+        void onProgress() {
+            lastProgressNanos = System.nanoTime();
+        }
+
+        boolean isStalled() {
+            return isStalled;
+        }
+
+        @Override
+        public void run() {
+            if (isClosed) {
+                return;
+            }
+            long idleNanos = System.nanoTime() - lastProgressNanos;
+            if (idleNanos < timeoutNanos) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(timeoutNanos - idleNanos) + 1;
+                check = ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.MAINTENANCE, this, remainingMs);
+                return;
+            }
+            isStalled = true;
+            try {
+                body.close();
+            } catch (IOException e) {
+                // the read that is blocked on the body fails or ends either way
+            }
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+            check.cancel(false);
+        }
+    }
+
+    /*
+     * The partial file together with the digest of its content.
+     */
+    private static final class Transfer {
+        private final Path file;
+        private final IProgressMonitor progress;
+        private MessageDigest digest;
+        private long position;
+
+        Transfer(final Path file, final IProgressMonitor progress) throws IOException {
+            this.file = file;
+            this.progress = progress;
+            this.digest = newDigest();
+            if (Files.isRegularFile(file)) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                        position += read;
+                    }
+                }
+            }
+        }
+
+        void reset() throws IOException {
+            Files.deleteIfExists(file);
+            digest = newDigest();
+            position = 0;
+        }
+
+        /*
+         * Appends the body to the partial file. Throws when the connection ends
+         * before the expected length, or stalls for longer than the read timeout,
+         * so that the caller resumes the transfer.
+         */
+        void append(final InputStream body, final long expectedLength, final Duration readTimeout) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    StallWatchdog watchdog = new StallWatchdog(body, readTimeout)) {
+                channel.truncate(position);
+                channel.position(position);
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long reportedKiB = position / 1024;
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    if (progress.isCanceled()) {
+                        throw new OperationCanceledException();
+                    }
+                    watchdog.onProgress();
+                    channel.write(ByteBuffer.wrap(buffer, 0, read));
+                    digest.update(buffer, 0, read);
+                    position += read;
+                    long positionKiB = position / 1024;
+                    if (positionKiB > reportedKiB) {
+                        progress.worked((int) (positionKiB - reportedKiB));
+                        reportedKiB = positionKiB;
+                    }
+                }
+                if (watchdog.isStalled()) {
+                    throw new IOException(String.format("No data received for %d ms after %d bytes", readTimeout.toMillis(), position));
+                }
+            }
+            if (expectedLength >= 0 && position != expectedLength) {
+                throw new IOException(String.format("Connection closed after %d of %d bytes", position, expectedLength));
+            }
+        }
+
+        String getSha384() throws IOException {
+            try {
+                return HexFormat.of().formatHex(((MessageDigest) digest.clone()).digest());
+            } catch (CloneNotSupportedException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private static MessageDigest newDigest() throws IOException {
+            try {
+                return MessageDigest.getInstance("SHA-384");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+}
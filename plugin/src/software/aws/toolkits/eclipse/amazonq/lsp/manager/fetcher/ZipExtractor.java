@@ -0,0 +1,274 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+/**
+ * Extracts zip archives by spreading the file entries over the calling thread
+ * and a bounded number of helpers on the maintenance executor, so slow disks
+ * are kept busy with several writes at once. Every file is written to a
+ * temporary sibling and renamed into place so a crash never leaves a truncated
+ * file behind, and entries that would be written outside of the destination
+ * are rejected.
+ *
+ * The extracted paths and sizes are recorded in a manifest next to the
+ * destination folder. A repair compares the folder against that manifest and
+ * only opens the zip when files are missing or have the wrong size. Without a
+ * manifest the zip is scanned with the same rule and a manifest is written for
+ * the next repair.
+ */
+public final class ZipExtractor {
+
+    static final String MANIFEST_SUFFIX = ".extracted";
+    static final int MAX_WORKERS = 8;
+
+    private static final String MANIFEST_HEADER = "zip-extraction-v2";
+    private static final String PART_SUFFIX = ".part";
+
+    record ExtractedFile(String path, long size) {
+    }
+
+    record ExtractionManifest(long zipSize, long zipLastModified, List<ExtractedFile> files) {
+    }
+
+    private ZipExtractor() {
+        // Prevent instantiation
+    }
+
+    /*
+     * Extracts every entry of the zip into the destination, replacing existing
+     * files, and records the extracted files in the manifest.
+     */
+    public static void extract(final Path zipFile, final Path destination) throws IOException {
+        try (var zip = new ZipFile(zipFile.toFile())) {
+            List<ZipEntry> entries = zip.stream().map(ZipEntry.class::cast).toList();
+            extractEntries(zip, entries, destination);
+            writeManifest(zipFile, destination, describe(entries, destination));
+        }
+    }
+
+    /*
+     * Restores the files of the destination that are missing or whose size
+     * differs from the manifest, or from the zip entry when there is no usable
+     * manifest, and returns how many files were extracted.
+     */
+    public static int repair(final Path zipFile, final Path destination) throws IOException {
+        Files.createDirectories(destination);
+        Path root = destination.toAbsolutePath().normalize();
+        ExtractionManifest manifest = readManifest(zipFile, destination);
+        if (manifest != null) {
+            Set<String> damaged = manifest.files().parallelStream().filter(file -> !matches(root, file.path(), file.size()))
+                    .map(ExtractedFile::path).collect(Collectors.toSet());
+            if (damaged.isEmpty()) {
+                return 0;
+            }
+            try (var zip = new ZipFile(zipFile.toFile())) {
+                List<ZipEntry> entries = zip.stream().filter(entry -> damaged.contains(entry.getName())).map(ZipEntry.class::cast)
+                        .toList();
+                extractEntries(zip, entries, destination);
+                return entries.size();
+            }
+        }
+
+        try (var zip = new ZipFile(zipFile.toFile())) {
+            List<ZipEntry> entries = zip.stream().map(ZipEntry.class::cast).toList();
+            List<ZipEntry> damaged = entries.parallelStream()
+                    .filter(entry -> entry.isDirectory() ? !Files.isDirectory(root.resolve(entry.getName()))
+                            : !matches(root, entry.getName(), entry.getSize()))
+                    .toList();
+            extractEntries(zip, damaged, destination);
+            writeManifest(zipFile, destination, describe(entries, destination));
+            return (int) damaged.stream().filter(entry -> !entry.isDirectory()).count();
+        }
+    }
+
+    static Path getManifestPath(final Path destination) {
+        return destination.resolveSibling(destination.getFileName() + MANIFEST_SUFFIX);
+    }
+
+    /*
+     * A size below zero is not recorded in the zip, such files only need to exist.
+     */
+    private static boolean matches(final Path root, final String name, final long size) {
+        Path path = root.resolve(name).normalize();
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return path.startsWith(root) && attributes.isRegularFile() && (size < 0 || attributes.size() == size);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /*
+     * Creates all directories up front, then copies the file entries. ZipFile
+     * supports concurrent reads of different entries.
+     */
+    private static void extractEntries(final ZipFile zip, final List<ZipEntry> entries, final Path destination) throws IOException {
+        Set<Path> directories = new LinkedHashSet<>();
+        directories.add(destination);
+        List<ZipEntry> files = new ArrayList<>();
+        for (ZipEntry entry : entries) {
+            Path path = resolveEntry(destination, entry.getName());
+            if (entry.isDirectory()) {
+                directories.add(path);
+            } else {
+                directories.add(path.getParent());
+                files.add(entry);
+            }
+        }
+        for (Path directory : directories) {
+            Files.createDirectories(directory);
+        }
+        if (!files.isEmpty()) {
+            extractFiles(zip, files, destination);
+        }
+    }
+
+    /*
+     * The calling thread works through the entries together with up to
+     * MAX_WORKERS - 1 helpers. Helpers only pick up entries that are still
+     * pending, so the extraction completes even when the maintenance executor
+     * is busy and no helper gets to run.
+     */
+    private static void extractFiles(final ZipFile zip, final List<ZipEntry> files, final Path destination) throws IOException {
+        Queue<ZipEntry> pending = new ConcurrentLinkedQueue<>(files);
+        CountDownLatch completed = new CountDownLatch(files.size());
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            ZipEntry entry;
+            while ((entry = pending.poll()) != null) {
+                try {
+                    if (failure.get() == null) {
+                        writeEntry(zip, entry, resolveEntry(destination, entry.getName()));
+                    }
+                } catch (IOException e) {
+                    failure.compareAndSet(null, e);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, new IOException("Failed to extract " + entry.getName(), e));
+                } finally {
+                    completed.countDown();
+                }
+            }
+        };
+
+        int helpers = Math.min(files.size(), MAX_WORKERS) - 1;
+        for (int i = 0; i < helpers; i++) {
+            ThreadingUtils.executeAsyncTask(Subsystem.MAINTENANCE, worker);
+        }
+        worker.run();
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            pending.clear();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting " + zip.getName(), e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private static void writeEntry(final ZipFile zip, final ZipEntry entry, final Path target) throws IOException {
+        Path partFile = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        try (InputStream in = zip.getInputStream(entry)) {
+            Files.copy(in, partFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partFile);
+        }
+    }
+
+    /*
+     * Rejects entries that would be written outside of the destination.
+     */
+    private static Path resolveEntry(final Path destination, final String name) throws IOException {
+        Path root = destination.toAbsolutePath().normalize();
+        Path path = root.resolve(name).normalize();
+        if (!path.startsWith(root)) {
+            throw new IOException("Zip entry is outside of the target directory: " + name);
+        }
+        return path;
+    }
+
+    private static List<ExtractedFile> describe(final List<ZipEntry> entries, final Path destination) throws IOException {
+        List<ExtractedFile> files = new ArrayList<>();
+        for (ZipEntry entry : entries) {
+            if (!entry.isDirectory()) {
+                long size = entry.getSize() >= 0 ? entry.getSize() : Files.size(resolveEntry(destination, entry.getName()));
+                files.add(new ExtractedFile(entry.getName(), size));
+            }
+        }
+        return files;
+    }
+
+    /*
+     * The manifest is plain text so that it can be read without a JSON parser on
+     * the startup path: a header line with the zip size and modification time,
+     * then one "<size>\t<path>" line per extracted file.
+     */
+    private static void writeManifest(final Path zipFile, final Path destination, final List<ExtractedFile> files) throws IOException {
+        StringBuilder text = new StringBuilder().append(MANIFEST_HEADER).append('\t').append(Files.size(zipFile)).append('\t')
+                .append(Files.getLastModifiedTime(zipFile).toMillis()).append('\n');
+        for (ExtractedFile file : files) {
+            text.append(file.size()).append('\t').append(file.path()).append('\n');
+        }
+        Path manifestPath = getManifestPath(destination);
+        Path tempFile = manifestPath.resolveSibling(manifestPath.getFileName() + PART_SUFFIX);
+        try {
+            Files.writeString(tempFile, text, StandardCharsets.UTF_8);
+            Files.move(tempFile, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /*
+     * Returns the manifest if it was written for the zip as it is now, null
+     * otherwise.
+     */
+    static ExtractionManifest readManifest(final Path zipFile, final Path destination) {
+        Path manifestPath = getManifestPath(destination);
+        if (!Files.isRegularFile(manifestPath)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(manifestPath, StandardCharsets.UTF_8);
+            String[] header = lines.isEmpty() ? new String[0] : lines.get(0).split("\t");
+            if (header.length != 3 || !header[0].equals(MANIFEST_HEADER) || Long.parseLong(header[1]) != Files.size(zipFile)
+                    || Long.parseLong(header[2]) != Files.getLastModifiedTime(zipFile).toMillis()) {
+                return null;
+            }
+            List<ExtractedFile> files = new ArrayList<>(lines.size() - 1);
+            for (String line : lines.subList(1, lines.size())) {
+                int separator = line.indexOf('\t');
+                files.add(new ExtractedFile(line.substring(separator + 1), Long.parseLong(line.substring(0, separator))));
+            }
+            return new ExtractionManifest(Long.parseLong(header[1]), Long.parseLong(header[2]), files);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
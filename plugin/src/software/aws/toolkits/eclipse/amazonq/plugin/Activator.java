@@ -13,9 +13,11 @@ import software.aws.toolkits.eclipse.amazonq.inlineChat.InlineChatEditorListener
 import software.aws.toolkits.eclipse.amazonq.lsp.auth.DefaultLoginService;
 import software.aws.toolkits.eclipse.amazonq.lsp.auth.LoginService;
 import software.aws.toolkits.eclipse.amazonq.lsp.editor.ActiveEditorChangeListener;
+import software.aws.toolkits.eclipse.amazonq.lsp.editor.OpenEditorRegistry;
 import software.aws.toolkits.eclipse.amazonq.providers.browser.AmazonQBrowserProvider;
 import software.aws.toolkits.eclipse.amazonq.providers.lsp.LspProvider;
 import software.aws.toolkits.eclipse.amazonq.providers.lsp.LspProviderImpl;
+import software.aws.toolkits.eclipse.amazonq.telemetry.StartupTracer;
 import software.aws.toolkits.eclipse.amazonq.telemetry.service.DefaultTelemetryService;
 import software.aws.toolkits.eclipse.amazonq.telemetry.service.TelemetryService;
 import software.aws.toolkits.eclipse.amazonq.util.CodeReferenceLoggingService;
@@ -41,24 +43,36 @@ public class Activator extends AbstractUIPlugin {
     private final InlineChatEditorListener editorListener;
     private static WorkspaceChangeListener workspaceListener = WorkspaceChangeListener.getInstance();
     private static ActiveEditorChangeListener activeEditorListener = ActiveEditorChangeListener.getInstance();
+    private static OpenEditorRegistry openEditorRegistry = OpenEditorRegistry.getInstance();
 
     public Activator() {
         super();
-        plugin = this;
-        defaultLogger = PluginLogger.getInstance();
-        telemetryService = DefaultTelemetryService.builder().build();
-        lspProvider = LspProviderImpl.getInstance();
-        pluginStore = DefaultPluginStore.getInstance();
-        loginService = DefaultLoginService.builder()
-                .withLspProvider(lspProvider)
-                .withPluginStore(pluginStore)
-                .initializeOnStartUp()
-                .build();
-        codeReferenceLoggingService = DefaultCodeReferenceLoggingService.getInstance();
-        editorListener = InlineChatEditorListener.getInstance();
-        editorListener.initialize();
-        workspaceListener.start();
-        activeEditorListener.initialize();
+        try (var phase = StartupTracer.getInstance().begin("Activator.<init>")) {
+            plugin = this;
+            defaultLogger = PluginLogger.getInstance();
+            telemetryService = DefaultTelemetryService.builder().build();
+            lspProvider = LspProviderImpl.getInstance();
+            pluginStore = DefaultPluginStore.getInstance();
+            loginService = DefaultLoginService.builder()
+                    .withLspProvider(lspProvider)
+                    .withPluginStore(pluginStore)
+                    .initializeOnStartUp()
+                    .build();
+            codeReferenceLoggingService = DefaultCodeReferenceLoggingService.getInstance();
+            editorListener = InlineChatEditorListener.getInstance();
+            editorListener.initialize();
+            workspaceListener.start();
+            activeEditorListener.initialize();
+            openEditorRegistry.initialize();
+        }
+        StartupTracer.getInstance().scheduleFinish();
+    }
+
+    @Override
+    public final void start(final BundleContext context) throws Exception {
+        try (var phase = StartupTracer.getInstance().begin("Activator.start")) {
+            super.start(context);
+        }
     }
 
     @Override
@@ -68,6 +82,7 @@ public class Activator extends AbstractUIPlugin {
         plugin = null;
         workspaceListener.stop();
         activeEditorListener.stop();
+        openEditorRegistry.stop();
         ThreadingUtils.shutdown();
     }
 
@@ -11,6 +11,7 @@ import org.eclipse.lsp4j.DidChangeConfigurationParams;
 
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.workspace.WorkspaceChangeListener;
 
 public class AmazonQPreferenceInitializer extends AbstractPreferenceInitializer {
 
@@ -22,6 +23,7 @@ public class AmazonQPreferenceInitializer extends AbstractPreferenceInitializer
         store.setDefault(AmazonQPreferencePage.Q_DATA_SHARING, true);
         store.setDefault(AmazonQPreferencePage.HTTPS_PROXY, "");
         store.setDefault(AmazonQPreferencePage.CA_CERT, "");
+        store.setDefault(AmazonQPreferencePage.WORKSPACE_EXCLUDE_GLOBS, WorkspaceChangeListener.DEFAULT_EXCLUDE_GLOBS);
         store.addPropertyChangeListener(event -> {
             ThreadingUtils.executeAsyncTask(() -> {
                 Activator.getLspProvider().getAmazonQServer()
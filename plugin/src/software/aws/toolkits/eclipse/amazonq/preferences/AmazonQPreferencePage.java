@@ -40,6 +40,7 @@ public class AmazonQPreferencePage extends FieldEditorPreferencePage implements
     public static final String Q_DATA_SHARING = "qDataSharing";
     public static final String HTTPS_PROXY = "httpsProxy";
     public static final String CA_CERT = "customCaCert";
+    public static final String WORKSPACE_EXCLUDE_GLOBS = "workspaceExcludeGlobs";
 
     private Boolean isTelemetryOptInChecked;
     private Boolean isQDataSharingOptInChecked;
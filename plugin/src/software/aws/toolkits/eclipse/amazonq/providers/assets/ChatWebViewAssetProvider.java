@@ -16,17 +16,20 @@ import org.eclipse.swt.browser.BrowserFunction;
 import software.aws.toolkits.eclipse.amazonq.broker.events.ChatWebViewAssetState;
 import software.aws.toolkits.eclipse.amazonq.chat.ChatCommunicationManager;
 import software.aws.toolkits.eclipse.amazonq.chat.ChatTheme;
+import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommandName;
 import software.aws.toolkits.eclipse.amazonq.configuration.PluginStoreKeys;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.providers.lsp.LspManagerProvider;
 import software.aws.toolkits.eclipse.amazonq.util.PluginPlatform;
 import software.aws.toolkits.eclipse.amazonq.util.PluginUtils;
 import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
 import software.aws.toolkits.eclipse.amazonq.util.WebviewAssetServer;
 import software.aws.toolkits.eclipse.amazonq.views.AmazonQChatViewActionHandler;
 import software.aws.toolkits.eclipse.amazonq.views.LoginViewCommandParser;
 import software.aws.toolkits.eclipse.amazonq.views.ViewActionHandler;
 import software.aws.toolkits.eclipse.amazonq.views.ViewCommandParser;
+import software.aws.toolkits.eclipse.amazonq.views.model.Command;
 
 public final class ChatWebViewAssetProvider extends WebViewAssetProvider {
 
@@ -66,7 +69,7 @@ public final class ChatWebViewAssetProvider extends WebViewAssetProvider {
         new BrowserFunction(browser, "ideCommand") {
             @Override
             public Object function(final Object[] arguments) {
-                ThreadingUtils.executeAsyncTask(() -> {
+                ThreadingUtils.executeAsyncTask(Subsystem.CHAT_IO, () -> {
                     handleMessageFromUI(browser, arguments);
                 });
                 return null;
@@ -192,6 +195,7 @@ public final class ChatWebViewAssetProvider extends WebViewAssetProvider {
         return String.format("""
                 <script type="text/javascript" charset="UTF-8" src="%s" defer></script>
                 <script type="text/javascript">
+                    %s
                     %s
                     const init = () => {
                         waitForFunction('ideCommand')
@@ -221,8 +225,51 @@ public final class ChatWebViewAssetProvider extends WebViewAssetProvider {
                     window.addEventListener('load', init);
                     %s
                 </script>
-                """, jsEntrypoint, getWaitFunction(), "true".equals(disclaimerAcknowledged), "true".equals(pairProgrammingAcknowledged),
-                getInputFunctions());
+                """, jsEntrypoint, getWaitFunction(), getChatBodyDeltaShim(), "true".equals(disclaimerAcknowledged),
+                "true".equals(pairProgrammingAcknowledged), getInputFunctions());
+    }
+
+    /**
+     * Rebuilds chat prompt bodies that were sent as deltas by the ChatCommunicationManager.
+     * The listener is registered before the chat UI script loads, so it sees each message
+     * first and can restore the full body in place. A delta that does not line up with the
+     * body tracked for the tab is dropped and a resync is requested once, so the next update
+     * of the tab is sent in full.
+     */
+    private String getChatBodyDeltaShim() {
+        return String.format("""
+                (() => {
+                    const lastBodies = new Map();
+                    const resyncRequested = new Set();
+                    window.addEventListener('message', (event) => {
+                        const message = event.data;
+                        if (!message || message.command !== '%s' || !message.tabId || !message.params) {
+                            return;
+                        }
+                        const params = message.params;
+                        const delta = params.bodyDelta;
+                        if (delta) {
+                            const last = lastBodies.get(message.tabId);
+                            if (!last || last.messageId !== params.messageId || last.body.length !== delta.offset) {
+                                event.stopImmediatePropagation();
+                                if (!resyncRequested.has(message.tabId) && typeof ideCommand === 'function') {
+                                    resyncRequested.add(message.tabId);
+                                    ideCommand(JSON.stringify({ command: '%s', params: { tabId: message.tabId } }));
+                                }
+                                return;
+                            }
+                            params.body = last.body + delta.text;
+                            delete params.bodyDelta;
+                        }
+                        resyncRequested.delete(message.tabId);
+                        if (typeof params.body === 'string') {
+                            lastBodies.set(message.tabId, { messageId: params.messageId, body: params.body });
+                        } else {
+                            lastBodies.delete(message.tabId);
+                        }
+                    }, true);
+                })();
+                """, ChatUIInboundCommandName.ChatPrompt.getValue(), Command.CHAT_BODY_RESYNC);
     }
 
     @SuppressWarnings("MethodLength")
@@ -33,6 +33,7 @@ public final class LspManagerProvider {
         return DefaultLspManager.builder()
             .withLspExecutablePrefix(LspConstants.CW_LSP_FILENAME)
             .withManifestUrl(getManifestUrl())
+            .withStagedUpdates(true)
             .build();
     }
 
@@ -12,9 +12,11 @@ import org.eclipse.lsp4j.services.LanguageServer;
 import software.aws.toolkits.eclipse.amazonq.broker.events.AmazonQLspState;
 import software.aws.toolkits.eclipse.amazonq.chat.ChatCommunicationManager;
 import software.aws.toolkits.eclipse.amazonq.lsp.AmazonQLspServer;
+import software.aws.toolkits.eclipse.amazonq.lsp.connection.QLspConnectionProvider;
 import software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher.RecordLspSetupArgs;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.telemetry.LanguageServerTelemetryProvider;
+import software.aws.toolkits.eclipse.amazonq.telemetry.StartupTracer;
 import software.aws.toolkits.telemetry.TelemetryDefinitions.Result;
 
 public final class LspProviderImpl implements LspProvider {
@@ -71,6 +73,8 @@ public final class LspProviderImpl implements LspProvider {
     }
 
     private void onServerActivation() {
+        StartupTracer.getInstance().end(QLspConnectionProvider.INITIALIZE_PHASE);
+        StartupTracer.getInstance().mark(StartupTracer.SERVER_INITIALIZED);
         emitInitializeMetric();
         Activator.getEventBroker().post(AmazonQLspState.class, AmazonQLspState.ACTIVE);
         ChatCommunicationManager.getInstance();
@@ -0,0 +1,274 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.telemetry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
+import software.aws.toolkits.eclipse.amazonq.util.PluginUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+/**
+ * Records the phases of plugin activation and language server bring-up on a
+ * timeline that starts with the JVM. Once the language server is initialized
+ * and the chat webview is ready, or when the timeout passes, the timeline is
+ * written as a Chrome trace file (chrome://tracing, Perfetto) and a summary is
+ * written to the error log. Recording stops after that, so later restarts of
+ * the server do not add to it.
+ */
+public final class StartupTracer {
+
+    public static final String SERVER_INITIALIZED = "language server initialized";
+    public static final String CHAT_READY = "chat webview ready";
+
+    static final String TRACE_SUBDIRECTORY = "startup-traces";
+    static final int MAX_TRACE_FILES = 10;
+    static final int MAX_EVENTS = 1000;
+
+    private static final long FINISH_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(3);
+    private static final Set<String> COMPLETION_MARKS = Set.of(SERVER_INITIALIZED, CHAT_READY);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.getInstance();
+    private static final StartupTracer INSTANCE = new StartupTracer(() -> PluginUtils.getPluginDir(TRACE_SUBDIRECTORY),
+            summary -> Activator.getLogger().info(summary));
+
+    /*
+     * A recorded phase or mark. Times are in microseconds since JVM start,
+     * durationMicros is -1 for marks.
+     */
+    record Event(String name, long startMicros, long durationMicros, long threadId, String threadName) {
+    }
+
+    /**
+     * A phase that is open until it is closed, either by the thread that began
+     * it or through {@link StartupTracer#end(String)}.
+     */
+    public final class Phase implements AutoCloseable {
+        private final String name;
+        private final long startNanos;
+        private final Thread thread;
+        private boolean isClosed;
+
+        private Phase(final String name) {
+            this.name = name;
+            this.startNanos = System.nanoTime();
+            this.thread = Thread.currentThread();
+        }
+
+        @Override
+        public void close() {
+            endPhase(this);
+        }
+    }
+
+    private final Supplier<Path> traceDirectory;
+    private final Consumer<String> logSink;
+    private final long originNanos;
+    private final List<Event> events = new ArrayList<>();
+    private final List<Phase> openPhases = new ArrayList<>();
+    private final Set<String> marks = new HashSet<>();
+    private boolean isFinished;
+
+    StartupTracer(final Supplier<Path> traceDirectory, final Consumer<String> logSink) {
+        this.traceDirectory = traceDirectory;
+        this.logSink = logSink;
+        long sinceJvmStartMs = Math.max(0, System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime());
+        this.originNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sinceJvmStartMs);
+    }
+
+    public static StartupTracer getInstance() {
+        return INSTANCE;
+    }
+
+    /*
+     * Starts a phase on the current thread. Use with try-with-resources, or end
+     * it by name when the phase completes on another thread.
+     */
+    public synchronized Phase begin(final String name) {
+        var phase = new Phase(name);
+        if (!isFinished) {
+            openPhases.add(phase);
+        }
+        return phase;
+    }
+
+    /*
+     * Ends the most recent open phase with the given name, if there is one.
+     */
+    public synchronized void end(final String name) {
+        for (int i = openPhases.size() - 1; i >= 0; i--) {
+            if (openPhases.get(i).name.equals(name)) {
+                endPhase(openPhases.get(i));
+                return;
+            }
+        }
+    }
+
+    /*
+     * Records a point in time. The timeline is exported once every completion
+     * mark has been recorded.
+     */
+    public void mark(final String name) {
+        boolean isComplete;
+        synchronized (this) {
+            if (isFinished || !marks.add(name)) {
+                return;
+            }
+            addEvent(new Event(name, toMicros(System.nanoTime()), -1, Thread.currentThread().getId(), Thread.currentThread().getName()));
+            isComplete = marks.containsAll(COMPLETION_MARKS);
+        }
+        if (isComplete) {
+            finish();
+        }
+    }
+
+    /*
+     * Exports the timeline after the timeout in case a completion mark never
+     * arrives, for example because the chat view is not open.
+     */
+    public void scheduleFinish() {
+        ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.MAINTENANCE, this::finish, FINISH_TIMEOUT_MS);
+    }
+
+    /*
+     * Writes the trace file and logs the summary. Only the first call has an
+     * effect, phases that are still open are recorded up to now.
+     */
+    public void finish() {
+        List<Event> timeline;
+        synchronized (this) {
+            if (isFinished) {
+                return;
+            }
+            long now = System.nanoTime();
+            for (Phase phase : openPhases) {
+                addEvent(new Event(phase.name + " (unfinished)", toMicros(phase.startNanos), toMicros(now) - toMicros(phase.startNanos),
+                        phase.thread.getId(), phase.thread.getName()));
+            }
+            openPhases.clear();
+            isFinished = true;
+            timeline = new ArrayList<>(events);
+        }
+        timeline.sort(Comparator.comparingLong(Event::startMicros));
+
+        Path traceFile = null;
+        try {
+            traceFile = writeTrace(timeline);
+        } catch (IOException | RuntimeException e) {
+            logSink.accept("Unable to write Amazon Q startup trace: " + e.getMessage());
+        }
+        logSink.accept(formatSummary(timeline, traceFile));
+    }
+
+    synchronized List<Event> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    private synchronized void endPhase(final Phase phase) {
+        if (phase.isClosed || isFinished) {
+            return;
+        }
+        phase.isClosed = true;
+        openPhases.remove(phase);
+        long startMicros = toMicros(phase.startNanos);
+        addEvent(new Event(phase.name, startMicros, toMicros(System.nanoTime()) - startMicros, phase.thread.getId(), phase.thread.getName()));
+    }
+
+    private void addEvent(final Event event) {
+        if (events.size() < MAX_EVENTS) {
+            events.add(event);
+        }
+    }
+
+    private long toMicros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos - originNanos);
+    }
+
+    /*
+     * Writes the events in the Chrome trace event format: complete ("X") events
+     * for phases, instant ("i") events for marks and a thread_name metadata
+     * event per thread. Only the newest trace files are kept.
+     */
+    private Path writeTrace(final List<Event> timeline) throws IOException {
+        List<Map<String, Object>> traceEvents = new ArrayList<>();
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (Event event : timeline) {
+            Map<String, Object> traceEvent = new LinkedHashMap<>();
+            traceEvent.put("name", event.name());
+            traceEvent.put("cat", "startup");
+            traceEvent.put("ph", event.durationMicros() < 0 ? "i" : "X");
+            traceEvent.put("ts", event.startMicros());
+            if (event.durationMicros() < 0) {
+                traceEvent.put("s", "g");
+            } else {
+                traceEvent.put("dur", event.durationMicros());
+            }
+            traceEvent.put("pid", 1);
+            traceEvent.put("tid", event.threadId());
+            traceEvents.add(traceEvent);
+            threads.putIfAbsent(event.threadId(), event.threadName());
+        }
+        threads.forEach((threadId, threadName) -> traceEvents.add(Map.of("name", "thread_name", "ph", "M", "pid", 1, "tid", threadId,
+                "args", Map.of("name", threadName))));
+
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceEvents", traceEvents);
+        trace.put("displayTimeUnit", "ms");
+        trace.put("otherData", Map.of("origin", "JVM start", "os", System.getProperty("os.name") + " " + System.getProperty("os.arch"),
+                "java", System.getProperty("java.version")));
+
+        Path directory = traceDirectory.get();
+        Files.createDirectories(directory);
+        Path traceFile = directory.resolve("startup-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".json");
+        OBJECT_MAPPER.writeValue(traceFile.toFile(), trace);
+        deleteOldTraces(directory);
+        return traceFile;
+    }
+
+    private static void deleteOldTraces(final Path directory) throws IOException {
+        List<Path> traces;
+        try (Stream<Path> files = Files.list(directory)) {
+            traces = files.filter(file -> file.getFileName().toString().matches("startup-\\d{8}-\\d{6}\\.json"))
+                    .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed()).toList();
+        }
+        for (Path trace : traces.subList(Math.min(MAX_TRACE_FILES, traces.size()), traces.size())) {
+            Files.deleteIfExists(trace);
+        }
+    }
+
+    static String formatSummary(final List<Event> timeline, final Path traceFile) {
+        long endMicros = timeline.stream().mapToLong(event -> event.startMicros() + Math.max(0, event.durationMicros())).max().orElse(0);
+        var summary = new StringBuilder(String.format("Amazon Q startup timeline, %.1f s after JVM start", endMicros / 1_000_000.0));
+        if (traceFile != null) {
+            summary.append(" (trace: ").append(traceFile).append(')');
+        }
+        for (Event event : timeline) {
+            String duration = event.durationMicros() < 0 ? "" : String.format("%d ms", event.durationMicros() / 1000);
+            summary.append(String.format("%n  %8.3f s %9s  %s [%s]", event.startMicros() / 1_000_000.0, duration, event.name(),
+                    event.threadName()));
+        }
+        return summary.toString();
+    }
+
+}
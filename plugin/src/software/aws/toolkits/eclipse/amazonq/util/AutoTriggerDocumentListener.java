@@ -32,7 +32,7 @@ public final class AutoTriggerDocumentListener implements IDocumentListener, IAu
     }
 
     @Override
-    public synchronized void documentChanged(final DocumentEvent e) {
+    public void documentChanged(final DocumentEvent e) {
         var qSes = QInvocationSession.getInstance();
         if (InlineChatSession.getInstance().isSessionActive()) {
             return;
@@ -72,7 +72,8 @@ public final class AutoTriggerDocumentListener implements IDocumentListener, IAu
             return false;
         }
 
-        // TODO: implement other logic to prevent unnecessary firing
+        // Bursts of keystrokes are debounced and superseded requests cancelled by
+        // the session's InlineCompletionTriggerPipeline
         return true;
     }
 
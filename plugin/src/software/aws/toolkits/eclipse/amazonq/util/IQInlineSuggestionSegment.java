@@ -6,6 +6,6 @@ package software.aws.toolkits.eclipse.amazonq.util;
 import org.eclipse.swt.graphics.GC;
 
 public interface IQInlineSuggestionSegment {
-    void render(GC gc, int currentCaretOffset);
+    void render(GC gc, int currentCaretOffset, QInlineRenderModel renderModel);
     void cleanUp();
 }
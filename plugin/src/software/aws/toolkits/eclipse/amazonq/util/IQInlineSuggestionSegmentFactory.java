@@ -5,73 +5,44 @@ package software.aws.toolkits.eclipse.amazonq.util;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 public final class IQInlineSuggestionSegmentFactory {
 
     private IQInlineSuggestionSegmentFactory() {
     }
 
-    private enum BracketType {
-        OPEN, CLOSE, NONE;
-    }
-
-    public static List<IQInlineSuggestionSegment> getSegmentsFromSuggestion(final QInvocationSession qSes) {
-        var suggestion = qSes.getCurrentSuggestion().getInsertText();
-        var suggestionLines = suggestion.split("\\R");
+    /*
+     * Creates the segments of a suggestion from its precomputed model. Only the
+     * indent of the first line depends on the document, everything else is read
+     * from the model.
+     */
+    public static List<IQInlineSuggestionSegment> getSegmentsFromSuggestion(final QInvocationSession qSes,
+            final QInlineSuggestionModel model) {
         var res = new ArrayList<IQInlineSuggestionSegment>();
         var widget = qSes.getViewer().getTextWidget();
         int currentOffset = qSes.getInvocationOffset();
-        int distanceTraversed = 0;
-        Stack<QInlineSuggestionOpenBracketSegment> unresolvedBrackets = new Stack<>();
-        for (int i = 0; i < suggestionLines.length; i++) {
-            int startOffset;
-            int endOffset;
-            String currentLine = suggestionLines[i];
-            StringBuilder sb;
-
-            startOffset = currentOffset + distanceTraversed; // this line might not exist yet so we need to think of
-                                                             // something more robust
-            sb = new StringBuilder(currentLine);
-
-            String currentIndent;
-            if (i == 0) {
-                int currentLineInDoc = widget.getLineAtOffset(currentOffset);
-                String content = widget.getLine(currentLineInDoc);
-                int leadingWhitespacePosition = !content.isEmpty() ? idxOfFirstNonwhiteSpace(content) : 0;
-                currentIndent = content.substring(0, leadingWhitespacePosition);
-            } else {
-                int leadingWhitespacePosition = idxOfFirstNonwhiteSpace(currentLine);
-                currentIndent = currentLine.substring(0, leadingWhitespacePosition);
-            }
-            for (int j = 0; j < currentLine.length(); j++) {
-                char c = currentLine.charAt(j);
-                switch (getBracketType(unresolvedBrackets, suggestion, distanceTraversed + j)) {
-                case OPEN:
-                    var openBracket = new QInlineSuggestionOpenBracketSegment(startOffset + j, currentIndent, c);
-                    unresolvedBrackets.push(openBracket);
-                    break;
-                case CLOSE:
-                    if (!unresolvedBrackets.isEmpty()) {
-                        var closeBracket = new QInlineSuggestionCloseBracketSegment(startOffset + j, i,
-                                currentLine.substring(0, j), c, qSes.isMacOS());
-                        var top = unresolvedBrackets.pop();
-                        if (top.isAMatch(closeBracket)) {
-                            top.pairUp(closeBracket);
-                            sb.setCharAt(j, ' ');
-                            res.add(closeBracket);
-                            res.add(top);
-                        }
-                    }
-                    break;
-                case NONE:
-                default:
-                    continue;
-                }
+        String content = widget.getLine(widget.getLineAtOffset(currentOffset));
+        String firstLineIndent = content.substring(0, QInlineSuggestionModel.idxOfFirstNonwhiteSpace(content));
+
+        var bracketPairs = model.getBracketPairs();
+        int pairIdx = 0;
+        for (int i = 0; i < model.getLineCount(); i++) {
+            int startOffset = currentOffset + model.getLineStart(i);
+            for (; pairIdx < bracketPairs.size() && bracketPairs.get(pairIdx).closeLine() == i; pairIdx++) {
+                var pair = bracketPairs.get(pairIdx);
+                String indent = pair.openLine() == 0 ? firstLineIndent : model.getLineIndent(pair.openLine());
+                var openBracket = new QInlineSuggestionOpenBracketSegment(currentOffset + pair.openIndex(), indent,
+                        model.getText().charAt(pair.openIndex()));
+                int idxInLine = pair.closeIndex() - model.getLineStart(i);
+                var closeBracket = new QInlineSuggestionCloseBracketSegment(currentOffset + pair.closeIndex(), i,
+                        model.getLine(i).substring(0, idxInLine), model.getText().charAt(pair.closeIndex()), qSes.isMacOS());
+                openBracket.pairUp(closeBracket);
+                res.add(closeBracket);
+                res.add(openBracket);
             }
-            distanceTraversed += sb.length() + 1; // plus one because we got rid of a \\R when we split it
-            endOffset = startOffset + sb.length() - 1;
-            res.add(new QInlineSuggestionNormalSegment(startOffset, endOffset, i, sb.toString(), qSes.isMacOS()));
+            String renderedLine = model.getRenderedLine(i);
+            int endOffset = startOffset + renderedLine.length() - 1;
+            res.add(new QInlineSuggestionNormalSegment(startOffset, endOffset, i, renderedLine, qSes.isMacOS()));
         }
         return res;
     }
@@ -80,55 +51,4 @@ public final class IQInlineSuggestionSegmentFactory {
             final String firstLineInSuggestion) {
         return new QInlineSuggestionRightContextSegment(text, firstLineInSuggestion);
     }
-
-    private static BracketType getBracketType(final Stack<QInlineSuggestionOpenBracketSegment> unresolvedBrackets,
-            final String input, final int idx) {
-        if (isCloseBracket(input, idx, unresolvedBrackets)) {
-            // TODO: enrich logic here to eliminate false positive
-            return BracketType.CLOSE;
-        } else if (isOpenBracket(input, idx)) {
-            // TODO: enrich logic here to eliminate false positive
-            return BracketType.OPEN;
-        }
-        return BracketType.NONE;
-    }
-
-    private static boolean isCloseBracket(final String input, final int idx,
-            final Stack<QInlineSuggestionOpenBracketSegment> unresolvedBrackets) {
-        char c = input.charAt(idx);
-        boolean isBracket = c == ')' || c == ']' || c == '}' || c == '>' || c == '"' || c == '\'';
-        if (!isBracket) {
-            return false;
-        }
-        if (c == '"' || c == '\'') {
-            return !unresolvedBrackets.isEmpty() && unresolvedBrackets.peek().getSymbol() == c;
-        }
-        // TODO: enrich this check to eliminate false positives
-        if (idx > 0 && Character.isWhitespace(input.charAt(idx - 1)) && c == '>') {
-            return false;
-        }
-        return true;
-    }
-
-    private static boolean isOpenBracket(final String input, final int idx) {
-        char c = input.charAt(idx);
-        boolean isBracket = c == '(' || c == '[' || c == '{' || c == '<' || c == '"' || c == '\'';
-        if (!isBracket) {
-            return false;
-        }
-        // TODO: enrich this check to eliminate false postives
-        if (idx > 0 && Character.isWhitespace(input.charAt(idx - 1)) && c == '<') {
-            return false;
-        }
-        return true;
-    }
-
-    private static int idxOfFirstNonwhiteSpace(final String input) {
-        for (int i = 0; i < input.length(); i++) {
-            if (input.charAt(i) != ' ' && input.charAt(i) != '\t') {
-                return i;
-            }
-        }
-        return input.length();
-    }
 }
@@ -0,0 +1,147 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.AmazonQLspServer;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionParams;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.InlineCompletionTriggerPipeline.DocumentVersion;
+
+/**
+ * The part of the inline completion path that does not touch the editor: looks
+ * requests up in the suggestion cache, sends the rest to the language server
+ * through the trigger pipeline and records the latency of every stage. Kept
+ * free of UI dependencies so the path can be replayed headless.
+ */
+public final class InlineCompletionClient {
+
+    /*
+     * Receives the suggestions for a request. reportsSession is false when the
+     * suggestions came from a cached session whose results are reported by
+     * another invocation, in which case the receiver must not report them again.
+     */
+    @FunctionalInterface
+    public interface ResponseConsumer {
+        void accept(InlineCompletionResponse response, boolean reportsSession);
+    }
+
+    private final InlineSuggestionCache suggestionCache;
+    private final InlineLatencyRecorder latencyRecorder;
+    private final InlineCompletionTriggerPipeline triggerPipeline;
+    private final Function<InlineCompletionParams, CompletableFuture<InlineCompletionResponse>> requestSender;
+
+    public InlineCompletionClient() {
+        this(params -> sendToServer(Activator.getLspProvider().getAmazonQServer(), params), new InlineSuggestionCache(),
+                new InlineLatencyRecorder());
+    }
+
+    InlineCompletionClient(final Function<InlineCompletionParams, CompletableFuture<InlineCompletionResponse>> requestSender,
+            final InlineSuggestionCache suggestionCache, final InlineLatencyRecorder latencyRecorder) {
+        this(requestSender, suggestionCache, latencyRecorder, new InlineCompletionTriggerPipeline(requestSender, latencyRecorder));
+    }
+
+    InlineCompletionClient(final Function<InlineCompletionParams, CompletableFuture<InlineCompletionResponse>> requestSender,
+            final InlineSuggestionCache suggestionCache, final InlineLatencyRecorder latencyRecorder,
+            final InlineCompletionTriggerPipeline triggerPipeline) {
+        this.requestSender = requestSender;
+        this.suggestionCache = suggestionCache;
+        this.latencyRecorder = latencyRecorder;
+        this.triggerPipeline = triggerPipeline;
+    }
+
+    /*
+     * Answers the request from the cache when possible, otherwise queues it on the
+     * trigger pipeline and caches the response. The consumer is called off the UI
+     * thread. Returns true when the request was answered from the cache.
+     */
+    public boolean request(final InlineCompletionParams params, final DocumentVersion version, final InlineSuggestionCache.Key cacheKey,
+            final boolean debounce, final ResponseConsumer responseConsumer) {
+        long requestInvocation = System.currentTimeMillis();
+        if (cacheKey != null) {
+            var cached = suggestionCache.lookup(cacheKey);
+            if (cached.isPresent()) {
+                boolean reportsSession = cached.get().reportsSession();
+                triggerPipeline.deliver(cached.get().response(), version, response -> responseConsumer.accept(response, reportsSession));
+                return true;
+            }
+        }
+
+        triggerPipeline.submit(params, version, debounce, response -> {
+            if (cacheKey != null) {
+                suggestionCache.put(cacheKey, response, System.currentTimeMillis() - requestInvocation);
+            }
+            responseConsumer.accept(response, true);
+        });
+        return false;
+    }
+
+    public void prefetch(final InlineSuggestionCache.Key cacheKey, final InlineCompletionParams params) {
+        suggestionCache.prefetch(cacheKey, () -> requestSender.apply(params));
+    }
+
+    /*
+     * See InlineCompletionTriggerPipeline#claim, returns true at most once for the
+     * latest document version.
+     */
+    public boolean claim(final DocumentVersion version) {
+        return triggerPipeline.claim(version);
+    }
+
+    public void cancel() {
+        triggerPipeline.cancel();
+    }
+
+    public void recordUiApply(final long uiApplyMs) {
+        triggerPipeline.recordUiApply(uiApplyMs);
+    }
+
+    public InlineSuggestionCache.CacheMetrics getSuggestionCacheMetrics() {
+        return suggestionCache.getMetrics();
+    }
+
+    public InlineCompletionTriggerPipeline.PipelineMetrics getPipelineMetrics() {
+        return triggerPipeline.getMetrics();
+    }
+
+    public InlineLatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    /*
+     * Sends the request without blocking on the language server being ready.
+     * Cancelling the returned future cancels the lsp4j request, which sends
+     * $/cancelRequest to the server.
+     */
+    static CompletableFuture<InlineCompletionResponse> sendToServer(final CompletableFuture<AmazonQLspServer> amazonQServer,
+            final InlineCompletionParams params) {
+        CompletableFuture<InlineCompletionResponse> response = new CompletableFuture<>();
+        amazonQServer.thenAccept(server -> {
+            if (response.isDone()) {
+                return;
+            }
+            var request = server.inlineCompletionWithReferences(params);
+            response.whenComplete((result, throwable) -> {
+                if (response.isCancelled()) {
+                    request.cancel(true);
+                }
+            });
+            request.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    response.completeExceptionally(throwable);
+                } else {
+                    response.complete(result);
+                }
+            });
+        }).exceptionally(throwable -> {
+            response.completeExceptionally(throwable);
+            return null;
+        });
+        return response;
+    }
+
+}
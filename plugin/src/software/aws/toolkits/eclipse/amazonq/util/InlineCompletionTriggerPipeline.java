@@ -0,0 +1,277 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionParams;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.InlineLatencyRecorder.Stage;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+/**
+ * Sends inline completion requests for the current inline session. Automatic
+ * triggers are debounced with a window that adapts to the typing speed, a newer
+ * trigger cancels the request in flight (cancelling an lsp4j request future
+ * sends $/cancelRequest to the language server), and responses computed for a
+ * document version that has since been superseded are dropped.
+ *
+ * Nothing in the pipeline blocks: the request sender is expected to return
+ * without waiting for the server, and the time spent queued (including the
+ * debounce window), waiting for the server and applying the result on the UI
+ * thread is recorded per stage in an InlineLatencyRecorder.
+ */
+public final class InlineCompletionTriggerPipeline {
+
+    static final long MIN_DEBOUNCE_MS = 20;
+    static final long MAX_DEBOUNCE_MS = 250;
+    static final long PAUSE_THRESHOLD_MS = 1000;
+    static final long DEFAULT_REQUEST_TIMEOUT_MS = 5000;
+
+    private static final double SMOOTHING_FACTOR = 0.3;
+    private static final double WINDOW_TO_INTERVAL_RATIO = 1.5;
+
+    /*
+     * Identifies the state of the document a request was computed from. The stamp
+     * is the document modification stamp, which changes on every edit.
+     */
+    public record DocumentVersion(String uri, long stamp) {
+    }
+
+    public record PipelineMetrics(long submitted, long sent, long debounced, long cancelled, long staleDropped) {
+    }
+
+    private final Function<InlineCompletionParams, CompletableFuture<InlineCompletionResponse>> requestSender;
+    private final LongSupplier clock;
+    private final long requestTimeoutMs;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong debouncedCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+    private final AtomicLong staleDroppedCount = new AtomicLong();
+    private final InlineLatencyRecorder latencyRecorder;
+
+    private long generation;
+    private DocumentVersion latestVersion;
+    private boolean latestVersionClaimed;
+    private Future<?> debounceTimer;
+    private CompletableFuture<InlineCompletionResponse> inflightRequest;
+    private long lastTriggerMs = -1;
+    private double averageIntervalMs = -1;
+
+    public InlineCompletionTriggerPipeline(
+            final Function<InlineCompletionParams, CompletableFuture<InlineCompletionResponse>> requestSender) {
+        this(requestSender, new InlineLatencyRecorder());
+    }
+
+    public InlineCompletionTriggerPipeline(
+            final Function<InlineCompletionParams, CompletableFuture<InlineCompletionResponse>> requestSender,
+            final InlineLatencyRecorder latencyRecorder) {
+        this(requestSender, System::currentTimeMillis, DEFAULT_REQUEST_TIMEOUT_MS, latencyRecorder);
+    }
+
+    InlineCompletionTriggerPipeline(final Function<InlineCompletionParams, CompletableFuture<InlineCompletionResponse>> requestSender,
+            final LongSupplier clock, final long requestTimeoutMs) {
+        this(requestSender, clock, requestTimeoutMs, new InlineLatencyRecorder());
+    }
+
+    InlineCompletionTriggerPipeline(final Function<InlineCompletionParams, CompletableFuture<InlineCompletionResponse>> requestSender,
+            final LongSupplier clock, final long requestTimeoutMs, final InlineLatencyRecorder latencyRecorder) {
+        this.requestSender = requestSender;
+        this.clock = clock;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    /*
+     * Queues a request for the given document version, superseding any pending or
+     * in flight request. The response is handed to the consumer off the UI thread
+     * unless a newer document version was submitted in the meantime.
+     */
+    public synchronized void submit(final InlineCompletionParams params, final DocumentVersion version, final boolean debounce,
+            final Consumer<InlineCompletionResponse> responseConsumer) {
+        submittedCount.incrementAndGet();
+        long submittedAtNanos = System.nanoTime();
+        long delay = debounce ? recordTriggerAndGetDelay(clock.getAsLong()) : 0;
+
+        cancelPending();
+        long requestGeneration = ++generation;
+        latestVersion = version;
+        latestVersionClaimed = false;
+
+        debounceTimer = ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.INLINE_COMPLETION,
+                () -> send(requestGeneration, submittedAtNanos, params, version, responseConsumer), delay);
+    }
+
+    /*
+     * Hands a response that was computed locally to the consumer as if it came
+     * from the server, superseding any pending or in flight request.
+     */
+    public synchronized void deliver(final InlineCompletionResponse response, final DocumentVersion version,
+            final Consumer<InlineCompletionResponse> responseConsumer) {
+        cancelPending();
+        generation++;
+        latestVersion = version;
+        latestVersionClaimed = false;
+
+        ThreadingUtils.executeAsyncTask(Subsystem.INLINE_COMPLETION, () -> responseConsumer.accept(response));
+    }
+
+    /*
+     * Returns true exactly once for the latest submitted document version, so a
+     * response is rendered at most once and never for an outdated document.
+     */
+    public synchronized boolean claim(final DocumentVersion version) {
+        if (latestVersionClaimed || !version.equals(latestVersion)) {
+            staleDroppedCount.incrementAndGet();
+            return false;
+        }
+        latestVersionClaimed = true;
+        return true;
+    }
+
+    /*
+     * Drops any pending trigger and cancels the request in flight, used when the
+     * inline session ends.
+     */
+    public synchronized void cancel() {
+        cancelPending();
+        generation++;
+        latestVersion = null;
+    }
+
+    public PipelineMetrics getMetrics() {
+        return new PipelineMetrics(submittedCount.get(), sentCount.get(), debouncedCount.get(), cancelledCount.get(),
+                staleDroppedCount.get());
+    }
+
+    /*
+     * Records the time taken to apply a response on the UI thread, measured from
+     * when it was posted to the display.
+     */
+    public void recordUiApply(final long uiApplyMs) {
+        latencyRecorder.record(Stage.RESPONSE_TO_UI_APPLY, uiApplyMs);
+    }
+
+    synchronized long getDebounceWindowMs() {
+        if (averageIntervalMs < 0 || averageIntervalMs >= MAX_DEBOUNCE_MS) {
+            return MIN_DEBOUNCE_MS;
+        }
+        long window = Math.round(averageIntervalMs * WINDOW_TO_INTERVAL_RATIO);
+        return Math.max(MIN_DEBOUNCE_MS, Math.min(MAX_DEBOUNCE_MS, window));
+    }
+
+    /*
+     * Tracks a moving average of the interval between automatic triggers. While
+     * the user types in bursts the window stretches to cover the next keystroke,
+     * after a pause or when typing slowly it shrinks back to the minimum so the
+     * first keystroke is answered quickly.
+     */
+    private long recordTriggerAndGetDelay(final long now) {
+        if (lastTriggerMs >= 0) {
+            long interval = Math.min(Math.max(0, now - lastTriggerMs), PAUSE_THRESHOLD_MS);
+            averageIntervalMs = averageIntervalMs < 0 ? interval
+                    : SMOOTHING_FACTOR * interval + (1 - SMOOTHING_FACTOR) * averageIntervalMs;
+        }
+        lastTriggerMs = now;
+        return getDebounceWindowMs();
+    }
+
+    private void cancelPending() {
+        if (debounceTimer != null) {
+            if (debounceTimer.cancel(false)) {
+                debouncedCount.incrementAndGet();
+            }
+            debounceTimer = null;
+        }
+        if (inflightRequest != null) {
+            if (inflightRequest.cancel(true)) {
+                cancelledCount.incrementAndGet();
+            }
+            inflightRequest = null;
+        }
+    }
+
+    private void send(final long requestGeneration, final long submittedAtNanos, final InlineCompletionParams params,
+            final DocumentVersion version, final Consumer<InlineCompletionResponse> responseConsumer) {
+        synchronized (this) {
+            if (requestGeneration != generation) {
+                return;
+            }
+        }
+
+        long sentAtNanos = System.nanoTime();
+        latencyRecorder.record(Stage.TRIGGER_TO_REQUEST, TimeUnit.NANOSECONDS.toMillis(sentAtNanos - submittedAtNanos));
+
+        CompletableFuture<InlineCompletionResponse> request;
+        try {
+            request = requestSender.apply(params);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+
+        synchronized (this) {
+            sentCount.incrementAndGet();
+            if (requestGeneration != generation) {
+                if (request.cancel(true)) {
+                    cancelledCount.incrementAndGet();
+                }
+                return;
+            }
+            inflightRequest = request;
+        }
+
+        CompletableFuture<InlineCompletionResponse> sentRequest = request;
+        Future<?> timeout = ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.INLINE_COMPLETION, () -> {
+            if (sentRequest.cancel(true)) {
+                Activator.getLogger().warn("Inline completion request timed out after " + requestTimeoutMs + " ms");
+            }
+        }, requestTimeoutMs);
+
+        sentRequest.whenComplete((response, throwable) -> {
+            timeout.cancel(false);
+            if (throwable == null) {
+                latencyRecorder.record(Stage.REQUEST_TO_RESPONSE, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAtNanos));
+            }
+            boolean isStale;
+            synchronized (this) {
+                if (inflightRequest == sentRequest) {
+                    inflightRequest = null;
+                }
+                isStale = !version.equals(latestVersion);
+            }
+
+            if (throwable != null) {
+                if (!isCancellation(throwable)) {
+                    Activator.getLogger().error("Error processing inline completion request", throwable);
+                }
+            } else if (isStale) {
+                staleDroppedCount.incrementAndGet();
+                Activator.getLogger().info("Dropped inline completion response for outdated document version " + version.stamp());
+            } else {
+                try {
+                    responseConsumer.accept(response);
+                } catch (RuntimeException e) {
+                    Activator.getLogger().error("Error handling inline completion response", e);
+                }
+            }
+        });
+    }
+
+    private static boolean isCancellation(final Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof CancellationException;
+    }
+
+}
@@ -0,0 +1,100 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+
+/**
+ * Records how long each stage of the inline completion path takes, from the
+ * trigger to the suggestion being accepted, into one histogram per stage. A
+ * summary with percentiles is written to the log every LOG_INTERVAL responses
+ * and can be read at any time, for example by the inline latency view.
+ */
+public final class InlineLatencyRecorder {
+
+    static final int LOG_INTERVAL = 100;
+
+    public enum Stage {
+        TRIGGER_TO_REQUEST("trigger -> request"),
+        REQUEST_TO_RESPONSE("request -> response"),
+        RESPONSE_TO_UI_APPLY("response -> UI apply"),
+        RESPONSE_TO_FIRST_PAINT("response -> first paint"),
+        DISPLAY_TO_ACCEPT("display -> accept");
+
+        private final String label;
+
+        Stage(final String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public record StageSummary(Stage stage, long count, long p50, long p90, long p99, long max, long mean) {
+    }
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final Consumer<String> logSink;
+
+    public InlineLatencyRecorder() {
+        this(summary -> Activator.getLogger().info(summary));
+    }
+
+    InlineLatencyRecorder(final Consumer<String> logSink) {
+        this.logSink = logSink;
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public void record(final Stage stage, final long elapsedMs) {
+        LatencyHistogram histogram = histograms.get(stage);
+        histogram.record(elapsedMs);
+        if (stage == Stage.REQUEST_TO_RESPONSE && histogram.getTotalCount() % LOG_INTERVAL == 0) {
+            logSink.accept(format());
+        }
+    }
+
+    public StageSummary getSummary(final Stage stage) {
+        LatencyHistogram histogram = histograms.get(stage);
+        return new StageSummary(stage, histogram.getTotalCount(), histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90), histogram.getValueAtPercentile(99), histogram.getMax(),
+                histogram.getMean());
+    }
+
+    public List<StageSummary> getSummaries() {
+        List<StageSummary> summaries = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            summaries.add(getSummary(stage));
+        }
+        return summaries;
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /*
+     * Formats the summary of all stages as a table, one stage per line, with
+     * latencies in milliseconds.
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder("Inline completion latency (ms)\n");
+        sb.append(String.format("%-26s %8s %8s %8s %8s %8s %8s%n", "stage", "count", "p50", "p90", "p99", "max", "mean"));
+        for (StageSummary summary : getSummaries()) {
+            sb.append(String.format("%-26s %8d %8d %8d %8d %8d %8d%n", summary.stage().getLabel(), summary.count(),
+                    summary.p50(), summary.p90(), summary.p99(), summary.max(), summary.mean()));
+        }
+        return sb.toString();
+    }
+
+}
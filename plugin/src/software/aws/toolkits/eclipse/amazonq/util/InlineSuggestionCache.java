@@ -0,0 +1,310 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionReference;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionReferencePosition;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionStates;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.LogInlineCompletionSessionResultsParams;
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+/**
+ * Keeps recent inline completion responses keyed by the file, the text of the
+ * line up to the invocation point and a hash of the text preceding that line.
+ * An invocation whose line prefix extends a cached line prefix is answered
+ * locally with the cached suggestions that start with the extra typed text,
+ * trimmed by that text. Responses can also be prefetched speculatively, for
+ * example right after a suggestion was accepted.
+ *
+ * The results of a server session are reported once. A session answered by a
+ * regular request is reported by the invocation that requested it, so cache
+ * hits on it are kept out of session telemetry. A prefetched session is
+ * reported by the first invocation it is shown in, or as discarded if it
+ * leaves the cache without ever being shown.
+ */
+public final class InlineSuggestionCache {
+
+    static final int MAX_ENTRIES = 64;
+    static final int LEFT_CONTEXT_CHARS = 2000;
+    static final long ENTRY_TTL_MS = 5 * 60 * 1000;
+
+    public record Key(String uri, String linePrefix, int leftContextHash) {
+    }
+
+    public record CacheMetrics(long lookups, long hits, long prefetches, long prefetchHits, long savedLatencyMs) {
+        public double hitRate() {
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /*
+     * Suggestions answered from the cache. reportsSession is true only for the
+     * first use of a prefetched session, whose results the caller then reports.
+     */
+    public record CachedSuggestions(InlineCompletionResponse response, boolean reportsSession) {
+    }
+
+    /* isSessionUnreported is set for prefetched sessions that were never shown. */
+    private record Entry(String sessionId, List<InlineCompletionItem> items, long roundTripMs, boolean prefetched,
+            boolean isSessionUnreported, long createdAtMs) {
+
+        Entry reported() {
+            return new Entry(sessionId, items, roundTripMs, prefetched, false, createdAtMs);
+        }
+    }
+
+    private final LongSupplier clock;
+    private final Consumer<LogInlineCompletionSessionResultsParams> sessionResultSink;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+            if (size() <= MAX_ENTRIES) {
+                return false;
+            }
+            reportDiscarded(eldest.getValue());
+            return true;
+        }
+    };
+
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong prefetchCount = new AtomicLong();
+    private final AtomicLong prefetchHitCount = new AtomicLong();
+    private final AtomicLong savedLatencyMs = new AtomicLong();
+
+    private CompletableFuture<InlineCompletionResponse> inflightPrefetch;
+    private long prefetchGeneration;
+
+    public InlineSuggestionCache() {
+        this(System::currentTimeMillis, result -> Activator.getLspProvider().getAmazonQServer()
+                .thenAccept(server -> server.logInlineCompletionSessionResult(result)));
+    }
+
+    InlineSuggestionCache(final LongSupplier clock, final Consumer<LogInlineCompletionSessionResultsParams> sessionResultSink) {
+        this.clock = clock;
+        this.sessionResultSink = sessionResultSink;
+    }
+
+    /*
+     * Builds the cache key for an invocation at the given offset of the document.
+     */
+    public static Key keyFor(final String uri, final IDocument document, final int offset) throws BadLocationException {
+        int lineOffset = document.getLineOffset(document.getLineOfOffset(offset));
+        int contextStart = Math.max(0, lineOffset - LEFT_CONTEXT_CHARS);
+        String linePrefix = document.get(lineOffset, offset - lineOffset);
+        int leftContextHash = document.get(contextStart, lineOffset - contextStart).hashCode();
+        return new Key(uri, linePrefix, leftContextHash);
+    }
+
+    public synchronized void put(final Key key, final InlineCompletionResponse response, final long roundTripMs) {
+        put(key, response, roundTripMs, false);
+    }
+
+    /*
+     * Looks up suggestions for an invocation. Entries recorded at an earlier
+     * point of the same line are used when the text typed since then is a prefix
+     * of at least one of their suggestions.
+     */
+    public synchronized Optional<CachedSuggestions> lookup(final Key key) {
+        lookupCount.incrementAndGet();
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> {
+            if (now - entry.createdAtMs() <= ENTRY_TTL_MS) {
+                return false;
+            }
+            reportDiscarded(entry);
+            return true;
+        });
+
+        Key bestKey = null;
+        for (Key candidate : entries.keySet()) {
+            if (candidate.leftContextHash() == key.leftContextHash() && candidate.uri().equals(key.uri())
+                    && key.linePrefix().startsWith(candidate.linePrefix())
+                    && (bestKey == null || candidate.linePrefix().length() > bestKey.linePrefix().length())) {
+                bestKey = candidate;
+            }
+        }
+        if (bestKey == null) {
+            return Optional.empty();
+        }
+
+        Entry entry = entries.get(bestKey);
+        String typed = key.linePrefix().substring(bestKey.linePrefix().length());
+        List<InlineCompletionItem> remaining = new ArrayList<>();
+        for (InlineCompletionItem item : entry.items()) {
+            String insertText = item.getInsertText();
+            if (insertText != null && insertText.length() > typed.length() && insertText.startsWith(typed)) {
+                remaining.add(trim(item, typed.length()));
+            }
+        }
+        if (remaining.isEmpty()) {
+            return Optional.empty();
+        }
+
+        hitCount.incrementAndGet();
+        savedLatencyMs.addAndGet(entry.roundTripMs());
+        if (entry.prefetched()) {
+            prefetchHitCount.incrementAndGet();
+        }
+        if (entry.isSessionUnreported()) {
+            entries.put(bestKey, entry.reported());
+        }
+        InlineCompletionResponse response = new InlineCompletionResponse();
+        response.setSessionId(entry.sessionId());
+        response.setItems(remaining);
+        return Optional.of(new CachedSuggestions(response, entry.isSessionUnreported()));
+    }
+
+    /*
+     * Speculatively requests suggestions for the given key. Only one prefetch is
+     * kept in flight, a newer one cancels the previous request.
+     */
+    public void prefetch(final Key key, final Supplier<CompletableFuture<InlineCompletionResponse>> request) {
+        long generation;
+        synchronized (this) {
+            cancelPrefetch();
+            generation = ++prefetchGeneration;
+        }
+        ThreadingUtils.executeAsyncTask(Subsystem.INLINE_COMPLETION, () -> {
+            long startedAtMs = clock.getAsLong();
+            CompletableFuture<InlineCompletionResponse> response = request.get();
+            synchronized (this) {
+                if (generation != prefetchGeneration) {
+                    response.cancel(true);
+                    return;
+                }
+                inflightPrefetch = response;
+            }
+            response.whenComplete((result, throwable) -> {
+                synchronized (this) {
+                    if (inflightPrefetch == response) {
+                        inflightPrefetch = null;
+                    }
+                    if (throwable == null) {
+                        put(key, result, clock.getAsLong() - startedAtMs, true);
+                    }
+                }
+                if (throwable != null && !response.isCancelled()) {
+                    Activator.getLogger().warn("Inline completion prefetch failed: " + throwable.getMessage());
+                }
+            });
+            prefetchCount.incrementAndGet();
+        });
+    }
+
+    public synchronized void cancelPrefetch() {
+        prefetchGeneration++;
+        if (inflightPrefetch != null) {
+            inflightPrefetch.cancel(true);
+            inflightPrefetch = null;
+        }
+    }
+
+    public synchronized void clear() {
+        cancelPrefetch();
+        entries.values().forEach(this::reportDiscarded);
+        entries.clear();
+    }
+
+    public CacheMetrics getMetrics() {
+        return new CacheMetrics(lookupCount.get(), hitCount.get(), prefetchCount.get(), prefetchHitCount.get(),
+                savedLatencyMs.get());
+    }
+
+    private void put(final Key key, final InlineCompletionResponse response, final long roundTripMs, final boolean prefetched) {
+        if (response == null || response.getItems() == null || response.getItems().isEmpty()) {
+            return;
+        }
+        Entry replaced = entries.put(key, new Entry(response.getSessionId(), List.copyOf(response.getItems()), roundTripMs, prefetched,
+                prefetched, clock.getAsLong()));
+        if (replaced != null) {
+            reportDiscarded(replaced);
+        }
+    }
+
+    /*
+     * Reports a prefetched session that leaves the cache without being shown,
+     * so that the server sees the results of every session it answered.
+     */
+    private void reportDiscarded(final Entry entry) {
+        if (!entry.isSessionUnreported() || entry.sessionId() == null) {
+            return;
+        }
+        ConcurrentHashMap<String, InlineCompletionStates> states = new ConcurrentHashMap<>();
+        for (InlineCompletionItem item : entry.items()) {
+            InlineCompletionStates state = new InlineCompletionStates();
+            state.setDiscarded(true);
+            states.put(item.getItemId(), state);
+        }
+        try {
+            sessionResultSink.accept(new LogInlineCompletionSessionResultsParams(entry.sessionId(), states));
+        } catch (RuntimeException e) {
+            Activator.getLogger().warn("Unable to report discarded inline completion prefetch: " + e.getMessage());
+        }
+    }
+
+    private static InlineCompletionItem trim(final InlineCompletionItem item, final int typedLength) {
+        if (typedLength == 0) {
+            return item;
+        }
+        InlineCompletionItem trimmed = new InlineCompletionItem();
+        trimmed.setItemId(item.getItemId());
+        trimmed.setReferences(shiftReferences(item.getReferences(), typedLength));
+        trimmed.setInsertText(item.getInsertText().substring(typedLength));
+        return trimmed;
+    }
+
+    /*
+     * Reference spans are character offsets into the insert text, so they move
+     * with the trimmed text. Spans that lie entirely in the typed text no longer
+     * cover any of the suggestion and are left out.
+     */
+    static InlineCompletionReference[] shiftReferences(final InlineCompletionReference[] references, final int typedLength) {
+        if (references == null) {
+            return null;
+        }
+        List<InlineCompletionReference> shifted = new ArrayList<>(references.length);
+        for (InlineCompletionReference reference : references) {
+            InlineCompletionReferencePosition position = reference.getPosition();
+            if (position == null) {
+                shifted.add(reference);
+                continue;
+            }
+            if (position.getEndCharacter() <= typedLength) {
+                continue;
+            }
+            InlineCompletionReferencePosition shiftedPosition = new InlineCompletionReferencePosition();
+            shiftedPosition.setStartCharacter(Math.max(0, position.getStartCharacter() - typedLength));
+            shiftedPosition.setEndCharacter(position.getEndCharacter() - typedLength);
+            InlineCompletionReference shiftedReference = new InlineCompletionReference();
+            shiftedReference.setReferenceName(reference.getReferenceName());
+            shiftedReference.setReferenceUrl(reference.getReferenceUrl());
+            shiftedReference.setLicenseName(reference.getLicenseName());
+            shiftedReference.setPosition(shiftedPosition);
+            shifted.add(shiftedReference);
+        }
+        return shifted.toArray(InlineCompletionReference[]::new);
+    }
+
+}
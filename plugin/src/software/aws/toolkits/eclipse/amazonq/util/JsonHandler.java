@@ -3,6 +3,9 @@
 
 package software.aws.toolkits.eclipse.amazonq.util;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,6 +14,8 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 
 public final class JsonHandler {
+    private static final Map<String, String[]> KEY_PATHS = new ConcurrentHashMap<>();
+
     private final ObjectMapper objectMapper;
 
     public JsonHandler() {
@@ -47,11 +52,21 @@ public final class JsonHandler {
         return castedObj;
     }
 
+    /*
+     * Converts the object to a tree once so that repeated key lookups and updates
+     * can operate on it directly. Trees are returned as is.
+     */
+    public JsonNode toTree(final Object obj) {
+        if (obj instanceof JsonNode) {
+            return (JsonNode) obj;
+        }
+        return objectMapper.valueToTree(obj);
+    }
+
     public JsonNode getValueForKey(final Object obj, final String key) {
-        JsonNode currentNode = objectMapper.valueToTree(obj);
+        JsonNode currentNode = toTree(obj);
 
-        String[] keyParts = key.split("\\.");
-        for (String keyPart : keyParts) {
+        for (String keyPart : getKeyPath(key)) {
             if (currentNode == null || !currentNode.has(keyPart)) {
                 return null;
             }
@@ -69,7 +84,7 @@ public final class JsonHandler {
             rootNode = objectMapper.valueToTree(obj);
         }
 
-        String[] keyParts = key.split("\\.");
+        String[] keyParts = getKeyPath(key);
         ObjectNode currentNode = rootNode;
 
         for (int i = 0; i < keyParts.length - 1; i++) {
@@ -82,10 +97,18 @@ public final class JsonHandler {
 
         String finalKey = keyParts[keyParts.length - 1];
         if (value != null) {
-            JsonNode valueNode = objectMapper.valueToTree(value);
+            // nodes taken from a tree are attached as they are rather than re-treed
+            JsonNode valueNode = value instanceof JsonNode ? (JsonNode) value : objectMapper.valueToTree(value);
             currentNode.set(finalKey, valueNode);
         }
 
         return rootNode;
     }
+
+    /*
+     * Dotted keys are a small fixed set of literals, so each is only split once.
+     */
+    private static String[] getKeyPath(final String key) {
+        return KEY_PATHS.computeIfAbsent(key, k -> k.split("\\."));
+    }
 }
@@ -7,9 +7,12 @@ import org.eclipse.lsp4j.ProgressParams;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
 
 
 public final class ProgressNotificationUtils {
+    private static final Gson GSON = new Gson();
+
     private ProgressNotificationUtils() {
         // Prevent instantiation
     }
@@ -42,9 +45,13 @@ public final class ProgressNotificationUtils {
             return null;
         }
 
-        Gson gson = new Gson();
         JsonElement element = (JsonElement) val;
-        T obj = gson.fromJson(element, cls);
+        // encrypted partial results arrive as plain strings, skip the Gson round trip for them
+        if (cls == String.class && element.isJsonPrimitive() && ((JsonPrimitive) element).isString()) {
+            return cls.cast(element.getAsString());
+        }
+
+        T obj = GSON.fromJson(element, cls);
 
         return obj;
     }
@@ -50,6 +50,7 @@ import org.eclipse.ui.texteditor.ITextEditor;
 
 import software.aws.toolkits.eclipse.amazonq.editor.InMemoryInput;
 import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
+import software.aws.toolkits.eclipse.amazonq.lsp.editor.OpenEditorRegistry;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 
 public final class QEclipseEditorUtils {
@@ -76,7 +77,7 @@ public final class QEclipseEditorUtils {
         return textEditor.getSelectionProvider().getSelection();
     }
 
-    private static ITextEditor asTextEditor(final IEditorPart editorPart) {
+    public static ITextEditor asTextEditor(final IEditorPart editorPart) {
         if (editorPart instanceof ITextEditor) {
             return (ITextEditor) editorPart;
         } else {
@@ -137,12 +138,13 @@ public final class QEclipseEditorUtils {
         return Optional.of(getOpenFilePath(editor.getEditorInput()));
     }
 
-    private static String getOpenFilePath(final IEditorInput editorInput) {
+    public static String getOpenFilePath(final IEditorInput editorInput) {
         if (editorInput instanceof FileStoreEditorInput fileStoreEditorInput) {
             return fileStoreEditorInput.getURI().getPath();
         } else if (editorInput instanceof IFileEditorInput fileEditorInput) {
             var file = fileEditorInput.getFile();
-            IEditorPart editorPart = getActivePage().findEditor(editorInput);
+            IWorkbenchPage page = getActivePage();
+            IEditorPart editorPart = page == null ? null : page.findEditor(editorInput);
             if (editorPart != null && AbapUtil.isAdtEditor(editorPart.getClass().getName())) {
                 // Special handling for ABAP files: ADT plugins store files in a semantic cache location
                 // rather than the workspace location, so we need to reference the cached file path
@@ -161,8 +163,14 @@ public final class QEclipseEditorUtils {
     /**
      * Returns file paths for all currently open editor tabs, excluding in-memory
      * editors. Used to provide supplemental context for inline completions.
+     * Once the open editor registry is attached its snapshot is returned, which
+     * is ordered by most recent activation and safe to read off the UI thread.
      */
     public static List<String> getOpenEditorFilePaths() {
+        OpenEditorRegistry registry = OpenEditorRegistry.getInstance();
+        if (registry.isAttached()) {
+            return registry.getOpenEditorFilePaths();
+        }
         List<String> filePaths = new ArrayList<>();
         try {
             IWorkbenchPage page = getActivePage();
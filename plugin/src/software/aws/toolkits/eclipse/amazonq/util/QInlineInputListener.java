@@ -4,7 +4,9 @@
 package software.aws.toolkits.eclipse.amazonq.util;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.DocumentEvent;
@@ -26,6 +28,8 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
     private StyledText widget = null;
     private int numSuggestionLines = 0;
     private List<IQInlineSuggestionSegment> suggestionSegments = new ArrayList<>();
+    private Map<String, QInlineSuggestionModel> suggestionModels = new HashMap<>();
+    private QInlineSuggestionModel suggestionModel;
     private IQInlineBracket[] brackets;
     private int distanceTraversed = 0;
     private int normalSegmentCount = 0;
@@ -84,11 +88,17 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
             }
         }
         if (!suggestionSegments.isEmpty()) {
+            // release the cached layouts of the previous suggestion
+            suggestionSegments.forEach(IQInlineSuggestionSegment::cleanUp);
             suggestionSegments.clear();
         }
-        numSuggestionLines = session.getCurrentSuggestion().getInsertText().split("\\R").length;
-        List<IQInlineSuggestionSegment> segments = IQInlineSuggestionSegmentFactory.getSegmentsFromSuggestion(session);
-        brackets = new IQInlineBracket[session.getCurrentSuggestion().getInsertText().length()];
+        // The model is computed once per suggestion and reused when cycling back to it
+        String insertText = session.getCurrentSuggestion().getInsertText();
+        suggestionModel = suggestionModels.computeIfAbsent(insertText, QInlineSuggestionModel::new);
+        numSuggestionLines = suggestionModel.getLineCount();
+        List<IQInlineSuggestionSegment> segments = IQInlineSuggestionSegmentFactory.getSegmentsFromSuggestion(session,
+                suggestionModel);
+        brackets = new IQInlineBracket[insertText.length()];
         if (lineIdx < contentInLine.length()) {
             rightCtxBuf = contentInLine.substring(lineIdx);
         }
@@ -99,8 +109,7 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
                 int idxInSuggestion = offset - invocationOffset;
                 if (((IQInlineBracket) segment).getSymbol() == '{'
                         && typeaheadProcessor.isCurlyBracesAutoCloseDelayed()) {
-                    int firstNewLineAfter = session.getCurrentSuggestion().getInsertText().indexOf('\n',
-                            idxInSuggestion);
+                    int firstNewLineAfter = suggestionModel.getNextLineFeed(idxInSuggestion);
                     if (firstNewLineAfter != -1) {
                         brackets[firstNewLineAfter] = (IQInlineBracket) segment;
                     }
@@ -118,7 +127,7 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
         }
         if (normalSegmentNum > 1 && !rightCtxBuf.isEmpty()) {
             QInlineSuggestionRightContextSegment rightCtxSegment = IQInlineSuggestionSegmentFactory
-                    .getRightCtxSegment(rightCtxBuf, session.getCurrentSuggestion().getInsertText().split("\\R", 2)[0]);
+                    .getRightCtxSegment(rightCtxBuf, suggestionModel.getLine(0));
             suggestionSegments.add(rightCtxSegment);
             try {
                 int expandedOffset = QEclipseEditorUtils.getOffsetInFullyExpandedDocument(viewer, invocationOffset);
@@ -273,7 +282,7 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
                 || input.equals("\' ")) {
             input = input.substring(0, 1);
         }
-        String currentSuggestion = session.getCurrentSuggestion().getInsertText();
+        String currentSuggestion = suggestionModel.getText();
         int currentOffset = widget.getCaretOffset();
 
         if (input.isEmpty()) {
@@ -334,7 +343,7 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
 
         boolean isOutOfBounds = distanceTraversed + input.length() >= currentSuggestion.length()
                 || distanceTraversed < 0;
-        if (isOutOfBounds || !isInputAMatch(currentSuggestion, distanceTraversed, input)) {
+        if (isOutOfBounds || !suggestionModel.matches(distanceTraversed, input)) {
             distanceTraversed += input.length();
             event.getDocument().removeDocumentListener(this);
             StyledText widget = session.getViewer().getTextWidget();
@@ -380,22 +389,15 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
         }
 
         distanceTraversed += input.length();
+        if (session.getRenderModel() != null) {
+            session.getRenderModel().invalidatePositions();
+        }
     }
 
     @Override
     public void documentAboutToBeChanged(final DocumentEvent e) {
     }
 
-    private boolean isInputAMatch(final String currentSuggestion, final int startIdx, final String input) {
-        boolean res = false;
-        if (input.length() > 1 && input.length() + startIdx <= currentSuggestion.length()) {
-            res = currentSuggestion.substring(startIdx, startIdx + input.length()).equals(input);
-        } else if (input.length() == 1) {
-            res = String.valueOf(currentSuggestion.charAt(startIdx)).equals(input);
-        }
-        return res;
-    }
-
     public int getNumSuggestionLines() {
         return numSuggestionLines;
     }
@@ -0,0 +1,161 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Render state shared by the segments of the suggestion being previewed. Values
+ * that are expensive to query from the widget (line of the invocation offset,
+ * its location, font metrics and tab stops) are computed once and reused across
+ * paint events. Positions are recomputed on typeahead and scrolling, and the
+ * layout generation is bumped when a font changes so that segments re-measure
+ * their cached layouts.
+ */
+public final class QInlineRenderModel {
+    private StyledText widget;
+    private Font widgetFont;
+    private Font inlineFont;
+    private int[] tabStops;
+    private int lineHeight;
+    private int fontHeight;
+    private Point spaceExtent;
+    private long layoutGeneration;
+
+    private int invocationOffset = -1;
+    private int invocationLine;
+    private int invocationX;
+    private int topPixel;
+    private int horizontalPixel;
+    private boolean positionsValid;
+
+    private int clipTop;
+    private int clipBottom;
+
+    private int verticalIndentLine = -1;
+    private int verticalIndentHeight = -1;
+    private int renderedLineCount;
+
+    /*
+     * Prepares the model for a paint event, refreshing only the values whose
+     * inputs changed since the previous frame.
+     */
+    public void beginFrame(final StyledText styledText, final GC gc, final PaintEvent event, final int offset,
+            final Font font) {
+        widget = styledText;
+        if (styledText.getFont() != widgetFont || font != inlineFont) {
+            widgetFont = styledText.getFont();
+            inlineFont = font;
+            tabStops = styledText.getTabStops();
+            lineHeight = styledText.getLineHeight();
+            fontHeight = gc.getFontMetrics().getHeight();
+            spaceExtent = gc.stringExtent(" ");
+            layoutGeneration++;
+            positionsValid = false;
+        }
+
+        int currentTopPixel = styledText.getTopPixel();
+        int currentHorizontalPixel = styledText.getHorizontalPixel();
+        if (!positionsValid || offset != invocationOffset || currentTopPixel != topPixel
+                || currentHorizontalPixel != horizontalPixel) {
+            invocationOffset = offset;
+            invocationLine = styledText.getLineAtOffset(offset);
+            invocationX = styledText.getLocationAtOffset(offset).x;
+            topPixel = currentTopPixel;
+            horizontalPixel = currentHorizontalPixel;
+            positionsValid = true;
+        }
+
+        clipTop = event.y;
+        clipBottom = event.y + event.height;
+    }
+
+    /*
+     * Called on typeahead, which may move text on the invocation line.
+     */
+    public void invalidatePositions() {
+        positionsValid = false;
+    }
+
+    public void invalidateLayouts() {
+        widgetFont = null;
+        inlineFont = null;
+    }
+
+    /*
+     * Redraws only the lines covered by the suggestion, including any lines a
+     * previously rendered, longer suggestion occupied.
+     */
+    public void redrawSuggestionLines(final StyledText styledText, final int offset, final int numSuggestionLines) {
+        int lineCount = Math.max(numSuggestionLines, renderedLineCount);
+        renderedLineCount = numSuggestionLines;
+        int line = styledText.getLineAtOffset(offset);
+        int top = styledText.getLinePixel(line);
+        int height = (lineCount + 1) * styledText.getLineHeight();
+        styledText.redraw(0, Math.max(0, top), styledText.getClientArea().width, height, false);
+    }
+
+    /*
+     * Returns true if the vertical indent differs from the one applied last, so
+     * the widget is only asked to relayout when something changed.
+     */
+    public boolean updateVerticalIndent(final int line, final int height) {
+        if (line == verticalIndentLine && height == verticalIndentHeight) {
+            return false;
+        }
+        verticalIndentLine = line;
+        verticalIndentHeight = height;
+        return true;
+    }
+
+    public void resetVerticalIndent() {
+        verticalIndentLine = -1;
+        verticalIndentHeight = -1;
+    }
+
+    public int getLineY(final int lineInSuggestion) {
+        return (invocationLine + lineInSuggestion + 1) * lineHeight - fontHeight - topPixel;
+    }
+
+    public boolean isLineInClip(final int lineInSuggestion) {
+        int y = getLineY(lineInSuggestion);
+        return y < clipBottom && y + lineHeight > clipTop;
+    }
+
+    public StyledText getWidget() {
+        return widget;
+    }
+
+    public Font getInlineFont() {
+        return inlineFont;
+    }
+
+    public int[] getTabStops() {
+        return tabStops;
+    }
+
+    public int getFontHeight() {
+        return fontHeight;
+    }
+
+    public Point getSpaceExtent() {
+        return spaceExtent;
+    }
+
+    public int getInvocationLine() {
+        return invocationLine;
+    }
+
+    public int getInvocationX() {
+        return invocationX;
+    }
+
+    public long getLayoutGeneration() {
+        return layoutGeneration;
+    }
+}
@@ -38,22 +38,27 @@ public class QInlineRendererListener implements PaintListener {
             return;
         }
 
-        var invocationLine = widget.getLineAtOffset(invocationOffset);
+        qInvocationSessionInstance.onSuggestionPainted();
+        var renderModel = qInvocationSessionInstance.getRenderModel();
+        renderModel.beginFrame(widget, gc, e, invocationOffset, qInvocationSessionInstance.getInlineTextFont());
+        var invocationLine = renderModel.getInvocationLine();
         var segments = qInvocationSessionInstance.getSegments();
         var caretLine = widget.getLineAtOffset(currentOffset);
         int numSuggestionLines = qInvocationSessionInstance.getNumSuggestionLines();
 
         if (shouldIndentVertically(widget, caretLine) && qInvocationSessionInstance.isPreviewingSuggestions()) {
-            Point textExtent = gc.stringExtent(" ");
-            int height = textExtent.y * (numSuggestionLines - (caretLine - invocationLine) - 1);
+            int height = renderModel.getSpaceExtent().y * (numSuggestionLines - (caretLine - invocationLine) - 1);
             height = Math.max(height, 0);
-            qInvocationSessionInstance.setVerticalIndent(caretLine + 1, height);
+            if (renderModel.updateVerticalIndent(caretLine + 1, height)) {
+                qInvocationSessionInstance.setVerticalIndent(caretLine + 1, height);
+            }
         } else if (caretLine + 1 == (invocationLine + numSuggestionLines)) {
             qInvocationSessionInstance.unsetVerticalIndent(caretLine + 1);
+            renderModel.resetVerticalIndent();
         }
 
         for (int i = 0; i < segments.size(); i++) {
-            segments.get(i).render(gc, widget.getCaretOffset());
+            segments.get(i).render(gc, currentOffset, renderModel);
         }
     }
 
@@ -5,7 +5,6 @@ package software.aws.toolkits.eclipse.amazonq.util;
 
 import static software.aws.toolkits.eclipse.amazonq.util.QConstants.Q_INLINE_HINT_TEXT_COLOR;
 
-import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.TextLayout;
@@ -21,6 +20,9 @@ public final class QInlineSuggestionCloseBracketSegment implements IQInlineSugge
     private TextLayout layout;
     private TextLayout measureLayout;
     private boolean isMacOS;
+    private long layoutGeneration = -1;
+    private int textWidth;
+    private Boolean isTypedStyleApplied;
 
     public QInlineSuggestionCloseBracketSegment(final int caretOffset, final int lineInSuggestion, final String text,
             final char symbol, final boolean isMacOS) {
@@ -56,56 +58,38 @@ public final class QInlineSuggestionCloseBracketSegment implements IQInlineSugge
     }
 
     @Override
-    public void render(final GC gc, final int currentCaretOffset) {
-        if (currentCaretOffset > caretOffset) {
+    public void render(final GC gc, final int currentCaretOffset, final QInlineRenderModel renderModel) {
+        if (currentCaretOffset > caretOffset || !renderModel.isLineInClip(lineInSuggestion)) {
             return;
         }
-        var qInvocationSessionInstance = QInvocationSession.getInstance();
-        if (qInvocationSessionInstance == null) {
-            return;
+        var widget = renderModel.getWidget();
+        if (renderModel.getLayoutGeneration() != layoutGeneration) {
+            layoutGeneration = renderModel.getLayoutGeneration();
+            textWidth = isMacOS ? gc.textExtent(text).x : measureLayout.getBounds().width;
+            isTypedStyleApplied = null;
         }
-        var widget = qInvocationSessionInstance.getViewer().getTextWidget();
-
-        int x;
-        int y;
-        int invocationOffset = qInvocationSessionInstance.getInvocationOffset();
-        int invocationLine = widget.getLineAtOffset(invocationOffset);
-        int lineHt = widget.getLineHeight();
-        int fontHt = gc.getFontMetrics().getHeight();
-        y = (invocationLine + lineInSuggestion + 1) * lineHt - fontHt;
-        x = isMacOS ? gc.textExtent(text).x : (int) measureLayout.getBounds().width;
+
+        int y = renderModel.getLineY(lineInSuggestion);
+        int x = textWidth;
         if (lineInSuggestion == 0) {
-            x += widget.getLocationAtOffset(invocationOffset).x;
+            x += renderModel.getInvocationX();
         }
-        int scrollOffsetY = widget.getTopPixel();
-        y -= scrollOffsetY;
         String textToRender = String.valueOf(symbol);
-        if (currentCaretOffset > openBracket.getRelevantOffset()) {
-            Color typedColor = widget.getForeground();
-            if (isMacOS) {
-                gc.setForeground(typedColor);
-                gc.setFont(adjustedTypedFont);
-                gc.drawText(textToRender, x, y, false);
-            } else {
-                layout.setFont(adjustedTypedFont);
-                layout.setText(textToRender);
-                layout.setTabs(widget.getTabStops());
-                gc.setAlpha(255);
-                layout.draw(gc, x, y);
-            }
-        } else {
-            if (isMacOS) {
-                gc.setForeground(Q_INLINE_HINT_TEXT_COLOR);
-                gc.setFont(qInvocationSessionInstance.getInlineTextFont());
-                gc.drawText(textToRender, x, y, true);
-            } else {
-                layout.setFont(qInvocationSessionInstance.getInlineTextFont());
-                layout.setText(textToRender);
-                layout.setTabs(widget.getTabStops());
-                gc.setAlpha(127);
-                layout.draw(gc, x, y);
-            }
+        boolean isTyped = currentCaretOffset > openBracket.getRelevantOffset();
+        if (isMacOS) {
+            gc.setForeground(isTyped ? widget.getForeground() : Q_INLINE_HINT_TEXT_COLOR);
+            gc.setFont(isTyped ? adjustedTypedFont : renderModel.getInlineFont());
+            gc.drawText(textToRender, x, y, !isTyped);
+            return;
+        }
+        if (!Boolean.valueOf(isTyped).equals(isTypedStyleApplied)) {
+            isTypedStyleApplied = isTyped;
+            layout.setFont(isTyped ? adjustedTypedFont : renderModel.getInlineFont());
+            layout.setText(textToRender);
+            layout.setTabs(renderModel.getTabStops());
         }
+        gc.setAlpha(isTyped ? 255 : 127);
+        layout.draw(gc, x, y);
     }
 
     @Override
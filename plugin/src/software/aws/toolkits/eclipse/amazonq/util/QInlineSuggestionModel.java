@@ -0,0 +1,242 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable analysis of a suggestion's text: where each line starts, the text
+ * rendered for each line, which brackets pair up and where a delayed auto close
+ * of an open bracket would land. It is computed once per suggestion and shared
+ * by every typeahead step and every time the suggestion is cycled back to, so
+ * that only the segments themselves need to be created again.
+ */
+public final class QInlineSuggestionModel {
+
+    /*
+     * A pair of brackets in the suggestion, as indices into the suggestion text.
+     */
+    public record BracketPair(int openIndex, int openLine, int closeIndex, int closeLine) {
+    }
+
+    private final String text;
+    private final int[] lineStarts;
+    private final String[] lines;
+    private final String[] renderedLines;
+    private final String[] lineIndents;
+    private final List<BracketPair> bracketPairs;
+    private final int[] lineFeeds;
+
+    public QInlineSuggestionModel(final String text) {
+        this.text = text;
+        this.lineStarts = computeLineStarts(text);
+        int lineCount = lineStarts.length;
+        this.lines = new String[lineCount];
+        this.lineIndents = new String[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            lines[i] = text.substring(lineStarts[i], lineEnd(text, lineStarts[i]));
+            lineIndents[i] = lines[i].substring(0, idxOfFirstNonwhiteSpace(lines[i]));
+        }
+        this.bracketPairs = computeBracketPairs();
+        this.renderedLines = computeRenderedLines();
+        this.lineFeeds = IntStream.range(0, text.length()).filter(i -> text.charAt(i) == '\n').toArray();
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /*
+     * Number of lines as split by "\\R", i.e. not counting trailing empty lines.
+     */
+    public int getLineCount() {
+        return lines.length;
+    }
+
+    public String getLine(final int line) {
+        return lines[line];
+    }
+
+    public int getLineStart(final int line) {
+        return lineStarts[line];
+    }
+
+    /*
+     * The text drawn for a line, with the close brackets that are rendered as
+     * separate segments blanked out.
+     */
+    public String getRenderedLine(final int line) {
+        return renderedLines[line];
+    }
+
+    public String getLineIndent(final int line) {
+        return lineIndents[line];
+    }
+
+    public List<BracketPair> getBracketPairs() {
+        return bracketPairs;
+    }
+
+    /*
+     * Index of the first line feed at or after the given index, or -1 if there is
+     * none. This is where a delayed auto close of a curly brace takes effect.
+     */
+    public int getNextLineFeed(final int index) {
+        int found = Arrays.binarySearch(lineFeeds, index);
+        int insertionPoint = found >= 0 ? found : -found - 1;
+        return insertionPoint < lineFeeds.length ? lineFeeds[insertionPoint] : -1;
+    }
+
+    public int getLineOfIndex(final int index) {
+        int found = Arrays.binarySearch(lineStarts, index);
+        return found >= 0 ? found : Math.max(0, -found - 2);
+    }
+
+    /*
+     * Checks whether the input typed at the given index of the suggestion matches
+     * it, without copying any part of the suggestion.
+     */
+    public boolean matches(final int startIdx, final String input) {
+        if (startIdx < 0 || input.isEmpty() || startIdx + input.length() > text.length()) {
+            return false;
+        }
+        return text.regionMatches(startIdx, input, 0, input.length());
+    }
+
+    private List<BracketPair> computeBracketPairs() {
+        List<BracketPair> pairs = new ArrayList<>();
+        Deque<int[]> unresolvedBrackets = new ArrayDeque<>();
+        for (int line = 0; line < lines.length; line++) {
+            int start = lineStarts[line];
+            for (int idx = start; idx < start + lines[line].length(); idx++) {
+                if (isCloseBracket(text, idx, unresolvedBrackets)) {
+                    if (!unresolvedBrackets.isEmpty()) {
+                        int[] top = unresolvedBrackets.pop();
+                        if (isAMatch(text.charAt(top[0]), text.charAt(idx))) {
+                            pairs.add(new BracketPair(top[0], top[1], idx, line));
+                        }
+                    }
+                } else if (isOpenBracket(text, idx)) {
+                    unresolvedBrackets.push(new int[] {idx, line});
+                }
+            }
+        }
+        return List.copyOf(pairs);
+    }
+
+    private String[] computeRenderedLines() {
+        String[] rendered = new String[lines.length];
+        StringBuilder[] builders = new StringBuilder[lines.length];
+        for (BracketPair pair : bracketPairs) {
+            int line = pair.closeLine();
+            if (builders[line] == null) {
+                builders[line] = new StringBuilder(lines[line]);
+            }
+            builders[line].setCharAt(pair.closeIndex() - lineStarts[line], ' ');
+        }
+        for (int i = 0; i < lines.length; i++) {
+            rendered[i] = builders[i] == null ? lines[i] : builders[i].toString();
+        }
+        return rendered;
+    }
+
+    private static int[] computeLineStarts(final String text) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        int idx = 0;
+        while (idx < text.length()) {
+            char c = text.charAt(idx);
+            if (isLineBreak(c)) {
+                idx += c == '\r' && idx + 1 < text.length() && text.charAt(idx + 1) == '\n' ? 2 : 1;
+                starts.add(idx);
+            } else {
+                idx++;
+            }
+        }
+        /* String.split drops trailing empty lines, keep the line count consistent with it */
+        int count = starts.size();
+        while (count > 1 && lineEnd(text, starts.get(count - 1)) == starts.get(count - 1)) {
+            count--;
+        }
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = starts.get(i);
+        }
+        return result;
+    }
+
+    private static int lineEnd(final String text, final int lineStart) {
+        int idx = lineStart;
+        while (idx < text.length() && !isLineBreak(text.charAt(idx))) {
+            idx++;
+        }
+        return idx;
+    }
+
+    private static boolean isLineBreak(final char c) {
+        return c == '\n' || c == '\r' || c == '\u000B' || c == '\u000C' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isAMatch(final char open, final char close) {
+        switch (open) {
+        case '<':
+            return close == '>';
+        case '{':
+            return close == '}';
+        case '(':
+            return close == ')';
+        case '[':
+            return close == ']';
+        case '"':
+        case '\'':
+            return close == open;
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isCloseBracket(final String input, final int idx, final Deque<int[]> unresolvedBrackets) {
+        char c = input.charAt(idx);
+        boolean isBracket = c == ')' || c == ']' || c == '}' || c == '>' || c == '"' || c == '\'';
+        if (!isBracket) {
+            return false;
+        }
+        if (c == '"' || c == '\'') {
+            return !unresolvedBrackets.isEmpty() && input.charAt(unresolvedBrackets.peek()[0]) == c;
+        }
+        // TODO: enrich this check to eliminate false positives
+        if (idx > 0 && Character.isWhitespace(input.charAt(idx - 1)) && c == '>') {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isOpenBracket(final String input, final int idx) {
+        char c = input.charAt(idx);
+        boolean isBracket = c == '(' || c == '[' || c == '{' || c == '<' || c == '"' || c == '\'';
+        if (!isBracket) {
+            return false;
+        }
+        // TODO: enrich this check to eliminate false postives
+        if (idx > 0 && Character.isWhitespace(input.charAt(idx - 1)) && c == '<') {
+            return false;
+        }
+        return true;
+    }
+
+    static int idxOfFirstNonwhiteSpace(final String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (input.charAt(i) != ' ' && input.charAt(i) != '\t') {
+                return i;
+            }
+        }
+        return input.length();
+    }
+
+}
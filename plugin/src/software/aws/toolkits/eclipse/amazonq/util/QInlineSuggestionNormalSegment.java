@@ -22,6 +22,10 @@ public final class QInlineSuggestionNormalSegment implements IQInlineSuggestionS
     private StyleRange styleRange = new StyleRange();
     private TextLayout layout;
     private boolean isMacOS;
+    private long layoutGeneration = -1;
+    private int measuredCaretOffset = -1;
+    private int measuredX;
+    private String textToRender;
 
     public QInlineSuggestionNormalSegment(final int startCaretPosition, final int endCaretPosition,
             final int lineInSuggestion, final String text, final boolean isMacOS) {
@@ -33,66 +37,80 @@ public final class QInlineSuggestionNormalSegment implements IQInlineSuggestionS
         this.layout = isMacOS ? null : new TextLayout(Display.getCurrent());
     }
 
+    /*
+     * Measurements and the glyph reserving space for the first line are cached
+     * and only recomputed when the caret moves within this segment or the render
+     * model's layouts were invalidated.
+     */
     @Override
-    public void render(final GC gc, final int currentCaretOffset) {
-        if (currentCaretOffset > endCaretOffset) {
+    public void render(final GC gc, final int currentCaretOffset, final QInlineRenderModel renderModel) {
+        if (currentCaretOffset > endCaretOffset || !renderModel.isLineInClip(lineInSuggestion)) {
             return;
         }
-        var qInvocationSessionInstance = QInvocationSession.getInstance();
-        if (qInvocationSessionInstance == null) {
-            return;
+        var widget = renderModel.getWidget();
+        if (renderModel.getLayoutGeneration() != layoutGeneration) {
+            layoutGeneration = renderModel.getLayoutGeneration();
+            measuredCaretOffset = -1;
+            if (layout != null) {
+                layout.setFont(renderModel.getInlineFont());
+                layout.setTabs(renderModel.getTabStops());
+            }
         }
-        var widget = qInvocationSessionInstance.getViewer().getTextWidget();
 
         int x;
-        int y;
-        String textToRender;
-        int invocationLine = widget.getLineAtOffset(qInvocationSessionInstance.getInvocationOffset());
-        int lineHt = widget.getLineHeight();
-        int fontHt = gc.getFontMetrics().getHeight();
-        y = (invocationLine + lineInSuggestion + 1) * lineHt - fontHt;
-
+        int y = renderModel.getLineY(lineInSuggestion);
         int idxInLine = currentCaretOffset - startCaretOffset;
         if (lineInSuggestion == 0) {
-            x = widget.getLocationAtOffset(widget.getCaretOffset()).x;
-            textToRender = text.substring(idxInLine);
-            int curLineInDoc = widget.getLineAtOffset(currentCaretOffset);
-            int lineIdx = currentCaretOffset - widget.getOffsetAtLine(invocationLine);
-            String contentInLine = widget.getLine(curLineInDoc);
-            String rightCtxInLine = contentInLine.substring(lineIdx);
-            if (!rightCtxInLine.isBlank() && !text.endsWith("\n")) {
-                styleRange.start = currentCaretOffset;
-                styleRange.length = 1;
-                styleRange.metrics = new GlyphMetrics(0, 0, gc.textExtent(textToRender).x + gc.textExtent(" ").x);
-                styleRange.foreground = widget.getBackground();
-                widget.setStyleRange(styleRange);
-                // also include the character right of the caret that is covered by the glyph
-                textToRender += contentInLine.charAt(lineIdx);
+            x = widget.getLocationAtOffset(currentCaretOffset).x;
+            if (currentCaretOffset != measuredCaretOffset) {
+                updateGlyph(gc, widget, currentCaretOffset, idxInLine, renderModel);
             }
         } else if (currentCaretOffset <= startCaretOffset) {
-            textToRender = text;
             x = widget.getLeftMargin();
+            measuredCaretOffset = currentCaretOffset;
+            textToRender = text;
         } else {
-            x = gc.textExtent(text.substring(0, idxInLine)).x;
-            textToRender = text.substring(idxInLine);
+            if (currentCaretOffset != measuredCaretOffset) {
+                measuredCaretOffset = currentCaretOffset;
+                measuredX = gc.textExtent(text.substring(0, idxInLine)).x;
+                textToRender = text.substring(idxInLine);
+            }
+            x = measuredX;
         }
 
-        int scrollOffsetY = widget.getTopPixel();
-        y -= scrollOffsetY;
-
         if (!isMacOS) {
             layout.setText(textToRender);
-            layout.setFont(qInvocationSessionInstance.getInlineTextFont());
-            layout.setTabs(widget.getTabStops());
             gc.setAlpha(127);
             layout.draw(gc, x, y);
         } else {
             gc.setForeground(Q_INLINE_HINT_TEXT_COLOR);
-            gc.setFont(qInvocationSessionInstance.getInlineTextFont());
+            gc.setFont(renderModel.getInlineFont());
             gc.drawText(textToRender, x, y, true);
         }
     }
 
+    private void updateGlyph(final GC gc, final StyledText widget, final int currentCaretOffset, final int idxInLine,
+            final QInlineRenderModel renderModel) {
+        measuredCaretOffset = currentCaretOffset;
+        textToRender = text.substring(idxInLine);
+        int curLineInDoc = widget.getLineAtOffset(currentCaretOffset);
+        int lineIdx = currentCaretOffset - widget.getOffsetAtLine(renderModel.getInvocationLine());
+        String contentInLine = widget.getLine(curLineInDoc);
+        String rightCtxInLine = contentInLine.substring(lineIdx);
+        if (!rightCtxInLine.isBlank() && !text.endsWith("\n")) {
+            int glyphWidth = gc.textExtent(textToRender).x + renderModel.getSpaceExtent().x;
+            if (styleRange.start != currentCaretOffset || styleRange.metrics == null || styleRange.metrics.width != glyphWidth) {
+                styleRange.start = currentCaretOffset;
+                styleRange.length = 1;
+                styleRange.metrics = new GlyphMetrics(0, 0, glyphWidth);
+                styleRange.foreground = widget.getBackground();
+                widget.setStyleRange(styleRange);
+            }
+            // also include the character right of the caret that is covered by the glyph
+            textToRender += contentInLine.charAt(lineIdx);
+        }
+    }
+
     @Override
     public void cleanUp() {
         if (layout != null) {
@@ -59,7 +59,7 @@ public final class QInlineSuggestionOpenBracketSegment implements IQInlineSugges
     }
 
     @Override
-    public void render(final GC gc, final int currentCaretOffset) {
+    public void render(final GC gc, final int currentCaretOffset, final QInlineRenderModel renderModel) {
         // We never separates open brackets from the lines from which they came.
         // This is because there is never a need to highlight open brackets.
         return;
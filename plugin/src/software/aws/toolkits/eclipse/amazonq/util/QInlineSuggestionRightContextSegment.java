@@ -6,13 +6,15 @@ package software.aws.toolkits.eclipse.amazonq.util;
 import static software.aws.toolkits.eclipse.amazonq.util.QConstants.Q_INLINE_HINT_TEXT_COLOR;
 
 import org.eclipse.swt.custom.StyledText;
-import org.eclipse.swt.graphics.FontMetrics;
 import org.eclipse.swt.graphics.GC;
-import org.eclipse.swt.graphics.Point;
 
 public final class QInlineSuggestionRightContextSegment implements IQInlineSuggestionSegment {
     private String text;
     private String firstLineInSuggestion;
+    private long layoutGeneration = -1;
+    private int suggestionWidth;
+    private int textWidth;
+    private int strikeThroughOffset;
 
     public QInlineSuggestionRightContextSegment(final String text, final String firstLineInSuggestion) {
         this.text = text;
@@ -20,29 +22,25 @@ public final class QInlineSuggestionRightContextSegment implements IQInlineSugge
     }
 
     @Override
-    public void render(final GC gc, final int currentCaretOffset) {
-        QInvocationSession session = QInvocationSession.getInstance();
-        if (session == null) {
+    public void render(final GC gc, final int currentCaretOffset, final QInlineRenderModel renderModel) {
+        if (!renderModel.isLineInClip(0)) {
             return;
         }
-        StyledText widget = session.getViewer().getTextWidget();
-
-        int x;
-        int y;
-        int invocationLine = widget.getLineAtOffset(session.getInvocationOffset());
-        int lineHt = widget.getLineHeight();
-        int fontHt = gc.getFontMetrics().getHeight();
-        y = (invocationLine + 1) * lineHt - fontHt;
-        int scrollOffsetY = widget.getTopPixel();
-        y -= scrollOffsetY;
-        x = widget.getLocationAtOffset(session.getInvocationOffset()).x + gc.textExtent(firstLineInSuggestion).x;
+        StyledText widget = renderModel.getWidget();
+        if (renderModel.getLayoutGeneration() != layoutGeneration) {
+            layoutGeneration = renderModel.getLayoutGeneration();
+            suggestionWidth = gc.textExtent(firstLineInSuggestion).x;
+            gc.setFont(widget.getFont());
+            textWidth = gc.textExtent(text).x;
+            strikeThroughOffset = gc.getFontMetrics().getAscent() / 2;
+        }
+
+        int y = renderModel.getLineY(0);
+        int x = renderModel.getInvocationX() + suggestionWidth;
         gc.setForeground(Q_INLINE_HINT_TEXT_COLOR);
         gc.setFont(widget.getFont());
         gc.drawText(text, x, y, true);
-        FontMetrics fontMetrics = gc.getFontMetrics();
-        int lineY = y + fontMetrics.getAscent() / 2;
-        Point textExtent = gc.textExtent(text);
-        int textWidth = textExtent.x;
+        int lineY = y + strikeThroughOffset;
         gc.drawLine(x, lineY, x + textWidth, lineY);
     }
 
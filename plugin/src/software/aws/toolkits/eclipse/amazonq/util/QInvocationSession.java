@@ -6,6 +6,7 @@ package software.aws.toolkits.eclipse.amazonq.util;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.swt.custom.CaretListener;
 import org.eclipse.swt.graphics.Font;
@@ -17,10 +18,12 @@ import org.eclipse.ui.texteditor.ITextEditor;
 
 import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionParams;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionStates;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionTriggerKind;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.LogInlineCompletionSessionResultsParams;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.InlineCompletionTriggerPipeline.DocumentVersion;
 import software.aws.toolkits.eclipse.amazonq.views.model.InlineSuggestionCodeReference;
 
 import java.util.ArrayList;
@@ -28,13 +31,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.function.Consumer;
 
@@ -47,9 +46,8 @@ public final class QInvocationSession extends QResource {
     // Static variable to hold the single instance
     private static QInvocationSession instance;
 
-    private static final ExecutorService SESSION_PROCESSOR = Executors.newSingleThreadExecutor();
-    private static volatile UUID pendingRequestId = null;
-    private static final long REQUEST_TIMEOUT_SECONDS = 5;
+    private static final String PREFETCH_PROPERTY = "amazonq.inline.prefetch";
+    private static final InlineCompletionClient COMPLETION_CLIENT = new InlineCompletionClient();
 
     private volatile QInvocationSessionState state = QInvocationSessionState.INACTIVE;
     private CaretMovementReason caretMovementReason = CaretMovementReason.UNEXAMINED;
@@ -71,6 +69,7 @@ public final class QInvocationSession extends QResource {
     private CaretListener caretListener = null;
     private QInlineInputListener inputListener = null;
     private QInlineTerminationListener terminationListener = null;
+    private QInlineRenderModel renderModel = null;
     private final boolean isTabOnly = false;
     private Consumer<Integer> unsetVerticalIndent;
     private Runnable changeStatusToQuerying;
@@ -78,6 +77,10 @@ public final class QInvocationSession extends QResource {
     private Runnable changeStatusToPreviewing;
     private boolean hasSeenFirstSuggestion = false;
     private long firstSuggestionDisplayLatency;
+    private boolean isFirstPaintPending = false;
+    // False when the suggestions came from a cached session that another invocation reports
+    private boolean reportsSessionResult = true;
+    private long responseReceivedAtNanos;
     private final StopWatch suggestionDisplaySessionStopWatch = new StopWatch();
     private Optional<Integer> initialTypeaheadLength = Optional.empty();
 
@@ -142,6 +145,7 @@ public final class QInvocationSession extends QResource {
     private void attachListeners() {
         var widget = this.viewer.getTextWidget();
 
+        renderModel = new QInlineRenderModel();
         paintListener = new QInlineRendererListener();
         widget.addPaintListener(paintListener);
 
@@ -161,7 +165,7 @@ public final class QInvocationSession extends QResource {
                     invocationOffset) + inputLength;
             var params = InlineCompletionUtils.cwParamsFromContext(session.getEditor(), session.getViewer(),
                     adjustedInvocationOffset, InlineCompletionTriggerKind.Automatic);
-            queryAsync(params, invocationOffset + inputLength);
+            queryAsync(params, invocationOffset + inputLength, true);
         } catch (BadLocationException e) {
             Activator.getLogger().error("Unable to compute inline completion request from document", e);
         }
@@ -175,51 +179,96 @@ public final class QInvocationSession extends QResource {
                     session.getInvocationOffset());
             var params = InlineCompletionUtils.cwParamsFromContext(session.getEditor(), session.getViewer(),
                     adjustedInvocationOffset, InlineCompletionTriggerKind.Invoke);
-            queryAsync(params, session.getInvocationOffset());
+            queryAsync(params, session.getInvocationOffset(), false);
         } catch (BadLocationException e) {
             Activator.getLogger().error("Unable to compute inline completion request from document", e);
         }
     }
 
-    private synchronized void queryAsync(final InlineCompletionParams params, final int invocationOffset) {
+    private void queryAsync(final InlineCompletionParams params, final int invocationOffset, final boolean debounce) {
         UUID requestId = UUID.randomUUID();
-        pendingRequestId = requestId;
-
-        SESSION_PROCESSOR.submit(() -> {
-            try {
-                if (requestId.equals(pendingRequestId)) {
-                    CompletableFuture<Void> task = CompletableFuture.runAsync(() ->
-                        processRequest(params, invocationOffset, requestId));
-                    try {
-                        task.get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-                    } catch (TimeoutException e) {
-                        Activator.getLogger().warn(requestId + " inline completion request task timed out after "
-                                + REQUEST_TIMEOUT_SECONDS + " seconds");
-                    }
-                } else {
-                    Activator.getLogger().info(requestId + " skipped as newer inline completion request was queued");
-                }
-            } catch (InterruptedException e) {
-                Activator.getLogger().info(requestId + " inline completion request interrupted");
-            } catch (ExecutionException e) {
-                Activator.getLogger().error("Error executing inline completion request " + requestId, e);
-            }
-        });
+        DocumentVersion version = getDocumentVersion(params);
+        long requestInvocation = System.currentTimeMillis();
+        var task = new RequestContext(requestId, invocationOffset, params, version);
+
+        boolean answeredFromCache = COMPLETION_CLIENT.request(params, version, getCacheKey(params), debounce,
+                (response, reportsSession) -> processResponse(response, reportsSession, task, requestInvocation));
+        if (answeredFromCache) {
+            Activator.getLogger().info(requestId + " inline query at offset " + invocationOffset + " answered from cache");
+        } else {
+            Activator.getLogger().info(requestId + " inline query made at offset " + invocationOffset);
+        }
     }
 
-    private void processRequest(final InlineCompletionParams params, final int invocationOffset, final UUID requestId) {
+    /*
+     * Speculatively requests the next suggestion at the given widget offset so
+     * that continuing to type after accepting a suggestion can be answered from
+     * the cache. Off by default, enabled with -Damazonq.inline.prefetch=true.
+     */
+    public void prefetchAfterAccept(final int widgetOffset) {
+        if (!Boolean.getBoolean(PREFETCH_PROPERTY) || editor == null || viewer == null) {
+            return;
+        }
         try {
-            Activator.getLogger().info(requestId + " inline query made at offset " + invocationOffset);
+            int adjustedOffset = QEclipseEditorUtils.getOffsetInFullyExpandedDocument(viewer, widgetOffset);
+            var params = InlineCompletionUtils.cwParamsFromContext(editor, viewer, adjustedOffset,
+                    InlineCompletionTriggerKind.Automatic);
+            InlineSuggestionCache.Key cacheKey = getCacheKey(params);
+            if (cacheKey != null) {
+                COMPLETION_CLIENT.prefetch(cacheKey, params);
+            }
+        } catch (BadLocationException e) {
+            Activator.getLogger().error("Unable to compute inline completion prefetch request from document", e);
+        }
+    }
 
-            List<InlineCompletionItem> newSuggestions = new ArrayList<>();
-            String sessionId;
-            long requestInvocation = System.currentTimeMillis();
+    public InlineSuggestionCache.CacheMetrics getSuggestionCacheMetrics() {
+        return COMPLETION_CLIENT.getSuggestionCacheMetrics();
+    }
+
+    public InlineLatencyRecorder getLatencyRecorder() {
+        return COMPLETION_CLIENT.getLatencyRecorder();
+    }
 
-            // Execute the LSP query
-            var response = Activator.getLspProvider().getAmazonQServer().get()
-                    .inlineCompletionWithReferences(params).get();
+    /*
+     * Called by the renderer when it paints the suggestion, records the time from
+     * the response arriving to the suggestion first appearing on screen.
+     */
+    void onSuggestionPainted() {
+        if (isFirstPaintPending) {
+            isFirstPaintPending = false;
+            COMPLETION_CLIENT.getLatencyRecorder().record(InlineLatencyRecorder.Stage.RESPONSE_TO_FIRST_PAINT,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - responseReceivedAtNanos));
+        }
+    }
 
-            sessionId = response.getSessionId();
+    private InlineSuggestionCache.Key getCacheKey(final InlineCompletionParams params) {
+        if (params.getTextDocument() == null || params.getPosition() == null) {
+            return null;
+        }
+        try {
+            var document = viewer.getDocument();
+            int offset = document.getLineOffset(params.getPosition().getLine()) + params.getPosition().getCharacter();
+            return InlineSuggestionCache.keyFor(params.getTextDocument().getUri(), document, offset);
+        } catch (BadLocationException e) {
+            return null;
+        }
+    }
+
+    private DocumentVersion getDocumentVersion(final InlineCompletionParams params) {
+        var document = viewer.getDocument();
+        long stamp = document instanceof IDocumentExtension4 extension ? extension.getModificationStamp()
+                : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+        String uri = params.getTextDocument() != null ? params.getTextDocument().getUri() : null;
+        return new DocumentVersion(uri, stamp);
+    }
+
+    private void processResponse(final InlineCompletionResponse response, final boolean reportsSession, final RequestContext task,
+            final long requestInvocation) {
+        long receivedAtNanos = System.nanoTime();
+        List<InlineCompletionItem> newSuggestions = new ArrayList<>();
+        String sessionId = response.getSessionId();
+        if (response.getItems() != null) {
             var suggestions = response.getItems().parallelStream()
                 .map(item -> {
                     if (isTabOnly) {
@@ -230,25 +279,25 @@ public final class QInvocationSession extends QResource {
                 })
                 .collect(Collectors.toList());
             newSuggestions.addAll(suggestions);
+        }
 
-            Display.getDefault().syncExec(() -> {
-                if (requestId.equals(pendingRequestId)) {
-                    handleQueryResults(newSuggestions, sessionId, requestInvocation,
-                                     new RequestContext(requestId, invocationOffset, params));
-                } else {
-                    Activator.getLogger().info(requestId + " skipped rendering as newer inline completion request queued");
+        Display.getDefault().asyncExec(() -> {
+            if (COMPLETION_CLIENT.claim(task.getVersion())) {
+                handleQueryResults(newSuggestions, sessionId, reportsSession, requestInvocation, task);
+                COMPLETION_CLIENT.recordUiApply(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedAtNanos));
+                if (isPreviewingSuggestions()) {
+                    responseReceivedAtNanos = receivedAtNanos;
+                    isFirstPaintPending = true;
                 }
-            });
-
-        } catch (InterruptedException e) {
-            Activator.getLogger().info(requestId + " inline completion request interrupted");
-        } catch (Exception e) {
-            Activator.getLogger().error("Error processing inline completion request " + requestId, e);
-        }
+            } else {
+                Activator.getLogger().info(task.getUuid() + " skipped rendering as the document changed since the request");
+            }
+        });
     }
 
     private void handleQueryResults(final List<InlineCompletionItem> newSuggestions,
                               final String sessionId,
+                              final boolean reportsSession,
                               final long requestInvocation,
                               final RequestContext task) {
         if (newSuggestions == null || newSuggestions.isEmpty() || sessionId == null || sessionId.isEmpty()) {
@@ -282,6 +331,7 @@ public final class QInvocationSession extends QResource {
         Activator.getLogger().info(task.getUuid() + " returned with " + newSuggestions.size() + " results.");
 
         suggestionsContext.setSessionId(sessionId);
+        reportsSessionResult = reportsSession;
         suggestionsContext.setRequestedAtEpoch(requestInvocation);
         suggestionsContext.getDetails()
                 .addAll(newSuggestions.stream().map(QSuggestionContext::new).collect(Collectors.toList()));
@@ -326,7 +376,7 @@ public final class QInvocationSession extends QResource {
         transitionToPreviewingState();
         attachListeners();
         primeListeners();
-        getViewer().getTextWidget().redraw();
+        redrawSuggestion();
     }
 
     /*
@@ -365,6 +415,10 @@ public final class QInvocationSession extends QResource {
     public void setAccepted(final String suggestionId) {
         var item =  Optional.ofNullable(suggestionCompletionResults.get(suggestionId));
         item.ifPresent(result -> result.setAccepted(true));
+        if (hasSeenFirstSuggestion) {
+            COMPLETION_CLIENT.getLatencyRecorder().record(InlineLatencyRecorder.Stage.DISPLAY_TO_ACCEPT,
+                    suggestionDisplaySessionStopWatch.getTime(TimeUnit.MILLISECONDS));
+        }
     }
 
     /*
@@ -389,6 +443,7 @@ public final class QInvocationSession extends QResource {
     // Method to end the session
     public void end() {
         if (isActive()) {
+            COMPLETION_CLIENT.cancel();
             if (state == QInvocationSessionState.SUGGESTION_PREVIEWING) {
                 int lastKnownLine = getLastKnownLine();
                 unsetVerticalIndent(lastKnownLine + 1);
@@ -413,6 +468,7 @@ public final class QInvocationSession extends QResource {
      */
     public void endImmediately() {
         if (isActive()) {
+            COMPLETION_CLIENT.cancel();
             if (state == QInvocationSessionState.SUGGESTION_PREVIEWING) {
                 int lastKnownLine = getLastKnownLine();
                 unsetVerticalIndent(lastKnownLine + 1);
@@ -541,7 +597,7 @@ public final class QInvocationSession extends QResource {
         if (suggestionsContext != null && suggestionsContext.getNumberOfSuggestions() > 1) {
             suggestionsContext.decrementIndex();
             primeListeners();
-            getViewer().getTextWidget().redraw();
+            redrawSuggestion();
         }
     }
 
@@ -549,7 +605,7 @@ public final class QInvocationSession extends QResource {
         if (suggestionsContext != null && suggestionsContext.getNumberOfSuggestions() > 1) {
             suggestionsContext.incrementIndex();
             primeListeners();
-            getViewer().getTextWidget().redraw();
+            redrawSuggestion();
         }
     }
 
@@ -585,6 +641,17 @@ public final class QInvocationSession extends QResource {
         }
     }
 
+    public QInlineRenderModel getRenderModel() {
+        return renderModel;
+    }
+
+    /*
+     * Repaints only the lines the previewed suggestion is drawn over.
+     */
+    private void redrawSuggestion() {
+        renderModel.redrawSuggestionLines(getViewer().getTextWidget(), invocationOffset, getNumSuggestionLines());
+    }
+
     public List<IQInlineSuggestionSegment> getSegments() {
         return inputListener.getSegments();
     }
@@ -633,7 +700,7 @@ public final class QInvocationSession extends QResource {
     private void sendSessionCompletionResult() {
         try {
             if (StringUtils.isEmpty(suggestionsContext.getSessionId()) || suggestionsContext.getDetails() == null
-                    || suggestionsContext.getDetails().isEmpty()) {
+                    || suggestionsContext.getDetails().isEmpty() || !reportsSessionResult) {
                 return;
             }
             if (suggestionDisplaySessionStopWatch.isStarted()) {
@@ -676,10 +743,12 @@ public final class QInvocationSession extends QResource {
 
     private void resetSessionResultParams() {
         hasSeenFirstSuggestion = false;
+        isFirstPaintPending = false;
         firstSuggestionDisplayLatency = 0L;
         suggestionDisplaySessionStopWatch.reset();
         suggestionCompletionResults.clear();
         initialTypeaheadLength = Optional.empty();
+        reportsSessionResult = true;
     }
 
     @Override
@@ -722,6 +791,7 @@ public final class QInvocationSession extends QResource {
         caretListener = null;
         inputListener = null;
         terminationListener = null;
+        renderModel = null;
         invocationOffset = -1;
         editor = null;
         viewer = null;
@@ -732,11 +802,14 @@ public final class QInvocationSession extends QResource {
         private final UUID uuid;
         private final int invocationOffset;
         private final InlineCompletionParams params;
+        private final DocumentVersion version;
 
-        RequestContext(final UUID uuid, final int invocationOffset, final InlineCompletionParams params) {
+        RequestContext(final UUID uuid, final int invocationOffset, final InlineCompletionParams params,
+                final DocumentVersion version) {
             this.uuid = uuid;
             this.invocationOffset = invocationOffset;
             this.params = params;
+            this.version = version;
         }
 
         public UUID getUuid() {
@@ -750,5 +823,9 @@ public final class QInvocationSession extends QResource {
         public InlineCompletionParams getParams() {
             return params;
         }
+
+        public DocumentVersion getVersion() {
+            return version;
+        }
     }
 }
@@ -3,15 +3,91 @@
 
 package software.aws.toolkits.eclipse.amazonq.util;
 
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+
+/**
+ * Shared executors for the plugin. Besides the general worker pool, each
+ * subsystem that sees bursts of work (chat traffic, messages marshalled to the
+ * UI, inline completion requests, background maintenance such as workspace
+ * events, telemetry and cleanup, and delayed tasks) gets its own bounded
+ * executor so one of them cannot starve the others.
+ *
+ * Pool and queue sizes can be overridden per subsystem with system properties
+ * such as "amazonq.threads.chat-io.size" and "amazonq.threads.chat-io.queue",
+ * and "amazonq.threads.virtual=true" runs chat I/O and maintenance work on
+ * virtual threads when the runtime supports them (Java 21+).
+ *
+ * A task submitted to a full queue is never dropped and never blocks the
+ * submitting thread, which may be the UI thread, the scheduler or the LSP
+ * message reader. It is parked in an unbounded overflow queue that the workers
+ * drain as room frees up; getSaturationMetrics reports how often that happens.
+ */
 public final class ThreadingUtils {
+
+    static final String PROPERTY_PREFIX = "amazonq.threads.";
+    static final String VIRTUAL_THREADS_PROPERTY = PROPERTY_PREFIX + "virtual";
+
     private static final int CORE_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final long SHUTDOWN_TIMEOUT_MS = 2000;
+    private static final String THREAD_NAME_PREFIX = "amazonq-";
+
+    /*
+     * Default sizes are computed here rather than from CORE_POOL_SIZE as the
+     * enum may be initialized before ThreadingUtils itself.
+     */
+    public enum Subsystem {
+        CHAT_IO("chat-io", Math.max(2, Runtime.getRuntime().availableProcessors()), 1000, true),
+        UI_MARSHALLING("ui", 1, 1000, false),
+        INLINE_COMPLETION("inline", 2, 100, true),
+        MAINTENANCE("maintenance", Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 1000, true),
+        SCHEDULING("scheduling", 1, Integer.MAX_VALUE, false);
+
+        private final String threadName;
+        private final int defaultSize;
+        private final int defaultQueueCapacity;
+        private final boolean supportsVirtualThreads;
+
+        Subsystem(final String threadName, final int defaultSize, final int defaultQueueCapacity,
+                final boolean supportsVirtualThreads) {
+            this.threadName = threadName;
+            this.defaultSize = defaultSize;
+            this.defaultQueueCapacity = defaultQueueCapacity;
+            this.supportsVirtualThreads = supportsVirtualThreads;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+    }
+
+    /*
+     * Saturation of a subsystem executor: tasks waiting in its queue, tasks parked
+     * in the overflow queue, how many tasks overflowed so far and how many were
+     * dropped because the executor was shut down.
+     */
+    public record SaturationMetrics(int queueDepth, int overflowDepth, long overflowedTasks, long droppedTasks) {
+    }
+
     private static final ScheduledExecutorService THREAD_POOL = Executors.newScheduledThreadPool(CORE_POOL_SIZE);
+    private static final Map<Subsystem, SubsystemExecutor> SUBSYSTEM_EXECUTORS = createSubsystemExecutors();
 
     private ThreadingUtils() {
         // prevent instantiation
@@ -21,10 +97,22 @@ public final class ThreadingUtils {
         return THREAD_POOL;
     }
 
+    public static Executor getExecutor(final Subsystem subsystem) {
+        return SUBSYSTEM_EXECUTORS.get(subsystem);
+    }
+
+    public static SaturationMetrics getSaturationMetrics(final Subsystem subsystem) {
+        return SUBSYSTEM_EXECUTORS.get(subsystem).getMetrics();
+    }
+
     public static void executeAsyncTask(final Runnable task) {
         THREAD_POOL.execute(task);
     }
 
+    public static void executeAsyncTask(final Subsystem subsystem, final Runnable task) {
+        SUBSYSTEM_EXECUTORS.get(subsystem).execute(task);
+    }
+
     public static Future<?> executeAsyncTaskAndReturnFuture(final Runnable task) {
         return THREAD_POOL.submit(task);
     }
@@ -33,7 +121,205 @@ public final class ThreadingUtils {
         return THREAD_POOL.schedule(task, msDelay, TimeUnit.MILLISECONDS);
     }
 
+    /*
+     * Schedules a task that runs on the given subsystem's executor once the delay
+     * has elapsed. Cancelling the returned future only cancels the timer.
+     */
+    public static Future<?> scheduleAsyncTaskWithDelay(final Subsystem subsystem, final Runnable task, final long msDelay) {
+        return getScheduler().schedule(() -> executeAsyncTask(subsystem, task), msDelay, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * Stops accepting new tasks and gives running tasks a short grace period to
+     * finish before interrupting them.
+     */
     public static void shutdown() {
         THREAD_POOL.shutdown();
+        SUBSYSTEM_EXECUTORS.values().forEach(executor -> executor.delegate.shutdown());
+
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        awaitTermination(THREAD_POOL, deadline);
+        SUBSYSTEM_EXECUTORS.values().forEach(executor -> awaitTermination(executor.delegate, deadline));
+    }
+
+    private static ScheduledExecutorService getScheduler() {
+        return (ScheduledExecutorService) SUBSYSTEM_EXECUTORS.get(Subsystem.SCHEDULING).delegate;
+    }
+
+    private static void awaitTermination(final ExecutorService executor, final long deadline) {
+        try {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0 || !executor.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<Subsystem, SubsystemExecutor> createSubsystemExecutors() {
+        boolean useVirtualThreads = Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY);
+        Map<Subsystem, SubsystemExecutor> executors = new EnumMap<>(Subsystem.class);
+        for (Subsystem subsystem : Subsystem.values()) {
+            executors.put(subsystem, createSubsystemExecutor(subsystem, useVirtualThreads));
+        }
+        return executors;
+    }
+
+    private static SubsystemExecutor createSubsystemExecutor(final Subsystem subsystem, final boolean useVirtualThreads) {
+        int size = getPositiveIntegerProperty(PROPERTY_PREFIX + subsystem.threadName + ".size", subsystem.defaultSize);
+        ThreadFactory threadFactory = new NamedThreadFactory(THREAD_NAME_PREFIX + subsystem.threadName);
+        SubsystemExecutor executor = new SubsystemExecutor(subsystem.threadName);
+
+        if (subsystem == Subsystem.SCHEDULING) {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(size, threadFactory, executor::onSaturated);
+            scheduler.setRemoveOnCancelPolicy(true);
+            executor.delegate = scheduler;
+            return executor;
+        }
+
+        if (useVirtualThreads && subsystem.supportsVirtualThreads) {
+            ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+            if (virtualThreadExecutor != null) {
+                executor.delegate = virtualThreadExecutor;
+                return executor;
+            }
+        }
+
+        int queueCapacity = getPositiveIntegerProperty(PROPERTY_PREFIX + subsystem.threadName + ".queue",
+                subsystem.defaultQueueCapacity);
+        return createPooledExecutor(subsystem.threadName, size, queueCapacity);
+    }
+
+    static SubsystemExecutor createPooledExecutor(final String name, final int size, final int queueCapacity) {
+        SubsystemExecutor executor = new SubsystemExecutor(name);
+        ThreadPoolExecutor pool = new SubsystemThreadPool(size, queueCapacity, new NamedThreadFactory(THREAD_NAME_PREFIX + name), executor);
+        pool.allowCoreThreadTimeOut(true);
+        executor.delegate = pool;
+        return executor;
+    }
+
+    /*
+     * The plugin targets Java 17, so virtual threads are looked up reflectively and
+     * the bounded platform pool is used when they are not available.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    static int getPositiveIntegerProperty(final String name, final int defaultValue) {
+        try {
+            int value = Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)).trim());
+            return value > 0 ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        NamedThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /*
+     * Moves overflowed tasks into the queue whenever a worker finishes a task.
+     */
+    private static final class SubsystemThreadPool extends ThreadPoolExecutor {
+        private final SubsystemExecutor owner;
+
+        SubsystemThreadPool(final int size, final int queueCapacity, final ThreadFactory threadFactory, final SubsystemExecutor owner) {
+            super(size, size, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity), threadFactory,
+                    owner::onSaturated);
+            this.owner = owner;
+        }
+
+        @Override
+        protected void afterExecute(final Runnable task, final Throwable throwable) {
+            super.afterExecute(task, throwable);
+            owner.drainOverflow(this);
+        }
+    }
+
+    /*
+     * Wraps a subsystem's executor. When the bounded queue is full the task is
+     * parked in the overflow queue instead of being dropped or making the
+     * submitting thread wait. While tasks are parked new tasks queue up behind
+     * them so the submission order is kept.
+     */
+    static final class SubsystemExecutor implements Executor {
+        private static final int OVERFLOW_LOG_INTERVAL = 100;
+
+        private final String name;
+        private final Deque<Runnable> overflow = new ConcurrentLinkedDeque<>();
+        private final AtomicLong overflowedTasks = new AtomicLong();
+        private final AtomicLong droppedTasks = new AtomicLong();
+        private volatile ExecutorService delegate;
+
+        SubsystemExecutor(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            if (!overflow.isEmpty() && delegate instanceof SubsystemThreadPool pool && !pool.isShutdown()) {
+                park(task, pool);
+                return;
+            }
+            delegate.execute(task);
+        }
+
+        void shutdown() {
+            delegate.shutdown();
+        }
+
+        SaturationMetrics getMetrics() {
+            int queueDepth = delegate instanceof ThreadPoolExecutor pool ? pool.getQueue().size() : 0;
+            return new SaturationMetrics(queueDepth, overflow.size(), overflowedTasks.get(), droppedTasks.get());
+        }
+
+        private void onSaturated(final Runnable task, final ThreadPoolExecutor pool) {
+            if (pool.isShutdown()) {
+                droppedTasks.incrementAndGet();
+                return;
+            }
+            park(task, pool);
+        }
+
+        private void park(final Runnable task, final ThreadPoolExecutor pool) {
+            overflow.add(task);
+            drainOverflow(pool);
+            // the workers may all have finished before the task was parked
+            pool.prestartCoreThread();
+            if (overflowedTasks.incrementAndGet() % OVERFLOW_LOG_INTERVAL == 1) {
+                Activator.getLogger().warn(String.format("The %s executor is saturated: %s", name, getMetrics()));
+            }
+        }
+
+        private void drainOverflow(final ThreadPoolExecutor pool) {
+            Runnable task;
+            while ((task = overflow.poll()) != null) {
+                if (!pool.getQueue().offer(task)) {
+                    overflow.addFirst(task);
+                    return;
+                }
+            }
+        }
     }
+
 }
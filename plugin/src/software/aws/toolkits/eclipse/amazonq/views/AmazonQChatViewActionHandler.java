@@ -136,6 +136,9 @@ public class AmazonQChatViewActionHandler implements ViewActionHandler {
             case OPEN_SETTINGS:
                 AmazonQPreferencePage.openPreferencePane();
                 break;
+            case CHAT_BODY_RESYNC:
+                chatCommunicationManager.resyncChatBody(message.getValueAsString("tabId"));
+                break;
             default:
                 throw new AmazonQPluginException("Unexpected command received from Amazon Q Chat: " + command.toString());
         }
@@ -25,12 +25,18 @@ public class AmazonQChatWebview extends AmazonQView implements ChatUiRequestList
     private Browser browser;
     private WebViewAssetProvider webViewAssetProvider;
     private Future<?> refreshFuture;
+    private final ChatUiMessageDispatcher messageDispatcher;
 
     public AmazonQChatWebview() {
         super();
         chatCommunicationManager = ChatCommunicationManager.getInstance();
         webViewAssetProvider = new ChatWebViewAssetProvider();
         webViewAssetProvider.initialize();
+        messageDispatcher = new ChatUiMessageDispatcher(runnable -> Display.getDefault().asyncExec(runnable), script -> {
+            if (browser != null && !browser.isDisposed()) {
+                browser.execute(script);
+            }
+        });
     }
 
     @Override
@@ -77,10 +83,7 @@ public class AmazonQChatWebview extends AmazonQView implements ChatUiRequestList
 
     @Override
     public final void onSendToChatUi(final String message) {
-        String script = "window.postMessage(" + message + ");";
-        Display.getDefault().asyncExec(() -> {
-            browser.execute(script);
-        });
+        messageDispatcher.dispatch(message);
     }
 
     @Override
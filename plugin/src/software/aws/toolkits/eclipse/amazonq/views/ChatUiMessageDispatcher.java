@@ -0,0 +1,82 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.views;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * ChatUiMessageDispatcher batches messages bound for the chat webview so that a
+ * burst of messages (restoring a tab, conversation lists, chat options, streamed
+ * partial results) costs a single UI thread wakeup and a single script
+ * evaluation instead of one per message. The batch is posted to the webview as
+ * a JSON array and each message is posted in the order it was dispatched.
+ */
+final class ChatUiMessageDispatcher {
+
+    /*
+     * Upper bound on the number of messages evaluated in one script so a large
+     * history restore does not block the UI thread in one long evaluation.
+     */
+    static final int MAX_MESSAGES_PER_BATCH = 64;
+
+    private final Queue<String> pendingMessages = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final Executor uiExecutor;
+    private final Consumer<String> scriptExecutor;
+
+    ChatUiMessageDispatcher(final Executor uiExecutor, final Consumer<String> scriptExecutor) {
+        this.uiExecutor = uiExecutor;
+        this.scriptExecutor = scriptExecutor;
+    }
+
+    /*
+     * Queues a serialized message and schedules a drain on the UI thread unless
+     * one is already pending.
+     */
+    void dispatch(final String message) {
+        pendingMessages.add(message);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            uiExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        // reset first so messages queued while this batch is built schedule a new drain
+        drainScheduled.set(false);
+
+        StringBuilder batch = new StringBuilder("[");
+        int count = 0;
+        String message;
+        while (count < MAX_MESSAGES_PER_BATCH && (message = pendingMessages.poll()) != null) {
+            if (count > 0) {
+                batch.append(',');
+            }
+            batch.append(message);
+            count++;
+        }
+
+        try {
+            if (count > 0) {
+                scriptExecutor.accept(buildScript(batch.append(']').toString()));
+            }
+        } finally {
+            if (!pendingMessages.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    static String buildScript(final String messageArray) {
+        return messageArray + ".forEach(message => window.postMessage(message));";
+    }
+
+}
@@ -0,0 +1,65 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.views;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.ui.part.ViewPart;
+
+import software.aws.toolkits.eclipse.amazonq.util.QInvocationSession;
+
+/**
+ * Debug view showing the inline completion latency percentiles per stage,
+ * refreshed every second while the view is open.
+ */
+public final class InlineLatencyView extends ViewPart {
+
+    public static final String ID = "software.aws.toolkits.eclipse.amazonq.views.InlineLatencyView";
+
+    private static final int REFRESH_INTERVAL_MS = 1000;
+
+    private StyledText textArea;
+    private final Runnable refresh = this::refresh;
+
+    @Override
+    public void createPartControl(final Composite parent) {
+        textArea = new StyledText(parent, SWT.READ_ONLY | SWT.V_SCROLL | SWT.H_SCROLL);
+        textArea.setFont(JFaceResources.getTextFont());
+
+        Action resetAction = new Action("Reset") {
+            @Override
+            public void run() {
+                QInvocationSession.getInstance().getLatencyRecorder().reset();
+                refresh();
+            }
+        };
+        getViewSite().getActionBars().getToolBarManager().add(resetAction);
+
+        refresh();
+    }
+
+    private void refresh() {
+        if (textArea == null || textArea.isDisposed()) {
+            return;
+        }
+        textArea.setText(QInvocationSession.getInstance().getLatencyRecorder().format());
+        textArea.getDisplay().timerExec(REFRESH_INTERVAL_MS, refresh);
+    }
+
+    @Override
+    public void setFocus() {
+        textArea.setFocus();
+    }
+
+    @Override
+    public void dispose() {
+        if (textArea != null && !textArea.isDisposed()) {
+            textArea.getDisplay().timerExec(-1, refresh);
+        }
+        super.dispose();
+    }
+}
@@ -20,6 +20,7 @@ public final class ViewVisibilityManager {
     }
 
     private static final String CODE_REFERENCE_VIEW = AmazonQCodeReferenceView.ID;
+    private static final String INLINE_LATENCY_VIEW = InlineLatencyView.ID;
     private static final String ERROR_LOG_VIEW = "org.eclipse.pde.runtime.LogView";
     private static final String AMAZON_Q_VIEW_CONTAINER = AmazonQViewContainer.ID;
 
@@ -32,6 +33,10 @@ public final class ViewVisibilityManager {
         showView(CODE_REFERENCE_VIEW, source);
     }
 
+    public static void showInlineLatencyView(final String source) {
+        showView(INLINE_LATENCY_VIEW, source);
+    }
+
     public static void showErrorLogView(final String source) {
         showView(ERROR_LOG_VIEW, source);
     }
@@ -46,6 +46,7 @@ public enum Command {
     PINNED_CONTEXT_REMOVE("aws/chat/pinnedContextRemove"),
     LIST_AVAILABLE_MODELS("aws/chat/listAvailableModels"),
     FILTER_CONTEXT_COMMANDS("aws/chat/filterContextCommands"),
+    CHAT_BODY_RESYNC("chatBodyResync"),
     // Auth
     LOGIN_BUILDER_ID("loginBuilderId"),
     LOGIN_IDC("loginIdC"),
@@ -0,0 +1,134 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.workspace;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lsp4j.FileCreate;
+import org.eclipse.lsp4j.FileDelete;
+import org.eclipse.lsp4j.FileRename;
+
+/**
+ * Collects file events between two flushes and reduces them to the net effect
+ * per file: a file that is created and deleted again is not reported at all,
+ * a rename of a file created in the same window is reported as a creation of
+ * the new name, and repeated events for the same file are reported once.
+ */
+final class FileEventCoalescer {
+
+    private enum Kind {
+        CREATED, DELETED, RENAMED
+    }
+
+    /* The pending event for a file, oldUri is only set for renames. */
+    private record PendingEvent(Kind kind, String oldUri) {
+    }
+
+    /* The net events of one window and how many events were received and merged. */
+    record Batch(List<FileCreate> created, List<FileDelete> deleted, List<FileRename> renamed, int receivedCount, int mergedCount,
+            int filteredCount) {
+
+        boolean isEmpty() {
+            return created.isEmpty() && deleted.isEmpty() && renamed.isEmpty();
+        }
+
+        int notificationCount() {
+            return (created.isEmpty() ? 0 : 1) + (deleted.isEmpty() ? 0 : 1) + (renamed.isEmpty() ? 0 : 1);
+        }
+    }
+
+    /* Keyed by the current URI of the file, in the order files were first seen. */
+    private final Map<String, PendingEvent> pending = new LinkedHashMap<>();
+    private int receivedCount;
+    private int mergedCount;
+    private int filteredCount;
+
+    synchronized void created(final String uri) {
+        receivedCount++;
+        PendingEvent existing = pending.get(uri);
+        if (existing == null) {
+            pending.put(uri, new PendingEvent(Kind.CREATED, null));
+            return;
+        }
+        mergedCount++;
+        if (existing.kind() == Kind.DELETED) {
+            /* deleted and recreated, e.g. by a build or a checkout, the file still exists */
+            pending.remove(uri);
+        }
+    }
+
+    synchronized void deleted(final String uri) {
+        receivedCount++;
+        PendingEvent existing = pending.remove(uri);
+        if (existing == null) {
+            pending.put(uri, new PendingEvent(Kind.DELETED, null));
+            return;
+        }
+        mergedCount++;
+        if (existing.kind() == Kind.RENAMED) {
+            pending.put(existing.oldUri(), new PendingEvent(Kind.DELETED, null));
+        } else if (existing.kind() == Kind.DELETED) {
+            pending.put(uri, existing);
+        }
+    }
+
+    synchronized void renamed(final String oldUri, final String newUri) {
+        receivedCount++;
+        PendingEvent existing = pending.remove(oldUri);
+        PendingEvent event = new PendingEvent(Kind.RENAMED, oldUri);
+        if (existing != null) {
+            mergedCount++;
+            if (existing.kind() == Kind.CREATED) {
+                event = existing;
+            } else if (existing.kind() == Kind.RENAMED) {
+                event = existing.oldUri().equals(newUri) ? null : new PendingEvent(Kind.RENAMED, existing.oldUri());
+            }
+        }
+        if (pending.remove(newUri) != null) {
+            mergedCount++;
+        }
+        if (event != null) {
+            pending.put(newUri, event);
+        }
+    }
+
+    /*
+     * Counts events that were dropped by the resource filter, they are reported
+     * with the next batch.
+     */
+    synchronized void filtered(final int count) {
+        filteredCount += count;
+    }
+
+    synchronized boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /*
+     * Returns the net events since the last call and starts a new window.
+     */
+    synchronized Batch drain() {
+        List<FileCreate> created = new ArrayList<>();
+        List<FileDelete> deleted = new ArrayList<>();
+        List<FileRename> renamed = new ArrayList<>();
+        pending.forEach((uri, event) -> {
+            switch (event.kind()) {
+                case CREATED -> created.add(new FileCreate(uri));
+                case DELETED -> deleted.add(new FileDelete(uri));
+                case RENAMED -> renamed.add(new FileRename(event.oldUri(), uri));
+                default -> throw new IllegalStateException("Unsupported file event kind: " + event.kind());
+            }
+        });
+        var batch = new Batch(created, deleted, renamed, receivedCount, mergedCount, filteredCount);
+        pending.clear();
+        receivedCount = 0;
+        mergedCount = 0;
+        filteredCount = 0;
+        return batch;
+    }
+
+}
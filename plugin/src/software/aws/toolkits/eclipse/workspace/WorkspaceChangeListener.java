@@ -4,37 +4,57 @@
 package software.aws.toolkits.eclipse.workspace;
 
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.lsp4j.CreateFilesParams;
 import org.eclipse.lsp4j.DeleteFilesParams;
-import org.eclipse.lsp4j.FileCreate;
-import org.eclipse.lsp4j.FileDelete;
-import org.eclipse.lsp4j.FileRename;
 import org.eclipse.lsp4j.RenameFilesParams;
 
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.preferences.AmazonQPreferencePage;
 import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
-
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+/**
+ * Tells the language server about files that are created, deleted and renamed
+ * in the workspace. Excluded resources are dropped while the delta is visited,
+ * the remaining events are coalesced over a short window and sent as at most
+ * one notification of each kind, so a build or a checkout does not flood the
+ * server.
+ */
 public final class WorkspaceChangeListener implements IResourceChangeListener {
+    public static final String DEFAULT_EXCLUDE_GLOBS = "**/target,**/.git,**/node_modules,**/bin";
+
     private static final AtomicReference<WorkspaceChangeListener> INSTANCE = new AtomicReference<>();
 
-    private final FileChangeTracker fileChangeTracker;
+    private static final long COALESCE_WINDOW_MS = 300;
+    private static final int BURST_LOG_THRESHOLD = 100;
     private static final Set<Integer> ALLOWED_RESOURCE_TYPES = Set.of(
             IResource.FILE,
             IResource.FOLDER);
 
+    private final FileEventCoalescer coalescer;
+    private final AtomicBoolean isFlushScheduled;
+    private volatile WorkspaceResourceFilter resourceFilter;
+
     private WorkspaceChangeListener() {
-        this.fileChangeTracker = new FileChangeTracker();
+        this(new FileEventCoalescer());
+    }
+
+    WorkspaceChangeListener(final FileEventCoalescer coalescer) {
+        this.coalescer = coalescer;
+        this.isFlushScheduled = new AtomicBoolean();
+        this.resourceFilter = new WorkspaceResourceFilter(DEFAULT_EXCLUDE_GLOBS);
     }
 
     public static WorkspaceChangeListener getInstance() {
@@ -49,100 +69,131 @@ public final class WorkspaceChangeListener implements IResourceChangeListener {
         );
     }
 
+    /*
+     * The delta is only valid during the notification, so it is visited here.
+     * Excluded folders are not descended into, which keeps this cheap for
+     * build output.
+     */
     @Override
     public void resourceChanged(final IResourceChangeEvent event) {
-        ThreadingUtils.executeAsyncTask(() -> processResourceChange(event));
-    }
-
-    private void processResourceChange(final IResourceChangeEvent event) {
+        if (event.getDelta() == null) {
+            return;
+        }
         try {
-            FileChanges changes = fileChangeTracker.trackChanges(event.getDelta());
-            notifyLspServer(changes);
-        } catch (Exception e) {
+            WorkspaceResourceFilter filter = getResourceFilter();
+            event.getDelta().accept(delta -> {
+                IResource resource = delta.getResource();
+                if (!ALLOWED_RESOURCE_TYPES.contains(resource.getType())) {
+                    return true;
+                }
+                if (filter.isExcluded(resource)) {
+                    if (delta.getKind() != IResourceDelta.CHANGED) {
+                        coalescer.filtered(1);
+                    }
+                    return false;
+                }
+                trackChange(delta, filter);
+                return true;
+            });
+        } catch (CoreException e) {
             Activator.getLogger().error("Error processing workspace changes", e);
         }
+
+        if (!coalescer.isEmpty() && isFlushScheduled.compareAndSet(false, true)) {
+            ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.MAINTENANCE, this::flush, COALESCE_WINDOW_MS);
+        }
     }
 
     public void stop() {
         ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
     }
 
-    private record FileChanges(
-            List<FileCreate> created,
-            List<FileDelete> deleted,
-            List<FileRename> renamed
-        ) {
-            FileChanges() {
-                this(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
-            }
+    private WorkspaceResourceFilter getResourceFilter() {
+        String globs = Activator.getDefault().getPreferenceStore().getString(AmazonQPreferencePage.WORKSPACE_EXCLUDE_GLOBS);
+        if (!globs.equals(resourceFilter.getGlobs())) {
+            resourceFilter = new WorkspaceResourceFilter(globs);
         }
+        return resourceFilter;
+    }
 
-    private static final class FileChangeTracker {
-        FileChanges trackChanges(final IResourceDelta delta) throws CoreException {
-            FileChanges changes = new FileChanges();
-
-            delta.accept(resourceDelta -> {
-                if (!ALLOWED_RESOURCE_TYPES.contains(resourceDelta.getResource().getType())) {
-                    return true;
-                }
-
-                processResourceDelta(resourceDelta, changes);
-                return true;
-            });
-
-            return changes;
+    /*
+     * Moves are reported by Eclipse as a removal with MOVED_TO and an addition
+     * with MOVED_FROM, the addition is turned into the rename. A move out of
+     * or into an excluded folder becomes a creation or deletion, as the side
+     * inside the excluded folder is never visited.
+     */
+    void trackChange(final IResourceDelta delta, final WorkspaceResourceFilter filter) {
+        URI uri = delta.getResource().getLocationURI();
+        if (uri == null) {
+            return;
         }
-
-        private void processResourceDelta(final IResourceDelta delta, final FileChanges changes) {
-            try {
-                URI uri = delta.getResource().getLocationURI();
-                String uriString = uri.toString();
-
-                switch (delta.getKind()) {
-                    case IResourceDelta.ADDED:
-                        changes.created.add(new FileCreate(uriString));
-                        break;
-                    case IResourceDelta.REMOVED:
-                        changes.deleted.add(new FileDelete(uriString));
-                        break;
-                    case IResourceDelta.CHANGED:
-                        processChangedResource(delta, changes, uriString);
-                        break;
-                    default:
-                        throw new IllegalStateException("Unsupported resource delta type: " + delta.getKind());
+        boolean isMovedFrom = (delta.getFlags() & IResourceDelta.MOVED_FROM) != 0;
+        switch (delta.getKind()) {
+            case IResourceDelta.ADDED:
+                URI oldUri = isMovedFrom ? getMovedFromUri(delta, filter) : null;
+                if (oldUri != null) {
+                    coalescer.renamed(oldUri.toString(), uri.toString());
+                } else {
+                    coalescer.created(uri.toString());
                 }
-            } catch (IllegalArgumentException e) {
-                Activator.getLogger().error("Invalid resource path", e);
-            }
+                break;
+            case IResourceDelta.REMOVED:
+                boolean isMovedTo = (delta.getFlags() & IResourceDelta.MOVED_TO) != 0;
+                if (!isMovedTo || filter.isExcluded(getWorkspaceRoot(delta), delta.getMovedToPath())) {
+                    coalescer.deleted(uri.toString());
+                }
+                break;
+            case IResourceDelta.CHANGED:
+                URI replacedUri = isMovedFrom ? getMovedFromUri(delta, filter) : null;
+                if (replacedUri != null) {
+                    coalescer.renamed(replacedUri.toString(), uri.toString());
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unsupported resource delta type: " + delta.getKind());
         }
+    }
 
-        private void processChangedResource(final IResourceDelta delta, final FileChanges changes, final String newUriString) {
-            if ((delta.getFlags() & IResourceDelta.MOVED_FROM) != 0) {
-                URI oldUri = delta.getMovedFromPath().toFile().toURI();
-                changes.renamed.add(new FileRename(oldUri.toString(), newUriString));
-            }
+    private static URI getMovedFromUri(final IResourceDelta delta, final WorkspaceResourceFilter filter) {
+        IPath movedFromPath = delta.getMovedFromPath();
+        IWorkspaceRoot root = getWorkspaceRoot(delta);
+        if (filter.isExcluded(root, movedFromPath)) {
+            return null;
         }
+        IResource movedFrom = delta.getResource().getType() == IResource.FILE ? root.getFile(movedFromPath) : root.getFolder(movedFromPath);
+        return movedFrom.getLocationURI();
     }
 
-    private void notifyLspServer(final FileChanges changes) {
-        try {
-            var lspServer = Activator.getLspProvider().getAmazonQServer().get().getWorkspaceService();
+    private static IWorkspaceRoot getWorkspaceRoot(final IResourceDelta delta) {
+        return delta.getResource().getWorkspace().getRoot();
+    }
 
-            if (!changes.created.isEmpty()) {
-                lspServer.didCreateFiles(new CreateFilesParams(changes.created));
-            }
+    private void flush() {
+        isFlushScheduled.set(false);
+        FileEventCoalescer.Batch batch = coalescer.drain();
+        if (batch.receivedCount() >= BURST_LOG_THRESHOLD || batch.filteredCount() >= BURST_LOG_THRESHOLD) {
+            Activator.getLogger().info(String.format(
+                    "Sent %d workspace file events to Amazon Q as %d notifications (%d merged, %d excluded resources dropped)",
+                    batch.receivedCount(), batch.notificationCount(), batch.mergedCount(), batch.filteredCount()));
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
 
-            if (!changes.deleted.isEmpty()) {
-                lspServer.didDeleteFiles(new DeleteFilesParams(changes.deleted));
+        Activator.getLspProvider().getAmazonQServer().thenAccept(server -> {
+            var workspaceService = server.getWorkspaceService();
+            if (!batch.deleted().isEmpty()) {
+                workspaceService.didDeleteFiles(new DeleteFilesParams(batch.deleted()));
             }
-
-            if (!changes.renamed.isEmpty()) {
-                lspServer.didRenameFiles(new RenameFilesParams(changes.renamed));
+            if (!batch.renamed().isEmpty()) {
+                workspaceService.didRenameFiles(new RenameFilesParams(batch.renamed()));
             }
-        } catch (Exception e) {
-            Activator.getLogger().error(
-                "Unable to update LSP with file change events: " + e.getMessage()
-            );
-        }
+            if (!batch.created().isEmpty()) {
+                workspaceService.didCreateFiles(new CreateFilesParams(batch.created()));
+            }
+        }).exceptionally(e -> {
+            Activator.getLogger().error("Unable to update LSP with file change events: " + e.getMessage());
+            return null;
+        });
     }
 }
@@ -0,0 +1,84 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.workspace;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Decides which workspace resources the language server is told about.
+ * Derived resources (build output), team private members (e.g. version
+ * control metadata) and resources whose workspace relative path matches one
+ * of the comma separated exclude globs are left out, together with everything
+ * below them.
+ */
+final class WorkspaceResourceFilter {
+
+    private final String globs;
+    private final List<PathMatcher> matchers;
+
+    WorkspaceResourceFilter(final String globs) {
+        this.globs = globs;
+        this.matchers = Arrays.stream(globs.split(","))
+                .map(String::trim)
+                .filter(glob -> !glob.isEmpty())
+                .map(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob))
+                .toList();
+    }
+
+    String getGlobs() {
+        return globs;
+    }
+
+    /*
+     * Resources that no longer exist carry no derived or team private flag,
+     * deletions below an excluded folder are only caught by the globs.
+     */
+    boolean isExcluded(final IResource resource) {
+        if (resource.isDerived(IResource.CHECK_ANCESTORS) || resource.isTeamPrivateMember(IResource.CHECK_ANCESTORS)) {
+            return true;
+        }
+        return isExcluded(resource.getFullPath().makeRelative().toString());
+    }
+
+    /*
+     * Checks the other end of a move. Excluded folders are never visited, so the
+     * globs are matched against the path and each of its ancestors. The old path
+     * of a move no longer exists, so the flags are read from the nearest member
+     * that does.
+     */
+    boolean isExcluded(final IWorkspaceRoot root, final IPath fullPath) {
+        IResource existing = null;
+        for (IPath path = fullPath; path.segmentCount() > 0; path = path.removeLastSegments(1)) {
+            if (isExcluded(path.makeRelative().toString())) {
+                return true;
+            }
+            if (existing == null) {
+                existing = root.findMember(path);
+            }
+        }
+        return existing != null && (existing.isDerived(IResource.CHECK_ANCESTORS) || existing.isTeamPrivateMember(IResource.CHECK_ANCESTORS));
+    }
+
+    boolean isExcluded(final String workspacePath) {
+        if (matchers.isEmpty() || workspacePath.isEmpty()) {
+            return false;
+        }
+        Path path = Path.of(workspacePath);
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,107 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public final class ChatBodyDeltaEncoderTest {
+
+    private static final String BASE = "a".repeat(ChatBodyDeltaEncoder.MINIMUM_BASE_LENGTH);
+
+    @Test
+    void testFirstUpdateIsSentInFull() {
+        ChatBodyDeltaEncoder encoder = new ChatBodyDeltaEncoder();
+        Map<String, Object> params = Map.of("messageId", "m1", "body", BASE);
+
+        assertSame(params, encoder.encode("tab", params, true));
+    }
+
+    @Test
+    void testAppendedBodyIsSentAsDelta() {
+        ChatBodyDeltaEncoder encoder = new ChatBodyDeltaEncoder();
+        encoder.encode("tab", Map.of("messageId", "m1", "body", BASE), true);
+
+        Map<?, ?> encoded = (Map<?, ?>) encoder.encode("tab", Map.of("messageId", "m1", "body", BASE + "more", "canBeVoted", true), true);
+
+        assertFalse(encoded.containsKey("body"));
+        assertEquals(true, encoded.get("canBeVoted"));
+        assertEquals(Map.of("offset", BASE.length(), "text", "more"), encoded.get("bodyDelta"));
+
+        Map<?, ?> next = (Map<?, ?>) encoder.encode("tab", Map.of("messageId", "m1", "body", BASE + "more text"), true);
+        assertEquals(Map.of("offset", BASE.length() + 4, "text", " text"), next.get("bodyDelta"));
+    }
+
+    @Test
+    void testShortBaseIsSentInFull() {
+        ChatBodyDeltaEncoder encoder = new ChatBodyDeltaEncoder();
+        encoder.encode("tab", Map.of("messageId", "m1", "body", "short"), true);
+        Map<String, Object> params = Map.of("messageId", "m1", "body", "short answer");
+
+        assertSame(params, encoder.encode("tab", params, true));
+    }
+
+    @Test
+    void testRewrittenBodyOrNewMessageIsSentInFull() {
+        ChatBodyDeltaEncoder encoder = new ChatBodyDeltaEncoder();
+        encoder.encode("tab", Map.of("messageId", "m1", "body", BASE), true);
+
+        Map<String, Object> rewritten = Map.of("messageId", "m1", "body", "b" + BASE);
+        assertSame(rewritten, encoder.encode("tab", rewritten, true));
+
+        Map<String, Object> newMessage = Map.of("messageId", "m2", "body", "b" + BASE + "more");
+        assertSame(newMessage, encoder.encode("tab", newMessage, true));
+    }
+
+    @Test
+    void testTabsAreTrackedIndependently() {
+        ChatBodyDeltaEncoder encoder = new ChatBodyDeltaEncoder();
+        encoder.encode("tab1", Map.of("messageId", "m1", "body", BASE), true);
+        Map<String, Object> otherTab = Map.of("messageId", "m1", "body", BASE + "more");
+
+        assertSame(otherTab, encoder.encode("tab2", otherTab, true));
+    }
+
+    @Test
+    void testRemoveTabAndResetForgetTrackedBodies() {
+        ChatBodyDeltaEncoder encoder = new ChatBodyDeltaEncoder();
+        Map<String, Object> params = Map.of("messageId", "m1", "body", BASE + "more");
+
+        encoder.encode("tab", Map.of("messageId", "m1", "body", BASE), true);
+        encoder.removeTab("tab");
+        assertSame(params, encoder.encode("tab", params, true));
+
+        encoder.reset();
+        Map<String, Object> afterReset = Map.of("messageId", "m1", "body", BASE + "more text");
+        assertSame(afterReset, encoder.encode("tab", afterReset, true));
+    }
+
+    @Test
+    void testMessageWithoutBodyClearsTrackedBody() {
+        ChatBodyDeltaEncoder encoder = new ChatBodyDeltaEncoder();
+        encoder.encode("tab", Map.of("messageId", "m1", "body", BASE), true);
+        encoder.encode("tab", Map.of("messageId", "m1"), true);
+        Map<String, Object> params = Map.of("messageId", "m1", "body", BASE + "more");
+
+        assertSame(params, encoder.encode("tab", params, true));
+    }
+
+    @Test
+    void testFinalResultIsSentInFullAndRestartsTracking() {
+        ChatBodyDeltaEncoder encoder = new ChatBodyDeltaEncoder();
+        encoder.encode("tab", Map.of("messageId", "m1", "body", BASE), true);
+        Map<String, Object> finalResult = Map.of("messageId", "m1", "body", BASE + "more");
+
+        assertSame(finalResult, encoder.encode("tab", finalResult, false));
+
+        Map<String, Object> next = Map.of("messageId", "m1", "body", BASE + "more text");
+        assertSame(next, encoder.encode("tab", next, true));
+    }
+
+}
@@ -0,0 +1,67 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public final class ChatMessageTest {
+
+    private final Map<String, Object> params = Map.of(
+            "tabId", "tab-1",
+            "prompt", Map.of("prompt", "hello", "context", List.of(Map.of("command", "@workspace"))));
+
+    @Test
+    void testNestedKeyLookups() {
+        ChatMessage message = new ChatMessage(params);
+
+        assertEquals("tab-1", message.getValueAsString("tabId"));
+        assertEquals("hello", message.getValueAsString("prompt.prompt"));
+        assertTrue(message.hasKey("prompt.context"));
+        assertFalse(message.hasKey("prompt.missing"));
+        assertNull(message.getValueAsString("missing.key"));
+    }
+
+    @Test
+    void testDataIsUnchangedUntilUpdated() {
+        ChatMessage message = new ChatMessage(params);
+        message.getValueAsString("tabId");
+
+        assertSame(params, message.getData());
+    }
+
+    @Test
+    void testUpdatesAreAppliedToTheParsedTree() {
+        ChatMessage message = new ChatMessage(params);
+        JsonNode context = message.getValueForKey("prompt.context");
+
+        message.addValueForKey("context", context);
+        message.addValueForKey("editor.cursor", Map.of("line", 3));
+
+        ObjectNode data = (ObjectNode) message.getData();
+        assertSame(context, data.get("context"));
+        assertEquals(3, data.get("editor").get("cursor").get("line").asInt());
+        assertEquals("tab-1", message.getValueAsString("tabId"));
+    }
+
+    @Test
+    void testNullParams() {
+        ChatMessage message = new ChatMessage(null);
+
+        assertNull(message.getValueAsString("tabId"));
+        assertFalse(message.hasKey("tabId"));
+    }
+
+}
@@ -0,0 +1,189 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mockStatic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.MockedStatic;
+
+import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+public final class ChatPartialResultCoalescerTest {
+
+    @RegisterExtension
+    private static ActivatorStaticMockExtension activatorStaticMockExtension = new ActivatorStaticMockExtension();
+
+    @Test
+    void testFirstPartialIsRenderedOffTheCallingThread() throws Exception {
+        Thread callingThread = Thread.currentThread();
+        List<Thread> renderThreads = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer(ChatPartialResultCoalescerTest::decode, (token, tabId, payload) -> {
+            renderThreads.add(Thread.currentThread());
+            latch.countDown();
+            return body(payload).length();
+        });
+
+        coalescer.offer("token", "tabId", "partial-1");
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "Partial was not flushed in time");
+        assertEquals(1, renderThreads.size());
+        assertNotSame(callingThread, renderThreads.get(0));
+    }
+
+    @Test
+    void testPartialsWithinRenderWindowAreCoalescedToLatest() throws Exception {
+        List<String> rendered = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer(ChatPartialResultCoalescerTest::decode, (token, tabId, payload) -> {
+            rendered.add(body(payload));
+            latch.countDown();
+            return body(payload).length();
+        });
+
+        coalescer.offer("token", "tabId", "partial-1");
+        awaitRendered(rendered, 1);
+        coalescer.offer("token", "tabId", "partial-2");
+        coalescer.offer("token", "tabId", "partial-3");
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "Coalesced partial was not flushed in time");
+        assertEquals(List.of("partial-1", "partial-3"), rendered);
+        assertEquals(1, coalescer.getSupersededCount("token"));
+    }
+
+    @Test
+    void testPartialsWithAdditionalMessagesAreNeverSupersededOrDelayed() throws Exception {
+        List<String> rendered = new CopyOnWriteArrayList<>();
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer(ChatPartialResultCoalescerTest::decode, (token, tabId, payload) -> {
+            rendered.add(body(payload));
+            return body(payload).length();
+        });
+
+        coalescer.offer("token", "tabId", "partial-1");
+        awaitRendered(rendered, 1);
+        long offeredAt = System.currentTimeMillis();
+        coalescer.offer("token", "tabId", "partial-2");
+        coalescer.offer("token", "tabId", "stopped-3");
+        coalescer.offer("token", "tabId", "partial-4");
+        awaitRendered(rendered, 2);
+
+        assertTrue(System.currentTimeMillis() - offeredAt < ChatPartialResultCoalescer.MIN_DELAY_BETWEEN_PARTIALS,
+                "Partial with additional messages waited for the render window");
+        awaitRendered(rendered, 3);
+        assertEquals(List.of("partial-1", "stopped-3", "partial-4"), rendered);
+        assertEquals(1, coalescer.getSupersededCount("token"));
+    }
+
+    @Test
+    void testOnlyPlainBodyUpdatesCanBeSuperseded() {
+        assertTrue(ChatPartialResultCoalescer.isBodyUpdate(Map.of("body", "text", "messageId", "id", "additionalMessages", List.of())));
+        assertFalse(ChatPartialResultCoalescer.isBodyUpdate(decode("stopped-1")));
+        assertFalse(ChatPartialResultCoalescer.isBodyUpdate(Map.of("body", "text", "followUp", Map.of())));
+    }
+
+    @Test
+    void testDiscardDropsPendingPartial() throws Exception {
+        List<String> rendered = new CopyOnWriteArrayList<>();
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer(ChatPartialResultCoalescerTest::decode, (token, tabId, payload) -> {
+            rendered.add(body(payload));
+            return body(payload).length();
+        });
+
+        coalescer.offer("token", "tabId", "partial-1");
+        awaitRendered(rendered, 1);
+        coalescer.offer("token", "tabId", "partial-2");
+        coalescer.discard("token");
+
+        Thread.sleep(ChatPartialResultCoalescer.MIN_DELAY_BETWEEN_PARTIALS + 2 * ChatPartialResultCoalescer.FRAME_INTERVAL_MS);
+
+        assertEquals(List.of("partial-1"), rendered);
+        assertFalse(coalescer.hasPending("token"));
+    }
+
+    @Test
+    void testDiscardTabDropsPendingPartialsForTab() {
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer(ChatPartialResultCoalescerTest::decode, (token, tabId, payload) -> 0);
+
+        coalescer.offer("token", "tabId", "partial-1");
+        coalescer.offer("token", "tabId", "partial-2");
+        coalescer.discardTab("tabId");
+
+        assertFalse(coalescer.hasPending("token"));
+    }
+
+    @Test
+    void testBodyUpdateIsRenderedWhenFlushCannotBeScheduled() {
+        List<String> rendered = new CopyOnWriteArrayList<>();
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer(ChatPartialResultCoalescerTest::decode, (token, tabId, payload) -> {
+            rendered.add(body(payload));
+            return body(payload).length();
+        });
+
+        try (MockedStatic<ThreadingUtils> threadingUtils = mockStatic(ThreadingUtils.class)) {
+            threadingUtils.when(() -> ThreadingUtils.executeAsyncTask(eq(Subsystem.CHAT_IO), any(Runnable.class)))
+                    .thenAnswer(invocation -> {
+                        invocation.<Runnable>getArgument(1).run();
+                        return null;
+                    });
+            threadingUtils.when(() -> ThreadingUtils.scheduleAsyncTaskWithDelay(eq(Subsystem.CHAT_IO), any(Runnable.class), anyLong()))
+                    .thenThrow(new RejectedExecutionException("shut down"));
+
+            coalescer.offer("token", "tabId", "partial-1");
+            coalescer.offer("token", "tabId", "partial-2");
+            coalescer.offer("token", "tabId", "partial-3");
+        }
+
+        assertEquals(List.of("partial-1", "partial-2", "partial-3"), rendered);
+        assertFalse(coalescer.hasPending("token"));
+    }
+
+    @Test
+    void testRenderDelayIsAlignedToFrames() {
+        assertEquals(ChatPartialResultCoalescer.MIN_DELAY_BETWEEN_PARTIALS, ChatPartialResultCoalescer.calculateDelay(0));
+        assertEquals(ChatPartialResultCoalescer.MAX_DELAY_BETWEEN_PARTIALS,
+                ChatPartialResultCoalescer.calculateDelay(ChatPartialResultCoalescer.CHAR_COUNT_FOR_MAX_DELAY * 2));
+
+        ChatPartialResultCoalescer.PartialResultSlot slot = new ChatPartialResultCoalescer.PartialResultSlot("tabId");
+        assertEquals(0, ChatPartialResultCoalescer.calculateFlushDelay(slot, System.currentTimeMillis()));
+    }
+
+    /* Payloads starting with "stopped" decode to a partial carrying a stop message. */
+    private static Map<String, Object> decode(final String payload) {
+        if (payload.startsWith("stopped")) {
+            return Map.of("body", payload, "additionalMessages", List.of(Map.of("messageId", payload)));
+        }
+        return Map.of("body", payload);
+    }
+
+    private static String body(final Map<String, Object> partialResult) {
+        return (String) partialResult.get("body");
+    }
+
+    private static void awaitRendered(final List<String> rendered, final int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (rendered.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, rendered.size());
+    }
+
+}
@@ -0,0 +1,95 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+public final class ChatRequestTrackerTest {
+
+    private final ChatRequestTracker tracker = new ChatRequestTracker();
+
+    @Test
+    void testResponseIsPassedThroughAndRequestIsUntracked() throws Exception {
+        CompletableFuture<String> request = new CompletableFuture<>();
+        CompletableFuture<String> tracked = tracker.track("tab", request, ChatRequestTracker.DEFAULT_TIMEOUT_MS);
+        assertEquals(1, tracker.getPendingCount("tab"));
+
+        request.complete("response");
+
+        assertEquals("response", tracked.get(1, TimeUnit.SECONDS));
+        assertEquals(0, tracker.getPendingCount("tab"));
+    }
+
+    @Test
+    void testCancellingTrackedFutureCancelsRequest() {
+        CompletableFuture<String> request = new CompletableFuture<>();
+        CompletableFuture<String> tracked = tracker.track("tab", request, ChatRequestTracker.DEFAULT_TIMEOUT_MS);
+
+        tracked.cancel(true);
+
+        assertTrue(request.isCancelled());
+        assertEquals(0, tracker.getPendingCount("tab"));
+    }
+
+    @Test
+    void testRequestIsCancelledWhenTimeoutElapses() {
+        CompletableFuture<String> request = new CompletableFuture<>();
+        CompletableFuture<String> tracked = tracker.track("tab", request, 20);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> tracked.get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertTrue(request.isCancelled());
+        assertEquals(0, tracker.getPendingCount("tab"));
+    }
+
+    @Test
+    void testRequestWithoutTimeoutWaitsUntilTabIsClosed() throws Exception {
+        CompletableFuture<String> request = new CompletableFuture<>();
+        CompletableFuture<String> tracked = tracker.track("tab", request, ChatRequestTracker.NO_TIMEOUT);
+
+        Thread.sleep(50);
+        assertFalse(tracked.isDone());
+
+        tracker.cancelTab("tab");
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> tracked.get(1, TimeUnit.SECONDS));
+        assertTrue(ChatRequestTracker.isCancellation(exception.getCause()));
+    }
+
+    @Test
+    void testClosingTabCancelsOnlyItsRequests() throws Exception {
+        CompletableFuture<String> closedTabRequest = new CompletableFuture<>();
+        CompletableFuture<String> otherTabRequest = new CompletableFuture<>();
+        CompletableFuture<String> tracked = tracker.track("closed", closedTabRequest, ChatRequestTracker.DEFAULT_TIMEOUT_MS);
+        CompletableFuture<String> otherTracked = tracker.track("other", otherTabRequest, ChatRequestTracker.DEFAULT_TIMEOUT_MS);
+
+        tracker.cancelTab("closed");
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> tracked.get(1, TimeUnit.SECONDS));
+        assertTrue(ChatRequestTracker.isCancellation(exception.getCause()));
+        assertTrue(closedTabRequest.isCancelled());
+
+        otherTabRequest.complete("response");
+        assertEquals("response", otherTracked.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRequestsWithoutTabAreNotTrackedPerTab() throws Exception {
+        CompletableFuture<String> request = CompletableFuture.completedFuture("response");
+
+        assertEquals("response", tracker.track(null, request, ChatRequestTracker.DEFAULT_TIMEOUT_MS).get(1, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,176 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommand;
+import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommandName;
+import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
+import software.aws.toolkits.eclipse.amazonq.util.LoggingService;
+
+public final class ChatUiCommandDispatcherTest {
+
+    @RegisterExtension
+    private static ActivatorStaticMockExtension activatorStaticMockExtension = new ActivatorStaticMockExtension();
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final List<ChatUIInboundCommand> delivered = new ArrayList<>();
+
+    @Test
+    void testCommandsAreHeldUntilReady() {
+        ChatUiCommandDispatcher dispatcher = createDispatcher(10);
+
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("first", "1"));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("second", "2"));
+        runTasks();
+
+        assertTrue(tasks.isEmpty());
+        assertTrue(delivered.isEmpty());
+        assertEquals(2, dispatcher.getMetrics().queueDepth());
+
+        dispatcher.markReady();
+        runTasks();
+
+        assertEquals(List.of("first", "second"), delivered.stream().map(ChatUIInboundCommand::command).toList());
+        assertEquals(0, dispatcher.getMetrics().queueDepth());
+        assertEquals(2, dispatcher.getMetrics().dispatched());
+    }
+
+    @Test
+    void testBurstAfterReadyIsDrainedByOneTask() {
+        ChatUiCommandDispatcher dispatcher = createDispatcher(10);
+        dispatcher.markReady();
+
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("first", "1"));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("second", "2"));
+
+        assertEquals(1, tasks.size());
+        runTasks();
+        assertEquals(2, delivered.size());
+    }
+
+    @Test
+    void testCoalescedCommandMovesBehindCommandsQueuedBeforeIt() {
+        ChatUiCommandDispatcher dispatcher = createDispatcher(10);
+
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.ChatOptions.getValue(), "options-1"));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("other", "other"));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.ChatOptions.getValue(), "options-2"));
+        dispatcher.markReady();
+        runTasks();
+
+        assertEquals(List.of("other", "options-2"), delivered.stream().map(ChatUIInboundCommand::params).toList());
+        assertEquals(1, dispatcher.getMetrics().coalesced());
+    }
+
+    @Test
+    void testCommandsAnsweringRequestsAreNotCoalesced() {
+        ChatUiCommandDispatcher dispatcher = createDispatcher(10);
+
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.ListConversations.getValue(), "list-1", "request-1"));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.ListConversations.getValue(), "list-2", "request-2"));
+        dispatcher.markReady();
+        runTasks();
+
+        assertEquals(2, delivered.size());
+        assertEquals(0, dispatcher.getMetrics().coalesced());
+    }
+
+    @Test
+    void testOnlyPartialResultsAreDroppedWhenFull() {
+        ChatUiCommandDispatcher dispatcher = createDispatcher(2);
+
+        dispatcher.enqueue(new ChatUIInboundCommand("aws/chat/sendChatPrompt", "tab", "partial", true, null));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("errorMessage", "2"));
+        dispatcher.enqueue(new ChatUIInboundCommand("aws/chat/sendChatPrompt", "tab", "final", false, null));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.ChatOptions.getValue(), "4"));
+        dispatcher.markReady();
+        runTasks();
+
+        assertEquals(List.of("2", "final", "4"), delivered.stream().map(ChatUIInboundCommand::params).toList());
+        assertEquals(1, dispatcher.getMetrics().dropped());
+    }
+
+    @Test
+    void testFailingCommandDoesNotStopDelivery() {
+        ChatUiCommandDispatcher dispatcher = new ChatUiCommandDispatcher(command -> {
+            if ("bad".equals(command.command())) {
+                throw new IllegalStateException("boom");
+            }
+            delivered.add(command);
+        }, tasks::add, 10);
+        dispatcher.markReady();
+
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("bad", null));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("good", null));
+        runTasks();
+
+        assertEquals(1, delivered.size());
+        assertEquals("good", delivered.get(0).command());
+        assertEquals(2, dispatcher.getMetrics().dispatched());
+    }
+
+    @Test
+    void testSlowDeliveryIsLoggedWithMetrics() {
+        LoggingService logger = activatorStaticMockExtension.getMock(LoggingService.class);
+        ChatUiCommandDispatcher dispatcher = new ChatUiCommandDispatcher(delivered::add, tasks::add, 10, 0);
+        dispatcher.markReady();
+
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("first", "1"));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("second", "2"));
+        runTasks();
+
+        verify(logger).warn(contains("dispatched=2"));
+    }
+
+    @Test
+    void testFastDeliveryIsNotLogged() {
+        LoggingService logger = activatorStaticMockExtension.getMock(LoggingService.class);
+        ChatUiCommandDispatcher dispatcher = createDispatcher(10);
+        dispatcher.markReady();
+
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("first", "1"));
+        runTasks();
+
+        verify(logger, never()).warn(startsWith("Chat UI commands took"));
+    }
+
+    @Test
+    void testExceedingCapacityIsLoggedWithQueueDepth() {
+        LoggingService logger = activatorStaticMockExtension.getMock(LoggingService.class);
+        ChatUiCommandDispatcher dispatcher = createDispatcher(2);
+
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("first", "1"));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("second", "2"));
+        dispatcher.enqueue(ChatUIInboundCommand.createCommand("third", "3"));
+
+        verify(logger).warn(contains("queueDepth=3"));
+    }
+
+    private ChatUiCommandDispatcher createDispatcher(final int capacity) {
+        return new ChatUiCommandDispatcher(delivered::add, tasks::add, capacity);
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+}
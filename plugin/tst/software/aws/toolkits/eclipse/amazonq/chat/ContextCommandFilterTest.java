@@ -0,0 +1,154 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
+
+public final class ContextCommandFilterTest {
+
+    @RegisterExtension
+    private static ActivatorStaticMockExtension activatorStaticMockExtension = new ActivatorStaticMockExtension();
+
+    private static final Object FULL_RESULT = List.of(Map.of("groupName", "Files", "commands", List.of(
+            Map.of("command", "ChatCommunicationManager.java", "description", "chat"),
+            Map.of("command", "ContextCommandFilter.java", "description", "chat"),
+            Map.of("command", "folder", "children", List.of(Map.of("command", "Chat.java"))))));
+
+    private final List<Object> results = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @Test
+    void testKeystrokesWithinDebounceWindowSendOneRequest() throws Exception {
+        ContextCommandFilter filter = new ContextCommandFilter(results::add, 50);
+
+        filter.filter("tab", "c", this::respond);
+        filter.filter("tab", "ch", this::respond);
+        filter.filter("tab", "cha", this::respond);
+
+        awaitResults(1);
+        assertEquals(1, requestCount.get());
+        assertEquals(FULL_RESULT, results.get(0));
+    }
+
+    @Test
+    void testSupersededRequestIsCancelledAndIgnored() throws Exception {
+        CompletableFuture<Object> slowRequest = new CompletableFuture<>();
+        ContextCommandFilter filter = new ContextCommandFilter(results::add, 10);
+
+        AtomicBoolean slowRequestSent = new AtomicBoolean(false);
+        filter.filter("tab", null, () -> {
+            slowRequestSent.set(true);
+            return slowRequest;
+        });
+        awaitCondition(slowRequestSent::get);
+        filter.filter("tab", null, this::respond);
+
+        awaitResults(1);
+        assertTrue(slowRequest.isCancelled());
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    void testSupersededTrackedRequestCancelsServerRequest() throws Exception {
+        CompletableFuture<Object> serverRequest = new CompletableFuture<>();
+        ChatRequestTracker tracker = new ChatRequestTracker();
+        ContextCommandFilter filter = new ContextCommandFilter(results::add, 10);
+
+        AtomicBoolean serverRequestSent = new AtomicBoolean(false);
+        filter.filter("tab", "c", () -> {
+            serverRequestSent.set(true);
+            return tracker.track("tab", serverRequest, ChatRequestTracker.DEFAULT_TIMEOUT_MS);
+        });
+        awaitCondition(serverRequestSent::get);
+        filter.filter("tab", "co", this::respond);
+
+        awaitResults(1);
+        assertTrue(serverRequest.isCancelled());
+    }
+
+    @Test
+    void testRepeatedQueryIsAnsweredFromCache() throws Exception {
+        ContextCommandFilter filter = new ContextCommandFilter(results::add, 10);
+        filter.filter("tab", "con", this::respond);
+        awaitResults(1);
+
+        filter.filter("tab", "con", this::respond);
+
+        assertEquals(2, results.size());
+        assertEquals(1, requestCount.get());
+        assertEquals(FULL_RESULT, results.get(1));
+    }
+
+    @Test
+    void testExtendedQueryIsSentToServer() throws Exception {
+        ContextCommandFilter filter = new ContextCommandFilter(results::add, 10);
+        filter.filter("tab", "c", this::respond);
+        awaitResults(1);
+
+        filter.filter("tab", "contextc", this::respond);
+
+        awaitResults(2);
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    void testEmptyFilterTextIsNeverCached() throws Exception {
+        ContextCommandFilter filter = new ContextCommandFilter(results::add, 10);
+        filter.filter("tab", "", this::respond);
+        awaitResults(1);
+
+        filter.filter("tab", "", this::respond);
+        awaitResults(2);
+        filter.filter("tab", "c", this::respond);
+        awaitResults(3);
+
+        assertEquals(3, requestCount.get());
+    }
+
+    @Test
+    void testInvalidateDropsCachedResults() throws Exception {
+        ContextCommandFilter filter = new ContextCommandFilter(results::add, 10);
+        filter.filter("tab", "c", this::respond);
+        awaitResults(1);
+
+        filter.invalidate();
+        filter.filter("tab", "c", this::respond);
+
+        awaitResults(2);
+        assertEquals(2, requestCount.get());
+    }
+
+    private CompletableFuture<Object> respond() {
+        requestCount.incrementAndGet();
+        return CompletableFuture.completedFuture(FULL_RESULT);
+    }
+
+    private void awaitResults(final int count) throws InterruptedException {
+        awaitCondition(() -> results.size() >= count);
+        assertEquals(count, results.size());
+    }
+
+    private static void awaitCondition(final BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -40,6 +40,7 @@ public final class LspManagerProviderStaticMockExtension extends StaticMockExten
 
         lspManagerProviderStaticMock.when(LspManagerProvider::getInstance).thenReturn(lspManagerMock);
         Mockito.when(lspManagerMock.getLspInstallation()).thenReturn(lspInstallResult);
+        Mockito.when(lspManagerMock.getLspInstallationForLaunch()).thenReturn(lspInstallResult);
 
         Map<Class<?>, Object> newMocksMap = Map.of(
                 LspManager.class, lspManagerMock,
@@ -0,0 +1,138 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.inlineChat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import software.aws.toolkits.eclipse.amazonq.inlineChat.InlineChatDiffEngine.Frame;
+import software.aws.toolkits.eclipse.amazonq.inlineChat.InlineChatDiffEngine.Row;
+import software.aws.toolkits.eclipse.amazonq.inlineChat.InlineChatDiffEngine.RowKind;
+
+public final class InlineChatDiffEngineTest {
+
+    @Test
+    void testSingleUpdateRendersInterleavedDiff() {
+        String original = "one\ntwo\nthree\n";
+        InlineChatDiffEngine engine = new InlineChatDiffEngine(original, original.length());
+        StringBuilder document = new StringBuilder(original);
+
+        apply(document, engine.update("one\n2\nthree\nfour\n", true));
+
+        assertEquals("one\ntwo\n2\nthree\nfour\n", document.toString());
+        assertEquals(List.of(RowKind.UNCHANGED, RowKind.DELETED, RowKind.ADDED, RowKind.UNCHANGED, RowKind.ADDED),
+                engine.getRows().stream().map(Row::kind).toList());
+        assertEquals(1, engine.getDeletedLineCount());
+        assertEquals(2, engine.getAddedLineCount());
+        assertEquals(List.of(new TextDiff(14, 3, true), new TextDiff(18, 1, false), new TextDiff(26, 4, false)),
+                engine.getTextDiffs(10));
+    }
+
+    @Test
+    void testStreamingProducesSameDocumentAsFullDiff() {
+        String original = numberedLines(300, -1);
+        String refactored = numberedLines(300, 7);
+        InlineChatDiffEngine engine = new InlineChatDiffEngine(original, original.length());
+        StringBuilder document = new StringBuilder(original);
+
+        for (int end = 1; end < refactored.length(); end += 13) {
+            apply(document, engine.update(refactored.substring(0, end), false));
+            assertEquals(render(engine.getRows(), true), document.toString());
+            assertEquals(document.length(), engine.getDisplayLength());
+        }
+        apply(document, engine.update(refactored, true));
+
+        InlineChatDiffEngine oneShot = new InlineChatDiffEngine(original, original.length());
+        StringBuilder expected = new StringBuilder(original);
+        apply(expected, oneShot.update(refactored, true));
+        assertEquals(expected.toString(), document.toString());
+        assertEquals(oneShot.getRows(), engine.getRows());
+        assertEquals(300 / 7, engine.getDeletedLineCount());
+        assertEquals(300 / 7, engine.getAddedLineCount());
+    }
+
+    @Test
+    void testStreamedLinesOnlyReplaceTheAffectedRows() {
+        String original = numberedLines(300, -1);
+        InlineChatDiffEngine engine = new InlineChatDiffEngine(original, original.length());
+        StringBuilder document = new StringBuilder(original);
+        apply(document, engine.update("", false));
+
+        StringBuilder streamed = new StringBuilder();
+        for (String line : original.lines().toList()) {
+            streamed.append(line).append('\n');
+            Frame frame = engine.update(streamed.toString(), false);
+            apply(document, frame);
+            assertTrue(frame.removedRows() <= 2 && frame.insertedRows().size() <= 2,
+                    "frame replaced " + frame.removedRows() + " rows with " + frame.insertedRows().size());
+            assertTrue(frame.text().length() <= 2 * "line 300".length() + 2, "frame text was " + frame.text());
+        }
+
+        assertEquals(original, document.toString());
+        assertEquals(0, engine.getDeletedLineCount());
+        assertEquals(0, engine.getAddedLineCount());
+    }
+
+    @Test
+    void testTrailingLineBreakFollowsOriginalSelection() {
+        String original = "first\nsecond\nthird";
+        InlineChatDiffEngine engine = new InlineChatDiffEngine(original, original.length());
+        StringBuilder document = new StringBuilder(original);
+
+        apply(document, engine.update("first\nnew", false));
+        assertEquals(render(engine.getRows(), false), document.toString());
+
+        apply(document, engine.update("first\nnew line\nmodified line", false));
+        assertEquals("first\nsecond\nthird\nnew line\nmodified line", document.toString());
+
+        apply(document, engine.update("first\nnew line\nmodified line\nthird", true));
+        assertEquals("first\nsecond\nnew line\nmodified line\nthird", document.toString());
+        assertEquals(engine.getDisplayLength(), document.length());
+    }
+
+    @Test
+    void testNoSelectionRendersOnlyAddedLines() {
+        InlineChatDiffEngine engine = new InlineChatDiffEngine("", 0);
+        StringBuilder document = new StringBuilder();
+
+        apply(document, engine.update("a\n", false));
+        apply(document, engine.update("a\nb\n", false));
+        Frame unchanged = engine.update("a\nb\n", true);
+        apply(document, unchanged);
+
+        assertTrue(unchanged.isEmpty());
+        assertEquals("a\nb", document.toString());
+        assertEquals(2, engine.getAddedLineCount());
+    }
+
+    private static void apply(final StringBuilder document, final Frame frame) {
+        document.replace(frame.offset(), frame.offset() + frame.length(), frame.text());
+    }
+
+    private static String render(final List<Row> rows, final boolean endsInNewLine) {
+        StringBuilder text = new StringBuilder();
+        rows.forEach(row -> text.append(row.text()).append('\n'));
+        if (!endsInNewLine && text.length() > 0) {
+            text.setLength(text.length() - 1);
+        }
+        return text.toString();
+    }
+
+    /*
+     * Lines "line 1" to "line <count>", every modulo-th line is rewritten when
+     * modulo is positive.
+     */
+    private static String numberedLines(final int count, final int modulo) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            text.append(modulo > 0 && i % modulo == 0 ? "rewritten " + i : "line " + i).append('\n');
+        }
+        return text.toString();
+    }
+
+}
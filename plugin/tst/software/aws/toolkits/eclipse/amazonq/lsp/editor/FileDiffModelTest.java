@@ -0,0 +1,105 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.editor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import software.aws.toolkits.eclipse.amazonq.inlineChat.TextDiff;
+
+public final class FileDiffModelTest {
+
+    @Test
+    void testDeletedLinesAreFollowedByTheirReplacement() {
+        FileDiffModel model = FileDiffModel.compute("a\nb\nc\n", "a\nB\nc\nd\n");
+
+        assertEquals("a\nb\nB\nc\nd\n", model.getText());
+        assertEquals(List.of(new TextDiff(2, 1, true), new TextDiff(4, 1, false), new TextDiff(8, 1, false)),
+                model.getTextDiffs());
+        assertFalse(model.isDiffCapped());
+    }
+
+    @Test
+    void testMissingContentIsTreatedAsEmptyFile() {
+        FileDiffModel added = FileDiffModel.compute(null, "new\n");
+        assertEquals("new\n", added.getText());
+        assertEquals(List.of(new TextDiff(0, 3, false)), added.getTextDiffs());
+
+        FileDiffModel deleted = FileDiffModel.compute("old\n", "");
+        assertEquals("old\n", deleted.getText());
+        assertEquals(List.of(new TextDiff(0, 3, true)), deleted.getTextDiffs());
+    }
+
+    @Test
+    void testLocalEditInHugeFileOnlyDiffsTheChangedWindow() {
+        String original = numberedLines(50_000, "line");
+        String updated = original.replace("line 25000\n", "changed 25000\nadded\n");
+
+        FileDiffModel model = FileDiffModel.compute(original, updated);
+
+        assertFalse(model.isDiffCapped());
+        assertEquals(3, model.getTextDiffs().size());
+        int offset = original.indexOf("line 25000\n");
+        int insertedOffset = offset + "line 25000\n".length();
+        assertEquals(List.of(new TextDiff(offset, "line 25000".length(), true),
+                new TextDiff(insertedOffset, "changed 25000".length(), false),
+                new TextDiff(insertedOffset + "changed 25000\n".length(), "added".length(), false)), model.getTextDiffs());
+        assertEquals(original.substring(0, insertedOffset) + "changed 25000\nadded\n" + original.substring(insertedOffset),
+                model.getText());
+    }
+
+    @Test
+    void testDistantEditsInHugeFileAreStillDiffedLineByLine() {
+        String original = numberedLines(50_000, "line");
+        String updated = original.replace("line 1\n", "first\n").replace("line 50000\n", "last\n");
+
+        FileDiffModel model = FileDiffModel.compute(original, updated);
+
+        assertFalse(model.isDiffCapped());
+        assertEquals(4, model.getTextDiffs().size());
+        assertEquals(new TextDiff(0, "line 1".length(), true), model.getTextDiffs().get(0));
+        assertEquals(new TextDiff("line 1\n".length(), "first".length(), false), model.getTextDiffs().get(1));
+        int lastOffset = model.getText().indexOf("line 50000\n");
+        assertEquals(new TextDiff(lastOffset, "line 50000".length(), true), model.getTextDiffs().get(2));
+        assertEquals(new TextDiff(lastOffset + "line 50000\n".length(), "last".length(), false), model.getTextDiffs().get(3));
+    }
+
+    @Test
+    void testRewriteJustWithinTheEditDistanceIsDiffedLineByLine() {
+        int lineCount = FileDiffModel.MAX_EDIT_DISTANCE / 2;
+        FileDiffModel model = FileDiffModel.compute(numberedLines(lineCount, "old"), numberedLines(lineCount, "new"));
+
+        assertFalse(model.isDiffCapped());
+        assertEquals(lineCount * 2, model.getTextDiffs().size());
+    }
+
+    @Test
+    void testRewrittenHugeFileIsShownAsOneBlock() {
+        int lineCount = FileDiffModel.MAX_EDIT_DISTANCE * 3;
+        String original = numberedLines(lineCount, "old");
+        String updated = numberedLines(lineCount, "new");
+
+        FileDiffModel model = FileDiffModel.compute(original, updated);
+
+        assertTrue(model.isDiffCapped());
+        assertEquals(lineCount * 2, model.getTextDiffs().size());
+        assertEquals(original + updated, model.getText());
+        assertTrue(model.getTextDiffs().get(lineCount - 1).isDeletion());
+        assertFalse(model.getTextDiffs().get(lineCount).isDeletion());
+    }
+
+    private static String numberedLines(final int count, final String prefix) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            text.append(prefix).append(' ').append(i).append('\n');
+        }
+        return text.toString();
+    }
+
+}
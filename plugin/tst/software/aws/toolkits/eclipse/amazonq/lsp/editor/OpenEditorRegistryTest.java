@@ -0,0 +1,148 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.editor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IPartService;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.ide.FileStoreEditorInput;
+import org.eclipse.ui.texteditor.ITextEditor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import software.aws.toolkits.eclipse.amazonq.editor.InMemoryInput;
+import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
+
+public final class OpenEditorRegistryTest {
+
+    @RegisterExtension
+    private static ActivatorStaticMockExtension activatorStaticMockExtension = new ActivatorStaticMockExtension();
+
+    private IWorkbench workbench;
+    private IWorkbenchWindow window;
+    private IPartService partService;
+    private IWorkbenchPage page;
+    private OpenEditorRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        workbench = mock(IWorkbench.class);
+        window = mock(IWorkbenchWindow.class);
+        partService = mock(IPartService.class);
+        page = mock(IWorkbenchPage.class);
+        when(workbench.getWorkbenchWindows()).thenReturn(new IWorkbenchWindow[] {window});
+        when(window.getPartService()).thenReturn(partService);
+        when(window.getPages()).thenReturn(new IWorkbenchPage[] {page});
+        registry = new OpenEditorRegistry();
+    }
+
+    @Test
+    void testAttachSeedsOpenEditorsAndRegistersListeners() throws Exception {
+        IEditorReference foo = editor("/project/Foo.java");
+        IEditorReference bar = editor("/project/Bar.java");
+        IEditorReference inMemory = mock(IEditorReference.class);
+        when(inMemory.getEditorInput()).thenReturn(mock(InMemoryInput.class));
+        when(page.getEditorReferences()).thenReturn(new IEditorReference[] {foo, inMemory, bar});
+
+        assertFalse(registry.isAttached());
+        registry.attach(workbench);
+
+        assertTrue(registry.isAttached());
+        assertEquals(List.of("/project/Bar.java", "/project/Foo.java"), registry.getOpenEditorFilePaths());
+        verify(workbench).addWindowListener(registry);
+        verify(partService).addPartListener(registry);
+    }
+
+    @Test
+    void testActivationMovesEditorToFrontAndTracksActiveTextEditor() throws Exception {
+        IEditorReference foo = editor("/project/Foo.java");
+        IEditorReference bar = editor("/project/Bar.java");
+        when(page.getEditorReferences()).thenReturn(new IEditorReference[] {foo, bar});
+        ITextEditor textEditor = mock(ITextEditor.class);
+        var input = foo.getEditorInput();
+        when(textEditor.getEditorInput()).thenReturn(input);
+        when(foo.getEditor(false)).thenReturn(textEditor);
+        registry.attach(workbench);
+
+        registry.partActivated(foo);
+
+        assertEquals(List.of("/project/Foo.java", "/project/Bar.java"), registry.getOpenEditorFilePaths());
+        assertEquals(Optional.of("file:///project/Foo.java"), registry.getActiveTextEditorUri());
+
+        registry.partClosed(foo);
+
+        assertEquals(List.of("/project/Bar.java"), registry.getOpenEditorFilePaths());
+        assertEquals(Optional.empty(), registry.getActiveTextEditorUri());
+    }
+
+    @Test
+    void testOpenedEditorsAreAddedOnceAndDuplicatePathsAreCollapsed() throws Exception {
+        when(page.getEditorReferences()).thenReturn(new IEditorReference[0]);
+        registry.attach(workbench);
+        IEditorReference first = editor("/project/Foo.java");
+        IEditorReference second = editor("/project/Foo.java");
+
+        registry.partOpened(first);
+        registry.partOpened(first);
+        registry.partOpened(second);
+
+        assertEquals(List.of("/project/Foo.java"), registry.getOpenEditorFilePaths());
+
+        registry.partClosed(second);
+        assertEquals(List.of("/project/Foo.java"), registry.getOpenEditorFilePaths());
+    }
+
+    @Test
+    void testSnapshotIsCappedToMostRecentlyUsedEditors() throws Exception {
+        List<IEditorReference> editors = new ArrayList<>();
+        for (int i = 0; i < OpenEditorRegistry.MAX_OPEN_EDITOR_PATHS + 10; i++) {
+            editors.add(editor("/project/File" + i + ".java"));
+        }
+        when(page.getEditorReferences()).thenReturn(editors.toArray(new IEditorReference[0]));
+        registry.attach(workbench);
+
+        registry.partActivated(editors.get(0));
+
+        List<String> paths = registry.getOpenEditorFilePaths();
+        assertEquals(OpenEditorRegistry.MAX_OPEN_EDITOR_PATHS, paths.size());
+        assertEquals("/project/File0.java", paths.get(0));
+        assertEquals("/project/File" + (editors.size() - 1) + ".java", paths.get(1));
+    }
+
+    @Test
+    void testClosingWindowForgetsItsEditors() throws Exception {
+        IEditorReference foo = editor("/project/Foo.java");
+        when(page.getEditorReferences()).thenReturn(new IEditorReference[] {foo});
+        registry.attach(workbench);
+
+        registry.windowClosed(window);
+
+        assertTrue(registry.getOpenEditorFilePaths().isEmpty());
+        verify(partService).removePartListener(registry);
+    }
+
+    private static IEditorReference editor(final String path) throws Exception {
+        FileStoreEditorInput input = mock(FileStoreEditorInput.class);
+        when(input.getURI()).thenReturn(new URI("file://" + path));
+        IEditorReference editorRef = mock(IEditorReference.class);
+        when(editorRef.getEditorInput()).thenReturn(input);
+        return editorRef;
+    }
+
+}
@@ -4,12 +4,27 @@
 package software.aws.toolkits.eclipse.amazonq.lsp.encryption;
 
 import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+
 import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
+import software.aws.toolkits.eclipse.amazonq.util.JsonHandler;
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -30,9 +45,13 @@ public class LspJsonWebTokenTest {
         private TestSecretKey() { }
 
         public static SecretKeySpec createTestSecretKey() {
+            return createTestSecretKey((byte) 0);
+        }
+
+        public static SecretKeySpec createTestSecretKey(final byte offset) {
             byte[] keyBytes = new byte[32];
             for (int i = 0; i < keyBytes.length; i++) {
-                keyBytes[i] = (byte) i;
+                keyBytes[i] = (byte) (i + offset);
             }
             return new SecretKeySpec(keyBytes, "AES");
         }
@@ -64,4 +83,82 @@ public class LspJsonWebTokenTest {
                 () -> LspJsonWebToken.decrypt(TestSecretKey.createTestSecretKey(), invalidJwtString));
     }
 
+    @Test
+    void testEncryptAfterKeyChangeUsesNewKey() {
+        SecretKey firstKey = TestSecretKey.createTestSecretKey();
+        SecretKey secondKey = TestSecretKey.createTestSecretKey((byte) 1);
+
+        String encryptedWithFirstKey = LspJsonWebToken.encrypt(firstKey, new TestObject("first"));
+        String encryptedWithSecondKey = LspJsonWebToken.encrypt(secondKey, new TestObject("second"));
+
+        assertEquals("{\"field\":\"first\"}", LspJsonWebToken.decrypt(firstKey, encryptedWithFirstKey));
+        assertEquals("{\"field\":\"second\"}", LspJsonWebToken.decrypt(secondKey, encryptedWithSecondKey));
+        assertThrows(AmazonQPluginException.class, () -> LspJsonWebToken.decrypt(firstKey, encryptedWithSecondKey));
+    }
+
+    @Test
+    void testLargeAndNonAsciiPayloadsRoundTrip() throws Exception {
+        SecretKey key = TestSecretKey.createTestSecretKey();
+        String field = "x".repeat(256 * 1024) + " \u00e9\u4e2d\ud83d\ude00 \"quoted\"\n";
+
+        String encryptedData = LspJsonWebToken.encrypt(key, new TestObject(field));
+
+        String decryptedData = LspJsonWebToken.decrypt(key, encryptedData);
+        assertEquals(field, ObjectMapperFactory.getInstance().readTree(decryptedData).get("field").asText());
+    }
+
+    /*
+     * Measures the bytes allocated per call against the previous implementation,
+     * which serialized to a String and built a new encrypter for every message.
+     * The lowest of several rounds is compared so that a round disturbed by JIT
+     * compilation does not decide the outcome.
+     */
+    @Test
+    void testEncryptAllocatesLessThanStringBasedEncryption() {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled());
+
+        SecretKey key = TestSecretKey.createTestSecretKey();
+        TestObject prompt = new TestObject("x".repeat(256 * 1024));
+        JsonHandler jsonHandler = new JsonHandler();
+
+        long streaming = measureAllocatedBytesPerCall(allocationBean, () -> LspJsonWebToken.encrypt(key, prompt));
+        long stringBased = measureAllocatedBytesPerCall(allocationBean, () -> encryptViaString(jsonHandler, key, prompt));
+
+        assertTrue(streaming < stringBased, "Expected fewer bytes allocated than " + stringBased + " but was " + streaming);
+    }
+
+    private static long measureAllocatedBytesPerCall(final com.sun.management.ThreadMXBean allocationBean,
+            final Supplier<String> encryption) {
+        int warmupIterations = 20;
+        int rounds = 5;
+        int iterationsPerRound = 10;
+        for (int i = 0; i < warmupIterations; i++) {
+            encryption.get();
+        }
+        long threadId = Thread.currentThread().getId();
+        long lowest = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long before = allocationBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < iterationsPerRound; i++) {
+                encryption.get();
+            }
+            lowest = Math.min(lowest, (allocationBean.getThreadAllocatedBytes(threadId) - before) / iterationsPerRound);
+        }
+        return lowest;
+    }
+
+    private static String encryptViaString(final JsonHandler jsonHandler, final SecretKey key, final Object data) {
+        try {
+            JWEObject jweObject = new JWEObject(new JWEHeader(JWEAlgorithm.DIR, EncryptionMethod.A256GCM),
+                    new Payload(jsonHandler.serialize(data)));
+            jweObject.encrypt(new DirectEncrypter(key));
+            return jweObject.serialize();
+        } catch (Exception e) {
+            throw new AmazonQPluginException(e);
+        }
+    }
+
 }
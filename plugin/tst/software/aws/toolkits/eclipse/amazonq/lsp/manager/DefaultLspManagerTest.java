@@ -5,17 +5,21 @@ package software.aws.toolkits.eclipse.amazonq.lsp.manager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,6 +28,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -38,6 +44,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.MockedStatic;
 
+import software.aws.toolkits.eclipse.amazonq.broker.events.AmazonQLspState;
 import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
 import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
 import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ArtifactUtilsStaticMockExtension;
@@ -249,6 +256,118 @@ public class DefaultLspManagerTest {
         doReturn(localOverride).when(lspManager).getLocalLspOverride();
     }
 
+    @Test
+    void testStagedUpdatesLaunchInstalledVersionWithoutFetchingManifest() throws IOException {
+        initStagedLspManager();
+        when(mocklspFetcher.fetchInstalled(any(), any(), eq(tempDir), any())).thenReturn(Optional.of(createInstalledVersion("1.0.0")));
+
+        LspInstallResult result = lspManager.getLspInstallation();
+
+        assertEquals("1.0.0", result.getVersion());
+        verify(lspManager, never()).fetchManifest();
+        verify(lspManager).scheduleStagingJob();
+        assertEquals("1.0.0", LspUpdateState.load(tempDir).activeVersion());
+    }
+
+    @Test
+    void testStagedUpdatesFetchFromRemoteWhenNothingIsInstalled() throws IOException {
+        initStagedLspManager();
+        doReturn(mockManifest).when(lspManager).fetchManifest();
+        when(mocklspFetcher.fetch(any(), any(), eq(tempDir), any())).thenReturn(createInstalledVersion("1.0.0"));
+
+        LspInstallResult result = lspManager.getLspInstallation();
+
+        assertEquals("1.0.0", result.getVersion());
+        verify(lspManager, never()).scheduleStagingJob();
+        assertEquals("1.0.0", LspUpdateState.load(tempDir).activeVersion());
+    }
+
+    @Test
+    void testStagedVersionIsUsedOnRestartAndRolledBackWhenItFails() throws IOException {
+        initStagedLspManager();
+        var installedVersion = createInstalledVersion("1.0.0");
+        var newVersion = createInstalledVersion("1.1.0");
+        when(mocklspFetcher.fetchInstalled(any(), any(), eq(tempDir), any())).thenReturn(Optional.of(installedVersion));
+        lspManager.getLspInstallation();
+        lspManager.onLspStateChanged(AmazonQLspState.ACTIVE);
+
+        doReturn(mockManifest).when(lspManager).fetchManifest();
+        when(mocklspFetcher.fetch(any(), any(), eq(tempDir), any())).thenReturn(newVersion);
+        lspManager.stageUpdate();
+        assertEquals("1.1.0", LspUpdateState.load(tempDir).stagedVersion());
+        assertEquals("1.0.0", lspManager.getLspInstallation().getVersion());
+
+        when(mocklspFetcher.fetchInstalled(any(), any(), eq(tempDir), any())).thenReturn(Optional.of(newVersion));
+        assertEquals("1.1.0", lspManager.getLspInstallationForLaunch().getVersion());
+
+        lspManager.onLspStateChanged(AmazonQLspState.FAILED);
+        var state = LspUpdateState.load(tempDir);
+        assertEquals("1.0.0", state.activeVersion());
+        assertEquals(Set.of("1.1.0"), state.failedVersions().keySet());
+
+        when(mocklspFetcher.fetchInstalled(any(), any(), eq(tempDir), any())).thenReturn(Optional.of(installedVersion));
+        assertEquals("1.0.0", lspManager.getLspInstallationForLaunch().getVersion());
+    }
+
+    @Test
+    void testUpdateIsNotStagedBeforeActiveVersionStarted() throws IOException {
+        initStagedLspManager();
+        when(mocklspFetcher.fetchInstalled(any(), any(), eq(tempDir), any())).thenReturn(Optional.of(createInstalledVersion("1.0.0")));
+        lspManager.getLspInstallation();
+
+        lspManager.stageUpdate();
+
+        verify(lspManager, never()).fetchManifest();
+        assertNull(LspUpdateState.load(tempDir).stagedVersion());
+    }
+
+    @Test
+    void testUpdateIsNotStagedWhileAStagedVersionIsPending() throws IOException {
+        initStagedLspManager();
+        when(mocklspFetcher.fetchInstalled(any(), any(), eq(tempDir), any())).thenReturn(Optional.of(createInstalledVersion("1.0.0")));
+        lspManager.getLspInstallation();
+        lspManager.onLspStateChanged(AmazonQLspState.ACTIVE);
+        doReturn(mockManifest).when(lspManager).fetchManifest();
+        when(mocklspFetcher.fetch(any(), any(), eq(tempDir), any())).thenReturn(createInstalledVersion("1.1.0"));
+        lspManager.stageUpdate();
+
+        lspManager.stageUpdate();
+
+        verify(lspManager, times(1)).fetchManifest();
+        assertEquals("1.1.0", LspUpdateState.load(tempDir).stagedVersion());
+    }
+
+    @Test
+    void testCleanupRetainsVersionsTheUpdateStateMayLaunch() throws IOException {
+        initStagedLspManager();
+        new LspUpdateState("1.1.0", false, 1, "1.0.0", null, Map.of()).save(tempDir);
+        doReturn(mockManifest).when(lspManager).fetchManifest();
+        when(mocklspFetcher.fetchInstalled(any(), any(), eq(tempDir), any())).thenReturn(Optional.empty());
+        when(mocklspFetcher.fetch(any(), any(), eq(tempDir), any())).thenReturn(createInstalledVersion("1.2.0"));
+
+        lspManager.getLspInstallation();
+
+        verify(mocklspFetcher, timeout(5000)).cleanup(tempDir, Set.of("1.0.0", "1.1.0", "1.2.0"));
+    }
+
+    private void initStagedLspManager() {
+        lspManager = spy(DefaultLspManager.builder().withDirectory(tempDir).withManifestUrl("testManifestUrl")
+                .withLspExecutablePrefix("lspArgsFile").withPlatformOverride(PluginPlatform.MAC)
+                .withArchitectureOverride(PluginArchitecture.ARM_64).withStagedUpdates(true).build());
+        doReturn(Optional.of(mockManifest)).when(lspManager).fetchCachedManifest();
+        doReturn(mocklspFetcher).when(lspManager).createLspFetcher(mockManifest);
+        doNothing().when(lspManager).scheduleStagingJob();
+    }
+
+    private LspFetchResult createInstalledVersion(final String version) throws IOException {
+        Path versionDir = serverDir.resolve(version);
+        Path lspServerSubDir = versionDir.resolve(LspConstants.LSP_SERVER_FOLDER);
+        Files.createDirectories(lspServerSubDir);
+        Files.createFile(lspServerSubDir.resolve("lspArgsFile"));
+        Files.createFile(lspServerSubDir.resolve("node"));
+        return new LspFetchResult(versionDir.toString(), version, LanguageServerLocation.CACHE);
+    }
+
     private LspFetchResult setUpFetchingTools() {
         doReturn(mockManifest).when(lspManager).fetchManifest();
         doReturn(mocklspFetcher).when(lspManager).createLspFetcher(mockManifest);
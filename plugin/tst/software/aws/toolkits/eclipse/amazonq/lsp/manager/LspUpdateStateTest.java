@@ -0,0 +1,119 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
+
+public final class LspUpdateStateTest {
+
+    @RegisterExtension
+    private static ActivatorStaticMockExtension activatorStaticMockExtension = new ActivatorStaticMockExtension();
+
+    private static final long NOW = 1_000_000L;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testStateIsPersisted() throws IOException {
+        var state = new LspUpdateState("1.1.0", true, 0, null, "1.2.0", Map.of("1.0.5", 1000L));
+
+        state.save(tempDir);
+
+        assertEquals(state, LspUpdateState.load(tempDir));
+    }
+
+    @Test
+    void testMissingOrCorruptStateIsEmpty() throws IOException {
+        assertEquals(LspUpdateState.EMPTY, LspUpdateState.load(tempDir));
+
+        Files.writeString(tempDir.resolve(LspUpdateState.FILENAME), "{not json");
+
+        assertEquals(LspUpdateState.EMPTY, LspUpdateState.load(tempDir));
+    }
+
+    @Test
+    void testStagedVersionIsPromotedAndConfirmed() {
+        var state = LspUpdateState.EMPTY.launched("1.1.0").confirmed().withStagedVersion("1.2.0");
+
+        var launched = state.beforeLaunch(NOW).launched("1.2.0");
+
+        assertEquals("1.2.0", launched.activeVersion());
+        assertEquals("1.1.0", launched.previousVersion());
+        assertFalse(launched.isActiveConfirmed());
+        assertNull(launched.stagedVersion());
+
+        var confirmed = launched.confirmed();
+        assertTrue(confirmed.isActiveConfirmed());
+        assertNull(confirmed.previousVersion());
+    }
+
+    @Test
+    void testFailedLaunchRollsBackToPreviousVersion() {
+        var launched = LspUpdateState.EMPTY.launched("1.1.0").confirmed().withStagedVersion("1.2.0").beforeLaunch(NOW).launched("1.2.0");
+
+        var rolledBack = launched.rollBack(NOW);
+
+        assertEquals("1.1.0", rolledBack.activeVersion());
+        assertTrue(rolledBack.isActiveConfirmed());
+        assertEquals(Map.of("1.2.0", NOW), rolledBack.failedVersions());
+        assertEquals(rolledBack, rolledBack.rollBack(NOW));
+    }
+
+    @Test
+    void testVersionThatNeverStartsIsRolledBackOnNextLaunch() {
+        var state = LspUpdateState.EMPTY.launched("1.1.0").confirmed().withStagedVersion("1.2.0").beforeLaunch(NOW).launched("1.2.0");
+
+        state = state.beforeLaunch(NOW).launched("1.2.0");
+        assertEquals("1.2.0", state.activeVersion());
+
+        state = state.beforeLaunch(NOW);
+        assertEquals("1.1.0", state.activeVersion());
+        assertEquals(Set.of("1.2.0"), state.failedVersions().keySet());
+    }
+
+    @Test
+    void testFailedVersionIsNotPromoted() {
+        var state = new LspUpdateState("1.1.0", true, 0, null, "1.2.0", Map.of("1.2.0", NOW));
+
+        var prepared = state.beforeLaunch(NOW);
+
+        assertEquals("1.1.0", prepared.activeVersion());
+        assertNull(prepared.stagedVersion());
+    }
+
+    @Test
+    void testFailedVersionIsPromotedAgainOnceTheFailureExpired() {
+        var state = new LspUpdateState("1.1.0", true, 0, null, "1.2.0", Map.of("1.2.0", NOW, "1.0.5", NOW + 1));
+
+        var prepared = state.beforeLaunch(NOW + LspUpdateState.FAILED_VERSION_EXPIRY_MS);
+
+        assertEquals("1.2.0", prepared.activeVersion());
+        assertEquals("1.1.0", prepared.previousVersion());
+        assertEquals(Set.of("1.0.5"), prepared.failedVersions().keySet());
+    }
+
+    @Test
+    void testFirstInstallationCannotBeRolledBack() {
+        var state = LspUpdateState.EMPTY.launched("1.1.0");
+
+        assertEquals(state, state.rollBack(NOW));
+    }
+
+}
@@ -0,0 +1,94 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.manager.model.Content;
+
+public final class ArtifactStampTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private Path versionDir;
+    private List<Content> contents;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        versionDir = tempDir.resolve("1.0.0");
+        Files.createDirectories(versionDir);
+        Path zip = versionDir.resolve("servers.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            for (String name : List.of("server.js", "lib/a.js", "lib/b.js")) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(name.getBytes());
+                out.closeEntry();
+            }
+        }
+        ArtifactUtils.extractFile(zip, versionDir.resolve("servers"));
+        Path runtime = versionDir.resolve("node");
+        Files.writeString(runtime, "runtime");
+        contents = List.of(content(zip), content(runtime));
+    }
+
+    @Test
+    void testStampIsValidUntilContentsChange() throws IOException {
+        assertFalse(ArtifactStamp.isValid(versionDir, contents));
+
+        ArtifactStamp.write(versionDir, contents);
+        assertTrue(ArtifactStamp.isValid(versionDir, contents));
+
+        Files.writeString(versionDir.resolve("node"), "runtime!");
+        assertFalse(ArtifactStamp.isValid(versionDir, contents));
+    }
+
+    @Test
+    void testModificationTimeChangeInvalidatesStamp() throws IOException {
+        ArtifactStamp.write(versionDir, contents);
+        Path runtime = versionDir.resolve("node");
+        Files.setLastModifiedTime(runtime, FileTime.fromMillis(Files.getLastModifiedTime(runtime).toMillis() - 10_000));
+
+        assertFalse(ArtifactStamp.isValid(versionDir, contents));
+    }
+
+    @Test
+    void testManifestHashChangeInvalidatesStamp() throws IOException {
+        ArtifactStamp.write(versionDir, contents);
+        List<Content> updated = List.of(contents.get(0),
+                new Content("node", "https://example.com/node", List.of("sha384:other"), contents.get(1).bytes()));
+
+        assertFalse(ArtifactStamp.isValid(versionDir, updated));
+    }
+
+    @Test
+    void testEditedStampFailsChecksum() throws IOException {
+        ArtifactStamp.write(versionDir, contents);
+        Path stampFile = versionDir.resolve(ArtifactStamp.STAMP_FILENAME);
+        long size = Files.size(versionDir.resolve("node"));
+        Files.writeString(stampFile, Files.readString(stampFile).replace("\"size\":" + size, "\"size\":" + (size + 1)));
+        Files.writeString(versionDir.resolve("node"), "runtime!");
+
+        assertFalse(ArtifactStamp.isValid(versionDir, contents));
+    }
+
+    private static Content content(final Path file) throws IOException {
+        return new Content(file.getFileName().toString(), "https://example.com/" + file.getFileName(),
+                List.of("sha384:" + ArtifactUtils.calculateHash(file)), (int) Files.size(file));
+    }
+
+}
@@ -12,10 +12,12 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.http.HttpClient;
 import java.net.http.HttpHeaders;
@@ -27,11 +29,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
@@ -200,12 +204,29 @@ public final class RemoteLspFetcherTest {
         assertTrue(zipContentsMatchUnzipped(zipPath, unzippedPath));
     }
 
+    @Test
+    void fetchWhenStampedCacheExistsForZipWithMissingFile() throws IOException {
+        var zipPath = Paths.get(tempDir.toString(), sampleVersion, "servers.zip");
+        var unzippedPath = Paths.get(tempDir.toString(), sampleVersion, "servers");
+        setupZipTargetContent(zipPath, sampleLspVersion);
+        lspFetcher.fetch(PluginPlatform.MAC, PluginArchitecture.ARM_64, tempDir, Instant.now());
+        assertTrue(ArtifactStamp.isValid(zipPath.getParent(), sampleLspVersion.targets().get(0).contents()));
+
+        var fileToBeDeleted = Files.list(unzippedPath).findFirst().get();
+        ArtifactUtils.deleteFile(fileToBeDeleted);
+
+        var result = lspFetcher.fetch(PluginPlatform.MAC, PluginArchitecture.ARM_64, tempDir, Instant.now());
+
+        assertInstallResult(result, LanguageServerLocation.CACHE, sampleVersion);
+        assertTrue(zipContentsMatchUnzipped(zipPath, unzippedPath));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"sha384:1234", "md5:678", "abc", ""})
     void fetchWhenHashesDoNotMatch(final String hash) throws IOException, InterruptedException {
         setupFileTargetContent("foo.txt", sampleLspVersion, hash);
 
-        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<Path>>any()))
+        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<InputStream>>any()))
                 .thenThrow(new IOException("Simulated network error"));
 
         var exception = assertThrows(AmazonQPluginException.class, () -> {
@@ -222,7 +243,7 @@ public final class RemoteLspFetcherTest {
         setupZipTargetContent(zipPath, sampleLspVersion);
 
         var mockResponse = createMockHttpResponse(zipPath, HttpURLConnection.HTTP_OK);
-        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<Path>>any()))
+        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<InputStream>>any()))
                 .thenReturn(mockResponse);
 
         lspFetcher = createFetcher();
@@ -240,7 +261,7 @@ public final class RemoteLspFetcherTest {
         setupZipTargetContent(zipPath, sampleLspVersion);
 
         var mockResponse = createMockHttpResponse(zipPath, HttpURLConnection.HTTP_BAD_REQUEST);
-        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<Path>>any()))
+        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<InputStream>>any()))
                 .thenReturn(mockResponse);
 
         lspFetcher = createFetcher();
@@ -271,7 +292,7 @@ public final class RemoteLspFetcherTest {
         sampleManifest = createManifest(List.of(sampleLspVersion, testFallbackSampleLspVersion));
 
         var mockResponse = createMockHttpResponse(remoteZipPath, HttpURLConnection.HTTP_BAD_REQUEST);
-        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<Path>>any()))
+        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<InputStream>>any()))
                 .thenReturn(mockResponse);
 
         lspFetcher = createFetcher();
@@ -295,7 +316,7 @@ public final class RemoteLspFetcherTest {
         setupZipTargetContent(zipPath, secondAdditionalLspVersion);
 
         var mockResponse = createMockHttpResponse(zipPath, HttpURLConnection.HTTP_OK);
-        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<Path>>any()))
+        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<InputStream>>any()))
                 .thenReturn(mockResponse);
 
         lspFetcher = createFetcher();
@@ -327,7 +348,7 @@ public final class RemoteLspFetcherTest {
         setupZipTargetContent(zipPath, thirdAdditionalLspVersion);
 
         var mockResponse = createMockHttpResponse(zipPath, HttpURLConnection.HTTP_OK);
-        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<Path>>any()))
+        when(httpClient.send(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<InputStream>>any()))
                 .thenReturn(mockResponse);
 
         lspFetcher = createFetcher();
@@ -341,6 +362,31 @@ public final class RemoteLspFetcherTest {
         assertTrue(zipContentsMatchUnzipped(zipPath, unzippedPath));
     }
 
+    @Test
+    void fetchInstalledReturnsNewestValidVersionThatIsNotExcluded() throws IOException {
+        var olderLspVersion = createLspVersion("1.6.0");
+        var excludedLspVersion = createLspVersion("1.8.0");
+        var notInstalledLspVersion = createLspVersion("1.9.0");
+        setupZipTargetContent(tempDir.resolve("1.6.0").resolve("servers.zip"), olderLspVersion);
+        setupZipTargetContent(tempDir.resolve(sampleVersion).resolve("servers.zip"), sampleLspVersion);
+        setupZipTargetContent(tempDir.resolve("1.8.0").resolve("servers.zip"), excludedLspVersion);
+        sampleManifest = createManifest(List.of(olderLspVersion, sampleLspVersion, excludedLspVersion, notInstalledLspVersion));
+        lspFetcher = new RemoteLspFetcher.Builder().withManifest(sampleManifest).withVersionRange(versionRange)
+                .withExcludedVersions(List.of("1.8.0")).withHttpClient(httpClient).build();
+
+        var result = lspFetcher.fetchInstalled(PluginPlatform.MAC, PluginArchitecture.ARM_64, tempDir, Instant.now());
+
+        assertInstallResult(result.get(), LanguageServerLocation.CACHE, sampleVersion);
+        verifyNoInteractions(httpClient);
+    }
+
+    @Test
+    void fetchInstalledIsEmptyWhenNoVersionIsInstalled() {
+        var result = lspFetcher.fetchInstalled(PluginPlatform.MAC, PluginArchitecture.ARM_64, tempDir, Instant.now());
+
+        assertTrue(result.isEmpty());
+    }
+
     @Test
     void testCleanup() throws IOException {
 
@@ -373,7 +419,7 @@ public final class RemoteLspFetcherTest {
         assertTrue(Files.exists(delistedVersion2));
 
         lspFetcher = createFetcher();
-        lspFetcher.cleanup(tempDir);
+        lspFetcher.cleanup(tempDir, Set.of());
 
         //verify compatible versions still exist
         assertTrue(Files.exists(acceptedVersion1));
@@ -389,23 +435,44 @@ public final class RemoteLspFetcherTest {
         verify(mockLogger).info("Cleaning up 1 cached extra versions for Amazon Q Language Server");
     }
 
+    @Test
+    void testCleanupKeepsRetainedVersions() throws IOException {
+        String sampleLspVersionV2 = String.format("%s.1.0", majorVersion);
+        String sampleLspVersionV3 = String.format("%s.2.0", majorVersion);
+        sampleManifest = createManifest(List.of(sampleLspVersion, createLspVersion(sampleLspVersionV2), createLspVersion(sampleLspVersionV3)));
+        Path newestVersion = Files.createDirectory(tempDir.resolve("1.7.0"));
+        Path newerVersion = Files.createDirectory(tempDir.resolve("1.2.0"));
+        Path runningVersion = Files.createDirectory(tempDir.resolve("1.1.0"));
+        Path rollbackVersion = Files.createDirectory(tempDir.resolve("1.0.0"));
+        Path extraVersion = Files.createDirectory(tempDir.resolve("1.0.5"));
+
+        lspFetcher = createFetcher();
+        lspFetcher.cleanup(tempDir, Set.of("1.1.0", "1.0.0"));
+
+        assertTrue(Files.exists(newestVersion));
+        assertTrue(Files.exists(newerVersion));
+        assertTrue(Files.exists(runningVersion));
+        assertTrue(Files.exists(rollbackVersion));
+        assertFalse(Files.exists(extraVersion));
+    }
+
     @Test
     void testCleanupNullManifest() throws IOException {
         sampleManifest = null;
         Path delistedVersion1 = Files.createDirectory(tempDir.resolve("1.0.0"));
         lspFetcher = createFetcher();
-        lspFetcher.cleanup(tempDir);
+        lspFetcher.cleanup(tempDir, Set.of());
 
         assertTrue(Files.exists(tempDir));
         assertTrue(Files.exists(delistedVersion1));
     }
 
-    private HttpResponse<Path> createMockHttpResponse(final Path file, final int statusCode) {
+    private HttpResponse<InputStream> createMockHttpResponse(final Path file, final int statusCode) {
         @SuppressWarnings("unchecked")
-        HttpResponse<Path> response = mock(HttpResponse.class);
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
 
         when(response.statusCode()).thenReturn(statusCode);
-        when(response.body()).thenReturn(file);
+        when(response.body()).thenAnswer(invocation -> Files.newInputStream(file));
         when(response.headers()).thenReturn(HttpHeaders.of(new HashMap<>(), (x, y) -> true));
         when(response.previousResponse()).thenReturn(Optional.empty());
         when(response.sslSession()).thenReturn(Optional.empty());
@@ -524,6 +591,6 @@ public final class RemoteLspFetcherTest {
 
     private LspFetcher createFetcher() {
         return new RemoteLspFetcher.Builder().withManifest(sampleManifest).withVersionRange(versionRange)
-                .withHttpClient(httpClient).build();
+                .withDownloader(new ResumableDownloader(httpClient, 2, Duration.ZERO, Duration.ofSeconds(5))).build();
     }
 }
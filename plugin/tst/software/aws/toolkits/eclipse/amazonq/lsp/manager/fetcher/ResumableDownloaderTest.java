@@ -0,0 +1,250 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public final class ResumableDownloaderTest {
+
+    private static final int ARTIFACT_SIZE = 512 * 1024;
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(500);
+
+    @TempDir
+    private Path tempDir;
+
+    private HttpServer server;
+    private URI uri;
+    private Path partialFile;
+    private byte[] artifact;
+    private String etag;
+
+    /* Requests received by the server, as "<Range header>|<If-Range header>". */
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresToInject = new AtomicInteger();
+    private volatile int failureStatus;
+    private volatile int dropAfterBytes = -1;
+    private volatile int throttleChunkBytes = -1;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        artifact = randomBytes(ARTIFACT_SIZE, 1);
+        etag = "\"v1\"";
+        partialFile = tempDir.resolve("partial").resolve("servers.zip.part");
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/servers.zip", this::serve);
+        server.start();
+        uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/servers.zip");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testDownloadVerifiesChecksumWhileStreaming() throws Exception {
+        RecordingMonitor monitor = new RecordingMonitor();
+
+        assertTrue(createDownloader(3).download(uri, partialFile, sha384(artifact), monitor));
+
+        assertArrayEquals(artifact, Files.readAllBytes(partialFile));
+        assertEquals(List.of("null|null"), requests);
+        assertEquals(ARTIFACT_SIZE / 1024, monitor.totalWork);
+        assertEquals(ARTIFACT_SIZE / 1024, monitor.worked.get());
+    }
+
+    @Test
+    void testDroppedConnectionIsResumedWithRangeRequest() throws Exception {
+        dropAfterBytes = 200 * 1024;
+        failuresToInject.set(1);
+
+        assertTrue(createDownloader(3).download(uri, partialFile, sha384(artifact), null));
+
+        assertArrayEquals(artifact, Files.readAllBytes(partialFile));
+        assertEquals(2, requests.size());
+        assertTrue(requests.get(1).matches("bytes=\\d+-\\|\"v1\""), requests.get(1));
+        assertTrue(Long.parseLong(requests.get(1).replaceAll("bytes=(\\d+)-.*", "$1")) > 0);
+    }
+
+    @Test
+    void testPartialFileFromEarlierRunIsResumed() throws Exception {
+        Files.createDirectories(partialFile.getParent());
+        Files.write(partialFile, Arrays.copyOf(artifact, 1000));
+        Files.writeString(partialFile.resolveSibling("servers.zip.part" + ResumableDownloader.VALIDATOR_SUFFIX), etag);
+
+        assertTrue(createDownloader(1).download(uri, partialFile, sha384(artifact), null));
+
+        assertArrayEquals(artifact, Files.readAllBytes(partialFile));
+        assertEquals(List.of("bytes=1000-|\"v1\""), requests);
+    }
+
+    @Test
+    void testChangedArtifactIsDownloadedFromScratch() throws Exception {
+        Files.createDirectories(partialFile.getParent());
+        Files.write(partialFile, Arrays.copyOf(artifact, 1000));
+        Files.writeString(partialFile.resolveSibling("servers.zip.part" + ResumableDownloader.VALIDATOR_SUFFIX), etag);
+        artifact = randomBytes(ARTIFACT_SIZE, 2);
+        etag = "\"v2\"";
+
+        assertTrue(createDownloader(1).download(uri, partialFile, sha384(artifact), null));
+
+        assertArrayEquals(artifact, Files.readAllBytes(partialFile));
+        assertEquals(List.of("bytes=1000-|\"v1\""), requests);
+    }
+
+    @Test
+    void testServerErrorsAreRetriedAndClientErrorsAreNot() throws Exception {
+        failureStatus = 503;
+        failuresToInject.set(2);
+        assertTrue(createDownloader(3).download(uri, partialFile, sha384(artifact), null));
+        assertEquals(3, requests.size());
+
+        requests.clear();
+        Files.delete(partialFile);
+        failureStatus = 404;
+        failuresToInject.set(5);
+        var exception = assertThrows(ResumableDownloader.HttpStatusException.class,
+                () -> createDownloader(3).download(uri, partialFile, sha384(artifact), null));
+        assertEquals(404, exception.getStatusCode());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void testChecksumMismatchDeletesPartialFile() throws Exception {
+        assertFalse(createDownloader(3).download(uri, partialFile, sha384(new byte[] {1}), null));
+
+        assertFalse(Files.exists(partialFile));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void testThrottledTransferReportsProgressAndCompletes() throws Exception {
+        throttleChunkBytes = 16 * 1024;
+        dropAfterBytes = 300 * 1024;
+        failuresToInject.set(1);
+        RecordingMonitor monitor = new RecordingMonitor();
+
+        assertTrue(createDownloader(3).download(uri, partialFile, sha384(artifact), monitor));
+
+        assertArrayEquals(artifact, Files.readAllBytes(partialFile));
+        assertTrue(monitor.workedCalls.get() > 2, "progress reported " + monitor.workedCalls.get() + " times");
+        assertEquals(ARTIFACT_SIZE / 1024, monitor.worked.get());
+    }
+
+    @Test
+    void testBackoffGrowsExponentiallyUpToTheCap() {
+        var downloader = new ResumableDownloader(HttpClient.newHttpClient(), 5, Duration.ofMillis(500), Duration.ofSeconds(1));
+
+        assertEquals(Duration.ofMillis(500), downloader.getBackoff(1));
+        assertEquals(Duration.ofMillis(1000), downloader.getBackoff(2));
+        assertEquals(Duration.ofMillis(2000), downloader.getBackoff(3));
+        assertEquals(ResumableDownloader.MAX_BACKOFF, downloader.getBackoff(10));
+    }
+
+    private ResumableDownloader createDownloader(final int maxAttempts) {
+        return new ResumableDownloader(HttpClient.newHttpClient(), maxAttempts, Duration.ZERO, READ_TIMEOUT);
+    }
+
+    /*
+     * Serves the artifact with Range and If-Range support. Injected failures
+     * either answer with failureStatus or stop sending after dropAfterBytes
+     * bytes of the body, which the downloader notices through its read timeout.
+     */
+    private void serve(final HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        requests.add(range + "|" + ifRange);
+        boolean injectFailure = failuresToInject.getAndUpdate(count -> Math.max(0, count - 1)) > 0;
+        if (injectFailure && dropAfterBytes < 0) {
+            exchange.sendResponseHeaders(failureStatus, -1);
+            exchange.close();
+            return;
+        }
+
+        int start = 0;
+        exchange.getResponseHeaders().add("ETag", etag);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            start = Integer.parseInt(range.replaceAll("bytes=(\\d+)-", "$1"));
+            exchange.getResponseHeaders().add("Content-Range",
+                    String.format("bytes %d-%d/%d", start, artifact.length - 1, artifact.length));
+            exchange.sendResponseHeaders(206, artifact.length - start);
+        } else {
+            exchange.sendResponseHeaders(200, artifact.length);
+        }
+
+        int end = injectFailure ? Math.min(artifact.length, start + dropAfterBytes) : artifact.length;
+        int chunk = throttleChunkBytes > 0 ? throttleChunkBytes : end - start;
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int offset = start; offset < end; offset += chunk) {
+                out.write(artifact, offset, Math.min(chunk, end - offset));
+                out.flush();
+                if (throttleChunkBytes > 0) {
+                    Thread.sleep(2);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // the client gave up on the stalled response
+        }
+    }
+
+    private static byte[] randomBytes(final int size, final long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String sha384(final byte[] bytes) {
+        return DigestUtils.sha384Hex(bytes);
+    }
+
+    private static final class RecordingMonitor extends NullProgressMonitor {
+        private final AtomicInteger worked = new AtomicInteger();
+        private final AtomicInteger workedCalls = new AtomicInteger();
+        private int totalWork;
+
+        @Override
+        public void beginTask(final String name, final int work) {
+            totalWork = work;
+        }
+
+        @Override
+        public void worked(final int work) {
+            worked.addAndGet(work);
+            workedCalls.incrementAndGet();
+        }
+    }
+
+}
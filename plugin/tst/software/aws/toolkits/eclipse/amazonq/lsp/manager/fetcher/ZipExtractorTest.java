@@ -0,0 +1,170 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.manager.fetcher;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class ZipExtractorTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testExtractWritesEveryFileWithoutPartFiles() throws IOException {
+        Path zip = createZip(tempDir.resolve("servers.zip"), 20, 100);
+        Path destination = tempDir.resolve("servers");
+
+        ZipExtractor.extract(zip, destination);
+
+        assertZipMatchesFolder(zip, destination);
+        try (Stream<Path> paths = Files.walk(destination)) {
+            assertFalse(paths.anyMatch(path -> path.toString().endsWith(".part")));
+        }
+    }
+
+    @Test
+    void testRepairRestoresMissingAndTruncatedFiles() throws IOException {
+        Path zip = createZip(tempDir.resolve("servers.zip"), 20, 100);
+        Path destination = tempDir.resolve("servers");
+        ZipExtractor.extract(zip, destination);
+        assertEquals(0, ZipExtractor.repair(zip, destination));
+
+        Files.delete(destination.resolve("dir1/file1.js"));
+        Files.writeString(destination.resolve("dir2/file2.js"), "x");
+
+        assertEquals(2, ZipExtractor.repair(zip, destination));
+        assertZipMatchesFolder(zip, destination);
+    }
+
+    @Test
+    void testRepairOfPartialFolderKeepsIntactFilesAndIsStable() throws IOException {
+        Path zip = createZip(tempDir.resolve("servers.zip"), 10, 100);
+        Path destination = tempDir.resolve("servers");
+        ZipExtractor.extract(zip, destination);
+        Path intact = destination.resolve("dir0/file0.js");
+        long intactModified = Files.getLastModifiedTime(intact).toMillis();
+        try (Stream<Path> paths = Files.walk(destination)) {
+            for (Path path : paths.filter(Files::isRegularFile).filter(path -> !path.equals(intact)).toList()) {
+                Files.delete(path);
+            }
+        }
+
+        assertEquals(9, ZipExtractor.repair(zip, destination));
+        assertEquals(intactModified, Files.getLastModifiedTime(intact).toMillis());
+        assertEquals(0, ZipExtractor.repair(zip, destination));
+        assertZipMatchesFolder(zip, destination);
+    }
+
+    @Test
+    void testExtractWritesManifestForTheZip() throws IOException {
+        Path zip = createZip(tempDir.resolve("servers.zip"), 20, 100);
+        Path destination = tempDir.resolve("servers");
+
+        ZipExtractor.extract(zip, destination);
+
+        var manifest = ZipExtractor.readManifest(zip, destination);
+        assertNotNull(manifest);
+        assertEquals(Files.size(zip), manifest.zipSize());
+        assertEquals(20, manifest.files().size());
+        assertEquals(new ZipExtractor.ExtractedFile("dir3/file3.js", 100), manifest.files().get(3));
+    }
+
+    @Test
+    void testRepairWithoutManifestScansZipAndWritesManifest() throws IOException {
+        Path zip = createZip(tempDir.resolve("servers.zip"), 20, 100);
+        Path destination = tempDir.resolve("servers");
+        ZipExtractor.extract(zip, destination);
+        Files.delete(ZipExtractor.getManifestPath(destination));
+        Files.delete(destination.resolve("dir4/file4.js"));
+
+        assertEquals(1, ZipExtractor.repair(zip, destination));
+        assertNotNull(ZipExtractor.readManifest(zip, destination));
+        assertZipMatchesFolder(zip, destination);
+    }
+
+    @Test
+    void testManifestIsIgnoredWhenZipChanges() throws IOException {
+        Path zip = createZip(tempDir.resolve("servers.zip"), 20, 100);
+        Path destination = tempDir.resolve("servers");
+        ZipExtractor.extract(zip, destination);
+
+        Files.setLastModifiedTime(zip, FileTime.fromMillis(Files.getLastModifiedTime(zip).toMillis() + 1000));
+
+        assertNull(ZipExtractor.readManifest(zip, destination));
+        Files.delete(destination.resolve("dir5/file5.js"));
+        assertEquals(1, ZipExtractor.repair(zip, destination));
+        assertNotNull(ZipExtractor.readManifest(zip, destination));
+    }
+
+    @Test
+    void testEntriesOutsideOfDestinationAreRejected() throws IOException {
+        Path zip = tempDir.resolve("evil.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("../escaped.txt"));
+            out.write(1);
+            out.closeEntry();
+        }
+
+        assertThrows(IOException.class, () -> ZipExtractor.extract(zip, tempDir.resolve("evil")));
+        assertFalse(Files.exists(tempDir.resolve("escaped.txt")));
+    }
+
+    @Test
+    void testBundleSizedArchiveIsExtractedCompletely() throws IOException {
+        Path zip = createZip(tempDir.resolve("servers.zip"), 2000, 16 * 1024);
+        Path destination = tempDir.resolve("servers");
+
+        ZipExtractor.extract(zip, destination);
+
+        assertZipMatchesFolder(zip, destination);
+    }
+
+    private static Path createZip(final Path zip, final int fileCount, final int fileSize) throws IOException {
+        Random random = new Random(fileCount);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            for (int i = 0; i < fileCount; i++) {
+                byte[] data = new byte[fileSize];
+                random.nextBytes(data);
+                out.putNextEntry(new ZipEntry("dir" + (i % 10) + "/file" + i + ".js"));
+                out.write(data);
+                out.closeEntry();
+            }
+        }
+        return zip;
+    }
+
+    private static void assertZipMatchesFolder(final Path zipPath, final Path folder) throws IOException {
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            for (ZipEntry entry : zip.stream().toList()) {
+                assertArrayEquals(zip.getInputStream(entry).readAllBytes(), Files.readAllBytes(folder.resolve(entry.getName())),
+                        entry.getName());
+            }
+            try (Stream<Path> paths = Files.walk(folder)) {
+                assertEquals(zip.size(), paths.filter(Files::isRegularFile).count());
+            }
+            try (Stream<Path> paths = Files.walk(folder)) {
+                assertFalse(paths.anyMatch(path -> path.toString().endsWith(".part")));
+            }
+        }
+    }
+
+}
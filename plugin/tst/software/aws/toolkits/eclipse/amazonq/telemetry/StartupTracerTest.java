@@ -0,0 +1,120 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
+
+public final class StartupTracerTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private final List<String> logMessages = new ArrayList<>();
+    private StartupTracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        tracer = new StartupTracer(() -> tempDir, logMessages::add);
+    }
+
+    @Test
+    void testTimelineIsExportedAsChromeTraceOnceStartupCompletes() throws Exception {
+        try (var phase = tracer.begin("Activator.<init>")) {
+            Thread.sleep(5);
+        }
+        tracer.begin("language server initialize");
+        CompletableFuture.runAsync(() -> tracer.end("language server initialize")).get();
+        tracer.mark(StartupTracer.SERVER_INITIALIZED);
+        assertTrue(logMessages.isEmpty());
+
+        tracer.mark(StartupTracer.CHAT_READY);
+
+        JsonNode trace = ObjectMapperFactory.getInstance().readTree(getTraceFiles().get(0).toFile());
+        JsonNode events = trace.get("traceEvents");
+        JsonNode activation = findEvent(events, "Activator.<init>");
+        assertEquals("X", activation.get("ph").asText());
+        assertTrue(activation.get("dur").asLong() >= 5_000);
+        assertTrue(activation.get("ts").asLong() > 0);
+        assertEquals("X", findEvent(events, "language server initialize").get("ph").asText());
+        assertEquals("i", findEvent(events, StartupTracer.CHAT_READY).get("ph").asText());
+        assertEquals("thread_name", findEvent(events, "thread_name").get("name").asText());
+
+        assertEquals(1, logMessages.size());
+        assertTrue(logMessages.get(0).startsWith("Amazon Q startup timeline"), logMessages.get(0));
+        assertTrue(logMessages.get(0).contains("Activator.<init>"));
+    }
+
+    @Test
+    void testFinishRecordsOpenPhasesAndStopsRecording() throws IOException {
+        tracer.begin("auth reAuthenticate");
+
+        tracer.finish();
+        tracer.finish();
+        try (var phase = tracer.begin("language server process spawn")) {
+            tracer.mark(StartupTracer.CHAT_READY);
+        }
+
+        assertEquals(List.of("auth reAuthenticate (unfinished)"), tracer.getEvents().stream().map(StartupTracer.Event::name).toList());
+        assertEquals(1, getTraceFiles().size());
+        assertEquals(1, logMessages.size());
+    }
+
+    @Test
+    void testOnlyNewestTraceFilesAreKept() throws IOException {
+        for (int i = 0; i < StartupTracer.MAX_TRACE_FILES + 2; i++) {
+            Files.writeString(tempDir.resolve(String.format("startup-20240101-0000%02d.json", i)), "{}");
+        }
+
+        tracer.finish();
+
+        List<Path> traceFiles = getTraceFiles();
+        assertEquals(StartupTracer.MAX_TRACE_FILES, traceFiles.size());
+        assertTrue(traceFiles.stream().noneMatch(file -> file.getFileName().toString().equals("startup-20240101-000000.json")));
+    }
+
+    @Test
+    void testSummaryListsEventsInStartOrder() {
+        var summary = StartupTracer.formatSummary(List.of(
+                new StartupTracer.Event("manifest fetch", 1_500_000, 250_000, 1, "Worker-1"),
+                new StartupTracer.Event(StartupTracer.CHAT_READY, 4_000_000, -1, 2, "main")), null);
+
+        var lines = summary.split("\\R");
+        assertEquals("Amazon Q startup timeline, 4.0 s after JVM start", lines[0]);
+        assertTrue(lines[1].matches("\\s+1\\.500 s\\s+250 ms  manifest fetch \\[Worker-1\\]"), lines[1]);
+        assertTrue(lines[2].matches("\\s+4\\.000 s\\s+chat webview ready \\[main\\]"), lines[2]);
+    }
+
+    private List<Path> getTraceFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("startup-")).sorted().toList();
+        }
+    }
+
+    private static JsonNode findEvent(final JsonNode events, final String name) {
+        for (JsonNode event : events) {
+            if (event.get("name").asText().equals(name)) {
+                return event;
+            }
+        }
+        throw new AssertionError("No trace event named " + name);
+    }
+
+}
@@ -0,0 +1,196 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.AmazonQLspServer;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionContext;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionParams;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionTriggerKind;
+import software.aws.toolkits.eclipse.amazonq.util.InlineCompletionTriggerPipeline.DocumentVersion;
+
+/**
+ * Replays a recorded keystroke trace through InlineCompletionClient against a
+ * scripted fake of AmazonQLspServer, without an editor or a language server.
+ * The document is edited as the trace dictates, every keystroke goes through
+ * the same cache lookup, debounce, cancellation and stale response checks as in
+ * the IDE, and responses that would have been rendered are collected together
+ * with the document version they were rendered for.
+ */
+final class InlineCompletionReplayHarness {
+
+    static final String URI = "file:///project/Replay.java";
+
+    enum Action {
+        TYPE, DELETE, INVOKE
+    }
+
+    record TraceEvent(long atMs, Action action, String argument) {
+    }
+
+    record RenderedResponse(DocumentVersion version, InlineCompletionResponse response) {
+    }
+
+    private final InlineCompletionClient client;
+    private final Document document;
+    private final List<RenderedResponse> renderedResponses = new CopyOnWriteArrayList<>();
+    private int caretOffset;
+    private volatile DocumentVersion latestVersion;
+    private volatile String currentLinePrefix = "";
+
+    InlineCompletionReplayHarness(final InlineCompletionClient client, final String initialText) {
+        this.client = client;
+        this.document = new Document(initialText);
+        this.caretOffset = initialText.length();
+    }
+
+    /*
+     * Parses a trace resource, see inline-completion-trace.txt for the format.
+     */
+    static List<TraceEvent> loadTrace(final String resourceName) throws IOException {
+        try (InputStream stream = InlineCompletionReplayHarness.class.getClassLoader().getResourceAsStream(resourceName)) {
+            if (stream == null) {
+                throw new IllegalArgumentException("Resource not found: " + resourceName);
+            }
+            List<TraceEvent> events = new ArrayList<>();
+            for (String line : new String(stream.readAllBytes(), StandardCharsets.UTF_8).split("\\R")) {
+                String trimmed = line.strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = trimmed.split("\\s+", 3);
+                events.add(new TraceEvent(Long.parseLong(parts[0]), Action.valueOf(parts[1].toUpperCase()),
+                        parts.length > 2 ? parts[2] : ""));
+            }
+            return events;
+        }
+    }
+
+    /*
+     * Creates a fake server that answers every inline completion request after
+     * the given latency with the suggestion the script computes from the line
+     * prefix at the caret, as the server would see it after the last document
+     * change. The futures handed out are collected so tests can check which
+     * requests were cancelled.
+     */
+    AmazonQLspServer createScriptedServer(final long latencyMs, final Function<String, String> script,
+            final List<CompletableFuture<InlineCompletionResponse>> serverRequests) {
+        AmazonQLspServer server = mock(AmazonQLspServer.class);
+        when(server.inlineCompletionWithReferences(any())).thenAnswer(invocation -> {
+            String linePrefix = currentLinePrefix;
+            CompletableFuture<InlineCompletionResponse> request = new CompletableFuture<>();
+            serverRequests.add(request);
+            CompletableFuture.delayedExecutor(latencyMs, TimeUnit.MILLISECONDS)
+                    .execute(() -> request.complete(responseFor(script.apply(linePrefix))));
+            return request;
+        });
+        return server;
+    }
+
+    /*
+     * Replays the trace in real time and waits for the response to the last
+     * trigger to be rendered, or for the timeout to elapse.
+     */
+    List<RenderedResponse> replay(final List<TraceEvent> trace, final long timeoutMs) throws Exception {
+        long start = System.currentTimeMillis();
+        for (TraceEvent event : trace) {
+            long wait = start + event.atMs() - System.currentTimeMillis();
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+            switch (event.action()) {
+                case TYPE -> {
+                    for (char c : event.argument().toCharArray()) {
+                        document.replace(caretOffset, 0, String.valueOf(c));
+                        caretOffset++;
+                        trigger(InlineCompletionTriggerKind.Automatic);
+                    }
+                }
+                case DELETE -> {
+                    int count = Integer.parseInt(event.argument());
+                    document.replace(caretOffset - count, count, "");
+                    caretOffset -= count;
+                }
+                case INVOKE -> trigger(InlineCompletionTriggerKind.Invoke);
+                default -> throw new IllegalStateException("Unknown action " + event.action());
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!isLatestVersionRendered() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return renderedResponses;
+    }
+
+    DocumentVersion getLatestVersion() {
+        return latestVersion;
+    }
+
+    String getText() {
+        return document.get();
+    }
+
+    private void trigger(final InlineCompletionTriggerKind triggerKind) throws BadLocationException {
+        int line = document.getLineOfOffset(caretOffset);
+        var params = new InlineCompletionParams();
+        params.setTextDocument(new TextDocumentIdentifier(URI));
+        params.setPosition(new Position(line, caretOffset - document.getLineOffset(line)));
+        var context = new InlineCompletionContext();
+        context.setTriggerKind(triggerKind);
+        params.setContext(context);
+
+        currentLinePrefix = document.get(document.getLineOffset(line), caretOffset - document.getLineOffset(line));
+        DocumentVersion version = new DocumentVersion(URI, document.getModificationStamp());
+        latestVersion = version;
+        client.request(params, version, InlineSuggestionCache.keyFor(URI, document, caretOffset),
+                triggerKind == InlineCompletionTriggerKind.Automatic, (response, reportsSession) -> {
+                    long receivedAtNanos = System.nanoTime();
+                    if (client.claim(version)) {
+                        // record before publishing, replay returns as soon as the latest version is rendered
+                        client.recordUiApply(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedAtNanos));
+                        renderedResponses.add(new RenderedResponse(version, response));
+                    }
+                });
+    }
+
+    private boolean isLatestVersionRendered() {
+        return renderedResponses.stream().anyMatch(rendered -> rendered.version().equals(latestVersion));
+    }
+
+    private static InlineCompletionResponse responseFor(final String suggestion) {
+        InlineCompletionResponse response = new InlineCompletionResponse();
+        response.setSessionId("replay");
+        List<InlineCompletionItem> items = new ArrayList<>();
+        if (suggestion != null && !suggestion.isEmpty()) {
+            InlineCompletionItem item = new InlineCompletionItem();
+            item.setItemId("item");
+            item.setInsertText(suggestion);
+            items.add(item);
+        }
+        response.setItems(items);
+        return response;
+    }
+
+}
@@ -0,0 +1,95 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
+import software.aws.toolkits.eclipse.amazonq.lsp.AmazonQLspServer;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
+import software.aws.toolkits.eclipse.amazonq.util.InlineCompletionReplayHarness.RenderedResponse;
+import software.aws.toolkits.eclipse.amazonq.util.InlineLatencyRecorder.Stage;
+
+public final class InlineCompletionReplayTest {
+
+    @RegisterExtension
+    private static ActivatorStaticMockExtension activatorStaticMockExtension = new ActivatorStaticMockExtension();
+
+    private static final String TRACE = "inline-completion-trace.txt";
+    private static final String INITIAL_TEXT = "class Replay {\n    ";
+    private static final String TARGET_LINE = "    public static void main(String[] args) {";
+    private static final long REPLAY_TIMEOUT_MS = 5000;
+    /* One automatic trigger per typed character and the manual invocation. */
+    private static final int TRIGGER_COUNT = 8;
+
+    private final List<CompletableFuture<InlineCompletionResponse>> serverRequests = new CopyOnWriteArrayList<>();
+    private final InlineLatencyRecorder latencyRecorder = new InlineLatencyRecorder(summary -> { });
+    private final CompletableFuture<AmazonQLspServer> amazonQServer = new CompletableFuture<>();
+    private final InlineCompletionClient client = new InlineCompletionClient(
+            params -> InlineCompletionClient.sendToServer(amazonQServer, params), new InlineSuggestionCache(), latencyRecorder);
+    private final InlineCompletionReplayHarness harness = new InlineCompletionReplayHarness(client, INITIAL_TEXT);
+
+    /*
+     * The trace is replayed in real time, so how many keystrokes are debounced or
+     * answered from the cache depends on scheduling. Only the counts that hold for
+     * any timing are asserted exactly, the rest are bounded.
+     */
+    @Test
+    void testEveryTriggerIsAnsweredFromTheCacheOrThePipeline() throws Exception {
+        connect(50);
+
+        List<RenderedResponse> rendered = harness.replay(InlineCompletionReplayHarness.loadTrace(TRACE), REPLAY_TIMEOUT_MS);
+
+        assertEquals("class Replay {\n    pub", harness.getText());
+        RenderedResponse last = rendered.get(rendered.size() - 1);
+        assertEquals(harness.getLatestVersion(), last.version());
+        assertEquals("lic static void main(String[] args) {", last.response().getItems().get(0).getInsertText());
+
+        var cacheMetrics = client.getSuggestionCacheMetrics();
+        var pipelineMetrics = client.getPipelineMetrics();
+        assertEquals(TRIGGER_COUNT, cacheMetrics.lookups(), "every trigger is looked up in the cache first");
+        assertEquals(TRIGGER_COUNT, cacheMetrics.hits() + pipelineMetrics.submitted(), "a trigger missing the cache is submitted");
+        assertTrue(pipelineMetrics.submitted() >= 2, "the first keystroke and the diverging \"x\" cannot be answered from the cache");
+        assertTrue(pipelineMetrics.sent() >= 1);
+        assertTrue(pipelineMetrics.sent() + pipelineMetrics.debounced() <= pipelineMetrics.submitted());
+        assertEquals(serverRequests.size(), pipelineMetrics.sent());
+
+        var serverSummary = latencyRecorder.getSummary(Stage.REQUEST_TO_RESPONSE);
+        assertTrue(serverSummary.count() >= 1, "Responses recorded " + serverSummary.count());
+        assertTrue(serverSummary.p50() >= 50, "Server p50 was " + serverSummary.p50());
+        assertTrue(latencyRecorder.getSummary(Stage.RESPONSE_TO_UI_APPLY).count() >= rendered.size());
+    }
+
+    @Test
+    void testSlowServerResponsesAreNotRenderedStaleAndCancellationReachesTheServer() throws Exception {
+        connect(400);
+
+        List<RenderedResponse> rendered = harness.replay(InlineCompletionReplayHarness.loadTrace(TRACE), REPLAY_TIMEOUT_MS);
+
+        RenderedResponse last = rendered.get(rendered.size() - 1);
+        assertEquals(harness.getLatestVersion(), last.version());
+        assertEquals("lic static void main(String[] args) {", last.response().getItems().get(0).getInsertText());
+        assertEquals(rendered.size(), rendered.stream().map(RenderedResponse::version).distinct().count(),
+                "a document version is rendered at most once");
+
+        var pipelineMetrics = client.getPipelineMetrics();
+        assertEquals(pipelineMetrics.cancelled(), serverRequests.stream().filter(CompletableFuture::isCancelled).count(),
+                "cancellation reaches the server request");
+    }
+
+    private void connect(final long serverLatencyMs) {
+        amazonQServer.complete(harness.createScriptedServer(serverLatencyMs,
+                linePrefix -> TARGET_LINE.startsWith(linePrefix) ? TARGET_LINE.substring(linePrefix.length()) : "",
+                serverRequests));
+    }
+
+}
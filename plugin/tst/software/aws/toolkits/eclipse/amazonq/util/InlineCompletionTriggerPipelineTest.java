@@ -0,0 +1,163 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionParams;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
+import software.aws.toolkits.eclipse.amazonq.util.InlineCompletionTriggerPipeline.DocumentVersion;
+
+public final class InlineCompletionTriggerPipelineTest {
+
+    @RegisterExtension
+    private static ActivatorStaticMockExtension activatorStaticMockExtension = new ActivatorStaticMockExtension();
+
+    private final List<InlineCompletionParams> sentParams = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<InlineCompletionResponse>> sentRequests = new CopyOnWriteArrayList<>();
+    private final List<InlineCompletionResponse> receivedResponses = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testBurstOfTriggersSendsOnlyTheLatest() throws Exception {
+        InlineCompletionTriggerPipeline pipeline = createPipeline(System::currentTimeMillis, 5000);
+        InlineCompletionParams lastParams = new InlineCompletionParams();
+
+        pipeline.submit(new InlineCompletionParams(), version(1), true, receivedResponses::add);
+        pipeline.submit(new InlineCompletionParams(), version(2), true, receivedResponses::add);
+        pipeline.submit(lastParams, version(3), true, receivedResponses::add);
+
+        awaitSent(1);
+        Thread.sleep(InlineCompletionTriggerPipeline.MAX_DEBOUNCE_MS);
+
+        assertEquals(1, sentParams.size());
+        assertSame(lastParams, sentParams.get(0));
+        assertEquals(2, pipeline.getMetrics().debounced());
+    }
+
+    @Test
+    void testNewerTriggerCancelsRequestInFlight() throws Exception {
+        InlineCompletionTriggerPipeline pipeline = createPipeline(System::currentTimeMillis, 5000);
+
+        pipeline.submit(new InlineCompletionParams(), version(1), false, receivedResponses::add);
+        awaitSent(1);
+        pipeline.submit(new InlineCompletionParams(), version(2), false, receivedResponses::add);
+        awaitSent(2);
+
+        assertTrue(sentRequests.get(0).isCancelled());
+        assertEquals(1, pipeline.getMetrics().cancelled());
+
+        InlineCompletionResponse response = new InlineCompletionResponse();
+        sentRequests.get(1).complete(response);
+        assertEquals(List.of(response), receivedResponses);
+    }
+
+    @Test
+    void testOnlyLatestDocumentVersionCanBeClaimedOnce() {
+        InlineCompletionTriggerPipeline pipeline = createPipeline(System::currentTimeMillis, 5000);
+
+        pipeline.submit(new InlineCompletionParams(), version(1), true, receivedResponses::add);
+        pipeline.submit(new InlineCompletionParams(), version(2), true, receivedResponses::add);
+
+        assertFalse(pipeline.claim(version(1)));
+        assertTrue(pipeline.claim(version(2)));
+        assertFalse(pipeline.claim(version(2)));
+        assertEquals(2, pipeline.getMetrics().staleDropped());
+
+        pipeline.cancel();
+        assertFalse(pipeline.claim(version(2)));
+    }
+
+    @Test
+    void testDebounceWindowAdaptsToTypingSpeed() {
+        AtomicLong clock = new AtomicLong();
+        InlineCompletionTriggerPipeline pipeline = createPipeline(clock::get, 5000);
+
+        assertEquals(InlineCompletionTriggerPipeline.MIN_DEBOUNCE_MS, pipeline.getDebounceWindowMs());
+
+        for (int i = 0; i < 10; i++) {
+            clock.addAndGet(100);
+            pipeline.submit(new InlineCompletionParams(), version(i), true, receivedResponses::add);
+        }
+        assertEquals(150, pipeline.getDebounceWindowMs());
+
+        for (int i = 0; i < 10; i++) {
+            clock.addAndGet(InlineCompletionTriggerPipeline.PAUSE_THRESHOLD_MS);
+            pipeline.submit(new InlineCompletionParams(), version(10 + i), true, receivedResponses::add);
+        }
+        assertEquals(InlineCompletionTriggerPipeline.MIN_DEBOUNCE_MS, pipeline.getDebounceWindowMs());
+        pipeline.cancel();
+    }
+
+    @Test
+    void testRequestIsCancelledWhenTimeoutElapses() throws Exception {
+        InlineCompletionTriggerPipeline pipeline = createPipeline(System::currentTimeMillis, 20);
+
+        pipeline.submit(new InlineCompletionParams(), version(1), false, receivedResponses::add);
+        awaitSent(1);
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (!sentRequests.get(0).isCancelled() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(sentRequests.get(0).isCancelled());
+        assertTrue(receivedResponses.isEmpty());
+    }
+
+    @Test
+    void testStageTimingsAreRecorded() throws Exception {
+        InlineLatencyRecorder latencyRecorder = new InlineLatencyRecorder();
+        InlineCompletionTriggerPipeline pipeline = new InlineCompletionTriggerPipeline(params -> {
+            CompletableFuture<InlineCompletionResponse> request = new CompletableFuture<>();
+            sentRequests.add(request);
+            return request;
+        }, System::currentTimeMillis, 5000, latencyRecorder);
+
+        pipeline.submit(new InlineCompletionParams(), version(1), false, receivedResponses::add);
+        awaitSent(1);
+        Thread.sleep(30);
+        sentRequests.get(0).complete(new InlineCompletionResponse());
+        pipeline.recordUiApply(7);
+
+        long serverMs = latencyRecorder.getSummary(InlineLatencyRecorder.Stage.REQUEST_TO_RESPONSE).max();
+        assertTrue(serverMs >= 30, "Server time was " + serverMs);
+        assertEquals(1, latencyRecorder.getSummary(InlineLatencyRecorder.Stage.TRIGGER_TO_REQUEST).count());
+        assertEquals(7, latencyRecorder.getSummary(InlineLatencyRecorder.Stage.RESPONSE_TO_UI_APPLY).max());
+    }
+
+    private InlineCompletionTriggerPipeline createPipeline(final LongSupplier clock, final long timeoutMs) {
+        return new InlineCompletionTriggerPipeline(params -> {
+            CompletableFuture<InlineCompletionResponse> request = new CompletableFuture<>();
+            sentRequests.add(request);
+            sentParams.add(params);
+            return request;
+        }, clock, timeoutMs);
+    }
+
+    private void awaitSent(final int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (sentRequests.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, sentRequests.size());
+    }
+
+    private static DocumentVersion version(final long stamp) {
+        return new DocumentVersion("file:///Test.java", stamp);
+    }
+
+}
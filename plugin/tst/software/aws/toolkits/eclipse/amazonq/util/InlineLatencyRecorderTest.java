@@ -0,0 +1,53 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import software.aws.toolkits.eclipse.amazonq.util.InlineLatencyRecorder.Stage;
+
+public final class InlineLatencyRecorderTest {
+
+    private final List<String> logged = new ArrayList<>();
+    private final InlineLatencyRecorder recorder = new InlineLatencyRecorder(logged::add);
+
+    @Test
+    void testSummaryIsKeptPerStage() {
+        recorder.record(Stage.TRIGGER_TO_REQUEST, 40);
+        recorder.record(Stage.TRIGGER_TO_REQUEST, 20);
+        recorder.record(Stage.DISPLAY_TO_ACCEPT, 900);
+
+        var summary = recorder.getSummary(Stage.TRIGGER_TO_REQUEST);
+        assertEquals(2, summary.count());
+        assertEquals(20, summary.p50());
+        assertEquals(40, summary.max());
+        assertEquals(30, summary.mean());
+        assertEquals(1, recorder.getSummary(Stage.DISPLAY_TO_ACCEPT).count());
+        assertEquals(0, recorder.getSummary(Stage.RESPONSE_TO_FIRST_PAINT).count());
+        assertEquals(Stage.values().length, recorder.getSummaries().size());
+
+        recorder.reset();
+        assertEquals(0, recorder.getSummary(Stage.TRIGGER_TO_REQUEST).count());
+        assertEquals(0, recorder.getSummary(Stage.TRIGGER_TO_REQUEST).max());
+    }
+
+    @Test
+    void testSummaryIsLoggedEveryIntervalOfResponses() {
+        for (int i = 0; i < InlineLatencyRecorder.LOG_INTERVAL * 2 + 1; i++) {
+            recorder.record(Stage.REQUEST_TO_RESPONSE, i);
+            recorder.record(Stage.RESPONSE_TO_UI_APPLY, 1);
+        }
+
+        assertEquals(2, logged.size());
+        assertTrue(logged.get(1).contains(Stage.REQUEST_TO_RESPONSE.getLabel()));
+        assertTrue(recorder.format().lines().count() == Stage.values().length + 2);
+    }
+
+}
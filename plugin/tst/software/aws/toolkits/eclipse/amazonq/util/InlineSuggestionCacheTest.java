@@ -0,0 +1,217 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jface.text.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionReference;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionReferencePosition;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.LogInlineCompletionSessionResultsParams;
+
+public final class InlineSuggestionCacheTest {
+
+    @RegisterExtension
+    private static ActivatorStaticMockExtension activatorStaticMockExtension = new ActivatorStaticMockExtension();
+
+    private static final String URI = "file:///Test.java";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<LogInlineCompletionSessionResultsParams> reportedSessions = new CopyOnWriteArrayList<>();
+    private final InlineSuggestionCache cache = new InlineSuggestionCache(clock::get, reportedSessions::add);
+
+    @Test
+    void testKeyIsBuiltFromLinePrefixAndLeftContext() throws Exception {
+        Document document = new Document("class A {\n    int x = \n}");
+        int offset = document.get().indexOf("= ") + 2;
+
+        InlineSuggestionCache.Key key = InlineSuggestionCache.keyFor(URI, document, offset);
+
+        assertEquals("    int x = ", key.linePrefix());
+        assertEquals("class A {\n".hashCode(), key.leftContextHash());
+
+        Document changedAbove = new Document("class B {\n    int x = \n}");
+        assertNotEquals(key, InlineSuggestionCache.keyFor(URI, changedAbove, offset));
+    }
+
+    @Test
+    void testTypedTextMatchingASuggestionIsAnsweredLocally() {
+        cache.put(key("    int x = "), response("computeValue();", "42;"), 300);
+
+        InlineSuggestionCache.CachedSuggestions cached = cache.lookup(key("    int x = comp")).orElseThrow();
+        InlineCompletionResponse response = cached.response();
+
+        assertFalse(cached.reportsSession());
+        assertEquals(1, response.getItems().size());
+        assertEquals("uteValue();", response.getItems().get(0).getInsertText());
+        assertEquals("item-0", response.getItems().get(0).getItemId());
+        assertEquals("session", response.getSessionId());
+        assertEquals(1, cache.getMetrics().hits());
+        assertEquals(300, cache.getMetrics().savedLatencyMs());
+    }
+
+    @Test
+    void testDivergingOrFullyTypedTextMisses() {
+        cache.put(key("    int x = "), response("42;"), 300);
+
+        assertTrue(cache.lookup(key("    int x = 7")).isEmpty());
+        assertTrue(cache.lookup(key("    int x = 42;")).isEmpty());
+        assertTrue(cache.lookup(new InlineSuggestionCache.Key(URI, "    int x = 4", 0)).isEmpty());
+        assertTrue(cache.lookup(new InlineSuggestionCache.Key("file:///Other.java", "    int x = 4", 1)).isEmpty());
+
+        assertEquals(4, cache.getMetrics().lookups());
+        assertEquals(0, cache.getMetrics().hitRate());
+    }
+
+    @Test
+    void testEntriesExpire() {
+        cache.put(key("    int x = "), response("42;"), 300);
+        clock.addAndGet(InlineSuggestionCache.ENTRY_TTL_MS + 1);
+
+        assertTrue(cache.lookup(key("    int x = ")).isEmpty());
+    }
+
+    @Test
+    void testReferenceSpansMoveWithTrimmedText() {
+        InlineCompletionResponse response = response("computeValue();");
+        response.getItems().get(0).setReferences(new InlineCompletionReference[] {
+            reference("typed", 0, 4), reference("overlapping", 2, 10), reference("remaining", 8, 15)
+        });
+        cache.put(key("    int x = "), response, 300);
+
+        InlineCompletionReference[] references = cache.lookup(key("    int x = comput")).orElseThrow().response().getItems().get(0)
+                .getReferences();
+
+        assertEquals(2, references.length);
+        assertEquals("overlapping", references[0].getReferenceName());
+        assertEquals(0, references[0].getPosition().getStartCharacter());
+        assertEquals(4, references[0].getPosition().getEndCharacter());
+        assertEquals("remaining", references[1].getReferenceName());
+        assertEquals(2, references[1].getPosition().getStartCharacter());
+        assertEquals(9, references[1].getPosition().getEndCharacter());
+        assertEquals(8, response.getItems().get(0).getReferences()[2].getPosition().getStartCharacter());
+        assertNull(InlineSuggestionCache.shiftReferences(null, 3));
+    }
+
+    @Test
+    void testPrefetchedResponseIsCachedAndCountedOnHit() throws Exception {
+        prefetch(key("    "), response("return x;"));
+
+        assertTrue(cache.lookup(key("    ret")).isPresent());
+        assertEquals(1, cache.getMetrics().prefetchHits());
+    }
+
+    @Test
+    void testPrefetchedSessionIsReportedByItsFirstHitOnly() throws Exception {
+        prefetch(key("    "), response("return x;"));
+
+        assertTrue(cache.lookup(key("    r")).orElseThrow().reportsSession());
+        assertFalse(cache.lookup(key("    re")).orElseThrow().reportsSession());
+
+        cache.clear();
+        assertTrue(reportedSessions.isEmpty());
+    }
+
+    @Test
+    void testUnshownPrefetchedSessionIsReportedAsDiscarded() throws Exception {
+        prefetch(key("    "), response("return x;", "break;"));
+
+        clock.addAndGet(InlineSuggestionCache.ENTRY_TTL_MS + 1);
+        assertTrue(cache.lookup(key("    ret")).isEmpty());
+
+        assertEquals(1, reportedSessions.size());
+        LogInlineCompletionSessionResultsParams result = reportedSessions.get(0);
+        assertEquals("session", result.getSessionId());
+        assertEquals(2, result.getCompletionSessionResult().size());
+        result.getCompletionSessionResult().values().forEach(state -> {
+            assertTrue(state.isDiscarded());
+            assertFalse(state.isSeen());
+            assertFalse(state.isAccepted());
+        });
+    }
+
+    @Test
+    void testRegularSessionsAreNeverReportedByTheCache() {
+        cache.put(key("    int x = "), response("42;"), 300);
+        clock.addAndGet(InlineSuggestionCache.ENTRY_TTL_MS + 1);
+        cache.lookup(key("    int x = "));
+        cache.put(key("    int y = "), response("42;"), 300);
+        cache.clear();
+
+        assertTrue(reportedSessions.isEmpty());
+    }
+
+    @Test
+    void testNewPrefetchCancelsPreviousOne() throws Exception {
+        CompletableFuture<InlineCompletionResponse> first = new CompletableFuture<>();
+        cache.prefetch(key("a"), () -> first);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (cache.getMetrics().prefetches() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        cache.prefetch(key("b"), CompletableFuture::new);
+
+        assertTrue(first.isCancelled());
+        assertFalse(cache.lookup(key("a")).isPresent());
+    }
+
+    private void prefetch(final InlineSuggestionCache.Key key, final InlineCompletionResponse response) throws Exception {
+        CompletableFuture<InlineCompletionResponse> request = new CompletableFuture<>();
+        long prefetches = cache.getMetrics().prefetches();
+        cache.prefetch(key, () -> request);
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (cache.getMetrics().prefetches() == prefetches && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        request.complete(response);
+    }
+
+    private static InlineCompletionReference reference(final String name, final int start, final int end) {
+        InlineCompletionReferencePosition position = new InlineCompletionReferencePosition();
+        position.setStartCharacter(start);
+        position.setEndCharacter(end);
+        InlineCompletionReference reference = new InlineCompletionReference();
+        reference.setReferenceName(name);
+        reference.setPosition(position);
+        return reference;
+    }
+
+    private static InlineSuggestionCache.Key key(final String linePrefix) {
+        return new InlineSuggestionCache.Key(URI, linePrefix, 1);
+    }
+
+    private static InlineCompletionResponse response(final String... insertTexts) {
+        InlineCompletionResponse response = new InlineCompletionResponse();
+        response.setSessionId("session");
+        List<InlineCompletionItem> items = new ArrayList<>();
+        for (int i = 0; i < insertTexts.length; i++) {
+            InlineCompletionItem item = new InlineCompletionItem();
+            item.setItemId("item-" + i);
+            item.setInsertText(insertTexts[i]);
+            items.add(item);
+        }
+        response.setItems(items);
+        return response;
+    }
+
+}
@@ -13,6 +13,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.mockito.Mock;
 import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -167,4 +168,31 @@ public class JsonHandlerTest {
         verify(mockNode).has(key);
         verify(mockNode, never()).get(key);
     }
+
+    @Test
+    public void testGetValueForKeyOnTreeDoesNotConvert() {
+        ObjectNode mockNode = mock(ObjectNode.class);
+        JsonNode mockJsonNode = mock(JsonNode.class);
+
+        when(mockNode.has("outer")).thenReturn(true);
+        when(mockNode.get("outer")).thenReturn(mockJsonNode);
+        when(mockJsonNode.has("inner")).thenReturn(true);
+        when(mockJsonNode.get("inner")).thenReturn(mockJsonNode);
+        JsonNode result = jsonHandler.getValueForKey(mockNode, "outer.inner");
+
+        assertEquals(mockJsonNode, result);
+        verify(mockObjectMapper, never()).valueToTree(any());
+    }
+
+    @Test
+    public void testAddValueForKeyAttachesTreeValueInPlace() {
+        ObjectNode mockNode = mock(ObjectNode.class);
+        JsonNode valueNode = mock(JsonNode.class);
+
+        JsonNode result = jsonHandler.addValueForKey(mockNode, "context", valueNode);
+
+        assertEquals(mockNode, result);
+        verify(mockNode).set("context", valueNode);
+        verify(mockObjectMapper, never()).valueToTree(any());
+    }
 }
@@ -0,0 +1,58 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public final class LatencyHistogramTest {
+
+    @Test
+    void testBucketsKeepValuesWithinRelativePrecision() {
+        for (long value : new long[] {0, 1, 31, 32, 33, 100, 1000, 12345, 1_000_000, LatencyHistogram.MAX_TRACKABLE_VALUE}) {
+            long equivalent = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexFor(value));
+            assertTrue(equivalent >= value, value + " reported as " + equivalent);
+            assertTrue(equivalent - value <= Math.max(0, value / 32), value + " reported as " + equivalent);
+        }
+    }
+
+    @Test
+    void testPercentilesOfUniformDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.getTotalCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500, histogram.getMean());
+        assertWithinPrecision(500, histogram.getValueAtPercentile(50));
+        assertWithinPrecision(900, histogram.getValueAtPercentile(90));
+        assertWithinPrecision(990, histogram.getValueAtPercentile(99));
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testOutliersAndResetAreHandled() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean());
+    }
+
+    private static void assertWithinPrecision(final long expected, final long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 32, "expected about " + expected + " but was " + actual);
+    }
+
+}
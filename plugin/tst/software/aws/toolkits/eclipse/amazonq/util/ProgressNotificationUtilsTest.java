@@ -0,0 +1,49 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+
+import org.eclipse.lsp4j.ProgressParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+public class ProgressNotificationUtilsTest {
+
+    @Test
+    void testGetTokenFromStringAndNumber() {
+        assertEquals("token", ProgressNotificationUtils.getToken(new ProgressParams(Either.forLeft("token"), Either.forRight(null))));
+        assertEquals("42", ProgressNotificationUtils.getToken(new ProgressParams(Either.forRight(42), Either.forRight(null))));
+    }
+
+    @Test
+    void testGetObjectReturnsStringPayloadDirectly() {
+        ProgressParams params = new ProgressParams(Either.forLeft("token"), Either.forRight(new JsonPrimitive("encrypted.jwe.payload")));
+
+        assertEquals("encrypted.jwe.payload", ProgressNotificationUtils.getObject(params, String.class));
+    }
+
+    @Test
+    void testGetObjectDeserializesJsonObject() {
+        JsonObject value = new JsonObject();
+        value.addProperty("body", "text");
+        ProgressParams params = new ProgressParams(Either.forLeft("token"), Either.forRight(value));
+
+        assertEquals(Map.of("body", "text"), ProgressNotificationUtils.getObject(params, Map.class));
+    }
+
+    @Test
+    void testGetObjectWithNonJsonValue() {
+        ProgressParams params = new ProgressParams(Either.forLeft("token"), Either.forRight(new Object()));
+
+        assertNull(ProgressNotificationUtils.getObject(params, String.class));
+    }
+
+}
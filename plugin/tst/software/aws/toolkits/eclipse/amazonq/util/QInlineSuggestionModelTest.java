@@ -0,0 +1,100 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import software.aws.toolkits.eclipse.amazonq.util.QInlineSuggestionModel.BracketPair;
+
+public final class QInlineSuggestionModelTest {
+
+    @Test
+    void testLinesAreConsistentWithSplittingTheSuggestion() {
+        for (String text : List.of("a", "", "a\nb", "a\r\nb\r\n", "a\n\nb\n\n", "  x\n\ty")) {
+            QInlineSuggestionModel model = new QInlineSuggestionModel(text);
+            String[] lines = text.split("\\R");
+
+            assertEquals(lines.length, model.getLineCount(), text);
+            for (int i = 0; i < lines.length; i++) {
+                assertEquals(lines[i], model.getLine(i));
+                assertEquals(lines[i], text.substring(model.getLineStart(i), model.getLineStart(i) + lines[i].length()));
+            }
+        }
+    }
+
+    @Test
+    void testBracketPairsAndRenderedLines() {
+        String text = "if (a < b) {\n    foo(\"x\");\n}";
+        QInlineSuggestionModel model = new QInlineSuggestionModel(text);
+
+        List<BracketPair> pairs = model.getBracketPairs();
+        assertEquals(4, pairs.size());
+        assertEquals(new BracketPair(text.indexOf('('), 0, text.indexOf(')'), 0), pairs.get(0));
+        assertEquals(new BracketPair(text.indexOf('"'), 1, text.lastIndexOf('"'), 1), pairs.get(1));
+        assertEquals(new BracketPair(text.indexOf('{'), 0, text.indexOf('}'), 2), pairs.get(3));
+
+        assertEquals("if (a < b  {", model.getRenderedLine(0));
+        assertEquals("    foo(\"x  ;", model.getRenderedLine(1));
+        assertEquals(" ", model.getRenderedLine(2));
+        assertEquals("    ", model.getLineIndent(1));
+    }
+
+    @Test
+    void testMismatchedCloseBracketDiscardsTheOpenBracket() {
+        QInlineSuggestionModel model = new QInlineSuggestionModel("(]x)");
+
+        assertTrue(model.getBracketPairs().isEmpty());
+        assertEquals("(]x)", model.getRenderedLine(0));
+    }
+
+    @Test
+    void testLookups() {
+        QInlineSuggestionModel model = new QInlineSuggestionModel("foo {\n  bar\n}");
+
+        assertEquals(5, model.getNextLineFeed(4));
+        assertEquals(11, model.getNextLineFeed(6));
+        assertEquals(-1, model.getNextLineFeed(12));
+        assertEquals(0, model.getLineOfIndex(5));
+        assertEquals(1, model.getLineOfIndex(6));
+        assertEquals(2, model.getLineOfIndex(12));
+        assertTrue(model.matches(6, "  b"));
+        assertFalse(model.matches(6, "bar"));
+        assertFalse(model.matches(12, "}}"));
+        assertFalse(model.matches(0, ""));
+    }
+
+    @Test
+    void testTypingThroughASuggestionMatchesEveryCharacter() {
+        String suggestion = "values.put(\"key\", compute(List.of(1), 'c'));\r\n    return values;";
+        QInlineSuggestionModel model = new QInlineSuggestionModel(suggestion);
+
+        for (int i = 0; i < suggestion.length(); i++) {
+            assertTrue(model.matches(i, String.valueOf(suggestion.charAt(i))), "diverged at " + i);
+        }
+        assertFalse(model.matches(suggestion.length(), ";"));
+        assertFalse(model.matches(suggestion.indexOf('c'), "x"));
+    }
+
+    @Test
+    void testRenderedLinesBlankOnlyPairedCloseBrackets() {
+        String text = "foo(bar(\n  1)) {\n}";
+        QInlineSuggestionModel model = new QInlineSuggestionModel(text);
+
+        List<BracketPair> pairs = model.getBracketPairs();
+        assertEquals(3, pairs.size());
+        assertEquals(new BracketPair(text.indexOf("bar(") + 3, 0, text.indexOf(')'), 1), pairs.get(0));
+        assertEquals(new BracketPair(text.indexOf('('), 0, text.lastIndexOf(')'), 1), pairs.get(1));
+        assertEquals("foo(bar(", model.getRenderedLine(0));
+        assertEquals("  1   {", model.getRenderedLine(1));
+        assertEquals(" ", model.getRenderedLine(2));
+        assertEquals(text, model.getText());
+    }
+
+}
@@ -0,0 +1,127 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import software.aws.toolkits.eclipse.amazonq.extensions.implementation.ActivatorStaticMockExtension;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils.Subsystem;
+
+public final class ThreadingUtilsTest {
+
+    @RegisterExtension
+    private static ActivatorStaticMockExtension activatorStaticMockExtension = new ActivatorStaticMockExtension();
+
+    private static final String SIZE_PROPERTY = ThreadingUtils.PROPERTY_PREFIX + "test.size";
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(SIZE_PROPERTY);
+    }
+
+    @Test
+    void testSubsystemTasksRunOnNamedThreads() throws Exception {
+        CompletableFuture<String> threadName = new CompletableFuture<>();
+
+        ThreadingUtils.executeAsyncTask(Subsystem.MAINTENANCE, () -> threadName.complete(Thread.currentThread().getName()));
+
+        assertTrue(threadName.get(5, TimeUnit.SECONDS).startsWith("amazonq-maintenance-"));
+    }
+
+    @Test
+    void testDelayedSubsystemTaskRunsOnSubsystemExecutor() throws Exception {
+        CompletableFuture<String> threadName = new CompletableFuture<>();
+
+        ThreadingUtils.scheduleAsyncTaskWithDelay(Subsystem.CHAT_IO, () -> threadName.complete(Thread.currentThread().getName()), 10);
+
+        assertTrue(threadName.get(5, TimeUnit.SECONDS).startsWith("amazonq-chat-io-"));
+    }
+
+    @Test
+    void testDelayedTaskWithoutSubsystemRunsOnWorkerPool() throws Exception {
+        CompletableFuture<String> threadName = new CompletableFuture<>();
+
+        ThreadingUtils.scheduleAsyncTaskWithDelay(() -> threadName.complete(Thread.currentThread().getName()), 10);
+
+        assertTrue(threadName.get(5, TimeUnit.SECONDS).startsWith("pool-"));
+    }
+
+    @Test
+    void testSaturatedExecutorParksTasksInOrderWithoutBlocking() throws Exception {
+        var executor = ThreadingUtils.createPooledExecutor("test", 1, 1);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(5);
+            List<Integer> order = new CopyOnWriteArrayList<>();
+            executor.execute(() -> {
+                awaitQuietly(release);
+                done.countDown();
+            });
+            for (int i = 0; i < 4; i++) {
+                int task = i;
+                executor.execute(() -> {
+                    order.add(task);
+                    done.countDown();
+                });
+            }
+
+            var saturated = executor.getMetrics();
+            assertEquals(1, saturated.queueDepth());
+            assertEquals(3, saturated.overflowDepth());
+            assertEquals(3, saturated.overflowedTasks());
+
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(0, 1, 2, 3), order);
+            assertEquals(0, executor.getMetrics().overflowDepth());
+            assertEquals(0, executor.getMetrics().droppedTasks());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testTasksSubmittedAfterShutdownAreCountedAsDropped() {
+        var executor = ThreadingUtils.createPooledExecutor("test", 1, 1);
+        executor.shutdown();
+
+        executor.execute(() -> { });
+
+        assertEquals(1, executor.getMetrics().droppedTasks());
+    }
+
+    @Test
+    void testPositiveIntegerProperty() {
+        assertEquals(3, ThreadingUtils.getPositiveIntegerProperty(SIZE_PROPERTY, 3));
+
+        System.setProperty(SIZE_PROPERTY, "8");
+        assertEquals(8, ThreadingUtils.getPositiveIntegerProperty(SIZE_PROPERTY, 3));
+
+        System.setProperty(SIZE_PROPERTY, "0");
+        assertEquals(3, ThreadingUtils.getPositiveIntegerProperty(SIZE_PROPERTY, 3));
+
+        System.setProperty(SIZE_PROPERTY, "many");
+        assertEquals(3, ThreadingUtils.getPositiveIntegerProperty(SIZE_PROPERTY, 3));
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.jupiter.api.Test;
+
+public final class ChatUiMessageDispatcherTest {
+
+    private final Queue<Runnable> uiQueue = new ArrayDeque<>();
+    private final List<String> scripts = new ArrayList<>();
+    private final ChatUiMessageDispatcher dispatcher = new ChatUiMessageDispatcher(uiQueue::add, scripts::add);
+
+    @Test
+    void testBurstIsDrainedInSingleScript() {
+        dispatcher.dispatch("{\"command\":\"a\"}");
+        dispatcher.dispatch("{\"command\":\"b\"}");
+        dispatcher.dispatch("{\"command\":\"c\"}");
+
+        assertEquals(1, uiQueue.size());
+        runUiQueue();
+
+        assertEquals(List.of(ChatUiMessageDispatcher.buildScript("[{\"command\":\"a\"},{\"command\":\"b\"},{\"command\":\"c\"}]")), scripts);
+    }
+
+    @Test
+    void testMessagesAfterDrainScheduleNewBatch() {
+        dispatcher.dispatch("1");
+        runUiQueue();
+        dispatcher.dispatch("2");
+        runUiQueue();
+
+        assertEquals(List.of(ChatUiMessageDispatcher.buildScript("[1]"), ChatUiMessageDispatcher.buildScript("[2]")), scripts);
+    }
+
+    @Test
+    void testLargeBurstIsSplitIntoBoundedBatchesInOrder() {
+        int total = ChatUiMessageDispatcher.MAX_MESSAGES_PER_BATCH + 1;
+        for (int i = 0; i < total; i++) {
+            dispatcher.dispatch(String.valueOf(i));
+        }
+
+        runUiQueue();
+
+        assertEquals(2, scripts.size());
+        assertTrue(scripts.get(0).startsWith("[0,1,"));
+        assertEquals(ChatUiMessageDispatcher.buildScript("[" + (total - 1) + "]"), scripts.get(1));
+    }
+
+    @Test
+    void testScriptPostsEachMessageInOrder() {
+        assertEquals("[{\"a\":1},{\"b\":2}].forEach(message => window.postMessage(message));",
+                ChatUiMessageDispatcher.buildScript("[{\"a\":1},{\"b\":2}]"));
+    }
+
+    private void runUiQueue() {
+        Runnable runnable;
+        while ((runnable = uiQueue.poll()) != null) {
+            runnable.run();
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.workspace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.FileCreate;
+import org.eclipse.lsp4j.FileDelete;
+import org.eclipse.lsp4j.FileRename;
+import org.junit.jupiter.api.Test;
+
+public final class FileEventCoalescerTest {
+
+    private static final String A = "file:///ws/project/A.java";
+    private static final String B = "file:///ws/project/B.java";
+    private static final String C = "file:///ws/project/C.java";
+
+    private final FileEventCoalescer coalescer = new FileEventCoalescer();
+
+    @Test
+    void testDistinctEventsAreBatchedByKind() {
+        coalescer.created(A);
+        coalescer.deleted(B);
+        coalescer.renamed(C, "file:///ws/project/D.java");
+        coalescer.created("file:///ws/project/E.java");
+
+        var batch = coalescer.drain();
+
+        assertEquals(List.of(new FileCreate(A), new FileCreate("file:///ws/project/E.java")), batch.created());
+        assertEquals(List.of(new FileDelete(B)), batch.deleted());
+        assertEquals(List.of(new FileRename(C, "file:///ws/project/D.java")), batch.renamed());
+        assertEquals(4, batch.receivedCount());
+        assertEquals(0, batch.mergedCount());
+        assertEquals(3, batch.notificationCount());
+    }
+
+    @Test
+    void testCreateFollowedByDeleteIsDropped() {
+        coalescer.created(A);
+        coalescer.deleted(A);
+
+        var batch = coalescer.drain();
+
+        assertTrue(batch.isEmpty());
+        assertEquals(2, batch.receivedCount());
+        assertEquals(1, batch.mergedCount());
+    }
+
+    @Test
+    void testDeleteFollowedByCreateIsDropped() {
+        coalescer.deleted(A);
+        coalescer.created(A);
+
+        assertTrue(coalescer.drain().isEmpty());
+    }
+
+    @Test
+    void testDuplicateEventsAreSentOnce() {
+        coalescer.created(A);
+        coalescer.created(A);
+        coalescer.deleted(B);
+        coalescer.deleted(B);
+
+        var batch = coalescer.drain();
+
+        assertEquals(List.of(new FileCreate(A)), batch.created());
+        assertEquals(List.of(new FileDelete(B)), batch.deleted());
+        assertEquals(2, batch.mergedCount());
+    }
+
+    @Test
+    void testRenamesAreFoldedIntoEarlierEvents() {
+        coalescer.created(A);
+        coalescer.renamed(A, B);
+        assertEquals(List.of(new FileCreate(B)), coalescer.drain().created());
+
+        coalescer.renamed(A, B);
+        coalescer.renamed(B, C);
+        assertEquals(List.of(new FileRename(A, C)), coalescer.drain().renamed());
+
+        coalescer.renamed(A, B);
+        coalescer.renamed(B, A);
+        assertTrue(coalescer.drain().isEmpty());
+
+        coalescer.renamed(A, B);
+        coalescer.deleted(B);
+        var batch = coalescer.drain();
+        assertEquals(List.of(new FileDelete(A)), batch.deleted());
+        assertTrue(batch.renamed().isEmpty());
+    }
+
+    @Test
+    void testDrainStartsANewWindow() {
+        coalescer.created(A);
+        coalescer.filtered(5);
+
+        assertEquals(5, coalescer.drain().filteredCount());
+        assertTrue(coalescer.isEmpty());
+
+        var batch = coalescer.drain();
+        assertTrue(batch.isEmpty());
+        assertEquals(0, batch.receivedCount());
+        assertEquals(0, batch.filteredCount());
+    }
+
+}
@@ -0,0 +1,123 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.workspace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.lsp4j.FileCreate;
+import org.eclipse.lsp4j.FileDelete;
+import org.eclipse.lsp4j.FileRename;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class WorkspaceChangeListenerTest {
+
+    private final FileEventCoalescer coalescer = new FileEventCoalescer();
+    private final WorkspaceChangeListener listener = new WorkspaceChangeListener(coalescer);
+    private final WorkspaceResourceFilter filter = new WorkspaceResourceFilter(WorkspaceChangeListener.DEFAULT_EXCLUDE_GLOBS);
+    private final IWorkspaceRoot root = mock(IWorkspaceRoot.class);
+
+    @BeforeEach
+    void setUp() {
+        when(root.getFile(any())).thenAnswer(invocation -> mockFile(invocation.getArgument(0), false));
+    }
+
+    @Test
+    void testMoveBetweenIncludedFoldersIsARename() {
+        listener.trackChange(movedDelta(IResourceDelta.ADDED, "/project/src/B.java", "/project/src/A.java"), filter);
+
+        var batch = coalescer.drain();
+
+        assertEquals(List.of(new FileRename(uri("/project/src/A.java"), uri("/project/src/B.java"))), batch.renamed());
+    }
+
+    @Test
+    void testMoveIntoExcludedFolderIsADeletion() {
+        IFile movedFile = mockFile(new Path("/project/target/A.java"), true);
+        when(root.findMember(new Path("/project/target/A.java"))).thenReturn(movedFile);
+
+        listener.trackChange(movedDelta(IResourceDelta.REMOVED, "/project/src/A.java", "/project/target/A.java"), filter);
+
+        var batch = coalescer.drain();
+        assertEquals(List.of(new FileDelete(uri("/project/src/A.java"))), batch.deleted());
+        assertTrue(batch.renamed().isEmpty());
+    }
+
+    @Test
+    void testMoveIntoDerivedFolderIsADeletion() {
+        IFile movedFile = mockFile(new Path("/project/gen/A.java"), true);
+        when(root.findMember(new Path("/project/gen/A.java"))).thenReturn(movedFile);
+
+        listener.trackChange(movedDelta(IResourceDelta.REMOVED, "/project/src/A.java", "/project/gen/A.java"), filter);
+
+        assertEquals(List.of(new FileDelete(uri("/project/src/A.java"))), coalescer.drain().deleted());
+    }
+
+    @Test
+    void testMoveOutOfExcludedFolderIsACreation() {
+        listener.trackChange(movedDelta(IResourceDelta.ADDED, "/project/src/A.java", "/project/target/classes/A.java"), filter);
+
+        var batch = coalescer.drain();
+        assertEquals(List.of(new FileCreate(uri("/project/src/A.java"))), batch.created());
+        assertTrue(batch.renamed().isEmpty());
+    }
+
+    @Test
+    void testMoveOutOfDerivedFolderIsACreation() {
+        IResource derivedFolder = mock(IResource.class);
+        when(derivedFolder.isDerived(IResource.CHECK_ANCESTORS)).thenReturn(true);
+        when(root.findMember(new Path("/project/gen"))).thenReturn(derivedFolder);
+
+        listener.trackChange(movedDelta(IResourceDelta.ADDED, "/project/src/A.java", "/project/gen/A.java"), filter);
+
+        assertEquals(List.of(new FileCreate(uri("/project/src/A.java"))), coalescer.drain().created());
+    }
+
+    private IResourceDelta movedDelta(final int kind, final String fullPath, final String otherPath) {
+        IFile file = mockFile(new Path(fullPath), false);
+        IWorkspace workspace = mock(IWorkspace.class);
+        when(workspace.getRoot()).thenReturn(root);
+        when(file.getWorkspace()).thenReturn(workspace);
+
+        IResourceDelta delta = mock(IResourceDelta.class);
+        when(delta.getResource()).thenReturn(file);
+        when(delta.getKind()).thenReturn(kind);
+        if (kind == IResourceDelta.ADDED) {
+            when(delta.getFlags()).thenReturn(IResourceDelta.MOVED_FROM);
+            when(delta.getMovedFromPath()).thenReturn(new Path(otherPath));
+        } else {
+            when(delta.getFlags()).thenReturn(IResourceDelta.MOVED_TO);
+            when(delta.getMovedToPath()).thenReturn(new Path(otherPath));
+        }
+        return delta;
+    }
+
+    private static IFile mockFile(final IPath fullPath, final boolean isDerived) {
+        IFile file = mock(IFile.class);
+        when(file.getType()).thenReturn(IResource.FILE);
+        when(file.getFullPath()).thenReturn(fullPath);
+        when(file.getLocationURI()).thenReturn(URI.create(uri(fullPath.toString())));
+        when(file.isDerived(IResource.CHECK_ANCESTORS)).thenReturn(isDerived);
+        return file;
+    }
+
+    private static String uri(final String fullPath) {
+        return "file:/workspace" + fullPath;
+    }
+
+}
@@ -0,0 +1,70 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.workspace;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.Path;
+import org.junit.jupiter.api.Test;
+
+public final class WorkspaceResourceFilterTest {
+
+    private final WorkspaceResourceFilter filter = new WorkspaceResourceFilter(WorkspaceChangeListener.DEFAULT_EXCLUDE_GLOBS);
+
+    @Test
+    void testDefaultGlobsExcludeBuildOutputAndMetadata() {
+        assertTrue(filter.isExcluded("project/target"));
+        assertTrue(filter.isExcluded("project/.git"));
+        assertTrue(filter.isExcluded("project/web/node_modules"));
+        assertTrue(filter.isExcluded("project/bin"));
+
+        assertFalse(filter.isExcluded("project/src/Target.java"));
+        assertFalse(filter.isExcluded("project/src/main/java"));
+        assertFalse(filter.isExcluded("project"));
+    }
+
+    @Test
+    void testGlobsAreConfigurable() {
+        var custom = new WorkspaceResourceFilter(" **/build , **/*.class,");
+
+        assertTrue(custom.isExcluded("project/build"));
+        assertTrue(custom.isExcluded("project/src/A.class"));
+        assertFalse(custom.isExcluded("project/target"));
+        assertFalse(new WorkspaceResourceFilter("").isExcluded("project/target"));
+    }
+
+    @Test
+    void testDerivedAndTeamPrivateResourcesAreExcluded() {
+        assertTrue(filter.isExcluded(mockResource("/project/gen", true, false)));
+        assertTrue(filter.isExcluded(mockResource("/project/.svn", false, true)));
+        assertTrue(filter.isExcluded(mockResource("/project/target", false, false)));
+        assertFalse(filter.isExcluded(mockResource("/project/src/A.java", false, false)));
+    }
+
+    @Test
+    void testMovedPathIsExcludedByAncestorGlobOrNearestExistingMember() {
+        IWorkspaceRoot root = mock(IWorkspaceRoot.class);
+        IResource derivedFolder = mockResource("/project/gen", true, false);
+        when(root.findMember(new Path("/project/gen"))).thenReturn(derivedFolder);
+
+        assertTrue(filter.isExcluded(root, new Path("/project/target/classes/A.class")));
+        assertTrue(filter.isExcluded(root, new Path("/project/gen/A.java")));
+        assertFalse(filter.isExcluded(root, new Path("/project/src/A.java")));
+        assertFalse(filter.isExcluded("project/target/classes/A.class"));
+    }
+
+    private static IResource mockResource(final String fullPath, final boolean isDerived, final boolean isTeamPrivate) {
+        IResource resource = mock(IResource.class);
+        when(resource.isDerived(IResource.CHECK_ANCESTORS)).thenReturn(isDerived);
+        when(resource.isTeamPrivateMember(IResource.CHECK_ANCESTORS)).thenReturn(isTeamPrivate);
+        when(resource.getFullPath()).thenReturn(new Path(fullPath));
+        return resource;
+    }
+
+}